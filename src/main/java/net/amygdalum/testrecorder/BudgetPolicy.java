@@ -0,0 +1,30 @@
+package net.amygdalum.testrecorder;
+
+/**
+ * Specifies how snapshots are handled if the memory budget for in-flight snapshots (see {@link SnapshotBudget}) is exceeded.
+ */
+public enum BudgetPolicy {
+
+	/**
+	 * the new snapshot is discarded
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * the oldest in-flight snapshots are discarded until the new snapshot fits into the budget
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * new snapshots are serialized shallow (objects beyond a fixed depth are not serialized) while the budget is exceeded.
+	 * Snapshots exceeding the budget nevertheless are discarded
+	 */
+	DEGRADE,
+
+	/**
+	 * the thread delivering the snapshot waits until the snapshot fits into the budget (at most for the configured timeout).
+	 * Snapshots that still do not fit are discarded
+	 */
+	BLOCK;
+
+}
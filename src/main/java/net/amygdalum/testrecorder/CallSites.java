@@ -0,0 +1,50 @@
+package net.amygdalum.testrecorder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the call sites of native input/output methods. Call sites are registered at instrumentation time (where class,
+ * method and line of the caller are known) and referenced by id at run time, so recording an interaction does not need to
+ * inspect the stack.
+ *
+ * The id {@link #UNKNOWN} denotes a call site that is not known at instrumentation time.
+ */
+public final class CallSites {
+
+	public static final int UNKNOWN = 0;
+
+	private static final Map<StackTraceElement, Integer> ids = new HashMap<>();
+	private static volatile StackTraceElement[] sites = new StackTraceElement[16];
+	private static int next = 1;
+
+	private CallSites() {
+	}
+
+	public static synchronized int register(String className, String methodName, String fileName, int line) {
+		StackTraceElement site = new StackTraceElement(className, methodName, fileName, line);
+		Integer id = ids.get(site);
+		if (id != null) {
+			return id;
+		}
+		int newId = next++;
+		StackTraceElement[] current = sites;
+		if (newId >= current.length) {
+			current = Arrays.copyOf(current, current.length * 2);
+		}
+		current[newId] = site;
+		sites = current;
+		ids.put(site, newId);
+		return newId;
+	}
+
+	public static StackTraceElement get(int id) {
+		StackTraceElement[] current = sites;
+		if (id <= UNKNOWN || id >= current.length) {
+			return null;
+		}
+		return current[id];
+	}
+
+}
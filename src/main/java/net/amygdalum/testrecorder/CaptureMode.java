@@ -0,0 +1,33 @@
+package net.amygdalum.testrecorder;
+
+/**
+ * Specifies how the state of a recorded method is captured.
+ */
+public enum CaptureMode {
+
+	/**
+	 * the recorded thread waits until setup/expect state is serialized (default). This guarantees consistent snapshots
+	 * but every recorded call pays the latency of serialization.
+	 */
+	SYNCHRONOUS,
+
+	/**
+	 * the recorded thread only schedules serialization and returns immediately. The resulting snapshot is delivered
+	 * to the snapshot consumer as soon as serialization has completed.
+	 *
+	 * Note that serialization is done concurrently to the recorded thread, so objects modified by the recorded thread
+	 * (after the recorded call or at the same time) may be serialized in a modified state.
+	 */
+	ASYNCHRONOUS,
+
+	/**
+	 * the recorded thread copies setup/expect state (and the arguments/results of input/output) and schedules serialization of the
+	 * copy. Copying is cheaper than serializing (arrays are cloned, known collections are copied in bulk, objects field by field),
+	 * so the recorded thread is blocked shorter than in synchronous mode, at the cost of some additional allocations.
+	 *
+	 * Note that objects not copied (e.g. objects of jdk classes besides arrays and collections) are serialized concurrently to the
+	 * recorded thread, as in asynchronous mode.
+	 */
+	COPY_ON_CAPTURE;
+
+}
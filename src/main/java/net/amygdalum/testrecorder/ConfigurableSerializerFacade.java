@@ -9,24 +9,18 @@ import static net.amygdalum.testrecorder.util.Types.isLiteral;
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.ServiceConfigurationError;
-import java.util.ServiceLoader;
 import java.util.stream.IntStream;
-import java.util.stream.StreamSupport;
 
-import net.amygdalum.testrecorder.profile.Classes;
-import net.amygdalum.testrecorder.profile.Fields;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
 import net.amygdalum.testrecorder.profile.SerializationProfile;
-import net.amygdalum.testrecorder.profile.SerializationProfile.Excluded;
-import net.amygdalum.testrecorder.serializers.ArraySerializer;
-import net.amygdalum.testrecorder.serializers.EnumSerializer;
+import net.amygdalum.testrecorder.serializers.CompiledSerializer;
 import net.amygdalum.testrecorder.serializers.GenericSerializer;
-import net.amygdalum.testrecorder.serializers.LambdaSerializer;
 import net.amygdalum.testrecorder.serializers.SerializerFacade;
-import net.amygdalum.testrecorder.serializers.SerializerFactory;
+import net.amygdalum.testrecorder.types.SerializationCancelledException;
 import net.amygdalum.testrecorder.types.SerializationException;
 import net.amygdalum.testrecorder.types.SerializedReferenceType;
 import net.amygdalum.testrecorder.types.SerializedValue;
@@ -35,50 +29,111 @@ import net.amygdalum.testrecorder.util.Lambdas;
 import net.amygdalum.testrecorder.values.SerializedField;
 import net.amygdalum.testrecorder.values.SerializedLiteral;
 import net.amygdalum.testrecorder.values.SerializedNull;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+import net.amygdalum.testrecorder.values.SpillStore;
 
 public class ConfigurableSerializerFacade implements SerializerFacade {
 
+	private static final int DEADLINE_CHECK_INTERVAL = 64;
+
 	private Map<Class<?>, Serializer<?>> serializers;
 	private Map<Object, SerializedValue> serialized;
-	private List<Classes> classExclusions;
-	private List<Fields> fieldExclusions;
+	private Map<Object, Object> originals;
+	private SerializationPlans plans;
+	private SerializationLimits limits;
+	private SerializationBaseline baseline;
+	private SharedSerializations shared;
+	private Map<Object, Boolean> sharedChanged;
+	private boolean recording;
+	private int depth;
+	private int nodes;
+	private long deadline;
+	private int deadlineChecks;
+	private volatile boolean cancelled;
 
 	public ConfigurableSerializerFacade(SerializationProfile profile) {
-		serializers = setupSerializers(this);
-		serialized = new IdentityHashMap<>();
-		classExclusions = profile.getClassExclusions();
-		fieldExclusions = profile.getFieldExclusions();
+		this(profile, profile.getSerializationLimits());
 	}
 
-	@SuppressWarnings("rawtypes")
-	private static Map<Class<?>, Serializer<?>> setupSerializers(SerializerFacade facade) {
-		IdentityHashMap<Class<?>, Serializer<?>> serializers = new IdentityHashMap<>();
-		try {
-			ServiceLoader<SerializerFactory> loader = ServiceLoader.load(SerializerFactory.class);
-
-			StreamSupport.stream(loader.spliterator(), false)
-				.map(factory -> (Serializer<?>) factory.newSerializer(facade))
-				.forEach(serializer -> {
-					for (Class<?> clazz : serializer.getMatchingClasses()) {
-						serializers.put(clazz, serializer);
-					}
-				});
-		} catch (ServiceConfigurationError serviceError) {
-			Logger.warn("failed loading serializers: " + serviceError.getMessage());
-		}
+	/**
+	 * creates a facade serializing objects within the given limits. Objects exceeding these limits are serialized as placeholders, collections
+	 * and arrays exceeding these limits are truncated.
+	 * 
+	 * @param profile the serialization profile
+	 * @param limits the limits overriding the limits of the profile
+	 */
+	public ConfigurableSerializerFacade(SerializationProfile profile, SerializationLimits limits) {
+		this(limits, new SerializationPlans(profile));
+	}
 
-		return serializers;
+	/**
+	 * creates a facade serializing objects within the given limits, sharing the (cached) serialization plans with other facades.
+	 * 
+	 * @param limits the limits of serialization
+	 * @param plans the serialization plans derived from the profile of serialization
+	 */
+	public ConfigurableSerializerFacade(SerializationLimits limits, SerializationPlans plans) {
+		this.serializers = new IdentityHashMap<>();
+		this.serialized = new IdentityHashMap<>();
+		this.originals = new IdentityHashMap<>();
+		this.plans = plans;
+		this.limits = limits;
+		this.shared = plans.sharedSerializations();
+		this.sharedChanged = new IdentityHashMap<>();
+		if (plans.serializesIncrementally()) {
+			this.baseline = new SerializationBaseline(plans);
+			this.recording = true;
+		}
 	}
 
 	@Override
 	public void reset() {
 		serialized.clear();
+		originals.clear();
+		sharedChanged.clear();
+		nodes = 0;
+		if (baseline != null) {
+			recording = recording && baseline.isEmpty();
+			baseline.resetSession();
+		}
+	}
+
+	@Override
+	public void registerOriginals(Map<Object, Object> originals) {
+		this.originals.putAll(originals);
+	}
+
+	@Override
+	public SpillStore spillStoreFor(int size) {
+		return plans.spillStoreFor(size);
+	}
+
+	@Override
+	public boolean truncates(Object container, int index) {
+		if (container.getClass().isArray()) {
+			return index >= limits.getMaxArrayLength();
+		} else {
+			return index >= limits.getMaxCollectionElements();
+		}
+	}
+
+	@Override
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	@Override
+	public void cancel() {
+		cancelled = true;
 	}
 
 	@Override
 	public SerializedValue serialize(Type type, Object object) {
+		checkCancelled();
 		if (object == null) {
 			return SerializedNull.nullInstance(type);
+		} else if (object instanceof String && ((String) object).length() > limits.getMaxStringLength()) {
+			return new SerializedPlaceholder(type);
 		} else if (isLiteral(object.getClass()) && baseType(type).isPrimitive()) {
 			return SerializedLiteral.literal(type, object);
 		} else if (isLiteral(object.getClass())) {
@@ -101,9 +156,11 @@ public class ConfigurableSerializerFacade implements SerializerFacade {
 				serializedObject = serializer.generate(type, functionalInterfaceType);
 				serialized.put(object, serializedObject);
 				if (serializedObject instanceof SerializedReferenceType) {
-					((SerializedReferenceType) serializedObject).setId(identityHashCode(object));
+					((SerializedReferenceType) serializedObject).setId(identityOf(object));
 				}
 				serializer.populate(serializedObject, serializedLambda);
+			} catch (SerializationException e) {
+				throw e;
 			} catch (RuntimeException e) {
 				throw new SerializationException(e);
 			}
@@ -114,31 +171,90 @@ public class ConfigurableSerializerFacade implements SerializerFacade {
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private SerializedValue createObject(Type type, Object object) {
 		SerializedValue serializedObject = serialized.get(object);
+		if (serializedObject == null && baseline != null && !recording) {
+			serializedObject = baseline.reuse(type, object, this::originalOf, serialized);
+		}
+		if (serializedObject == null && shared != null) {
+			serializedObject = shared.reuse(limits, type, object, this::originalOf, serialized, sharedChanged);
+		}
 		if (serializedObject == null) {
+			if (exceedsLimits()) {
+				return new SerializedPlaceholder(type);
+			}
 			Serializer serializer = fetchSerializer(object.getClass());
+			if (serializesFields(serializer) && exceedsLimits(object)) {
+				return new SerializedPlaceholder(type);
+			}
+			nodes++;
 			serializedObject = serializer.generate(type, object.getClass());
 			serialized.put(object, serializedObject);
 			if (serializedObject instanceof SerializedReferenceType) {
-				((SerializedReferenceType) serializedObject).setId(identityHashCode(object));
+				((SerializedReferenceType) serializedObject).setId(identityOf(object));
+			}
+			depth++;
+			try {
+				serializer.populate(serializedObject, object);
+			} finally {
+				depth--;
+			}
+			if (recording) {
+				baseline.record(object, serializedObject, this::originalOf);
+			}
+			if (shared != null) {
+				shared.record(limits, object, serializedObject, this::originalOf);
 			}
-			serializer.populate(serializedObject, object);
 		}
 		return serializedObject;
 	}
 
+	private void checkCancelled() {
+		if (cancelled) {
+			throw new SerializationCancelledException("serialization cancelled");
+		}
+		if (deadline > 0 && ++deadlineChecks % DEADLINE_CHECK_INTERVAL == 0 && System.currentTimeMillis() > deadline) {
+			cancelled = true;
+			throw new SerializationCancelledException("serialization deadline exceeded");
+		}
+	}
+
+	private int identityOf(Object object) {
+		return identityHashCode(originalOf(object));
+	}
+
+	private Object originalOf(Object object) {
+		if (originals.isEmpty()) {
+			return object;
+		}
+		Object original = originals.get(object);
+		return original == null ? object : original;
+	}
+
+	private boolean exceedsLimits() {
+		return depth > limits.getMaxDepth() || nodes >= limits.getMaxNodes();
+	}
+
+	private boolean serializesFields(Serializer<?> serializer) {
+		return serializer instanceof GenericSerializer
+			|| serializer instanceof CompiledSerializer;
+	}
+
+	private boolean exceedsLimits(Object object) {
+		// collections serialized by their fields cannot be truncated (other collections and arrays are truncated by their serializers)
+		if (object instanceof Collection<?>) {
+			return ((Collection<?>) object).size() > limits.getMaxCollectionElements();
+		} else if (object instanceof Map<?, ?>) {
+			return ((Map<?, ?>) object).size() > limits.getMaxCollectionElements();
+		}
+		return false;
+	}
+
 	private Serializer<?> fetchSerializer(Class<?> clazz) {
 		Serializer<?> serializer = serializers.get(clazz);
-		if (serializer != null) {
-			return serializer;
-		}
-		if (clazz.isArray()) {
-			serializer = new ArraySerializer(this);
-		} else if (clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())) {
-			serializer = new EnumSerializer(this);
-		} else if (SerializedLambda.class == clazz) {
-			serializer = new LambdaSerializer(this);
-		} else {
-			serializer = new GenericSerializer(this);
+		if (serializer == null) {
+			serializer = plans.serializerFactory(clazz, this).newSerializer(this);
+			if (!(serializer instanceof GenericSerializer) || !plans.compilesSerializer(clazz)) {
+				serializers.put(clazz, serializer);
+			}
 		}
 		return serializer;
 	}
@@ -153,6 +269,9 @@ public class ConfigurableSerializerFacade implements SerializerFacade {
 	@Override
 	public SerializedField serialize(Field field, Object obj) {
 		try {
+			if (field.isAccessible()) {
+				return createField(field, obj);
+			}
 			return accessing(field).call(f -> createField(f, obj));
 		} catch (ReflectiveOperationException e) {
 			throw new SerializationException(e);
@@ -169,28 +288,19 @@ public class ConfigurableSerializerFacade implements SerializerFacade {
 		return serializedField;
 	}
 
+	@Override
+	public List<Field> fieldsOf(Class<?> clazz) {
+		return plans.fieldsOf(clazz);
+	}
+
 	@Override
 	public boolean excludes(Field field) {
-		if (field.isAnnotationPresent(Excluded.class)) {
-			return true;
-		}
-		boolean excluded = fieldExclusions.stream()
-			.anyMatch(exclusion -> exclusion.matches(field));
-		if (!excluded) {
-			Class<?> type = field.getType();
-			excluded = classExclusions.stream()
-				.anyMatch(exclusion -> exclusion.matches(type));
-		}
-		return excluded;
+		return plans.excludes(field);
 	}
 
 	@Override
 	public boolean excludes(Class<?> clazz) {
-		if (clazz.isAnnotationPresent(Excluded.class)) {
-			return true;
-		}
-		return classExclusions.stream()
-			.anyMatch(exclusion -> exclusion.matches(clazz));
+		return plans.excludes(clazz);
 	}
 
 }
@@ -6,6 +6,8 @@ import java.util.List;
 import net.amygdalum.testrecorder.profile.Classes;
 import net.amygdalum.testrecorder.profile.Fields;
 import net.amygdalum.testrecorder.profile.Methods;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 public class ConfigurableTestRecorderAgentConfig implements TestRecorderAgentConfig {
 
@@ -18,6 +20,18 @@ public class ConfigurableTestRecorderAgentConfig implements TestRecorderAgentCon
 	private SnapshotConsumer snapshotConsumer;
 	private long timeoutInMillis;
 	private List<Classes> classes;
+	private CaptureMode captureMode;
+	private int snapshotThreads;
+	private int snapshotQueueCapacity;
+	private RejectionPolicy snapshotRejectionPolicy;
+	private long snapshotMemoryBudget;
+	private SamplingPolicy samplingPolicy;
+	private SerializationLimits serializationLimits;
+	private BudgetPolicy snapshotBudgetPolicy;
+	private boolean incrementalExpectSerialization;
+	private int compiledSerializerThreshold;
+	private int sharedSerializationCapacity;
+	private int collectionSpillThreshold;
 
 	public ConfigurableTestRecorderAgentConfig(TestRecorderAgentConfig base) {
 		this.fieldExclusions = new ArrayList<>(base.getFieldExclusions());
@@ -28,6 +42,18 @@ public class ConfigurableTestRecorderAgentConfig implements TestRecorderAgentCon
 		this.snapshotConsumer = base.getSnapshotConsumer();
 		this.timeoutInMillis = base.getTimeoutInMillis();
 		this.classes = new ArrayList<>(base.getClasses());
+		this.captureMode = base.getCaptureMode();
+		this.snapshotThreads = base.getSnapshotThreads();
+		this.snapshotQueueCapacity = base.getSnapshotQueueCapacity();
+		this.snapshotRejectionPolicy = base.getSnapshotRejectionPolicy();
+		this.samplingPolicy = base.getSamplingPolicy();
+		this.snapshotMemoryBudget = base.getSnapshotMemoryBudget();
+		this.snapshotBudgetPolicy = base.getSnapshotBudgetPolicy();
+		this.serializationLimits = base.getSerializationLimits();
+		this.compiledSerializerThreshold = base.getCompiledSerializerThreshold();
+		this.collectionSpillThreshold = base.getCollectionSpillThreshold();
+		this.sharedSerializationCapacity = base.getSharedSerializationCapacity();
+		this.incrementalExpectSerialization = base.isIncrementalExpectSerialization();
 	}
 
 	public static Builder builder(TestRecorderAgentConfig base) {
@@ -74,6 +100,66 @@ public class ConfigurableTestRecorderAgentConfig implements TestRecorderAgentCon
 		return timeoutInMillis;
 	}
 
+	@Override
+	public CaptureMode getCaptureMode() {
+		return captureMode;
+	}
+
+	@Override
+	public int getSnapshotThreads() {
+		return snapshotThreads;
+	}
+
+	@Override
+	public int getSnapshotQueueCapacity() {
+		return snapshotQueueCapacity;
+	}
+
+	@Override
+	public RejectionPolicy getSnapshotRejectionPolicy() {
+		return snapshotRejectionPolicy;
+	}
+
+	@Override
+	public SamplingPolicy getSamplingPolicy() {
+		return samplingPolicy;
+	}
+
+	@Override
+	public long getSnapshotMemoryBudget() {
+		return snapshotMemoryBudget;
+	}
+
+	@Override
+	public BudgetPolicy getSnapshotBudgetPolicy() {
+		return snapshotBudgetPolicy;
+	}
+
+	@Override
+	public SerializationLimits getSerializationLimits() {
+		return serializationLimits;
+	}
+
+	@Override
+	public int getCompiledSerializerThreshold() {
+		return compiledSerializerThreshold;
+	}
+
+	@Override
+	public boolean isIncrementalExpectSerialization() {
+		return incrementalExpectSerialization;
+	}
+
+	@Override
+	public int getCollectionSpillThreshold() {
+		return collectionSpillThreshold;
+	}
+
+	@Override
+	public int getSharedSerializationCapacity() {
+		return sharedSerializationCapacity;
+	}
+
 	public static class Builder {
 
 		private ConfigurableTestRecorderAgentConfig agent;
@@ -122,6 +208,66 @@ public class ConfigurableTestRecorderAgentConfig implements TestRecorderAgentCon
 			return this;
 		}
 
+		public Builder withCaptureMode(CaptureMode captureMode) {
+			agent.captureMode = captureMode;
+			return this;
+		}
+
+		public Builder withSnapshotThreads(int snapshotThreads) {
+			agent.snapshotThreads = snapshotThreads;
+			return this;
+		}
+
+		public Builder withSnapshotQueueCapacity(int snapshotQueueCapacity) {
+			agent.snapshotQueueCapacity = snapshotQueueCapacity;
+			return this;
+		}
+
+		public Builder withSnapshotRejectionPolicy(RejectionPolicy snapshotRejectionPolicy) {
+			agent.snapshotRejectionPolicy = snapshotRejectionPolicy;
+			return this;
+		}
+
+		public Builder withSamplingPolicy(SamplingPolicy samplingPolicy) {
+			agent.samplingPolicy = samplingPolicy;
+			return this;
+		}
+
+		public Builder withSnapshotMemoryBudget(long snapshotMemoryBudget) {
+			agent.snapshotMemoryBudget = snapshotMemoryBudget;
+			return this;
+		}
+
+		public Builder withSnapshotBudgetPolicy(BudgetPolicy snapshotBudgetPolicy) {
+			agent.snapshotBudgetPolicy = snapshotBudgetPolicy;
+			return this;
+		}
+
+		public Builder withSerializationLimits(SerializationLimits serializationLimits) {
+			agent.serializationLimits = serializationLimits;
+			return this;
+		}
+
+		public Builder withCompiledSerializerThreshold(int compiledSerializerThreshold) {
+			agent.compiledSerializerThreshold = compiledSerializerThreshold;
+			return this;
+		}
+
+		public Builder withIncrementalExpectSerialization(boolean incrementalExpectSerialization) {
+			agent.incrementalExpectSerialization = incrementalExpectSerialization;
+			return this;
+		}
+
+		public Builder withCollectionSpillThreshold(int collectionSpillThreshold) {
+			agent.collectionSpillThreshold = collectionSpillThreshold;
+			return this;
+		}
+
+		public Builder withSharedSerializationCapacity(int sharedSerializationCapacity) {
+			agent.sharedSerializationCapacity = sharedSerializationCapacity;
+			return this;
+		}
+
 		public ConfigurableTestRecorderAgentConfig build() {
 			return agent;
 		}
@@ -58,10 +58,32 @@ public class ContextSnapshot {
         return time;
     }
 
+    public String getKey() {
+        return key;
+    }
+
     public void invalidate() {
         valid = false;
     }
 
+    /**
+     * invalidates this snapshot and drops all serialized values, such that the memory of the snapshot is freed even if it is still
+     * referenced (e.g. by a queued consumer task).
+     */
+    public void discard() {
+        valid = false;
+        setupThis = null;
+        setupArgs = null;
+        setupGlobals = null;
+        expectThis = null;
+        expectResult = null;
+        expectException = null;
+        expectArgs = null;
+        expectGlobals = null;
+        setupInput = null;
+        expectOutput = null;
+    }
+
     public boolean isValid() {
         return valid;
     }
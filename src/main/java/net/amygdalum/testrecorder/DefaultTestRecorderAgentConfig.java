@@ -11,6 +11,8 @@ import net.amygdalum.testrecorder.profile.ExcludeGenerated;
 import net.amygdalum.testrecorder.profile.ExcludeStatic;
 import net.amygdalum.testrecorder.profile.Fields;
 import net.amygdalum.testrecorder.profile.Methods;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 public class DefaultTestRecorderAgentConfig implements TestRecorderAgentConfig {
 
@@ -65,4 +67,64 @@ public class DefaultTestRecorderAgentConfig implements TestRecorderAgentConfig {
         return emptyList();
     }
 
+    @Override
+    public CaptureMode getCaptureMode() {
+        return CaptureMode.SYNCHRONOUS;
+    }
+
+    @Override
+    public int getSnapshotThreads() {
+        return 1;
+    }
+
+    @Override
+    public int getSnapshotQueueCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public RejectionPolicy getSnapshotRejectionPolicy() {
+        return RejectionPolicy.WAIT;
+    }
+
+    @Override
+    public SamplingPolicy getSamplingPolicy() {
+        return SamplingPolicy.all();
+    }
+
+    @Override
+    public long getSnapshotMemoryBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public BudgetPolicy getSnapshotBudgetPolicy() {
+        return BudgetPolicy.DROP_NEWEST;
+    }
+
+    @Override
+    public SerializationLimits getSerializationLimits() {
+        return SerializationLimits.unlimited();
+    }
+
+    @Override
+    public int getCompiledSerializerThreshold() {
+        return 0;
+    }
+
+    @Override
+    public boolean isIncrementalExpectSerialization() {
+        return false;
+    }
+
+    @Override
+    public int getCollectionSpillThreshold() {
+        return 0;
+    }
+
+    @Override
+    public int getSharedSerializationCapacity() {
+        return 0;
+    }
+
 }
@@ -6,6 +6,8 @@ import java.util.List;
 import net.amygdalum.testrecorder.profile.Classes;
 import net.amygdalum.testrecorder.profile.Fields;
 import net.amygdalum.testrecorder.profile.Methods;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 /**
  * Most TestRecorderAgentConfig are Factories, i.e. they produce all configurations when called (and therefore almost never return
@@ -25,6 +27,18 @@ public class FixedTestRecorderAgentConfig implements TestRecorderAgentConfig {
 	private SnapshotConsumer snapshotConsumer;
 	private long timeoutInMillis;
 	private List<Classes> classes;
+	private CaptureMode captureMode;
+	private int snapshotThreads;
+	private int snapshotQueueCapacity;
+	private RejectionPolicy snapshotRejectionPolicy;
+	private long snapshotMemoryBudget;
+	private SamplingPolicy samplingPolicy;
+	private SerializationLimits serializationLimits;
+	private BudgetPolicy snapshotBudgetPolicy;
+	private boolean incrementalExpectSerialization;
+	private int compiledSerializerThreshold;
+	private int sharedSerializationCapacity;
+	private int collectionSpillThreshold;
 
 	public FixedTestRecorderAgentConfig(TestRecorderAgentConfig config) {
 		this.fieldExclusions = new ArrayList<>(config.getFieldExclusions());
@@ -35,6 +49,18 @@ public class FixedTestRecorderAgentConfig implements TestRecorderAgentConfig {
 		this.snapshotConsumer = config.getSnapshotConsumer();
 		this.timeoutInMillis = config.getTimeoutInMillis();
 		this.classes = config.getClasses();
+		this.captureMode = config.getCaptureMode();
+		this.snapshotThreads = config.getSnapshotThreads();
+		this.snapshotQueueCapacity = config.getSnapshotQueueCapacity();
+		this.snapshotRejectionPolicy = config.getSnapshotRejectionPolicy();
+		this.samplingPolicy = config.getSamplingPolicy();
+		this.snapshotMemoryBudget = config.getSnapshotMemoryBudget();
+		this.snapshotBudgetPolicy = config.getSnapshotBudgetPolicy();
+		this.serializationLimits = config.getSerializationLimits();
+		this.compiledSerializerThreshold = config.getCompiledSerializerThreshold();
+		this.collectionSpillThreshold = config.getCollectionSpillThreshold();
+		this.sharedSerializationCapacity = config.getSharedSerializationCapacity();
+		this.incrementalExpectSerialization = config.isIncrementalExpectSerialization();
 	}
 
 	@Override
@@ -77,4 +103,64 @@ public class FixedTestRecorderAgentConfig implements TestRecorderAgentConfig {
 		return classes;
 	}
 
+	@Override
+	public CaptureMode getCaptureMode() {
+		return captureMode;
+	}
+
+	@Override
+	public int getSnapshotThreads() {
+		return snapshotThreads;
+	}
+
+	@Override
+	public int getSnapshotQueueCapacity() {
+		return snapshotQueueCapacity;
+	}
+
+	@Override
+	public RejectionPolicy getSnapshotRejectionPolicy() {
+		return snapshotRejectionPolicy;
+	}
+
+	@Override
+	public SamplingPolicy getSamplingPolicy() {
+		return samplingPolicy;
+	}
+
+	@Override
+	public long getSnapshotMemoryBudget() {
+		return snapshotMemoryBudget;
+	}
+
+	@Override
+	public BudgetPolicy getSnapshotBudgetPolicy() {
+		return snapshotBudgetPolicy;
+	}
+
+	@Override
+	public SerializationLimits getSerializationLimits() {
+		return serializationLimits;
+	}
+
+	@Override
+	public int getCompiledSerializerThreshold() {
+		return compiledSerializerThreshold;
+	}
+
+	@Override
+	public boolean isIncrementalExpectSerialization() {
+		return incrementalExpectSerialization;
+	}
+
+	@Override
+	public int getCollectionSpillThreshold() {
+		return collectionSpillThreshold;
+	}
+
+	@Override
+	public int getSharedSerializationCapacity() {
+		return sharedSerializationCapacity;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package net.amygdalum.testrecorder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * an append-only store of rendered tests in memory-mapped temporary files (segments). Tests moved to this store no longer occupy
+ * the heap, they are decoded one at a time when iterating the store.
+ *
+ * Each test is written as its length followed by its UTF-8 bytes. A new segment is started if a test does not fit into the current
+ * segment (tests larger than the segment size get a segment of their own). Closing the store unmaps and deletes its segments, tests
+ * cannot be iterated afterwards.
+ */
+public class MappedTestStore implements Closeable, Iterable<String> {
+
+	public static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+	private int segmentSize;
+	private List<Segment> segments;
+	private int size;
+	private boolean closed;
+
+	public MappedTestStore() {
+		this(SEGMENT_SIZE);
+	}
+
+	public MappedTestStore(int segmentSize) {
+		this.segmentSize = segmentSize;
+		this.segments = new ArrayList<>();
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of bytes written to this store
+	 */
+	public synchronized long bytes() {
+		long bytes = 0;
+		for (Segment segment : segments) {
+			bytes += segment.buffer.position();
+		}
+		return bytes;
+	}
+
+	public synchronized int segments() {
+		return segments.size();
+	}
+
+	/**
+	 * appends a test to this store.
+	 *
+	 * @param test the rendered test
+	 * @throws IOException if a new segment could not be created
+	 */
+	public synchronized void add(String test) throws IOException {
+		if (closed) {
+			throw new IOException("test store is closed");
+		}
+		byte[] bytes = test.getBytes(UTF_8);
+		int required = Integer.BYTES + bytes.length;
+		Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+		if (segment == null || segment.buffer.remaining() < required) {
+			segment = new Segment(Math.max(segmentSize, required));
+			segments.add(segment);
+		}
+		segment.buffer.putInt(bytes.length);
+		segment.buffer.put(bytes);
+		size++;
+	}
+
+	/**
+	 * iterates the tests of this store in the order they were added. Tests added after creating the iterator are not iterated.
+	 */
+	@Override
+	public synchronized Iterator<String> iterator() {
+		List<ByteBuffer> buffers = new ArrayList<>(segments.size());
+		for (Segment segment : segments) {
+			ByteBuffer buffer = segment.buffer.duplicate();
+			buffer.flip();
+			buffers.add(buffer);
+		}
+		return new TestIterator(buffers);
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+		for (Segment segment : segments) {
+			segment.delete();
+		}
+		segments.clear();
+		size = 0;
+	}
+
+	private static class Segment {
+
+		private File file;
+		private MappedByteBuffer buffer;
+
+		Segment(int size) throws IOException {
+			this.file = File.createTempFile("testrecorder", ".tests");
+			try (RandomAccessFile data = new RandomAccessFile(file, "rw");
+				FileChannel channel = data.getChannel()) {
+				this.buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			} catch (IOException e) {
+				file.delete();
+				throw e;
+			}
+		}
+
+		void delete() {
+			unmap(buffer);
+			buffer = null;
+			if (!file.delete()) {
+				Logger.warn("failed deleting test store segment " + file);
+			}
+		}
+
+		/**
+		 * unmaps the buffer eagerly (instead of waiting for the buffer to be garbage collected), using the cleaner of the buffer (Java 8)
+		 * or Unsafe.invokeCleaner (Java 9+). The buffer must not be accessed afterwards.
+		 */
+		private static void unmap(MappedByteBuffer buffer) {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buffer);
+				return;
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// not available before Java 9
+			}
+			try {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// the buffer is unmapped when it is garbage collected
+			}
+		}
+
+	}
+
+	private class TestIterator implements Iterator<String> {
+
+		private Iterator<ByteBuffer> buffers;
+		private ByteBuffer current;
+
+		TestIterator(List<ByteBuffer> buffers) {
+			this.buffers = buffers.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (current == null || !current.hasRemaining()) {
+				if (!buffers.hasNext()) {
+					return false;
+				}
+				current = buffers.next();
+			}
+			return true;
+		}
+
+		@Override
+		public String next() {
+			synchronized (MappedTestStore.this) {
+				if (closed) {
+					throw new IllegalStateException("test store is closed");
+				}
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				byte[] bytes = new byte[current.getInt()];
+				current.get(bytes);
+				return new String(bytes, UTF_8);
+			}
+		}
+
+	}
+
+}
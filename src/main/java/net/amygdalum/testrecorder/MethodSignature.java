@@ -7,9 +7,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
 
 import net.amygdalum.testrecorder.types.SerializationException;
 import net.amygdalum.testrecorder.util.Types;
@@ -23,12 +21,10 @@ public class MethodSignature {
 	public Annotation[][] argumentAnnotations;
 	public Type[] argumentTypes;
 
-	private Set<Class<?>> valid;
-	private Set<Class<?>> invalid;
+	private ClassValue<Boolean> valid;
 
 	private MethodSignature() {
-		this.valid = new HashSet<>();
-		this.invalid = new HashSet<>();
+		this.valid = new ValidIn();
 	}
 
 	public MethodSignature(Class<?> declaringClass, Annotation[] resultAnnotation, Type resultType, String methodName, Annotation[][] argumentAnnotations, Type[] argumentTypes) {
@@ -39,8 +35,7 @@ public class MethodSignature {
 		this.argumentAnnotations = argumentAnnotations;
 		this.argumentTypes = argumentTypes;
 
-		this.valid = new HashSet<>();
-		this.invalid = new HashSet<>();
+		this.valid = new ValidIn();
 	}
 
 	public static MethodSignature fromDescriptor(String className, String methodName, String methodDesc) {
@@ -60,21 +55,8 @@ public class MethodSignature {
 
 	}
 
-	public synchronized boolean validIn(Class<?> clazz) {
-		if (valid.contains(clazz)) {
-			return true;
-		} else if (invalid.contains(clazz)) {
-			return false;
-		}
-		Class<?> resolvedClass = resolveClass(clazz);
-
-		boolean valid = Objects.equals(resolvedClass.getName(), declaringClass.getName());
-		if (valid) {
-			this.valid.add(clazz);
-		} else {
-			this.invalid.add(clazz);
-		}
-		return valid;
+	public boolean validIn(Class<?> clazz) {
+		return valid.get(clazz);
 	}
 
 	private Class<?> resolveClass(Class<?> clazz) {
@@ -96,4 +78,18 @@ public class MethodSignature {
 		}
 	}
 
+	/**
+	 * caches the validity of this signature per class. Computed values are published once and read without locking.
+	 */
+	private class ValidIn extends ClassValue<Boolean> {
+
+		@Override
+		protected Boolean computeValue(Class<?> clazz) {
+			Class<?> resolvedClass = resolveClass(clazz);
+
+			return Objects.equals(resolvedClass.getName(), declaringClass.getName());
+		}
+
+	}
+
 }
@@ -0,0 +1,51 @@
+package net.amygdalum.testrecorder;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Specifies how serialization tasks are handled if the queue of the snapshot executor is full.
+ */
+public enum RejectionPolicy {
+
+	/**
+	 * the recorded thread waits until the serialization task can be queued.
+	 * 
+	 * Tasks submitted by recording threads (e.g. a snapshot worker scheduling the next stage of a snapshot) are run by the submitting
+	 * thread, because waiting would block the threads that drain the queue.
+	 */
+	WAIT {
+		@Override
+		public RejectedExecutionHandler handler() {
+			return (runnable, executor) -> {
+				if (executor.isShutdown()) {
+					throw new RejectedExecutionException("snapshot executor is shut down");
+				}
+				if (Thread.currentThread().getThreadGroup() == TestrecorderThreadFactory.RECORDING) {
+					runnable.run();
+					return;
+				}
+				try {
+					executor.getQueue().put(runnable);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException(e);
+				}
+			};
+		}
+	},
+
+	/**
+	 * the serialization task is rejected and the affected snapshot is discarded
+	 */
+	DISCARD {
+		@Override
+		public RejectedExecutionHandler handler() {
+			return new ThreadPoolExecutor.AbortPolicy();
+		}
+	};
+
+	public abstract RejectedExecutionHandler handler();
+
+}
@@ -1,17 +1,34 @@
 package net.amygdalum.testrecorder;
 
+import static java.util.Collections.singletonMap;
+
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 /**
  * A configurable SnapshotConsumer client that writes tests to the file system
  */
 public class ScheduledTestGenerator extends TestGenerator {
 
+	private static final int DUMP_THREADS = 4;
+
 	private static volatile Set<ScheduledTestGenerator> dumpOnShutDown;
 
+	private ExecutorService dumper;
+	private volatile CompletableFuture<Void> dumping;
+	private CompletableFuture<Void> chaining;
+	private Map<String, CompletableFuture<Void>> writing;
+
 	private Path path;
 	private int counter;
 	private int counterInterval;
@@ -25,6 +42,10 @@ public class ScheduledTestGenerator extends TestGenerator {
 		this.counter = 0;
 		this.start = System.currentTimeMillis();
 		this.path = Paths.get(".");
+		this.dumper = Executors.newFixedThreadPool(DUMP_THREADS, new TestrecorderThreadFactory("$dump"));
+		this.dumping = CompletableFuture.completedFuture(null);
+		this.chaining = CompletableFuture.completedFuture(null);
+		this.writing = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -84,6 +105,28 @@ public class ScheduledTestGenerator extends TestGenerator {
 		return this;
 	}
 
+	/**
+	 * specifies the number of bytes of rendered tests (of all classes) that are kept on the heap until the next dump. Further tests are
+	 * moved to memory-mapped files and read back when dumping.
+	 * @param spillThreshold the number of bytes of tests to keep on the heap, 0 to keep all tests on the heap
+	 * @return this
+	 */
+	public ScheduledTestGenerator withSpillThreshold(long spillThreshold) {
+		setSpillThreshold(spillThreshold);
+		return this;
+	}
+
+	/**
+	 * specifies the maximum size (in chars of test methods) of a dumped test file. Larger test files are split into multiple test files,
+	 * each named like the first one with a number appended.
+	 * @param maxTestFileSize the maximum number of chars of tests in one file, 0 to write all tests of a class to one file
+	 * @return this
+	 */
+	public ScheduledTestGenerator withMaxTestFileSize(long maxTestFileSize) {
+		setMaxTestFileSize(maxTestFileSize);
+		return this;
+	}
+
 	/**
 	 * specifies that all pending tests should be dumped at shutdown time
 	 * @param shutDown true if pending tests should be dumped at shutdown, false otherwise 
@@ -116,19 +159,20 @@ public class ScheduledTestGenerator extends TestGenerator {
 	}
 
 	@Override
-	public void accept(ContextSnapshot snapshot) {
+	public void accept(ContextSnapshot snapshot, Runnable done) {
         if (counterMaximum > 0 && counter >= counterMaximum) {
+            done.run();
             return;
         }
         counter++;
-		super.accept(snapshot);
+		super.accept(snapshot, done);
 		checkCounterInterval();
 		checkTimeInterval();
 	}
 
 	private void checkCounterInterval() {
 		if (counterInterval > 0 && counter % counterInterval == 0) {
-			dumpResults();
+			scheduleDump();
 		}
 	}
 
@@ -136,19 +180,77 @@ public class ScheduledTestGenerator extends TestGenerator {
 		long oldStart = start;
 		start = System.currentTimeMillis();
 		if (timeInterval > 0 && start - oldStart >= timeInterval) {
-			dumpResults();
+			scheduleDump();
 		}
 	}
 
+	/**
+	 * dumps all tests generated so far and waits until they are written.
+	 */
 	public void dumpResults() {
-		andThen(() -> {
-			writeResults(path);
-			clearResults();
-		});
+		scheduleDump().join();
+	}
+
+	/**
+	 * detaches the tests generated so far and writes them in the background (one task per test class). Snapshots accepted 
+	 * meanwhile are generated into a new generation of tests. Test files of different classes are written in parallel, 
+	 * but the generations of the same test file are written in the order they were detached (such that the last dump wins).
+	 */
+	private synchronized CompletableFuture<Void> scheduleDump() {
+		int dumpCounter = counter;
+		long dumpStart = start;
+		CompletableFuture<CompletableFuture<Void>> chained = chaining.thenCombine(detachResults(),
+			(done, results) -> chainWrites(results, clazz -> computeClassName(clazz, dumpCounter, dumpStart)));
+		chaining = chained.handle((writes, e) -> null);
+		CompletableFuture<Void> dump = chained
+			.thenCompose(writes -> writes)
+			.exceptionally(e -> {
+				Logger.error("failed dumping tests: " + e.getMessage(), e);
+				return null;
+			});
+		dumping = CompletableFuture.allOf(dumping, dump);
+		return dump;
+	}
+
+	private CompletableFuture<Void> chainWrites(Map<ClassDescriptor, TestGeneratorContext> results, Function<ClassDescriptor, String> classNames) {
+		List<CompletableFuture<Void>> writes = new ArrayList<>(results.size());
+		for (Map.Entry<ClassDescriptor, TestGeneratorContext> result : results.entrySet()) {
+			ClassDescriptor clazz = result.getKey();
+			String className = classNames.apply(clazz);
+			String testFile = clazz.getPackage() + '.' + className;
+			CompletableFuture<Void> previous = writing.getOrDefault(testFile, CompletableFuture.completedFuture(null));
+			CompletableFuture<Void> write = previous
+				.handle((done, e) -> null)
+				.thenCompose(done -> writeResults(path, singletonMap(clazz, result.getValue()), c -> className, dumper));
+			writing.put(testFile, write);
+			write.whenComplete((done, e) -> writing.remove(testFile, write));
+			writes.add(write);
+		}
+		return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * waits until all accepted snapshots are generated and all scheduled dumps are written
+	 */
+	@Override
+	public TestGenerator await() {
+		super.await();
+		dumping.join();
+		return this;
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		dumper.shutdown();
 	}
 
 	@Override
 	public String computeClassName(ClassDescriptor clazz) {
+		return computeClassName(clazz, counter, start);
+	}
+
+	private String computeClassName(ClassDescriptor clazz, int counter, long start) {
 		if (classNameTemplate == null) {
 			return super.computeClassName(clazz);
 		}
@@ -0,0 +1,437 @@
+package net.amygdalum.testrecorder;
+
+import static net.amygdalum.testrecorder.util.Types.isLiteral;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.GenerationalCache;
+
+/**
+ * keeps the values of a baseline serialization (e.g. the setup of a snapshot) together with a fingerprint of each serialized object.
+ * The fingerprint keeps a hash of the shallow state of an object, i.e. one hash per field (element, entry), literals hashed by value
+ * and other objects by the identity of their original, primitive arrays hashed as a whole. The state itself is not kept, so a
+ * fingerprint costs a few bytes per field and does not keep any object alive. Objects with equal fingerprints are considered unchanged.
+ *
+ * A later serialization (e.g. the expectation of a snapshot) may reuse the baseline value of an object, if the fingerprints of all objects
+ * reachable from this object are unchanged. Objects found to be changed are remembered until the next {@link #resetSession() session},
+ * so each changed object is fingerprinted only once per session.
+ *
+ * A baseline is not thread safe, except for a {@link #concurrent(SerializationPlans, int) concurrent} baseline. The latter does not
+ * keep sessions, its callers remember the objects found to be changed in their own session (see
+ * {@link #reuse(Type, Object, Function, Map, Map)}). A concurrent baseline references recorded objects weakly, so it does not keep
+ * them alive.
+ */
+public class SerializationBaseline {
+
+	private static final long OFFSET = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private SerializationPlans plans;
+	private Entries entries;
+	private Map<Object, Boolean> changed;
+
+	public SerializationBaseline(SerializationPlans plans) {
+		this(plans, 0);
+	}
+
+	/**
+	 * @param plans the serialization plans providing the fields of each class
+	 * @param capacity the number of recent entries to keep at least or 0 if the number of entries should not be bounded
+	 */
+	public SerializationBaseline(SerializationPlans plans, int capacity) {
+		this(plans, new IdentityEntries(capacity), new IdentityHashMap<>());
+	}
+
+	private SerializationBaseline(SerializationPlans plans, Entries entries, Map<Object, Boolean> changed) {
+		this.plans = plans;
+		this.entries = entries;
+		this.changed = changed;
+	}
+
+	/**
+	 * creates a thread safe baseline, that can be shared by many serializations (and threads).
+	 *
+	 * @param plans the serialization plans providing the fields of each class
+	 * @param capacity the number of recent entries to keep at least
+	 * @return a thread safe baseline
+	 */
+	public static SerializationBaseline concurrent(SerializationPlans plans, int capacity) {
+		return new SerializationBaseline(plans, new ConcurrentEntries(capacity), null);
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	/**
+	 * records the serialized value of an object as baseline.
+	 *
+	 * @param object the serialized object
+	 * @param value the serialized value of the object
+	 * @param originals maps (copied) objects to the objects they represent
+	 */
+	public void record(Object object, SerializedValue value, Function<Object, Object> originals) {
+		try {
+			Fingerprint fingerprint = fingerprint(object, originals, new ArrayList<>());
+			entries.put(originals.apply(object), new Entry(value, fingerprint));
+		} catch (RuntimeException | ReflectiveOperationException e) {
+			entries.remove(originals.apply(object));
+		}
+	}
+
+	/**
+	 * looks up the baseline value of an object. The value is only returned if neither the object nor any object reachable from it changed
+	 * since recording the baseline. In this case all reachable objects are registered with their baseline values in serialized.
+	 *
+	 * @param type the type the object should be serialized as
+	 * @param object the object to serialize
+	 * @param originals maps (copied) objects to the objects they represent
+	 * @param serialized the values already serialized in the current session
+	 * @return the baseline value of object or null if there is no (unchanged) baseline value
+	 */
+	public SerializedValue reuse(Type type, Object object, Function<Object, Object> originals, Map<Object, SerializedValue> serialized) {
+		return reuse(type, object, originals, serialized, changed != null ? changed : new IdentityHashMap<>());
+	}
+
+	/**
+	 * looks up the baseline value of an object (see {@link #reuse(Type, Object, Function, Map)}), remembering the objects found to be
+	 * changed in the given session memo instead of the session of this baseline.
+	 *
+	 * @param type the type the object should be serialized as
+	 * @param object the object to serialize
+	 * @param originals maps (copied) objects to the objects they represent
+	 * @param serialized the values already serialized in the current session
+	 * @param changed the objects found to be changed in the current session
+	 * @return the baseline value of object or null if there is no (unchanged) baseline value
+	 */
+	public SerializedValue reuse(Type type, Object object, Function<Object, Object> originals, Map<Object, SerializedValue> serialized, Map<Object, Boolean> changed) {
+		Entry entry = entries.get(originals.apply(object));
+		if (entry == null || changed.containsKey(object) || !type.equals(entry.value.getResultType())) {
+			return null;
+		}
+		Map<Object, Entry> visited = new IdentityHashMap<>();
+		try {
+			if (!unchanged(object, entry, originals, serialized, visited, changed)) {
+				return null;
+			}
+		} catch (RuntimeException | ReflectiveOperationException e) {
+			changed.put(object, Boolean.TRUE);
+			return null;
+		}
+		for (Map.Entry<Object, Entry> reused : visited.entrySet()) {
+			serialized.putIfAbsent(reused.getKey(), reused.getValue().value);
+		}
+		return entry.value;
+	}
+
+	/**
+	 * starts a new session, forgetting the objects found to be changed in the last session.
+	 */
+	public void resetSession() {
+		if (changed != null) {
+			changed.clear();
+		}
+	}
+
+	private boolean unchanged(Object object, Entry entry, Function<Object, Object> originals, Map<Object, SerializedValue> serialized, Map<Object, Entry> visited,
+		Map<Object, Boolean> changed) throws ReflectiveOperationException {
+		visited.put(object, entry);
+		List<Object> children = new ArrayList<>();
+		if (!fingerprint(object, originals, children).matches(entry.fingerprint)) {
+			changed.put(object, Boolean.TRUE);
+			return false;
+		}
+		for (Object child : children) {
+			if (visited.containsKey(child)) {
+				continue;
+			}
+			Entry childEntry = entries.get(originals.apply(child));
+			SerializedValue childValue = serialized.get(child);
+			if (childEntry == null
+				|| childValue != null && childValue != childEntry.value
+				|| changed.containsKey(child)
+				|| !unchanged(child, childEntry, originals, serialized, visited, changed)) {
+				changed.put(object, Boolean.TRUE);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Fingerprint fingerprint(Object object, Function<Object, Object> originals, List<Object> children) throws ReflectiveOperationException {
+		Class<?> clazz = object.getClass();
+		if (clazz.isArray() && clazz.getComponentType().isPrimitive()) {
+			return new Fingerprint(clazz, new long[] { Array.getLength(object), primitivesHash(object) });
+		}
+		List<Long> state = new ArrayList<>();
+		if (clazz.isArray()) {
+			for (Object element : (Object[]) object) {
+				state.add(hash(element, originals, children));
+			}
+		} else if (object instanceof Collection<?>) {
+			for (Object element : (Collection<?>) object) {
+				state.add(hash(element, originals, children));
+			}
+		} else if (object instanceof Map<?, ?>) {
+			for (Map.Entry<?, ?> element : ((Map<?, ?>) object).entrySet()) {
+				state.add(hash(element.getKey(), originals, children));
+				state.add(hash(element.getValue(), originals, children));
+			}
+		} else {
+			for (Field field : plans.fieldsOf(clazz)) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				state.add(hash(field.get(object), originals, children));
+			}
+		}
+		long[] hashes = new long[state.size()];
+		for (int i = 0; i < hashes.length; i++) {
+			hashes[i] = state.get(i);
+		}
+		return new Fingerprint(clazz, hashes);
+	}
+
+	private static long hash(Object value, Function<Object, Object> originals, List<Object> children) {
+		if (value == null) {
+			return 0;
+		}
+		Class<?> clazz = value.getClass();
+		long hash = fnv(OFFSET, System.identityHashCode(clazz));
+		if (isLiteral(clazz)) {
+			return literalHash(hash, value);
+		}
+		children.add(value);
+		return fnv(hash, System.identityHashCode(originals.apply(value)));
+	}
+
+	private static long literalHash(long hash, Object value) {
+		if (value instanceof String) {
+			String string = (String) value;
+			for (int i = 0; i < string.length(); i++) {
+				hash = fnv(hash, string.charAt(i));
+			}
+			return fnv(hash, string.length());
+		} else if (value instanceof Long) {
+			return fnv(hash, (Long) value);
+		} else if (value instanceof Double) {
+			return fnv(hash, Double.doubleToLongBits((Double) value));
+		} else if (value instanceof Float) {
+			return fnv(hash, Float.floatToIntBits((Float) value));
+		}
+		return fnv(hash, value.hashCode());
+	}
+
+	private static long primitivesHash(Object array) {
+		long hash = OFFSET;
+		if (array instanceof int[]) {
+			for (int value : (int[]) array) {
+				hash = fnv(hash, value);
+			}
+		} else if (array instanceof long[]) {
+			for (long value : (long[]) array) {
+				hash = fnv(hash, value);
+			}
+		} else if (array instanceof byte[]) {
+			for (byte value : (byte[]) array) {
+				hash = fnv(hash, value);
+			}
+		} else if (array instanceof char[]) {
+			for (char value : (char[]) array) {
+				hash = fnv(hash, value);
+			}
+		} else if (array instanceof short[]) {
+			for (short value : (short[]) array) {
+				hash = fnv(hash, value);
+			}
+		} else if (array instanceof boolean[]) {
+			for (boolean value : (boolean[]) array) {
+				hash = fnv(hash, value ? 1 : 0);
+			}
+		} else if (array instanceof float[]) {
+			for (float value : (float[]) array) {
+				hash = fnv(hash, Float.floatToIntBits(value));
+			}
+		} else {
+			for (double value : (double[]) array) {
+				hash = fnv(hash, Double.doubleToLongBits(value));
+			}
+		}
+		return hash;
+	}
+
+	private static long fnv(long hash, long value) {
+		return (hash ^ value) * PRIME;
+	}
+
+	private static class Entry {
+
+		private SerializedValue value;
+		private Fingerprint fingerprint;
+
+		Entry(SerializedValue value, Fingerprint fingerprint) {
+			this.value = value;
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
+	private interface Entries {
+
+		Entry get(Object original);
+
+		void put(Object original, Entry entry);
+
+		void remove(Object original);
+
+		boolean isEmpty();
+
+	}
+
+	/**
+	 * entries in two generations (by identity of the original). If the current generation exceeds the capacity it is retired, entries found in
+	 * the retired generation are promoted to the current generation.
+	 */
+	private static class IdentityEntries implements Entries {
+
+		private int capacity;
+		private Map<Object, Entry> entries;
+		private Map<Object, Entry> retired;
+
+		IdentityEntries(int capacity) {
+			this.capacity = capacity;
+			this.entries = new IdentityHashMap<>();
+			this.retired = new IdentityHashMap<>();
+		}
+
+		@Override
+		public Entry get(Object original) {
+			Entry entry = entries.get(original);
+			if (entry == null && !retired.isEmpty()) {
+				entry = retired.remove(original);
+				if (entry != null) {
+					put(original, entry);
+				}
+			}
+			return entry;
+		}
+
+		@Override
+		public void put(Object original, Entry entry) {
+			if (capacity > 0 && entries.size() >= capacity && !entries.containsKey(original)) {
+				retired = entries;
+				entries = new IdentityHashMap<>();
+			}
+			entries.put(original, entry);
+		}
+
+		@Override
+		public void remove(Object original) {
+			entries.remove(original);
+			retired.remove(original);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return entries.isEmpty() && retired.isEmpty();
+		}
+
+	}
+
+	/**
+	 * thread safe entries in two generations (see {@link GenerationalCache}), keyed by weak references to the originals.
+	 */
+	private static class ConcurrentEntries implements Entries {
+
+		private GenerationalCache<WeakIdentity, Entry> entries;
+
+		ConcurrentEntries(int capacity) {
+			this.entries = new GenerationalCache<>(2 * capacity);
+		}
+
+		@Override
+		public Entry get(Object original) {
+			return entries.get(new WeakIdentity(original));
+		}
+
+		@Override
+		public void put(Object original, Entry entry) {
+			entries.put(new WeakIdentity(original), entry);
+		}
+
+		@Override
+		public void remove(Object original) {
+			entries.remove(new WeakIdentity(original));
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return entries.isEmpty();
+		}
+
+	}
+
+	/**
+	 * a weak key comparing its referents by identity. Keys with cleared referents only equal themselves and are dropped with their generation.
+	 */
+	private static class WeakIdentity extends WeakReference<Object> {
+
+		private int hash;
+
+		WeakIdentity(Object object) {
+			super(object);
+			this.hash = System.identityHashCode(object);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof WeakIdentity)) {
+				return false;
+			}
+			Object object = get();
+			return object != null && object == ((WeakIdentity) obj).get();
+		}
+
+	}
+
+	/**
+	 * the hashed shallow state of an object: one FNV-1a hash per field (element, entry) or one hash (and the length) of a primitive array.
+	 */
+	private static class Fingerprint {
+
+		private Class<?> type;
+		private long[] hashes;
+
+		Fingerprint(Class<?> type, long[] hashes) {
+			this.type = type;
+			this.hashes = hashes;
+		}
+
+		public boolean matches(Fingerprint other) {
+			return type == other.type
+				&& Arrays.equals(hashes, other.hashes);
+		}
+
+	}
+
+}
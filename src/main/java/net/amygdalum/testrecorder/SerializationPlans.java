@@ -0,0 +1,320 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+import java.io.IOException;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.amygdalum.testrecorder.profile.Classes;
+import net.amygdalum.testrecorder.profile.Fields;
+import net.amygdalum.testrecorder.profile.SerializationProfile;
+import net.amygdalum.testrecorder.profile.SerializationProfile.Excluded;
+import net.amygdalum.testrecorder.serializers.ArraySerializer;
+import net.amygdalum.testrecorder.serializers.EnumSerializer;
+import net.amygdalum.testrecorder.serializers.GenericSerializer;
+import net.amygdalum.testrecorder.serializers.LambdaSerializer;
+import net.amygdalum.testrecorder.serializers.SerializerCompiler;
+import net.amygdalum.testrecorder.serializers.SerializerFacade;
+import net.amygdalum.testrecorder.serializers.SerializerFactory;
+import net.amygdalum.testrecorder.types.SerializationException;
+import net.amygdalum.testrecorder.types.SerializedReferenceType;
+import net.amygdalum.testrecorder.types.Serializer;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedEnum;
+import net.amygdalum.testrecorder.values.SerializedLambdaObject;
+import net.amygdalum.testrecorder.values.SpillStore;
+
+/**
+ * caches the exclusion decisions of a {@link SerializationProfile} per class. For each class the plan contains whether the class
+ * is excluded and the fields to serialize (in hierarchy order, with exclusions already applied and access already granted).
+ *
+ * Plans can be shared between facades (and threads) serializing with the same profile, so the reflective analysis of a class is
+ * done once and not for each serialized instance. This includes the dispatch of a class to its serializer (the registered
+ * serializers are loaded only once).
+ *
+ * If the profile configures a {@link SerializationProfile#getCompiledSerializerThreshold() threshold}, the plans also count the
+ * generic serializations of each class and provide a generated serializer for classes serialized more often.
+ *
+ * If the profile configures a {@link SerializationProfile#getCollectionSpillThreshold() spill threshold}, the plans also provide
+ * a {@link SpillStore} (created on first use) that is shared by all large collections serialized with this profile. A spilled
+ * collection keeps at most as many (unspillable) values in memory as the threshold allows, the store is deleted on {@link #close()}.
+ *
+ * If the profile configures a {@link SerializationProfile#getSharedSerializationCapacity() shared serialization capacity}, the plans
+ * also provide the {@link SharedSerializations} of all facades serializing with this profile.
+ */
+public class SerializationPlans {
+
+	private static final SerializerFactory<SerializedArray> ARRAY = ArraySerializer::new;
+	private static final SerializerFactory<SerializedEnum> ENUM = EnumSerializer::new;
+	private static final SerializerFactory<SerializedLambdaObject> LAMBDA = LambdaSerializer::new;
+	private static final SerializerFactory<SerializedReferenceType> GENERIC = GenericSerializer::new;
+
+	private List<Classes> classExclusions;
+	private List<Fields> fieldExclusions;
+	private int compileThreshold;
+	private boolean incremental;
+	private int spillThreshold;
+	private volatile SpillStore spillStore;
+	private SharedSerializations shared;
+	private SerializerCompiler compiler;
+	private volatile Map<Class<?>, SerializerFactory<?>> registry;
+	private ClassValue<Plan> plans;
+
+	public SerializationPlans(SerializationProfile profile) {
+		this.classExclusions = profile.getClassExclusions();
+		this.fieldExclusions = profile.getFieldExclusions();
+		this.compileThreshold = profile.getCompiledSerializerThreshold();
+		this.incremental = profile.isIncrementalExpectSerialization();
+		this.spillThreshold = profile.getCollectionSpillThreshold();
+		int sharedCapacity = profile.getSharedSerializationCapacity();
+		this.shared = sharedCapacity > 0 ? new SharedSerializations(this, sharedCapacity) : null;
+		this.compiler = new SerializerCompiler();
+		this.plans = new Plans();
+	}
+
+	public boolean excludes(Class<?> clazz) {
+		return plans.get(clazz).excluded;
+	}
+
+	public boolean excludes(Field field) {
+		if (field.isAnnotationPresent(Excluded.class)) {
+			return true;
+		}
+		boolean excluded = fieldExclusions.stream()
+			.anyMatch(exclusion -> exclusion.matches(field));
+		if (!excluded) {
+			Class<?> type = field.getType();
+			excluded = classExclusions.stream()
+				.anyMatch(exclusion -> exclusion.matches(type));
+		}
+		return excluded;
+	}
+
+	/**
+	 * @param clazz the class of the object to serialize
+	 * @return the accessible fields of clazz and its super classes that should be serialized
+	 */
+	public List<Field> fieldsOf(Class<?> clazz) {
+		return plans.get(clazz).fields;
+	}
+
+	/**
+	 * @return true if serializers for frequently serialized classes are generated, false otherwise
+	 */
+	public boolean compilesSerializers() {
+		return compileThreshold > 0;
+	}
+
+	/**
+	 * @param clazz the class of the object to serialize
+	 * @return true if a generated serializer for clazz may still be provided (i.e. the generation was not yet attempted), false otherwise
+	 */
+	public boolean compilesSerializer(Class<?> clazz) {
+		if (!compilesSerializers()) {
+			return false;
+		}
+		Plan plan = plans.get(clazz);
+		return !plan.excluded && !plan.compileAttempted;
+	}
+
+	/**
+	 * @return true if expectations should be serialized incrementally (see {@link SerializationProfile#isIncrementalExpectSerialization()}), false otherwise
+	 */
+	public boolean serializesIncrementally() {
+		return incremental;
+	}
+
+	/**
+	 * @return the serializations shared across snapshots or null if serialized values should not be shared
+	 */
+	public SharedSerializations sharedSerializations() {
+		return shared;
+	}
+
+	/**
+	 * @param size the number of elements of a collection to serialize
+	 * @return the spill store for collections of this size or null if collections of this size should be kept in memory
+	 */
+	public SpillStore spillStoreFor(int size) {
+		if (spillThreshold <= 0 || size <= spillThreshold) {
+			return null;
+		}
+		SpillStore current = spillStore;
+		if (current == null) {
+			synchronized (this) {
+				current = spillStore;
+				if (current == null && spillThreshold > 0) {
+					try {
+						current = SpillStore.temporary(spillThreshold);
+						spillStore = current;
+					} catch (IOException e) {
+						Logger.warn("failed creating spill store, keeping collections in memory: " + e.getMessage());
+						spillThreshold = 0;
+					}
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * closes the spill store (if any), deleting all spilled values. Values spilled before cannot be loaded any more.
+	 */
+	public synchronized void close() {
+		SpillStore current = spillStore;
+		if (current != null) {
+			spillStore = null;
+			try {
+				current.close();
+			} catch (IOException e) {
+				Logger.warn("failed closing spill store: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * resolves the factory for serializers of clazz. The resolution is cached per class, so dispatching costs a single lookup.
+	 * 
+	 * For classes without a specific serializer each call counts a generic serialization. Once such a class has been serialized
+	 * often enough (and generating serializers is enabled) a dedicated serializer is generated (once) and returned from now on.
+	 * 
+	 * @param clazz the class of the object to serialize
+	 * @param facade the requesting facade, only used to load the registered serializers on first call
+	 * @return the factory for serializers of clazz
+	 */
+	public SerializerFactory<?> serializerFactory(Class<?> clazz, SerializerFacade facade) {
+		Plan plan = plans.get(clazz);
+		SerializerFactory<?> factory = plan.factory;
+		if (factory == null) {
+			factory = computeFactory(clazz, registry(facade));
+			plan.factory = factory;
+		}
+		if (factory == GENERIC && compilesSerializers()) {
+			SerializerFactory<?> compiled = compiledSerializer(clazz, plan);
+			if (compiled != null) {
+				return compiled;
+			}
+		}
+		return factory;
+	}
+
+	private SerializerFactory<?> compiledSerializer(Class<?> clazz, Plan plan) {
+		if (plan.compiled != null) {
+			return plan.compiled;
+		}
+		if (plan.excluded || plan.serializations.incrementAndGet() != compileThreshold) {
+			return null;
+		}
+		try {
+			plan.compiled = compiler.compile(clazz, plan.fields);
+		} catch (SerializationException e) {
+			Logger.warn("failed generating serializer for " + clazz.getName() + ": " + e.getMessage());
+		} finally {
+			plan.compileAttempted = true;
+		}
+		return plan.compiled;
+	}
+
+	private Map<Class<?>, SerializerFactory<?>> registry(SerializerFacade facade) {
+		Map<Class<?>, SerializerFactory<?>> current = registry;
+		if (current == null) {
+			synchronized (this) {
+				current = registry;
+				if (current == null) {
+					current = loadRegistry(facade);
+					registry = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static Map<Class<?>, SerializerFactory<?>> loadRegistry(SerializerFacade facade) {
+		Map<Class<?>, SerializerFactory<?>> registry = new IdentityHashMap<>();
+		try {
+			ServiceLoader<SerializerFactory> loader = ServiceLoader.load(SerializerFactory.class);
+
+			for (SerializerFactory<?> factory : loader) {
+				Serializer<?> serializer = factory.newSerializer(facade);
+				for (Class<?> clazz : serializer.getMatchingClasses()) {
+					registry.put(clazz, factory);
+				}
+			}
+		} catch (ServiceConfigurationError serviceError) {
+			Logger.warn("failed loading serializers: " + serviceError.getMessage());
+		}
+		return registry;
+	}
+
+	private static SerializerFactory<?> computeFactory(Class<?> clazz, Map<Class<?>, SerializerFactory<?>> registry) {
+		SerializerFactory<?> factory = registry.get(clazz);
+		if (factory != null) {
+			return factory;
+		} else if (clazz.isArray()) {
+			return ARRAY;
+		} else if (clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())) {
+			return ENUM;
+		} else if (SerializedLambda.class == clazz) {
+			return LAMBDA;
+		} else {
+			return GENERIC;
+		}
+	}
+
+	private boolean computeExcludes(Class<?> clazz) {
+		if (clazz.isAnnotationPresent(Excluded.class)) {
+			return true;
+		}
+		return classExclusions.stream()
+			.anyMatch(exclusion -> exclusion.matches(clazz));
+	}
+
+	private List<Field> computeFields(Class<?> clazz) {
+		List<Field> fields = new ArrayList<>();
+		Class<?> current = clazz;
+		while (current != null && current != Object.class && !computeExcludes(current)) {
+			for (Field field : current.getDeclaredFields()) {
+				if (!excludes(field)) {
+					field.setAccessible(true);
+					fields.add(field);
+				}
+			}
+			current = current.getSuperclass();
+		}
+		return unmodifiableList(fields);
+	}
+
+	private static class Plan {
+
+		private boolean excluded;
+		private List<Field> fields;
+		private volatile SerializerFactory<?> factory;
+		private AtomicInteger serializations = new AtomicInteger();
+		private volatile SerializerFactory<?> compiled;
+		private volatile boolean compileAttempted;
+
+	}
+
+	private class Plans extends ClassValue<Plan> {
+
+		@Override
+		protected Plan computeValue(Class<?> type) {
+			Plan plan = new Plan();
+			plan.excluded = computeExcludes(type);
+			plan.fields = plan.excluded ? emptyList() : computeFields(type);
+			return plan;
+		}
+
+	}
+
+}
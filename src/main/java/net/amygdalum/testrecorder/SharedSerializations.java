@@ -0,0 +1,61 @@
+package net.amygdalum.testrecorder;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.profile.SerializationProfile;
+import net.amygdalum.testrecorder.types.SerializedValue;
+
+/**
+ * shares serialized values across snapshots (see {@link SerializationProfile#getSharedSerializationCapacity()}). Each object
+ * serialized by any facade is recorded with its fingerprint in a bounded {@link SerializationBaseline}, a later serialization of
+ * the same object reuses the recorded value as long as no object reachable from it changed.
+ *
+ * Shared serializations are used by many facades (and threads), they are backed by
+ * {@link SerializationBaseline#concurrent(SerializationPlans, int) concurrent baselines} and do not lock. Fingerprints are computed
+ * by the calling thread.
+ *
+ * Values are only shared between facades with equal {@link SerializationLimits}, because a value serialized within other limits may
+ * be truncated (or more complete) than the limits of the reusing facade allow.
+ */
+public class SharedSerializations {
+
+	private SerializationPlans plans;
+	private int capacity;
+	private Map<SerializationLimits, SerializationBaseline> baselines;
+
+	public SharedSerializations(SerializationPlans plans, int capacity) {
+		this.plans = plans;
+		this.capacity = capacity;
+		this.baselines = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @param limits the limits the value was serialized with
+	 * @see SerializationBaseline#record(Object, SerializedValue, Function)
+	 */
+	public void record(SerializationLimits limits, Object object, SerializedValue value, Function<Object, Object> originals) {
+		baseline(limits).record(object, value, originals);
+	}
+
+	/**
+	 * @param limits the limits the value should be serialized with
+	 * @see SerializationBaseline#reuse(Type, Object, Function, Map, Map)
+	 */
+	public SerializedValue reuse(SerializationLimits limits, Type type, Object object, Function<Object, Object> originals, Map<Object, SerializedValue> serialized,
+		Map<Object, Boolean> changed) {
+		SerializationBaseline baseline = baselines.get(limits);
+		if (baseline == null) {
+			return null;
+		}
+		return baseline.reuse(type, object, originals, serialized, changed);
+	}
+
+	private SerializationBaseline baseline(SerializationLimits limits) {
+		return baselines.computeIfAbsent(limits, key -> SerializationBaseline.concurrent(plans, capacity));
+	}
+
+}
@@ -0,0 +1,231 @@
+package net.amygdalum.testrecorder;
+
+import static net.amygdalum.testrecorder.BudgetPolicy.BLOCK;
+import static net.amygdalum.testrecorder.BudgetPolicy.DEGRADE;
+import static net.amygdalum.testrecorder.BudgetPolicy.DROP_OLDEST;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * accounts the (estimated) memory of snapshots from capture until the consumer is done with them. A snapshot reserves a minimal
+ * size when it is captured, resizes the reservation to its actual size (see {@link SnapshotSize}) before it is passed to the consumer,
+ * and releases it after the consumer is done with it. Snapshots not fitting into the budget are handled according to the
+ * {@link BudgetPolicy}. Snapshots evicted by {@link BudgetPolicy#DROP_OLDEST} are discarded (see {@link ContextSnapshot#discard()}).
+ * 
+ * With {@link BudgetPolicy#DEGRADE} new snapshots are serialized shallow as soon as the used memory reaches the high-water mark
+ * (see {@link #HIGH_WATER_PERCENT}) or a reservation was refused, until the used memory falls below the high-water mark again.
+ */
+public class SnapshotBudget {
+
+	/**
+	 * the depth up to which objects are serialized if snapshots are degraded
+	 */
+	public static final int SHALLOW_DEPTH = 2;
+
+	/**
+	 * the percentage of the capacity that triggers degrading of snapshots
+	 */
+	public static final int HIGH_WATER_PERCENT = 80;
+
+	private long capacity;
+	private long highWater;
+	private BudgetPolicy policy;
+	private long timeoutInMillis;
+
+	private long used;
+	private boolean refused;
+	private Map<ContextSnapshot, Reservation> reservations;
+
+	private long dropped;
+	private long evicted;
+	private long degraded;
+	private long blocked;
+
+	public SnapshotBudget(long capacity, BudgetPolicy policy, long timeoutInMillis) {
+		this.capacity = capacity;
+		this.highWater = capacity / 100 * HIGH_WATER_PERCENT;
+		this.policy = policy;
+		this.timeoutInMillis = timeoutInMillis;
+		this.reservations = new LinkedHashMap<>();
+	}
+
+	public boolean isBounded() {
+		return capacity < Long.MAX_VALUE;
+	}
+
+	public synchronized long getUsed() {
+		return used;
+	}
+
+	/**
+	 * @return the number of new snapshots discarded because they did not fit into the budget
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the number of in-flight snapshots discarded to make room for new snapshots
+	 */
+	public synchronized long getEvicted() {
+		return evicted;
+	}
+
+	/**
+	 * @return the number of snapshots serialized shallow because the budget was exceeded
+	 */
+	public synchronized long getDegraded() {
+		return degraded;
+	}
+
+	/**
+	 * @return the number of snapshots that had to wait for the budget
+	 */
+	public synchronized long getBlocked() {
+		return blocked;
+	}
+
+	/**
+	 * decides whether a new snapshot should be serialized shallow.
+	 * 
+	 * @return true if the policy is {@link BudgetPolicy#DEGRADE} and the budget is (nearly) exhausted, false otherwise
+	 */
+	public synchronized boolean degrade() {
+		if (policy == DEGRADE && (refused || used >= highWater)) {
+			degraded++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * reserves memory for the given snapshot.
+	 * 
+	 * @param snapshot the snapshot to be captured
+	 * @return a reservation to be released after the snapshot was consumed, or null if the snapshot should be discarded
+	 */
+	public Reservation reserve(ContextSnapshot snapshot) {
+		return reserve(snapshot, SnapshotSize.of(snapshot));
+	}
+
+	synchronized Reservation reserve(ContextSnapshot snapshot, long size) {
+		if (size > capacity) {
+			dropped++;
+			refused = true;
+			return null;
+		}
+		if (!makeRoom(size, null)) {
+			dropped++;
+			refused = true;
+			return null;
+		}
+		Reservation reservation = new Reservation(snapshot, size);
+		reservations.put(snapshot, reservation);
+		used += size;
+		return reservation;
+	}
+
+	/**
+	 * @param snapshot a snapshot
+	 * @return the active reservation of the given snapshot, or null if the snapshot has no reservation (any more)
+	 */
+	public synchronized Reservation reservationOf(ContextSnapshot snapshot) {
+		return reservations.get(snapshot);
+	}
+
+	synchronized boolean resize(Reservation reservation, long size) {
+		if (reservations.get(reservation.snapshot) != reservation) {
+			return false;
+		}
+		long delta = size - reservation.size;
+		if (size > capacity || !makeRoom(delta, reservation)) {
+			release(reservation);
+			dropped++;
+			refused = true;
+			return false;
+		}
+		reservation.size = size;
+		used += delta;
+		return true;
+	}
+
+	private boolean makeRoom(long size, Reservation keep) {
+		if (used + size > capacity) {
+			if (policy == DROP_OLDEST) {
+				evict(size, keep);
+			} else if (policy == BLOCK) {
+				await(size);
+			}
+		}
+		return used + size <= capacity;
+	}
+
+	private void evict(long size, Reservation keep) {
+		Iterator<Reservation> oldest = reservations.values().iterator();
+		while (used + size > capacity && oldest.hasNext()) {
+			Reservation reservation = oldest.next();
+			if (reservation == keep) {
+				continue;
+			}
+			oldest.remove();
+			reservation.snapshot.discard();
+			used -= reservation.size;
+			evicted++;
+		}
+	}
+
+	private void await(long size) {
+		blocked++;
+		long deadline = System.currentTimeMillis() + timeoutInMillis;
+		long remaining = timeoutInMillis;
+		while (used + size > capacity && remaining > 0) {
+			try {
+				wait(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			remaining = deadline - System.currentTimeMillis();
+		}
+	}
+
+	synchronized void release(Reservation reservation) {
+		if (reservations.remove(reservation.snapshot, reservation)) {
+			used -= reservation.size;
+			if (used < highWater) {
+				refused = false;
+			}
+			notifyAll();
+		}
+	}
+
+	public class Reservation {
+
+		private ContextSnapshot snapshot;
+		private long size;
+
+		Reservation(ContextSnapshot snapshot, long size) {
+			this.snapshot = snapshot;
+			this.size = size;
+		}
+
+		/**
+		 * adjusts the reserved memory to the given size (e.g. the actual size of the serialized snapshot). If the new size does not
+		 * fit into the budget, the reservation is released.
+		 * 
+		 * @param size the new size of the snapshot
+		 * @return true if the reservation was resized, false if it was released (or already evicted)
+		 */
+		public boolean resize(long size) {
+			return SnapshotBudget.this.resize(this, size);
+		}
+
+		public void release() {
+			SnapshotBudget.this.release(this);
+		}
+
+	}
+
+}
@@ -4,5 +4,20 @@ public interface SnapshotConsumer {
 
 	void accept(ContextSnapshot snapshot);
 
+	/**
+	 * accepts a snapshot and calls done as soon as the snapshot is no longer needed by this consumer. Consumers processing 
+	 * snapshots asynchronously should override this method.
+	 * 
+	 * @param snapshot the snapshot to consume
+	 * @param done the callback to be called after consumption
+	 */
+	default void accept(ContextSnapshot snapshot, Runnable done) {
+		try {
+			accept(snapshot);
+		} finally {
+			done.run();
+		}
+	}
+
 	void close();
 }
@@ -0,0 +1,432 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.util.Types.isLiteral;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Stack;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.util.Instantiations;
+import net.amygdalum.testrecorder.util.Reflections;
+
+/**
+ * copies the state of a recorded method (see {@link CaptureMode#COPY_ON_CAPTURE}), such that it can be serialized later while the
+ * recorded thread continues. Copying is fast and structural (no serialization):
+ * <ul>
+ * <li>arrays are cloned</li>
+ * <li>known collections and maps (e.g. {@link ArrayList}, {@link HashMap}, {@link ConcurrentHashMap}) are copied in bulk</li>
+ * <li>objects of application classes and known mutable classes of the jdk (e.g. the wrappers of {@link Collections}, {@link StringBuilder},
+ * {@link Date}, atomics) are copied field by field (the fields of each class are cached)</li>
+ * </ul>
+ * Elements and (not excluded) fields are copied recursively, shared objects are copied once. Immutable objects (e.g. literals, enums,
+ * lambdas) and objects of excluded classes are not copied, but captured by reference. So are objects deeper than the serialization
+ * limits (they are not serialized at all).
+ *
+ * Other objects that cannot be copied (e.g. unknown classes of the jdk, collections exceeding the serialization limits) are captured
+ * by reference, too. Such a capture is not {@link Capture#isFrozen() frozen} and must be serialized before the recorded thread continues.
+ */
+public class SnapshotCopier {
+
+	private static final Map<Class<?>, Function<Object, Object>> COLLECTIONS = new IdentityHashMap<>();
+
+	static {
+		COLLECTIONS.put(ArrayList.class, original -> new ArrayList<>(((Collection<?>) original).size()));
+		COLLECTIONS.put(LinkedList.class, original -> new LinkedList<>());
+		COLLECTIONS.put(ArrayDeque.class, original -> new ArrayDeque<>(((Collection<?>) original).size()));
+		COLLECTIONS.put(HashSet.class, original -> new HashSet<>());
+		COLLECTIONS.put(LinkedHashSet.class, original -> new LinkedHashSet<>());
+		COLLECTIONS.put(TreeSet.class, original -> new TreeSet<>(comparator(((TreeSet<?>) original).comparator())));
+		COLLECTIONS.put(HashMap.class, original -> new HashMap<>());
+		COLLECTIONS.put(LinkedHashMap.class, original -> new LinkedHashMap<>());
+		COLLECTIONS.put(TreeMap.class, original -> new TreeMap<>(comparator(((TreeMap<?, ?>) original).comparator())));
+		COLLECTIONS.put(Vector.class, original -> new Vector<>(((Collection<?>) original).size()));
+		COLLECTIONS.put(Stack.class, original -> new Stack<>());
+		COLLECTIONS.put(PriorityQueue.class, original -> new PriorityQueue<>(comparator(((PriorityQueue<?>) original).comparator())));
+		COLLECTIONS.put(CopyOnWriteArrayList.class, original -> new CopyOnWriteArrayList<>());
+		COLLECTIONS.put(CopyOnWriteArraySet.class, original -> new CopyOnWriteArraySet<>());
+		COLLECTIONS.put(ConcurrentLinkedQueue.class, original -> new ConcurrentLinkedQueue<>());
+		COLLECTIONS.put(ConcurrentLinkedDeque.class, original -> new ConcurrentLinkedDeque<>());
+		COLLECTIONS.put(ConcurrentSkipListSet.class, original -> new ConcurrentSkipListSet<>(comparator(((ConcurrentSkipListSet<?>) original).comparator())));
+		COLLECTIONS.put(Hashtable.class, original -> new Hashtable<>());
+		COLLECTIONS.put(IdentityHashMap.class, original -> new IdentityHashMap<>());
+		COLLECTIONS.put(ConcurrentHashMap.class, original -> new ConcurrentHashMap<>());
+		COLLECTIONS.put(ConcurrentSkipListMap.class, original -> new ConcurrentSkipListMap<>(comparator(((ConcurrentSkipListMap<?, ?>) original).comparator())));
+		COLLECTIONS.put(EnumMap.class, original -> emptyCopy((EnumMap<?, ?>) original));
+	}
+
+	private static final Set<Class<?>> STRUCTURES = new HashSet<>(asList(
+		Arrays.asList().getClass(),
+		StringBuilder.class,
+		StringBuffer.class,
+		Date.class,
+		java.sql.Date.class,
+		java.sql.Time.class,
+		java.sql.Timestamp.class,
+		BitSet.class,
+		AtomicBoolean.class,
+		AtomicInteger.class,
+		AtomicLong.class,
+		AtomicReference.class,
+		AtomicIntegerArray.class,
+		AtomicLongArray.class,
+		AtomicReferenceArray.class));
+
+	private static final Set<Class<?>> IMMUTABLES = new HashSet<>(asList(
+		Object.class,
+		Class.class,
+		BigInteger.class,
+		BigDecimal.class,
+		UUID.class,
+		Locale.class,
+		Currency.class));
+
+	private static final ClassValue<Field[]> INSTANCE_FIELDS = new ClassValue<Field[]>() {
+		@Override
+		protected Field[] computeValue(Class<?> type) {
+			List<Field> fields = new ArrayList<>();
+			Class<?> current = type;
+			while (current != null && current != Object.class) {
+				for (Field field : current.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						field.setAccessible(true);
+						fields.add(field);
+					}
+				}
+				current = current.getSuperclass();
+			}
+			return fields.toArray(new Field[0]);
+		}
+	};
+
+	private SerializationPlans plans;
+	private SerializationLimits limits;
+
+	public SnapshotCopier(SerializationPlans plans, SerializationLimits limits) {
+		this.plans = plans;
+		this.limits = limits;
+	}
+
+	/**
+	 * starts copying the state of one capture (e.g. the setup of a recorded method). Objects shared by different values of one capture
+	 * are shared by the copies.
+	 *
+	 * @return a new capture
+	 */
+	public Capture capture() {
+		return new Capture(this);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Comparator<Object> comparator(Comparator<?> comparator) {
+		return (Comparator<Object>) comparator;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object emptyCopy(EnumMap<?, ?> original) {
+		EnumMap copy = new EnumMap(original);
+		copy.clear();
+		return copy;
+	}
+
+	private boolean copies(Class<?> clazz) {
+		if (clazz.isArray()) {
+			return true;
+		} else if (COLLECTIONS.containsKey(clazz) || EnumSet.class.isAssignableFrom(clazz)) {
+			return true;
+		} else if (clazz.isSynthetic() || isEnum(clazz) || plans.excludes(clazz)) {
+			return false;
+		} else if (clazz.getClassLoader() == null) {
+			return isStructure(clazz);
+		} else {
+			return true;
+		}
+	}
+
+	private static boolean isStructure(Class<?> clazz) {
+		return STRUCTURES.contains(clazz)
+			|| clazz.getEnclosingClass() == Collections.class;
+	}
+
+	private boolean isImmutable(Class<?> clazz) {
+		return isLiteral(clazz)
+			|| IMMUTABLES.contains(clazz)
+			|| clazz.isSynthetic()
+			|| isEnum(clazz)
+			|| plans.excludes(clazz)
+			|| clazz.getName().startsWith("java.time.");
+	}
+
+	private static boolean isEnum(Class<?> clazz) {
+		return clazz.isEnum() || clazz.getSuperclass() != null && clazz.getSuperclass().isEnum();
+	}
+
+	private boolean exceedsDepth(int depth) {
+		return depth > limits.getMaxDepth();
+	}
+
+	private boolean exceedsLimits(Object object, int nodes) {
+		if (nodes >= limits.getMaxNodes()) {
+			return true;
+		} else if (object instanceof Collection<?>) {
+			return ((Collection<?>) object).size() > limits.getMaxCollectionElements();
+		} else if (object instanceof Map<?, ?>) {
+			return ((Map<?, ?>) object).size() > limits.getMaxCollectionElements();
+		} else if (object.getClass().isArray()) {
+			return Array.getLength(object) > limits.getMaxArrayLength();
+		}
+		return false;
+	}
+
+	/**
+	 * the copies of one capture. A capture without copier ({@link #NONE}) does not copy anything.
+	 */
+	public static class Capture {
+
+		public static final Capture NONE = new Capture(null);
+
+		private SnapshotCopier copier;
+		private Map<Object, Object> copies;
+		private Map<Object, Object> originals;
+		private List<Object> registered;
+		private boolean frozen;
+
+		private Capture(SnapshotCopier copier) {
+			this.copier = copier;
+			this.copies = new IdentityHashMap<>();
+			this.originals = new IdentityHashMap<>();
+			this.registered = new ArrayList<>();
+			this.frozen = true;
+		}
+
+		public boolean isCopying() {
+			return copier != null;
+		}
+
+		/**
+		 * @return true if all values of this capture are copied (or immutable), false if a mutable value was captured by reference
+		 * (then the capture should be serialized before the recorded thread continues)
+		 */
+		public boolean isFrozen() {
+			return frozen;
+		}
+
+		/**
+		 * @return a map from each copy of this capture to its original
+		 */
+		public Map<Object, Object> originals() {
+			return originals;
+		}
+
+		/**
+		 * copies a value. If the value cannot be copied, it is captured by reference.
+		 * 
+		 * @param value the value to copy
+		 * @return the copy of value (or value itself if it is not copied)
+		 */
+		public Object copy(Object value) {
+			if (copier == null) {
+				return value;
+			}
+			int mark = registered.size();
+			try {
+				return copy(value, 0);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				Logger.warn("failed copying " + value.getClass().getName() + ", capturing it by reference: " + e.getMessage());
+				unregister(mark);
+				frozen = false;
+				return value;
+			}
+		}
+
+		/**
+		 * @param values the values to copy
+		 * @return an array of the copies of values
+		 */
+		public Object[] copy(Object[] values) {
+			if (copier == null || values == null) {
+				return values;
+			}
+			Object[] copy = new Object[values.length];
+			for (int i = 0; i < values.length; i++) {
+				copy[i] = copy(values[i]);
+			}
+			return copy;
+		}
+
+		/**
+		 * reads and copies the values of the given static fields.
+		 *
+		 * @param fields the static fields to read
+		 * @return the copied values of the fields or null if this capture does not copy or a field could not be read (the fields
+		 * should be read on serialization then)
+		 */
+		public Object[] copyGlobals(List<Field> fields) {
+			if (copier == null) {
+				return null;
+			}
+			Object[] copy = new Object[fields.size()];
+			for (int i = 0; i < copy.length; i++) {
+				try {
+					copy[i] = copy(Reflections.getValue(fields.get(i), null));
+				} catch (ReflectiveOperationException e) {
+					Logger.warn("failed reading " + fields.get(i).getName() + ", reading globals on serialization: " + e.getMessage());
+					frozen = false;
+					return null;
+				}
+			}
+			return copy;
+		}
+
+		private Object copy(Object value, int depth) throws ReflectiveOperationException {
+			if (value == null) {
+				return null;
+			}
+			Object copy = copies.get(value);
+			if (copy != null) {
+				return copy;
+			}
+			Class<?> clazz = value.getClass();
+			if (copier.exceedsDepth(depth)) {
+				return value;
+			} else if (!copier.copies(clazz) || copier.exceedsLimits(value, copies.size())) {
+				if (!copier.isImmutable(clazz)) {
+					frozen = false;
+				}
+				return value;
+			}
+			if (clazz.isArray()) {
+				return copyArray(value, depth);
+			} else if (value instanceof EnumSet<?>) {
+				return register(value, ((EnumSet<?>) value).clone());
+			} else if (COLLECTIONS.containsKey(clazz) && value instanceof Map<?, ?>) {
+				return copyMap((Map<?, ?>) value, depth);
+			} else if (COLLECTIONS.containsKey(clazz)) {
+				return copyCollection((Collection<?>) value, depth);
+			} else {
+				return copyObject(value, depth);
+			}
+		}
+
+		private Object copyArray(Object value, int depth) throws ReflectiveOperationException {
+			if (value.getClass().getComponentType().isPrimitive()) {
+				return register(value, cloneArray(value));
+			}
+			Object[] copy = ((Object[]) value).clone();
+			register(value, copy);
+			for (int i = 0; i < copy.length; i++) {
+				copy[i] = copy(copy[i], depth + 1);
+			}
+			return copy;
+		}
+
+		private Object cloneArray(Object value) {
+			int length = Array.getLength(value);
+			Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+			System.arraycopy(value, 0, copy, 0, length);
+			return copy;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object copyCollection(Collection<?> value, int depth) throws ReflectiveOperationException {
+			Object[] elements = value.toArray();
+			Collection<Object> copy = (Collection<Object>) COLLECTIONS.get(value.getClass()).apply(value);
+			register(value, copy);
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = copy(elements[i], depth + 1);
+			}
+			copy.addAll(Arrays.asList(elements));
+			return copy;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object copyMap(Map<?, ?> value, int depth) throws ReflectiveOperationException {
+			Object[] entries = value.entrySet().toArray();
+			Map<Object, Object> copy = (Map<Object, Object>) COLLECTIONS.get(value.getClass()).apply(value);
+			register(value, copy);
+			for (Object element : entries) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+				Object key = entry.getKey();
+				Object entryValue = entry.getValue();
+				copy.put(copy(key, depth + 1), copy(entryValue, depth + 1));
+			}
+			return copy;
+		}
+
+		private Object copyObject(Object value, int depth) throws ReflectiveOperationException {
+			Object copy = Instantiations.newInstance(value.getClass());
+			register(value, copy);
+			for (Field field : INSTANCE_FIELDS.get(value.getClass())) {
+				field.set(copy, field.get(value));
+			}
+			for (Field field : copier.plans.fieldsOf(value.getClass())) {
+				if (!field.getType().isPrimitive() && !Modifier.isStatic(field.getModifiers())) {
+					field.set(copy, copy(field.get(value), depth + 1));
+				}
+			}
+			return copy;
+		}
+
+		private Object register(Object original, Object copy) {
+			copies.put(original, copy);
+			originals.put(copy, original);
+			registered.add(original);
+			return copy;
+		}
+
+		private void unregister(int mark) {
+			for (int i = registered.size() - 1; i >= mark; i--) {
+				Object original = registered.remove(i);
+				originals.remove(copies.remove(original));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,208 @@
+package net.amygdalum.testrecorder;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.amygdalum.testrecorder.types.SerializedInteraction;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.types.SerializedValueType;
+import net.amygdalum.testrecorder.values.LambdaSignature;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedEnum;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedImmutable;
+import net.amygdalum.testrecorder.values.SerializedLambdaObject;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedMap;
+import net.amygdalum.testrecorder.values.SerializedNull;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedSet;
+
+/**
+ * computes a structural hash of a {@link ContextSnapshot}. Two snapshots have the same fingerprint if they record the same method
+ * with equal setup and expectation values. Time stamps and object ids are ignored, shared or cyclic references are hashed by the
+ * position of their first occurrence (such that aliasing is still distinguished).
+ */
+public class SnapshotFingerprint {
+
+	private static final long OFFSET = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private Map<SerializedValue, Integer> known;
+	private long hash;
+
+	private SnapshotFingerprint() {
+		this.known = new IdentityHashMap<>();
+		this.hash = OFFSET;
+	}
+
+	public static long of(ContextSnapshot snapshot) {
+		SnapshotFingerprint fingerprint = new SnapshotFingerprint();
+		fingerprint.add(snapshot);
+		return fingerprint.hash;
+	}
+
+	private void add(ContextSnapshot snapshot) {
+		add(snapshot.getDeclaringClass().getName());
+		add(snapshot.getMethodName());
+		add(snapshot.getThisType());
+		add(snapshot.getArgumentTypes());
+		add(snapshot.getSetupThis());
+		add(snapshot.getSetupArgs());
+		add(snapshot.getSetupGlobals());
+		add(snapshot.getExpectThis());
+		add(snapshot.getExpectResult());
+		add(snapshot.getExpectException());
+		add(snapshot.getExpectArgs());
+		add(snapshot.getExpectGlobals());
+		addInteractions(snapshot.getSetupInput());
+		addInteractions(snapshot.getExpectOutput());
+	}
+
+	private void addInteractions(List<? extends SerializedInteraction> interactions) {
+		add(interactions.size());
+		for (SerializedInteraction interaction : interactions) {
+			add(interaction.getCallerClass());
+			add(interaction.getCallerMethod());
+			add(interaction.getCallerLine());
+			add(interaction.getDeclaringClass().getName());
+			add(interaction.getName());
+			add(interaction.getResultType());
+			add(interaction.getTypes());
+			add(interaction.getResult());
+			add(interaction.getArguments());
+		}
+	}
+
+	private void add(SerializedField[] fields) {
+		if (fields == null) {
+			add(-1);
+			return;
+		}
+		add(fields.length);
+		for (SerializedField field : fields) {
+			add(field);
+		}
+	}
+
+	private void add(SerializedField field) {
+		add(field.getDeclaringClass().getName());
+		add(field.getName());
+		add(field.getType());
+		add(field.getValue());
+	}
+
+	private void add(SerializedValue[] values) {
+		if (values == null) {
+			add(-1);
+			return;
+		}
+		add(values.length);
+		for (SerializedValue value : values) {
+			add(value);
+		}
+	}
+
+	private void add(SerializedValue value) {
+		if (value == null) {
+			add(-1);
+			return;
+		}
+		Integer index = known.get(value);
+		if (index != null) {
+			add(-2);
+			add(index);
+			return;
+		}
+		if (!(value instanceof SerializedValueType)) {
+			known.put(value, known.size());
+		}
+		add(value.getClass().getName());
+		add(value.getType());
+		if (value instanceof SerializedValueType) {
+			add(((SerializedValueType) value).getValue());
+		} else if (value instanceof SerializedNull) {
+			return;
+		} else if (value instanceof SerializedEnum) {
+			add(((SerializedEnum) value).getName());
+		} else if (value instanceof SerializedImmutable<?>) {
+			add(((SerializedImmutable<?>) value).getValue());
+		} else if (value instanceof SerializedObject) {
+			List<SerializedField> fields = ((SerializedObject) value).getFields();
+			add(fields.size());
+			for (SerializedField field : fields) {
+				add(field);
+			}
+		} else if (value instanceof SerializedArray && ((SerializedArray) value).isPrimitiveArray()) {
+			Object array = ((SerializedArray) value).getPrimitiveArray();
+			int length = Array.getLength(array);
+			add(length);
+			for (int i = 0; i < length; i++) {
+				add(Array.get(array, i));
+			}
+		} else if (value instanceof SerializedLambdaObject) {
+			LambdaSignature signature = ((SerializedLambdaObject) value).getSignature();
+			if (signature != null) {
+				add(signature.getImplClass());
+				add(signature.getImplMethodName());
+				add(signature.getImplMethodSignature());
+			}
+			addValues(value.referencedValues());
+		} else if (value instanceof SerializedList) {
+			addValues((SerializedList) value);
+		} else if (value instanceof SerializedSet) {
+			addValues((SerializedSet) value);
+		} else if (value instanceof SerializedMap) {
+			addValues(((SerializedMap) value).keySet());
+			addValues(((SerializedMap) value).values());
+		} else {
+			addValues(value.referencedValues());
+		}
+	}
+
+	private void addValues(Collection<SerializedValue> values) {
+		add(values.size());
+		for (SerializedValue value : values) {
+			add(value);
+		}
+	}
+
+	private void add(Type[] types) {
+		if (types == null) {
+			add(-1);
+			return;
+		}
+		add(types.length);
+		for (Type type : types) {
+			add(type);
+		}
+	}
+
+	private void add(Type type) {
+		add(type == null ? null : type.getTypeName());
+	}
+
+	private void add(Object value) {
+		add(value == null ? null : value.toString());
+	}
+
+	private void add(String value) {
+		if (value == null) {
+			add(-1);
+			return;
+		}
+		add(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			add(value.charAt(i));
+		}
+	}
+
+	private void add(int value) {
+		hash = (hash ^ value) * PRIME;
+	}
+
+}
@@ -7,6 +7,9 @@ import static net.amygdalum.testrecorder.asm.ByteCode.returnsResult;
 import static org.objectweb.asm.Opcodes.ACC_ANNOTATION;
 import static org.objectweb.asm.Opcodes.ACC_INTERFACE;
 import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFNE;
 
 import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
@@ -26,8 +29,13 @@ import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LineNumberNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
 
 import net.amygdalum.testrecorder.asm.Assign;
 import net.amygdalum.testrecorder.asm.ByteCode;
@@ -35,7 +43,6 @@ import net.amygdalum.testrecorder.asm.CaptureCall;
 import net.amygdalum.testrecorder.asm.GetInvokedMethodArgumentTypes;
 import net.amygdalum.testrecorder.asm.GetInvokedMethodName;
 import net.amygdalum.testrecorder.asm.GetInvokedMethodResultType;
-import net.amygdalum.testrecorder.asm.GetStackTrace;
 import net.amygdalum.testrecorder.asm.GetStatic;
 import net.amygdalum.testrecorder.asm.GetThisOrClass;
 import net.amygdalum.testrecorder.asm.GetThisOrNull;
@@ -50,7 +57,6 @@ import net.amygdalum.testrecorder.asm.Sequence;
 import net.amygdalum.testrecorder.asm.SequenceInstruction;
 import net.amygdalum.testrecorder.asm.WrapArgumentTypes;
 import net.amygdalum.testrecorder.asm.WrapArguments;
-import net.amygdalum.testrecorder.asm.WrapMethod;
 import net.amygdalum.testrecorder.asm.WrapResultType;
 import net.amygdalum.testrecorder.asm.WrapWithTryCatch;
 import net.amygdalum.testrecorder.bridge.BridgedSnapshotManager;
@@ -270,9 +276,12 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 		}
 
 		protected void instrumentInputMethod(MethodNode methodNode) {
-			methodNode.instructions = new WrapMethod()
-				.prepend(inputVariables(methodNode))
-				.append(inputArgumentsAndResult(methodNode))
+			methodNode.instructions = new WrapWithTryCatch(methodNode)
+				.before(inputVariables(methodNode))
+				.after(Sequence.start()
+					.then(inputArgumentsAndResult(methodNode))
+					.then(ioCompleted()))
+				.handler(ioCompleted())
 				.build(new MethodContext(classNode, methodNode));
 		}
 
@@ -287,9 +296,12 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 		}
 
 		protected void instrumentOutputMethod(MethodNode methodNode) {
-			methodNode.instructions = new WrapMethod()
-				.prepend(outputVariables(methodNode))
-				.append(outputResult(methodNode))
+			methodNode.instructions = new WrapWithTryCatch(methodNode)
+				.before(outputVariables(methodNode))
+				.after(Sequence.start()
+					.then(outputResult(methodNode))
+					.then(ioCompleted()))
+				.handler(ioCompleted())
 				.build(new MethodContext(classNode, methodNode));
 		}
 
@@ -297,26 +309,96 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 
 		protected abstract SequenceInstruction outputResult(MethodNode methodNode);
 
+		protected abstract SequenceInstruction ioCompleted();
+
 		private void instrumentNativeInputCalls() {
 			for (MethodNode method : classNode.methods) {
 				if (!isInputMethod(classNode, method)) {
 					MethodContext context = new MethodContext(classNode, method);
 					for (MethodInsnNode inputCall : getNativeInputCalls(method)) {
-						method.instructions.insertBefore(inputCall, beforeNativeInputCall(context, inputCall));
-						method.instructions.insert(inputCall, afterNativeInputCall(context, inputCall));
+						wrapNativeCall(context, method, inputCall, beforeNativeInputCall(context, inputCall), afterNativeInputCall(context, inputCall));
 					}
 				}
 			}
 		}
 
+		/**
+		 * wraps a native input/output call with the given instructions. The completion of the call (normally or exceptionally)
+		 * is reported to the snapshot manager afterwards.
+		 * 
+		 * The wrapped call is only executed if the current thread is recording, otherwise a copy of the original call is executed
+		 * (such that unrecorded threads neither capture arguments nor call the snapshot manager more than once).
+		 */
+		private void wrapNativeCall(MethodContext context, MethodNode method, MethodInsnNode call, InsnList before, InsnList after) {
+			LabelNode recordLabel = new LabelNode();
+			LabelNode tryLabel = new LabelNode();
+			LabelNode endLabel = new LabelNode();
+			LabelNode catchLabel = new LabelNode();
+			LabelNode continueLabel = new LabelNode();
+
+			InsnList handler = new InsnList();
+			handler.add(catchLabel);
+			handler.add(nativeCallCompleted(context));
+			handler.add(new InsnNode(ATHROW));
+
+			InsnList insnList = new InsnList();
+			insnList.add(endLabel);
+			insnList.add(after);
+			insnList.add(nativeCallCompleted(context));
+			insnList.add(new JumpInsnNode(GOTO, continueLabel));
+			insnList.add(handler);
+			insnList.add(continueLabel);
+
+			InsnList guard = new InsnList();
+			guard.add(isRecording(context));
+			guard.add(new JumpInsnNode(IFNE, recordLabel));
+			guard.add(call.clone(Collections.emptyMap()));
+			guard.add(new JumpInsnNode(GOTO, continueLabel));
+			guard.add(recordLabel);
+
+			method.instructions.insertBefore(call, guard);
+			method.instructions.insertBefore(call, before);
+			method.instructions.insertBefore(call, tryLabel);
+			method.instructions.insert(call, insnList);
+
+			// innermost handlers must precede the existing handlers
+			method.tryCatchBlocks.add(0, new TryCatchBlockNode(tryLabel, endLabel, catchLabel, null));
+		}
+
+		protected InsnList isRecording(MethodContext context) {
+			return new InvokeVirtual(SnapshotManager.class, "isRecording")
+				.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
+				.build(context);
+		}
+
+		protected InsnList nativeCallCompleted(MethodContext context) {
+			return new InvokeVirtual(SnapshotManager.class, "ioCompleted")
+				.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
+				.build(context);
+		}
+
+		protected int callSite(MethodContext context, MethodInsnNode call) {
+			String className = Type.getObjectType(classNode.name).getClassName();
+			return CallSites.register(className, context.getMethodName(), classNode.sourceFile, lineOf(call));
+		}
+
+		private int lineOf(AbstractInsnNode insn) {
+			for (AbstractInsnNode current = insn; current != null; current = current.getPrevious()) {
+				if (current instanceof LineNumberNode) {
+					return ((LineNumberNode) current).line;
+				}
+			}
+			return -1;
+		}
+
 		protected InsnList beforeNativeInputCall(MethodContext context, MethodInsnNode inputCall) {
 			return Sequence.start()
 				.then(new CaptureCall(inputCall, "base", "arguments"))
 				.then(new Assign("inputId", Type.INT_TYPE)
 					.value(
-						new InvokeVirtual(SnapshotManager.class, "inputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
+						new InvokeVirtual(SnapshotManager.class, "inputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
 							.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
-							.withArgument(0, new GetStackTrace())
+							.withArgument(0, new Ldc(callSite(context, inputCall)))
 							.withArgument(1, new Recall("base"))
 							.withArgument(2, new GetInvokedMethodName(inputCall))
 							.withArgument(3, new GetInvokedMethodResultType(inputCall))
@@ -352,8 +434,7 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 				if (!isOutputMethod(classNode, method)) {
 					MethodContext context = new MethodContext(classNode, method);
 					for (MethodInsnNode outputCall : getNativeOutputCalls(method)) {
-						method.instructions.insertBefore(outputCall, beforeNativeOutputCall(context, outputCall));
-						method.instructions.insert(outputCall, afterNativeOutputCall(context, outputCall));
+						wrapNativeCall(context, method, outputCall, beforeNativeOutputCall(context, outputCall), afterNativeOutputCall(context, outputCall));
 					}
 				}
 			}
@@ -364,9 +445,9 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 				.then(new CaptureCall(inputCall, "base", "arguments"))
 				.then(new Assign("outputId", Type.INT_TYPE)
 					.value(
-						new InvokeVirtual(SnapshotManager.class, "outputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
+						new InvokeVirtual(SnapshotManager.class, "outputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
 							.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
-							.withArgument(0, new GetStackTrace())
+							.withArgument(0, new Ldc(callSite(context, inputCall)))
 							.withArgument(1, new Recall("base"))
 							.withArgument(2, new GetInvokedMethodName(inputCall))
 							.withArgument(3, new GetInvokedMethodResultType(inputCall))
@@ -580,9 +661,9 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 		@Override
 		protected SequenceInstruction inputVariables(MethodNode methodNode) {
 			return new Assign("inputId", Type.INT_TYPE)
-				.value(new InvokeStatic(BridgedSnapshotManager.class, "inputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class,
+				.value(new InvokeStatic(BridgedSnapshotManager.class, "inputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class,
 					java.lang.reflect.Type[].class)
-						.withArgument(0, new GetStackTrace())
+						.withArgument(0, new Ldc(CallSites.UNKNOWN))
 						.withArgument(1, new GetThisOrClass())
 						.withArgument(2, new Ldc(methodNode.name))
 						.withArgument(3, new WrapResultType())
@@ -612,9 +693,9 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 		protected SequenceInstruction outputVariables(MethodNode methodNode) {
 			return Sequence.start()
 				.then(new Assign("outputId", Type.INT_TYPE)
-					.value(new InvokeStatic(BridgedSnapshotManager.class, "outputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class,
+					.value(new InvokeStatic(BridgedSnapshotManager.class, "outputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class,
 						java.lang.reflect.Type[].class)
-							.withArgument(0, new GetStackTrace())
+							.withArgument(0, new Ldc(CallSites.UNKNOWN))
 							.withArgument(1, new GetThisOrClass())
 							.withArgument(2, new Ldc(methodNode.name))
 							.withArgument(3, new WrapResultType())
@@ -637,6 +718,17 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 			}
 		}
 
+		@Override
+		protected SequenceInstruction ioCompleted() {
+			return new InvokeStatic(BridgedSnapshotManager.class, "ioCompleted");
+		}
+
+		@Override
+		protected InsnList isRecording(MethodContext context) {
+			return new InvokeStatic(BridgedSnapshotManager.class, "isRecording")
+				.build(context);
+		}
+
 	}
 
 	public static class DefaultTask extends Task {
@@ -648,9 +740,9 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 		@Override
 		protected SequenceInstruction inputVariables(MethodNode methodNode) {
 			return new Assign("inputId", Type.INT_TYPE)
-				.value(new InvokeVirtual(SnapshotManager.class, "inputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
+				.value(new InvokeVirtual(SnapshotManager.class, "inputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
 					.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
-					.withArgument(0, new GetStackTrace())
+					.withArgument(0, new Ldc(CallSites.UNKNOWN))
 					.withArgument(1, new GetThisOrClass())
 					.withArgument(2, new Ldc(methodNode.name))
 					.withArgument(3, new WrapResultType())
@@ -684,9 +776,9 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 			return Sequence.start()
 				.then(new Assign("outputId", Type.INT_TYPE)
 					.value(
-						new InvokeVirtual(SnapshotManager.class, "outputVariables", StackTraceElement[].class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
+						new InvokeVirtual(SnapshotManager.class, "outputVariables", int.class, Object.class, String.class, java.lang.reflect.Type.class, java.lang.reflect.Type[].class)
 							.withBase(new GetStatic(SnapshotManager.class, "MANAGER"))
-							.withArgument(0, new GetStackTrace())
+							.withArgument(0, new Ldc(CallSites.UNKNOWN))
 							.withArgument(1, new GetThisOrClass())
 							.withArgument(2, new Ldc(methodNode.name))
 							.withArgument(3, new WrapResultType())
@@ -711,5 +803,11 @@ public class SnapshotInstrumentor extends AttachableClassFileTransformer impleme
 			}
 		}
 
+		@Override
+		protected SequenceInstruction ioCompleted() {
+			return new InvokeVirtual(SnapshotManager.class, "ioCompleted")
+				.withBase(new GetStatic(SnapshotManager.class, "MANAGER"));
+		}
+
 	}
-}
+}
\ No newline at end of file
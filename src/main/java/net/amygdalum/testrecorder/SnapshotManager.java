@@ -16,19 +16,24 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 
+import net.amygdalum.testrecorder.SnapshotBudget.Reservation;
 import net.amygdalum.testrecorder.bridge.BridgedSnapshotManager;
-import net.amygdalum.testrecorder.profile.SerializationProfile;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
 import net.amygdalum.testrecorder.runtime.FakeIO;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
+import net.amygdalum.testrecorder.serializers.SerializerFacade;
 import net.bytebuddy.agent.ByteBuddyAgent;
 
 public class SnapshotManager {
@@ -43,6 +48,9 @@ public class SnapshotManager {
 	private ThreadLocal<Deque<SnapshotProcess>> current = ThreadLocal.withInitial(() -> newStack());
 
 	private TestRecorderAgentConfig config;
+	private SamplingPolicy sampling;
+	private SnapshotBudget budget;
+	private SerializationPlans plans;
 
 	static {
 		Instrumentation inst = ByteBuddyAgent.install();
@@ -51,27 +59,43 @@ public class SnapshotManager {
 	
 	public SnapshotManager(TestRecorderAgentConfig config) {
 		this.config = new FixedTestRecorderAgentConfig(config);
+		this.sampling = this.config.getSamplingPolicy();
+		this.budget = new SnapshotBudget(this.config.getSnapshotMemoryBudget(), this.config.getSnapshotBudgetPolicy(), this.config.getTimeoutInMillis());
+		this.plans = new SerializationPlans(this.config);
 
-		this.snapshot = Executors.newSingleThreadExecutor(new TestrecorderThreadFactory("$snapshot"));
-		this.methodSnapshots = new HashMap<>();
+		this.snapshot = snapshotExecutor(this.config);
+		this.methodSnapshots = new ConcurrentHashMap<>();
 		this.globalContext = new GlobalContext();
 	}
 
+	private static ExecutorService snapshotExecutor(TestRecorderAgentConfig config) {
+		int threads = Math.max(1, config.getSnapshotThreads());
+		int capacity = Math.max(1, config.getSnapshotQueueCapacity());
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(capacity),
+			new TestrecorderThreadFactory("$snapshot"),
+			config.getSnapshotRejectionPolicy().handler());
+	}
+
 	private static void installBridge(Instrumentation inst) {
 		try {
 			inst.appendToBootstrapClassLoaderSearch(jarfile());
 			BridgedSnapshotManager.inputVariables = MethodHandles.lookup().findVirtual(SnapshotManager.class, "inputVariables",
-				MethodType.methodType(int.class, StackTraceElement[].class, Object.class, String.class, Type.class, Type[].class));
+				MethodType.methodType(int.class, int.class, Object.class, String.class, Type.class, Type[].class));
 			BridgedSnapshotManager.inputArguments = MethodHandles.lookup().findVirtual(SnapshotManager.class, "inputArguments",
 				MethodType.methodType(void.class, int.class, Object[].class));
 			BridgedSnapshotManager.inputResult = MethodHandles.lookup().findVirtual(SnapshotManager.class, "inputResult",
 				MethodType.methodType(void.class, int.class, Object.class));
 			BridgedSnapshotManager.outputVariables = MethodHandles.lookup().findVirtual(SnapshotManager.class, "outputVariables",
-				MethodType.methodType(int.class, StackTraceElement[].class, Object.class, String.class, Type.class, Type[].class));
+				MethodType.methodType(int.class, int.class, Object.class, String.class, Type.class, Type[].class));
 			BridgedSnapshotManager.outputArguments = MethodHandles.lookup().findVirtual(SnapshotManager.class, "outputArguments",
 				MethodType.methodType(void.class, int.class, Object[].class));
 			BridgedSnapshotManager.outputResult = MethodHandles.lookup().findVirtual(SnapshotManager.class, "outputResult",
 				MethodType.methodType(void.class, int.class, Object.class));
+			BridgedSnapshotManager.ioCompleted = MethodHandles.lookup().findVirtual(SnapshotManager.class, "ioCompleted",
+				MethodType.methodType(void.class));
+			BridgedSnapshotManager.isRecording = MethodHandles.lookup().findVirtual(SnapshotManager.class, "isRecording",
+				MethodType.methodType(boolean.class));
 		} catch (ReflectiveOperationException | IOException e) {
 			throw new RuntimeException("failed installing fake bridge", e);
 		}
@@ -103,10 +127,17 @@ public class SnapshotManager {
 
 	public void close() throws Throwable {
 		snapshot.shutdown();
+		snapshot.awaitTermination(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS);
+		if (budget.getDropped() > 0 || budget.getEvicted() > 0 || budget.getDegraded() > 0) {
+			Logger.warn("snapshot memory budget exceeded: " + budget.getDropped() + " snapshots dropped, "
+				+ budget.getEvicted() + " snapshots evicted, "
+				+ budget.getDegraded() + " snapshots degraded");
+		}
 		SnapshotConsumer snapshotConsumer = config.getSnapshotConsumer();
 		if (snapshotConsumer != null) {
 			snapshotConsumer.close();
 		}
+		plans.close();
 	}
 
 	public static SnapshotManager init(TestRecorderAgentConfig config) {
@@ -115,6 +146,10 @@ public class SnapshotManager {
 		return MANAGER;
 	}
 
+	public SnapshotBudget getBudget() {
+		return budget;
+	}
+
 	public SnapshotConsumer getMethodConsumer() {
 		return config.getSnapshotConsumer();
     }
@@ -139,14 +174,29 @@ public class SnapshotManager {
 
 	public SnapshotProcess push(String signature) {
 		ContextSnapshotFactory factory = methodSnapshots.get(signature);
-		SerializationProfile profile = config;
 		List<Field> contextGlobals = globalContext.globals();
 		ContextSnapshot contextSnapshot = factory.createSnapshot();
-		SnapshotProcess process = new SnapshotProcess(snapshot, profile, contextSnapshot, contextGlobals);
+		if (budget.isBounded() && budget.reserve(contextSnapshot) == null) {
+			SnapshotProcess skipping = SnapshotProcess.skipping(signature);
+			current.get().push(skipping);
+			return skipping;
+		}
+		SerializationLimits limits = budget.degrade()
+			? shallow(config.getSerializationLimits())
+			: config.getSerializationLimits();
+		SerializerFacade facade = new ConfigurableSerializerFacade(limits, plans);
+		SnapshotCopier copier = config.getCaptureMode() == CaptureMode.COPY_ON_CAPTURE
+			? new SnapshotCopier(plans, limits)
+			: null;
+		SnapshotProcess process = new SnapshotProcess(snapshot, config, facade, copier, contextSnapshot, contextGlobals);
 		current.get().push(process);
 		return process;
 	}
 
+	private static SerializationLimits shallow(SerializationLimits limits) {
+		return limits.withMaxDepth(Math.min(limits.getMaxDepth(), SnapshotBudget.SHALLOW_DEPTH));
+	}
+
 	public SnapshotProcess current() {
 		Deque<SnapshotProcess> stack = current.get();
 		if (stack.isEmpty()) {
@@ -156,11 +206,23 @@ public class SnapshotManager {
 		}
 	}
 
+	/**
+	 * checks whether the current thread records a snapshot. Instrumented code may skip capturing interactions (and calling this
+	 * manager) if not.
+	 * 
+	 * @return true if there is an active snapshot process on the current thread, false otherwise
+	 */
+	public boolean isRecording() {
+		return current().isRecording();
+	}
+
 	public SnapshotProcess pop(String signature) {
 		Deque<SnapshotProcess> processes = current.get();
 		SnapshotProcess currentProcess = processes.pop();
 		while (!currentProcess.matches(signature)) {
-			currentProcess.getSnapshot().invalidate();
+			ContextSnapshot snapshot = currentProcess.getSnapshot();
+			snapshot.invalidate();
+			release(snapshot);
 			currentProcess = processes.pop();
 		}
 		return currentProcess;
@@ -170,12 +232,16 @@ public class SnapshotManager {
 		if (!matches(self, signature)) {
 			return;
 		}
+		if (!sampling.sample(signature)) {
+			current.get().push(SnapshotProcess.skipping(signature));
+			return;
+		}
 		SnapshotProcess process = push(signature);
 		process.setupVariables(signature, self, args);
 	}
 
-	public int inputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
-		return current().inputVariables(stackTrace, object, method, resultType, paramTypes);
+	public int inputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
+		return current().inputVariables(callSite, object, method, resultType, paramTypes);
 	}
 
 	public void inputArguments(int id, Object... args) {
@@ -186,8 +252,8 @@ public class SnapshotManager {
 		current().inputResult(id, result);
 	}
 
-	public int outputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
-		return current().outputVariables(stackTrace, object, method, resultType, paramTypes);
+	public int outputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
+		return current().outputVariables(callSite, object, method, resultType, paramTypes);
 	}
 
 	public void outputArguments(int id, Object... args) {
@@ -198,13 +264,17 @@ public class SnapshotManager {
 		current().outputResult(id, result);
 	}
 
+	public void ioCompleted() {
+		current().ioCompleted();
+	}
+
 	public void expectVariables(Object self, String signature, Object result, Object... args) {
 		if (!matches(self, signature)) {
 			return;
 		}
 		SnapshotProcess process = pop(signature);
 		process.expectVariables(self, result, args);
-		consume(process.getSnapshot());
+		process.whenCompleted(this::consume);
 	}
 
 	public void expectVariables(Object self, String signature, Object... args) {
@@ -213,7 +283,7 @@ public class SnapshotManager {
 		}
 		SnapshotProcess process = pop(signature);
 		process.expectVariables(self, args);
-		consume(process.getSnapshot());
+		process.whenCompleted(this::consume);
 	}
 
 	public void throwVariables(Throwable throwable, Object self, String signature, Object... args) {
@@ -222,15 +292,29 @@ public class SnapshotManager {
 		}
 		SnapshotProcess process = pop(signature);
 		process.throwVariables(self, throwable, args);
-		consume(process.getSnapshot());
+		process.whenCompleted(this::consume);
 	}
 
 	private void consume(ContextSnapshot snapshot) {
-		if (snapshot.isValid()) {
-			SnapshotConsumer snapshotConsumer = config.getSnapshotConsumer();
-			if (snapshotConsumer != null) {
-				snapshotConsumer.accept(snapshot);
+		SnapshotConsumer snapshotConsumer = config.getSnapshotConsumer();
+		if (!snapshot.isValid() || snapshotConsumer == null) {
+			release(snapshot);
+			return;
+		}
+		if (budget.isBounded()) {
+			Reservation reservation = budget.reservationOf(snapshot);
+			if (reservation != null && reservation.resize(SnapshotSize.of(snapshot))) {
+				snapshotConsumer.accept(snapshot, reservation::release);
 			}
+		} else {
+			snapshotConsumer.accept(snapshot);
+		}
+	}
+
+	private void release(ContextSnapshot snapshot) {
+		Reservation reservation = budget.reservationOf(snapshot);
+		if (reservation != null) {
+			reservation.release();
 		}
 	}
 
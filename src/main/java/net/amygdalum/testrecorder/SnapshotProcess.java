@@ -5,21 +5,26 @@ import static java.lang.System.identityHashCode;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
-import net.amygdalum.testrecorder.profile.SerializationProfile;
+import net.amygdalum.testrecorder.SnapshotCopier.Capture;
 import net.amygdalum.testrecorder.serializers.SerializerFacade;
+import net.amygdalum.testrecorder.types.SerializationCancelledException;
+import net.amygdalum.testrecorder.types.SerializationException;
+import net.amygdalum.testrecorder.util.IntMap;
 import net.amygdalum.testrecorder.util.Types;
 import net.amygdalum.testrecorder.values.SerializedField;
 import net.amygdalum.testrecorder.values.SerializedInput;
@@ -27,27 +32,69 @@ import net.amygdalum.testrecorder.values.SerializedOutput;
 
 public class SnapshotProcess {
 
-	public static final SnapshotProcess PASSIVE = passiveProcess();
+	public static final SnapshotProcess PASSIVE = passiveProcess(null);
 
 	private ExecutorService executor;
 	private long timeoutInMillis;
+	private CompletableFuture<Void> pending;
 	private ContextSnapshot snapshot;
 	private SerializerFacade facade;
+	private SnapshotCopier copier;
 	private List<Field> globals;
 	private Deque<SerializedInput> input;
+	private IntMap<SerializedInput> inputById;
 	private Deque<SerializedOutput> output;
+	private IntMap<SerializedOutput> outputById;
+	private int ioDepth;
 
 	private SnapshotProcess() {
 	}
 
-	public SnapshotProcess(ExecutorService executor, SerializationProfile profile, ContextSnapshot snapshot, List<Field> globals) {
+	public SnapshotProcess(ExecutorService executor, TestRecorderAgentConfig config, ContextSnapshot snapshot, List<Field> globals) {
+		this(executor, config, new ConfigurableSerializerFacade(config), snapshot, globals);
+	}
+
+	public SnapshotProcess(ExecutorService executor, TestRecorderAgentConfig config, SerializerFacade facade, ContextSnapshot snapshot, List<Field> globals) {
+		this(executor, config, facade, null, snapshot, globals);
+	}
+
+	/**
+	 * creates a process for a recorded invocation.
+	 * 
+	 * @param executor the executor serializing the state of the invocation
+	 * @param config the configuration of recording
+	 * @param facade the facade serializing the state of the invocation
+	 * @param copier the copier used in {@link CaptureMode#COPY_ON_CAPTURE} (may be null, then the state is captured asynchronously without copying)
+	 * @param snapshot the snapshot to record
+	 * @param globals the global fields to record
+	 */
+	public SnapshotProcess(ExecutorService executor, TestRecorderAgentConfig config, SerializerFacade facade, SnapshotCopier copier, ContextSnapshot snapshot, List<Field> globals) {
 		this.executor = executor;
-		this.timeoutInMillis = profile.getTimeoutInMillis();
+		this.timeoutInMillis = config.getTimeoutInMillis();
+		if (config.getCaptureMode() == CaptureMode.ASYNCHRONOUS) {
+			this.pending = CompletableFuture.completedFuture(null);
+		} else if (config.getCaptureMode() == CaptureMode.COPY_ON_CAPTURE) {
+			this.pending = CompletableFuture.completedFuture(null);
+			this.copier = copier;
+		}
 		this.snapshot = snapshot;
-		this.facade = new ConfigurableSerializerFacade(profile);
+		this.facade = facade;
 		this.globals = globals;
-		this.input = new LinkedList<>();
-		this.output = new LinkedList<>();
+		this.input = new ArrayDeque<>();
+		this.inputById = new IntMap<>();
+		this.output = new ArrayDeque<>();
+		this.outputById = new IntMap<>();
+	}
+
+	/**
+	 * creates a process for an invocation that is not recorded. Such a process ignores all interactions, but matches the 
+	 * given signature key (to be popped correctly).
+	 * 
+	 * @param key the signature key of the invocation that is not recorded
+	 * @return a passive process matching the given key
+	 */
+	public static SnapshotProcess skipping(String key) {
+		return passiveProcess(key);
 	}
 
 	public ContextSnapshot getSnapshot() {
@@ -58,6 +105,32 @@ public class SnapshotProcess {
 		return snapshot.matches(key);
 	}
 
+	public boolean isRecording() {
+		return true;
+	}
+
+	/**
+	 * calls the given consumer with the snapshot of this process as soon as all serialization tasks are completed.
+	 * In synchronous capture mode the consumer is called immediately.
+	 * 
+	 * @param consumer the consumer to be notified 
+	 */
+	public void whenCompleted(Consumer<ContextSnapshot> consumer) {
+		if (pending == null) {
+			consumer.accept(getSnapshot());
+		} else {
+			pending = pending.thenRun(() -> consumer.accept(snapshot));
+		}
+	}
+
+	private StackTraceElement[] call(int callSite, Class<?> clazz, String methodName) {
+		StackTraceElement caller = CallSites.get(callSite);
+		if (caller != null) {
+			return new StackTraceElement[] { new StackTraceElement(clazz.getName(), methodName, "?", -1), caller };
+		}
+		return call(new Throwable().getStackTrace(), clazz, methodName);
+	}
+
 	private StackTraceElement[] call(StackTraceElement[] stackTrace, Class<?> clazz, String methodName) {
 		for (int i = 0; i < stackTrace.length; i++) {
 			StackTraceElement caller = stackTrace[i];
@@ -79,146 +152,340 @@ public class SnapshotProcess {
 		return qualifyingMethods.stream().anyMatch(method -> method.getName().equals(caller.getMethodName()) && method.getDeclaringClass().getName().equals(caller.getClassName()));
 	}
 
-	public int inputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
-		if (isNestedIO(stackTrace, method)) {
+	/**
+	 * registers an input interaction. Interactions are ignored if another interaction (e.g. a java input method calling a native input method)
+	 * is not yet completed.
+	 * 
+	 * @param callSite the id of the call site (see {@link CallSites}) or {@link CallSites#UNKNOWN} if the caller should be determined from the stack 
+	 * @param object the object (or class) providing the input
+	 * @param method the input method
+	 * @param resultType the result type of the input method
+	 * @param paramTypes the parameter types of the input method
+	 * @return the id of the interaction or 0 if the interaction is ignored
+	 */
+	public int inputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
+		if (ioDepth++ > 0) {
 			return 0;
 		}
 		Class<?> clazz = object instanceof Class<?> ? (Class<?>) object : object.getClass();
-		StackTraceElement[] call = call(stackTrace, clazz, method);
+		StackTraceElement[] call = call(callSite, clazz, method);
 		int id = object instanceof Class<?> ? 0 : identityHashCode(object);
 
 		SerializedInput in = new SerializedInput(id, call, clazz, method, resultType, paramTypes);
 		input.add(in);
+		inputById.put(in.id(), in);
 		return in.id();
 	}
 
 	public void inputResult(int id, Object result) {
-		input.stream().filter(in -> in.id() == id).forEach(in -> {
-			in.updateResult(facade.serialize(in.getResultType(), result));
-		});
+		SerializedInput in = inputById.get(id);
+		if (in != null) {
+			Capture capture = capture();
+			Object capturedResult = capture.copy(result);
+			capture(capture, () -> in.updateResult(facade.serialize(in.getResultType(), capturedResult)));
+		}
 	}
 
 	public void inputArguments(int id, Object... arguments) {
-		input.stream().filter(in -> in.id() == id).forEach(in -> {
-			in.updateArguments(facade.serialize(in.getTypes(), arguments));
-		});
+		SerializedInput in = inputById.get(id);
+		if (in != null) {
+			Capture capture = capture();
+			Object[] capturedArguments = capture.copy(arguments);
+			capture(capture, () -> in.updateArguments(facade.serialize(in.getTypes(), capturedArguments)));
+		}
 	}
 
-	public int outputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
-		if (isNestedIO(stackTrace, method)) {
+	/**
+	 * registers an output interaction. Interactions are ignored if another interaction (e.g. a java output method calling a native output method)
+	 * is not yet completed.
+	 * 
+	 * @param callSite the id of the call site (see {@link CallSites}) or {@link CallSites#UNKNOWN} if the caller should be determined from the stack 
+	 * @param object the object (or class) receiving the output
+	 * @param method the output method
+	 * @param resultType the result type of the output method
+	 * @param paramTypes the parameter types of the output method
+	 * @return the id of the interaction or 0 if the interaction is ignored
+	 */
+	public int outputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
+		if (ioDepth++ > 0) {
 			return 0;
 		}
 		Class<?> clazz = object instanceof Class<?> ? (Class<?>) object : object.getClass();
-		StackTraceElement[] call = call(stackTrace, clazz, method);
+		StackTraceElement[] call = call(callSite, clazz, method);
 		int id = object instanceof Class<?> ? 0 : identityHashCode(object);
 
 		SerializedOutput out = new SerializedOutput(id, call, clazz, method, resultType, paramTypes);
 		output.add(out);
+		outputById.put(out.id(), out);
 		return out.id();
 	}
 
 	public void outputResult(int id, Object result) {
-		output.stream().filter(out -> out.id() == id).forEach(out -> {
-			out.updateResult(facade.serialize(out.getResultType(), result));
-		});
+		SerializedOutput out = outputById.get(id);
+		if (out != null) {
+			Capture capture = capture();
+			Object capturedResult = capture.copy(result);
+			capture(capture, () -> out.updateResult(facade.serialize(out.getResultType(), capturedResult)));
+		}
 	}
 
 	public void outputArguments(int id, Object... arguments) {
-		output.stream().filter(out -> out.id() == id).forEach(out -> {
-			out.updateArguments(facade.serialize(out.getTypes(), arguments));
-		});
+		SerializedOutput out = outputById.get(id);
+		if (out != null) {
+			Capture capture = capture();
+			Object[] capturedArguments = capture.copy(arguments);
+			capture(capture, () -> out.updateArguments(facade.serialize(out.getTypes(), capturedArguments)));
+		}
 	}
 
-	private boolean isNestedIO(StackTraceElement[] stackTrace, String methodName) {
-		if (!input.isEmpty()) {
-			SerializedInput in = input.getLast();
-			if (in.prefixesStackTrace(stackTrace)) {
-				return true;
-			}
-		}
-		if (!output.isEmpty()) {
-			SerializedOutput out = output.getLast();
-			if (out.prefixesStackTrace(stackTrace)) {
-				return true;
-			}
+	/**
+	 * marks the innermost input/output interaction as completed (normally or exceptionally).
+	 */
+	public void ioCompleted() {
+		if (ioDepth > 0) {
+			ioDepth--;
 		}
-		return false;
 	}
 
 	public void setupVariables(String signature, Object self, Object... args) {
-		modify(snapshot -> {
-			if (self != null) {
-				snapshot.setSetupThis(facade.serialize(self.getClass(), self));
+		Capture capture = capture();
+		Object setupThis = capture.copy(self);
+		Object[] setupArgs = capture.copy(args);
+		Object[] setupGlobals = capture.copyGlobals(globals);
+		modify(capture, snapshot -> {
+			if (setupThis != null) {
+				snapshot.setSetupThis(facade.serialize(setupThis.getClass(), setupThis));
 			}
-			snapshot.setSetupArgs(facade.serialize(snapshot.getArgumentTypes(), args));
-			snapshot.setSetupGlobals(globals.stream()
-				.map(field -> facade.serialize(field, null))
-				.toArray(SerializedField[]::new));
+			snapshot.setSetupArgs(facade.serialize(snapshot.getArgumentTypes(), setupArgs));
+			snapshot.setSetupGlobals(serializeGlobals(setupGlobals));
 		});
 	}
 
 	public void expectVariables(Object self, Object result, Object... args) {
-		modify(snapshot -> {
-			if (self != null) {
-				snapshot.setExpectThis(facade.serialize(self.getClass(), self));
+		Capture capture = capture();
+		Object expectThis = capture.copy(self);
+		Object expectResult = capture.copy(result);
+		Object[] expectArgs = capture.copy(args);
+		Object[] expectGlobals = capture.copyGlobals(globals);
+		modify(capture, snapshot -> {
+			if (expectThis != null) {
+				snapshot.setExpectThis(facade.serialize(expectThis.getClass(), expectThis));
 			}
-			snapshot.setExpectResult(facade.serialize(snapshot.getResultType(), result));
-			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), args));
-			snapshot.setExpectGlobals(globals.stream()
-				.map(field -> facade.serialize(field, null))
-				.toArray(SerializedField[]::new));
+			snapshot.setExpectResult(facade.serialize(snapshot.getResultType(), expectResult));
+			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), expectArgs));
+			snapshot.setExpectGlobals(serializeGlobals(expectGlobals));
 			snapshot.setInput(new ArrayList<>(input));
 			snapshot.setOutput(new ArrayList<>(output));
 		});
 	}
 
 	public void expectVariables(Object self, Object... args) {
-		modify(snapshot -> {
-			if (self != null) {
-				snapshot.setExpectThis(facade.serialize(self.getClass(), self));
+		Capture capture = capture();
+		Object expectThis = capture.copy(self);
+		Object[] expectArgs = capture.copy(args);
+		Object[] expectGlobals = capture.copyGlobals(globals);
+		modify(capture, snapshot -> {
+			if (expectThis != null) {
+				snapshot.setExpectThis(facade.serialize(expectThis.getClass(), expectThis));
 			}
-			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), args));
-			snapshot.setExpectGlobals(globals.stream()
-				.map(field -> facade.serialize(field, null))
-				.toArray(SerializedField[]::new));
+			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), expectArgs));
+			snapshot.setExpectGlobals(serializeGlobals(expectGlobals));
 			snapshot.setInput(new ArrayList<>(input));
 			snapshot.setOutput(new ArrayList<>(output));
 		});
 	}
 
 	public void throwVariables(Object self, Throwable throwable, Object[] args) {
-		modify(snapshot -> {
-			if (self != null) {
-				snapshot.setExpectThis(facade.serialize(self.getClass(), self));
+		Capture capture = capture();
+		Object expectThis = capture.copy(self);
+		Object[] expectArgs = capture.copy(args);
+		Object[] expectGlobals = capture.copyGlobals(globals);
+		modify(capture, snapshot -> {
+			if (expectThis != null) {
+				snapshot.setExpectThis(facade.serialize(expectThis.getClass(), expectThis));
 			}
-			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), args));
+			snapshot.setExpectArgs(facade.serialize(snapshot.getArgumentTypes(), expectArgs));
 			snapshot.setExpectException(facade.serialize(throwable.getClass(), throwable));
-			snapshot.setExpectGlobals(globals.stream()
-				.map(field -> facade.serialize(field, null))
-				.toArray(SerializedField[]::new));
+			snapshot.setExpectGlobals(serializeGlobals(expectGlobals));
 			snapshot.setInput(new ArrayList<>(input));
 			snapshot.setOutput(new ArrayList<>(output));
 		});
 	}
 
-	private void modify(Consumer<ContextSnapshot> task) {
+	private SerializedField[] serializeGlobals(Object[] values) {
+		if (values == null) {
+			return globals.stream()
+				.map(field -> facade.serialize(field, null))
+				.toArray(SerializedField[]::new);
+		}
+		SerializedField[] fields = new SerializedField[values.length];
+		for (int i = 0; i < fields.length; i++) {
+			Field field = globals.get(i);
+			Type type = field.getGenericType();
+			fields[i] = new SerializedField(field.getDeclaringClass(), field.getName(), type, facade.serialize(type, values[i]));
+		}
+		return fields;
+	}
+
+	private Capture capture() {
+		if (copier == null) {
+			return Capture.NONE;
+		}
+		return copier.capture();
+	}
+
+	private void capture(Capture capture, Runnable task) {
+		if (pending == null) {
+			if (!snapshot.isValid()) {
+				return;
+			}
+			try {
+				task.run();
+			} catch (SerializationException e) {
+				snapshot.invalidate();
+				Logger.error("failed serializing " + snapshot, e);
+			}
+		} else if (!capture.isFrozen()) {
+			if (!awaitPending()) {
+				return;
+			}
+			try {
+				facade.registerOriginals(capture.originals());
+				task.run();
+			} catch (SerializationException e) {
+				snapshot.invalidate();
+				Logger.error("failed serializing " + snapshot, e);
+			}
+		} else if (capture.isCopying()) {
+			schedule(() -> {
+				facade.registerOriginals(capture.originals());
+				task.run();
+			});
+		} else {
+			schedule(task);
+		}
+	}
+
+	private void modify(Capture capture, Consumer<ContextSnapshot> task) {
+		if (pending == null) {
+			serialize(task);
+		} else if (!capture.isFrozen()) {
+			if (awaitPending()) {
+				serialize(snapshot -> {
+					facade.registerOriginals(capture.originals());
+					task.accept(snapshot);
+				});
+			}
+		} else if (capture.isCopying()) {
+			schedule(() -> {
+				facade.registerOriginals(capture.originals());
+				task.accept(snapshot);
+				facade.reset();
+			});
+		} else {
+			schedule(() -> {
+				task.accept(snapshot);
+				facade.reset();
+			});
+		}
+	}
+
+	private void schedule(Runnable task) {
+		long deadline = snapshot.getTime() + timeoutInMillis;
 		try {
-			Future<?> future = executor.submit(() -> {
+			pending = pending.thenRunAsync(() -> {
+				if (!snapshot.isValid()) {
+					return;
+				}
+				if (System.currentTimeMillis() > deadline) {
+					snapshot.invalidate();
+					Logger.error("failed serializing " + snapshot + ": timeout of " + timeoutInMillis + " ms exceeded");
+					return;
+				}
+				facade.setDeadline(deadline);
+				task.run();
+			}, executor).exceptionally(e -> {
+				snapshot.invalidate();
+				if (e.getCause() instanceof SerializationCancelledException) {
+					Logger.error("failed serializing " + snapshot + ": timeout of " + timeoutInMillis + " ms exceeded");
+				} else {
+					Logger.error("failed serializing " + snapshot, e);
+				}
+				return null;
+			});
+		} catch (RejectedExecutionException e) {
+			snapshot.invalidate();
+			Logger.error("failed serializing " + snapshot, e);
+		}
+	}
+
+	/**
+	 * waits for the scheduled serialization tasks, such that a capture that is not frozen can be serialized before the recorded thread
+	 * continues.
+	 * 
+	 * @return true if all scheduled tasks are completed, false if the snapshot was invalidated while waiting
+	 */
+	private boolean awaitPending() {
+		try {
+			pending.get(timeoutInMillis, TimeUnit.MILLISECONDS);
+			return snapshot.isValid();
+		} catch (TimeoutException e) {
+			snapshot.invalidate();
+			Logger.error("failed serializing " + snapshot + ": timeout of " + timeoutInMillis + " ms exceeded");
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			snapshot.invalidate();
+			return false;
+		} catch (ExecutionException | CancellationException e) {
+			snapshot.invalidate();
+			Logger.error("failed serializing " + snapshot, e);
+			return false;
+		}
+	}
+
+	private void serialize(Consumer<ContextSnapshot> task) {
+		if (!snapshot.isValid()) {
+			return;
+		}
+		facade.setDeadline(System.currentTimeMillis() + timeoutInMillis);
+		Future<?> future = null;
+		try {
+			future = executor.submit(() -> {
 				task.accept(snapshot);
 			});
 			future.get(timeoutInMillis, TimeUnit.MILLISECONDS);
 			facade.reset();
-		} catch (InterruptedException | ExecutionException | TimeoutException | CancellationException e) {
+		} catch (TimeoutException e) {
+			facade.cancel();
+			future.cancel(false);
+			snapshot.invalidate();
+			Logger.error("failed serializing " + snapshot + ": timeout of " + timeoutInMillis + " ms exceeded");
+		} catch (InterruptedException | ExecutionException | CancellationException | RejectedExecutionException e) {
 			snapshot.invalidate();
 			Logger.error("failed serializing " + snapshot, e);
 		}
 	}
 
-	private static SnapshotProcess passiveProcess() {
+	private static SnapshotProcess passiveProcess(String key) {
 		return new SnapshotProcess() {
 
 			@Override
-			public int inputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
+			public boolean matches(String signature) {
+				return key == null || key.equals(signature);
+			}
+
+			@Override
+			public boolean isRecording() {
+				return false;
+			}
+
+			@Override
+			public void whenCompleted(Consumer<ContextSnapshot> consumer) {
+			}
+
+			@Override
+			public int inputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
 				return 0;
 			}
 
@@ -231,7 +498,7 @@ public class SnapshotProcess {
 			}
 
 			@Override
-			public int outputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) {
+			public int outputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) {
 				return 0;
 			}
 
@@ -243,6 +510,10 @@ public class SnapshotProcess {
 			public void outputResult(int id, Object result) {
 			}
 
+			@Override
+			public void ioCompleted() {
+			}
+
 			@Override
 			public void setupVariables(String signature, Object self, Object... args) {
 			}
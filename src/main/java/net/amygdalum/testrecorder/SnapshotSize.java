@@ -0,0 +1,124 @@
+package net.amygdalum.testrecorder;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import net.amygdalum.testrecorder.types.SerializedInteraction;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.types.SerializedValueType;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+/**
+ * estimates the number of bytes retained by a {@link ContextSnapshot}. The estimate is coarse (fixed costs per value, field, reference
+ * and character), it is meant for accounting of memory budgets, not for measuring. Shared values are counted once.
+ */
+public class SnapshotSize {
+
+	private static final long SNAPSHOT = 128;
+	private static final long VALUE = 32;
+	private static final long FIELD = 32;
+	private static final long REFERENCE = 8;
+	private static final long INTERACTION = 96;
+	private static final long STRING = 40;
+	private static final long CHAR = 2;
+	private static final long ARRAY = 16;
+	private static final long PRIMITIVE = 8;
+
+	private Set<SerializedValue> known;
+	private Deque<SerializedValue> pending;
+	private long size;
+
+	private SnapshotSize() {
+		this.known = Collections.newSetFromMap(new IdentityHashMap<>());
+		this.pending = new ArrayDeque<>();
+	}
+
+	public static long of(ContextSnapshot snapshot) {
+		SnapshotSize size = new SnapshotSize();
+		size.add(snapshot);
+		return size.size;
+	}
+
+	private void add(ContextSnapshot snapshot) {
+		size += SNAPSHOT;
+		add(snapshot.getSetupThis());
+		add(snapshot.getSetupArgs());
+		add(snapshot.getSetupGlobals());
+		add(snapshot.getExpectThis());
+		add(snapshot.getExpectResult());
+		add(snapshot.getExpectException());
+		add(snapshot.getExpectArgs());
+		add(snapshot.getExpectGlobals());
+		addInteractions(snapshot.getSetupInput());
+		addInteractions(snapshot.getExpectOutput());
+		while (!pending.isEmpty()) {
+			addValue(pending.pop());
+		}
+	}
+
+	private void addInteractions(List<? extends SerializedInteraction> interactions) {
+		for (SerializedInteraction interaction : interactions) {
+			size += INTERACTION;
+			add(interaction.getResult());
+			add(interaction.getArguments());
+		}
+	}
+
+	private void add(SerializedField[] fields) {
+		if (fields == null) {
+			return;
+		}
+		for (SerializedField field : fields) {
+			size += FIELD;
+			add(field.getValue());
+		}
+	}
+
+	private void add(SerializedValue[] values) {
+		if (values == null) {
+			return;
+		}
+		size += values.length * REFERENCE;
+		for (SerializedValue value : values) {
+			add(value);
+		}
+	}
+
+	private void add(SerializedValue value) {
+		if (value != null && known.add(value)) {
+			pending.push(value);
+		}
+	}
+
+	private void addValue(SerializedValue value) {
+		size += VALUE;
+		if (value instanceof SerializedValueType) {
+			Object literal = ((SerializedValueType) value).getValue();
+			if (literal instanceof String) {
+				size += STRING + ((String) literal).length() * CHAR;
+			}
+		} else if (value instanceof SerializedArray && ((SerializedArray) value).isPrimitiveArray()) {
+			Object array = ((SerializedArray) value).getPrimitiveArray();
+			size += ARRAY + Array.getLength(array) * PRIMITIVE;
+		} else if (value instanceof SerializedObject) {
+			for (SerializedField field : ((SerializedObject) value).getFields()) {
+				size += FIELD;
+				add(field.getValue());
+			}
+		} else {
+			List<SerializedValue> referenced = value.referencedValues();
+			size += referenced.size() * REFERENCE;
+			for (SerializedValue child : referenced) {
+				add(child);
+			}
+		}
+	}
+
+}
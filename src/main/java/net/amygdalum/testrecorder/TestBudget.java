@@ -0,0 +1,65 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * accounts the (estimated) heap memory of the rendered tests kept by the contexts of a test generator. As soon as the tests of all
+ * registered contexts exceed the threshold, the contexts move their tests to memory-mapped files (see {@link TestGeneratorContext}),
+ * until the tests kept on the heap fall below the threshold again.
+ */
+public class TestBudget {
+
+	private long threshold;
+	private long used;
+	private Set<TestGeneratorContext> contexts;
+
+	/**
+	 * @param threshold the number of bytes (estimated as 2 bytes per char) of tests to keep on the heap, 0 to keep all tests on the heap
+	 */
+	public TestBudget(long threshold) {
+		this.threshold = threshold;
+		this.contexts = new LinkedHashSet<>();
+	}
+
+	public synchronized long getUsed() {
+		return used;
+	}
+
+	public synchronized boolean isExceeded() {
+		return threshold > 0 && used > threshold;
+	}
+
+	synchronized void register(TestGeneratorContext context) {
+		contexts.add(context);
+	}
+
+	synchronized void unregister(TestGeneratorContext context, long bytes) {
+		if (contexts.remove(context)) {
+			used -= bytes;
+		}
+	}
+
+	/**
+	 * accounts new tests on the heap.
+	 *
+	 * @param bytes the size of the new tests
+	 * @return the contexts to spill (in order of registration) if the threshold is exceeded, an empty list otherwise
+	 */
+	synchronized List<TestGeneratorContext> grow(long bytes) {
+		used += bytes;
+		if (!isExceeded()) {
+			return emptyList();
+		}
+		return new ArrayList<>(contexts);
+	}
+
+	synchronized void shrink(long bytes) {
+		used -= bytes;
+	}
+
+}
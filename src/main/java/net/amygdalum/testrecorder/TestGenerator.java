@@ -1,6 +1,8 @@
 package net.amygdalum.testrecorder;
 
 import static java.lang.Character.toUpperCase;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
@@ -24,10 +26,12 @@ import static net.amygdalum.testrecorder.util.Types.baseType;
 import static net.amygdalum.testrecorder.util.Types.isPrimitive;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.SimpleDateFormat;
@@ -35,22 +39,27 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.stringtemplate.v4.AutoIndentWriter;
 import org.stringtemplate.v4.ST;
 
 import net.amygdalum.testrecorder.ContextSnapshot.AnnotatedValue;
@@ -121,8 +130,10 @@ public class TestGenerator implements SnapshotConsumer {
 
 	private DeserializerFactory setup;
 	private DeserializerFactory matcher;
-	private Map<ClassDescriptor, TestGeneratorContext> tests;
+	private volatile Map<ClassDescriptor, TestGeneratorContext> tests;
 	private Set<String> fields;
+	private TestBudget budget;
+	private long maxTestFileSize;
 
 	public TestGenerator() {
 		this.executor = Executors.newSingleThreadExecutor(new TestrecorderThreadFactory("$consume"));
@@ -132,6 +143,7 @@ public class TestGenerator implements SnapshotConsumer {
 
 		this.tests = synchronizedMap(new LinkedHashMap<>());
 		this.fields = new LinkedHashSet<>();
+		this.budget = new TestBudget(0);
 		this.pipeline = CompletableFuture.runAsync(() -> {
 			Logger.info("starting code generation");
 		}, executor);
@@ -162,31 +174,84 @@ public class TestGenerator implements SnapshotConsumer {
 		this.matcher = matcher;
 	}
 
+	/**
+	 * sets the number of bytes of rendered tests (of all classes) that may be kept on the heap, further tests are moved to memory-mapped
+	 * files (see {@link TestGeneratorContext#TestGeneratorContext(ClassDescriptor, TestBudget)}). 0 (the default) keeps all tests on the heap.
+	 * Applies to contexts created afterwards.
+	 * 
+	 * @param spillThreshold the number of bytes of tests to keep on the heap
+	 */
+	public void setSpillThreshold(long spillThreshold) {
+		this.budget = new TestBudget(spillThreshold);
+	}
+
+	/**
+	 * sets the maximum size (in chars of test methods) of a test file. Larger test files are split into multiple test files (with at
+	 * least one test each) to keep them compilable. 0 (the default) writes all tests of a class to one test file.
+	 * 
+	 * @param maxTestFileSize the maximum number of chars of the tests in one test file
+	 */
+	public void setMaxTestFileSize(long maxTestFileSize) {
+		this.maxTestFileSize = maxTestFileSize;
+	}
+
 	@Override
-	public synchronized void accept(ContextSnapshot snapshot) {
-		pipeline = this.pipeline.thenRunAsync(() -> {
-			Class<?> thisType = baseType(snapshot.getThisType());
-			while (thisType.getEnclosingClass() != null) {
-				thisType = thisType.getEnclosingClass();
-			}
-			ClassDescriptor baseType = ClassDescriptor.of(thisType);
-			TestGeneratorContext context = getContext(baseType);
-			
-			if (!snapshot.getSetupInput().isEmpty() || !snapshot.getExpectOutput().isEmpty()) {
-				context.addSetup(resetFakeIO(context));
+	public void accept(ContextSnapshot snapshot) {
+		accept(snapshot, () -> {
+		});
+	}
+
+	@Override
+	public synchronized void accept(ContextSnapshot snapshot, Runnable done) {
+		pipeline = this.pipeline.thenRunAsync(() -> generate(snapshot), executor).exceptionally(e -> {
+			if (!snapshot.isValid()) {
+				// discarded while generating
+				return null;
 			}
-			
-			MethodGenerator methodGenerator = new MethodGenerator(context.size(), context.getTypes())
-				.analyze(snapshot)
-				.generateArrange()
-				.generateAct()
-				.generateAssert();
-
-			context.add(methodGenerator.generateTest());
-		}, executor).exceptionally(e -> {
 			Logger.error("failed generating test for " + snapshot.getMethodName() + ": " + e.getClass().getSimpleName() + " " + e.getMessage(), e);
 			return null;
-		});
+		}).thenRun(done);
+	}
+
+	/**
+	 * generates the test for the given snapshot in the calling thread (accepted snapshots are generated in the thread of this generator).
+	 * 
+	 * Tests of different classes (see {@link #testedClass(ContextSnapshot)}) may be generated concurrently, tests of the same class must be
+	 * generated sequentially.
+	 * 
+	 * @param snapshot the snapshot to generate a test for
+	 */
+	public void generate(ContextSnapshot snapshot) {
+		if (!snapshot.isValid()) {
+			return;
+		}
+		TestGeneratorContext context = getContext(testedClass(snapshot));
+
+		long fingerprint = SnapshotFingerprint.of(snapshot);
+
+		if (!snapshot.getSetupInput().isEmpty() || !snapshot.getExpectOutput().isEmpty()) {
+			context.addSetup(resetFakeIO(context));
+		}
+
+		MethodGenerator methodGenerator = new MethodGenerator(context.indexOf(fingerprint), context.getTypes())
+			.analyze(snapshot)
+			.generateArrange()
+			.generateAct()
+			.generateAssert();
+
+		context.add(fingerprint, methodGenerator.generateTest());
+	}
+
+	/**
+	 * @param snapshot a snapshot
+	 * @return the class the test for this snapshot is generated into (the top level class of the recorded object)
+	 */
+	public static ClassDescriptor testedClass(ContextSnapshot snapshot) {
+		Class<?> thisType = baseType(snapshot.getThisType());
+		while (thisType.getEnclosingClass() != null) {
+			thisType = thisType.getEnclosingClass();
+		}
+		return ClassDescriptor.of(thisType);
 	}
 
 	private String resetFakeIO(TestGeneratorContext context) {
@@ -198,24 +263,94 @@ public class TestGenerator implements SnapshotConsumer {
 		return generateSetup(asList(annotation(types.getRawTypeName(Before.class)), annotation(types.getRawTypeName(After.class))), "resetFakeIO", statements);
 	}
 
+	/**
+	 * writes the tests of each class to a test file in the given directory. Test files are written incrementally (one test at a time).
+	 * If a maximum test file size is set (see {@link #setMaxTestFileSize(long)}), tests exceeding this size are split into further test
+	 * files (named like the first test file with a number appended).
+	 * 
+	 * @param dir the directory to write the test files to
+	 */
 	public void writeResults(Path dir) {
 		for (ClassDescriptor clazz : tests.keySet()) {
+			writeResults(dir, clazz, getContext(clazz), computeClassName(clazz));
+		}
+	}
 
-			String rendered = renderTest(clazz);
+	/**
+	 * writes the given tests in parallel (one task per class) to test files in the given directory (like {@link #writeResults(Path)}).
+	 * The contexts of the written tests are closed afterwards.
+	 * 
+	 * @param dir the directory to write the test files to
+	 * @param results the tests to write (as returned by {@link #detachResults()})
+	 * @param classNames the class names of the test files
+	 * @param executor the executor writing the test files
+	 * @return a future completing after all test files have been written
+	 */
+	public CompletableFuture<Void> writeResults(Path dir, Map<ClassDescriptor, TestGeneratorContext> results, Function<ClassDescriptor, String> classNames, Executor executor) {
+		CompletableFuture<?>[] files = results.entrySet().stream()
+			.map(result -> CompletableFuture.runAsync(() -> {
+				try {
+					writeResults(dir, result.getKey(), result.getValue(), classNames.apply(result.getKey()));
+				} finally {
+					result.getValue().close();
+				}
+			}, executor))
+			.toArray(CompletableFuture<?>[]::new);
+		return CompletableFuture.allOf(files);
+	}
 
+	private void writeResults(Path dir, ClassDescriptor clazz, TestGeneratorContext context, String baseName) {
+		TestFileSplitter splitter = new TestFileSplitter(context.iterateTests(), maxTestFileSize);
+		int part = 1;
+		do {
+			String className = part == 1 ? baseName : baseName + part;
 			try {
-				Path testfile = locateTestFile(dir, clazz);
+				Path testfile = locateTestFile(dir, clazz, className);
 				Logger.info("writing tests to " + testfile);
-				try (Writer writer = Files.newBufferedWriter(testfile, StandardCharsets.UTF_8, CREATE, WRITE, TRUNCATE_EXISTING)) {
-					writer.write(rendered);
+				Path tempfile = Files.createTempFile(testfile.getParent(), className, ".tmp");
+				try {
+					try (Writer writer = Files.newBufferedWriter(tempfile, StandardCharsets.UTF_8, CREATE, WRITE, TRUNCATE_EXISTING)) {
+						writeTest(context, className, splitter.nextPart(), writer);
+					}
+					moveTestFile(tempfile, testfile);
+				} finally {
+					Files.deleteIfExists(tempfile);
 				}
 			} catch (IOException e) {
-				Logger.error("failed writing tests for " + rendered, e);
+				Logger.error("failed writing tests for " + className, e);
 			}
+			part++;
+		} while (splitter.hasNextPart());
+	}
+
+	private void moveTestFile(Path tempfile, Path testfile) throws IOException {
+		try {
+			Files.move(tempfile, testfile, ATOMIC_MOVE, REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempfile, testfile, REPLACE_EXISTING);
 		}
 	}
 
+	/**
+	 * detaches all tests generated from the snapshots accepted so far. Snapshots accepted later are generated into new contexts, such
+	 * that the detached tests can be written while generation continues.
+	 * 
+	 * @return a future completing with the detached tests as soon as all snapshots accepted so far are generated
+	 */
+	public synchronized CompletableFuture<Map<ClassDescriptor, TestGeneratorContext>> detachResults() {
+		CompletableFuture<Map<ClassDescriptor, TestGeneratorContext>> detached = pipeline.thenApplyAsync(done -> {
+			Map<ClassDescriptor, TestGeneratorContext> results = tests;
+			tests = synchronizedMap(new LinkedHashMap<>());
+			return results;
+		}, executor);
+		pipeline = detached.handle((results, e) -> null);
+		return detached;
+	}
+
 	public void clearResults() {
+		synchronized (tests) {
+			tests.values().forEach(TestGeneratorContext::close);
+		}
 		this.tests.clear();
 		this.fields = new LinkedHashSet<>();
 		this.pipeline = CompletableFuture.runAsync(() -> {
@@ -223,9 +358,8 @@ public class TestGenerator implements SnapshotConsumer {
 		}, executor);
 	}
 
-	private Path locateTestFile(Path dir, ClassDescriptor clazz) throws IOException {
+	private Path locateTestFile(Path dir, ClassDescriptor clazz, String className) throws IOException {
 		String pkg = clazz.getPackage();
-		String className = computeClassName(clazz);
 		Path testpackage = dir.resolve(pkg.replace('.', '/'));
 
 		Files.createDirectories(testpackage);
@@ -247,7 +381,7 @@ public class TestGenerator implements SnapshotConsumer {
 	}
 
 	public TestGeneratorContext newContext(ClassDescriptor clazz) {
-		TestGeneratorContext context = new TestGeneratorContext(clazz);
+		TestGeneratorContext context = new TestGeneratorContext(clazz, budget);
 		initializer(context).ifPresent(context::addSetup);
 		return context;
 	}
@@ -259,15 +393,25 @@ public class TestGenerator implements SnapshotConsumer {
 	private String renderTest(ClassDescriptor clazz) {
 		TestGeneratorContext context = getContext(clazz);
 
+		StringWriter out = new StringWriter();
+		try {
+			writeTest(context, computeClassName(clazz), context.iterateTests(), out);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return out.toString();
+	}
+
+	private void writeTest(TestGeneratorContext context, String className, Iterator<String> methods, Writer writer) throws IOException {
 		ST file = new ST(TEST_FILE);
 		file.add("package", context.getPackage());
-		file.add("className", computeClassName(clazz));
+		file.add("className", className);
 		file.add("fields", fields);
 		file.add("setup", context.getSetups());
-		file.add("methods", context.getTests());
+		file.add("methods", methods);
 		file.add("imports", context.getImports());
 
-		return file.render();
+		file.write(new AutoIndentWriter(writer));
 	}
 
 	private Optional<String> initializer(TestGeneratorContext context) {
@@ -312,6 +456,55 @@ public class TestGenerator implements SnapshotConsumer {
 		this.pipeline.thenRun(runnable).join();
 	}
 
+	/**
+	 * splits a sequence of tests into parts not exceeding a maximum size (except for parts consisting of one large test).
+	 */
+	private static class TestFileSplitter {
+
+		private Iterator<String> tests;
+		private long maxSize;
+		private String pending;
+
+		TestFileSplitter(Iterator<String> tests, long maxSize) {
+			this.tests = tests;
+			this.maxSize = maxSize;
+		}
+
+		boolean hasNextPart() {
+			return pending != null || tests.hasNext();
+		}
+
+		Iterator<String> nextPart() {
+			return new Iterator<String>() {
+
+				private long size;
+
+				@Override
+				public boolean hasNext() {
+					if (pending == null && tests.hasNext()) {
+						pending = tests.next();
+					}
+					if (pending == null) {
+						return false;
+					}
+					return maxSize <= 0 || size == 0 || size + pending.length() <= maxSize;
+				}
+
+				@Override
+				public String next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					String test = pending;
+					pending = null;
+					size += test.length();
+					return test;
+				}
+			};
+		}
+
+	}
+
 	private class MethodGenerator {
 
 		private LocalVariableNameGenerator locals;
@@ -494,7 +687,7 @@ public class TestGenerator implements SnapshotConsumer {
 				.flatMap(arg -> generateArgumentAssert(types, arg.getElement1(), arg.getElement2(), arg.getElement3()))
 				.forEach(statements::add);
 
-			Boolean[] globalsChanged = compare(snapshot.getExpectGlobals(), snapshot.getExpectGlobals());
+			Boolean[] globalsChanged = compare(snapshot.getSetupGlobals(), snapshot.getExpectGlobals());
 			SerializedField[] snapshotExpectGlobals = snapshot.getExpectGlobals();
 			Pair<SerializedField, Boolean>[] globals = Pair.zip(snapshotExpectGlobals, globalsChanged);
 			Stream.of(globals)
@@ -551,7 +744,10 @@ public class TestGenerator implements SnapshotConsumer {
 		}
 
 		private Boolean[] compare(SerializedField[] s, SerializedField[] e) {
-			Boolean[] changes = new Boolean[s.length];
+			Boolean[] changes = new Boolean[e.length];
+			if (s == null || s.length != e.length) {
+				return changes;
+			}
 			for (int i = 0; i < changes.length; i++) {
 				changes[i] = compare(s[i].getValue(), e[i].getValue());
 			}
@@ -568,7 +764,7 @@ public class TestGenerator implements SnapshotConsumer {
 
 		private boolean compare(SerializedValue s, SerializedValue e) {
 			if (s == e) {
-				return true;
+				return false;
 			} else if (s == null || e == null) {
 				return false;
 			}
@@ -1,7 +1,11 @@
 package net.amygdalum.testrecorder;
 
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Test;
@@ -10,16 +14,57 @@ import net.amygdalum.testrecorder.deserializers.TypeManager;
 
 public class TestGeneratorContext {
 
+	/**
+	 * the maximum number of fingerprints (and their first tests) kept for detecting duplicate snapshots
+	 */
+	public static final int MAX_FINGERPRINTS = 1024;
+
 	private TypeManager types;
 	private Set<String> setups;
 	private Set<String> tests;
+	private Map<Long, Fingerprinted> fingerprints;
+	private int duplicates;
+	private TestBudget budget;
+	private boolean spilling;
+	private long testBytes;
+	private MappedTestStore spilled;
 	
 	public TestGeneratorContext(ClassDescriptor key) {
+		this(key, 0);
+	}
+
+	/**
+	 * creates a context moving its tests to a {@link MappedTestStore} as soon as the tests kept on the heap exceed the given threshold.
+	 * 
+	 * @param key the class of the generated tests
+	 * @param spillThreshold the number of bytes (estimated as 2 bytes per char) of tests to keep on the heap, 0 to keep all tests on the heap
+	 */
+	public TestGeneratorContext(ClassDescriptor key, long spillThreshold) {
+		this(key, new TestBudget(spillThreshold));
+	}
+
+	/**
+	 * creates a context sharing the given budget with other contexts. As soon as the tests of all contexts kept on the heap exceed the
+	 * threshold of the budget, the contexts move their tests to {@link MappedTestStore}s.
+	 * 
+	 * @param key the class of the generated tests
+	 * @param budget the budget of tests kept on the heap
+	 */
+	public TestGeneratorContext(ClassDescriptor key, TestBudget budget) {
+		this.budget = budget;
+		this.spilling = true;
 		this.types = new TypeManager(key.getPackage());
 		this.setups = new LinkedHashSet<>();
 		this.tests = new LinkedHashSet<>();
+		this.fingerprints = new LinkedHashMap<Long, Fingerprinted>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Fingerprinted> eldest) {
+				return size() > MAX_FINGERPRINTS;
+			}
+		};
 
 		types.registerTypes(Test.class);
+		budget.register(this);
 	}
 	
 	public String getPackage() {
@@ -34,8 +79,40 @@ public class TestGeneratorContext {
 		return setups;
 	}
 
+	/**
+	 * @return all tests of this context (spilled tests are loaded to the heap, use {@link #iterateTests()} to avoid this)
+	 */
 	public synchronized Set<String> getTests() {
-		return tests;
+		if (spilled == null) {
+			return tests;
+		}
+		Set<String> all = new LinkedHashSet<>();
+		spilled.forEach(all::add);
+		all.addAll(tests);
+		return all;
+	}
+
+	/**
+	 * @return an iterator over all tests of this context, spilled tests are loaded one at a time
+	 */
+	public synchronized Iterator<String> iterateTests() {
+		if (spilled == null) {
+			return new LinkedHashSet<>(tests).iterator();
+		}
+		Iterator<String> spilledTests = spilled.iterator();
+		Iterator<String> heapTests = new LinkedHashSet<>(tests).iterator();
+		return new Iterator<String>() {
+
+			@Override
+			public boolean hasNext() {
+				return spilledTests.hasNext() || heapTests.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return spilledTests.hasNext() ? spilledTests.next() : heapTests.next();
+			}
+		};
 	}
 
 	public List<String> getImports() {
@@ -43,15 +120,120 @@ public class TestGeneratorContext {
 	}
 
 	public synchronized int size() {
-		return tests.size();
+		if (spilled == null) {
+			return tests.size();
+		}
+		return spilled.size() + tests.size();
 	}
 
 	public synchronized void addSetup(String setup) {
 		setups.add(setup);
 	}
 
-	public synchronized void add(String test) {
-		tests.add(test);
+	public void add(String test) {
+		long bytes = 0;
+		synchronized (this) {
+			if (tests.add(test)) {
+				bytes = 2l * test.length();
+				testBytes += bytes;
+			}
+		}
+		for (TestGeneratorContext context : budget.grow(bytes)) {
+			context.spill();
+			if (!budget.isExceeded()) {
+				break;
+			}
+		}
+	}
+
+	private synchronized void spill() {
+		if (!spilling || tests.isEmpty()) {
+			return;
+		}
+		try {
+			if (spilled == null) {
+				spilled = new MappedTestStore();
+			}
+			for (String test : tests) {
+				spilled.add(test);
+			}
+			tests.clear();
+			budget.shrink(testBytes);
+			testBytes = 0;
+		} catch (IOException e) {
+			Logger.warn("failed spilling tests, keeping them on the heap: " + e.getMessage());
+			spilling = false;
+		}
+	}
+
+	/**
+	 * @param fingerprint the fingerprint of a snapshot (see {@link SnapshotFingerprint})
+	 * @return the index of the first test generated for a snapshot with this fingerprint, or the index of the next test if the fingerprint
+	 * is new. A snapshot rendered with this index renders to the same test as a duplicate snapshot.
+	 */
+	public synchronized int indexOf(long fingerprint) {
+		Fingerprinted first = fingerprints.get(fingerprint);
+		if (first == null) {
+			return size();
+		}
+		return first.index;
+	}
+
+	/**
+	 * adds a test generated for a snapshot with the given fingerprint, unless it equals the first test generated for this fingerprint
+	 * (i.e. the snapshot was a duplicate, not only a fingerprint collision). Only the most recently used fingerprints are kept (see
+	 * {@link #MAX_FINGERPRINTS}), so duplicates of long forgotten snapshots are added again.
+	 * 
+	 * @param fingerprint the fingerprint of the snapshot (see {@link SnapshotFingerprint})
+	 * @param test the test generated from the snapshot (with the index returned by {@link #indexOf(long)})
+	 * @return true if the test was added, false if it was a duplicate
+	 */
+	public boolean add(long fingerprint, String test) {
+		synchronized (this) {
+			Fingerprinted first = fingerprints.get(fingerprint);
+			if (first == null) {
+				fingerprints.put(fingerprint, new Fingerprinted(size(), test));
+			} else if (first.test.equals(test)) {
+				duplicates++;
+				return false;
+			}
+		}
+		add(test);
+		return true;
+	}
+
+	public synchronized int getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return the number of tests moved from the heap to the spill store
+	 */
+	public synchronized int getSpilled() {
+		return spilled == null ? 0 : spilled.size();
+	}
+
+	/**
+	 * releases the spilled tests of this context (and its share of the budget).
+	 */
+	public synchronized void close() {
+		budget.unregister(this, testBytes);
+		if (spilled != null) {
+			spilled.close();
+			spilled = null;
+		}
+	}
+
+	private static class Fingerprinted {
+
+		private int index;
+		private String test;
+
+		Fingerprinted(int index, String test) {
+			this.index = index;
+			this.test = test;
+		}
+
 	}
 
 }
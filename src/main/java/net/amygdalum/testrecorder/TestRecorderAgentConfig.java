@@ -4,6 +4,7 @@ import java.util.List;
 
 import net.amygdalum.testrecorder.profile.Classes;
 import net.amygdalum.testrecorder.profile.SerializationProfile;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 public interface TestRecorderAgentConfig extends SerializationProfile {
 
@@ -11,4 +12,57 @@ public interface TestRecorderAgentConfig extends SerializationProfile {
 
 	List<Classes> getClasses();
 
+	/**
+	 * Configuring {@link #getCaptureMode()} specifies whether recorded threads wait for the serialization of snapshots 
+	 * or continue while the snapshot is serialized in the background.
+	 * 
+	 * @return the capture mode of the recorded methods
+	 */
+	CaptureMode getCaptureMode();
+
+	/**
+	 * Configuring {@link #getSnapshotThreads()} specifies the number of threads serializing snapshots. Snapshots of 
+	 * different recorded calls are serialized concurrently if more than one thread is available.
+	 * 
+	 * @return the number of serializer threads (at least 1)
+	 */
+	int getSnapshotThreads();
+
+	/**
+	 * Configuring {@link #getSnapshotQueueCapacity()} bounds the number of serialization tasks waiting for a serializer thread.
+	 * 
+	 * @return the maximum number of waiting serialization tasks
+	 */
+	int getSnapshotQueueCapacity();
+
+	/**
+	 * Configuring {@link #getSnapshotRejectionPolicy()} specifies what happens to a serialization task if the snapshot queue is full.
+	 * 
+	 * @return the policy for serialization tasks exceeding the queue capacity
+	 */
+	RejectionPolicy getSnapshotRejectionPolicy();
+
+	/**
+	 * Configuring {@link #getSamplingPolicy()} specifies which invocations of recorded methods are recorded. Invocations that
+	 * are not sampled skip snapshot creation and serialization entirely.
+	 * 
+	 * @return the sampling policy for recorded methods
+	 */
+	SamplingPolicy getSamplingPolicy();
+
+	/**
+	 * Configuring {@link #getSnapshotMemoryBudget()} bounds the (estimated) memory of snapshots that are serialized but not yet
+	 * consumed. Snapshots exceeding the budget are handled according to {@link #getSnapshotBudgetPolicy()}.
+	 * 
+	 * @return the memory budget in bytes ({@link Long#MAX_VALUE} for an unbounded budget)
+	 */
+	long getSnapshotMemoryBudget();
+
+	/**
+	 * Configuring {@link #getSnapshotBudgetPolicy()} specifies what happens to snapshots if the memory budget is exceeded.
+	 * 
+	 * @return the policy for snapshots exceeding the memory budget
+	 */
+	BudgetPolicy getSnapshotBudgetPolicy();
+
 }
@@ -20,8 +20,12 @@ public class BridgedSnapshotManager {
 	public static MethodHandle outputArguments;
 	public static MethodHandle outputResult;
 
-	public static int inputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) throws Throwable {
-		return (Integer) inputVariables.invoke(MANAGER, stackTrace, object, method, resultType, paramTypes);
+	public static MethodHandle ioCompleted;
+
+	public static MethodHandle isRecording;
+
+	public static int inputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) throws Throwable {
+		return (Integer) inputVariables.invoke(MANAGER, callSite, object, method, resultType, paramTypes);
 	}
 
 	public static void inputArguments(int id, Object... args) throws Throwable {
@@ -32,8 +36,8 @@ public class BridgedSnapshotManager {
 		inputResult.invoke(MANAGER, id, result);
 	}
 
-	public static int outputVariables(StackTraceElement[] stackTrace, Object object, String method, Type resultType, Type[] paramTypes) throws Throwable {
-		return (Integer) outputVariables.invoke(MANAGER, stackTrace, object, method, resultType, paramTypes);
+	public static int outputVariables(int callSite, Object object, String method, Type resultType, Type[] paramTypes) throws Throwable {
+		return (Integer) outputVariables.invoke(MANAGER, callSite, object, method, resultType, paramTypes);
 	}
 
 	public static void outputArguments(int id, Object... args) throws Throwable {
@@ -44,4 +48,12 @@ public class BridgedSnapshotManager {
 		outputResult.invoke(MANAGER, id, result);
 	}
 
+	public static void ioCompleted() throws Throwable {
+		ioCompleted.invoke(MANAGER);
+	}
+
+	public static boolean isRecording() throws Throwable {
+		return (Boolean) isRecording.invoke(MANAGER);
+	}
+
 }
@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.deserializers;
 
 import static net.amygdalum.testrecorder.util.Types.baseType;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
@@ -12,6 +13,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import net.amygdalum.testrecorder.runtime.GenericObject;
 import net.amygdalum.testrecorder.runtime.GenericObjectException;
@@ -76,7 +78,9 @@ public class SimpleDeserializer implements Deserializer<Object> {
 			SerializedList value = (SerializedList) rt;
 			List<Object> list = fetch(value, ArrayList::new, base -> {
 				for (SerializedValue element : value) {
-					base.add(element.accept(this, context));
+					if (!isRemainder(element)) {
+						base.add(element.accept(this, context));
+					}
 				}
 			});
 			return list;
@@ -84,6 +88,9 @@ public class SimpleDeserializer implements Deserializer<Object> {
 			SerializedMap value = (SerializedMap) rt;
 			Map<Object, Object> map = fetch(value, LinkedHashMap::new, base -> {
 				for (Map.Entry<SerializedValue, SerializedValue> entry : value.entrySet()) {
+					if (isRemainder(entry.getKey())) {
+						continue;
+					}
 					Object k = entry.getKey().accept(this, context);
 					Object v = entry.getValue().accept(this, context);
 					base.put(k, v);
@@ -94,14 +101,23 @@ public class SimpleDeserializer implements Deserializer<Object> {
 			SerializedSet value = (SerializedSet) rt;
 			Set<Object> set = fetch(value, LinkedHashSet::new, base -> {
 				for (SerializedValue element : value) {
-					base.add(element.accept(this, context));
+					if (!isRemainder(element)) {
+						base.add(element.accept(this, context));
+					}
 				}
 			});
 			return set;
 		} else if (rt instanceof SerializedArray) {
 			SerializedArray value = (SerializedArray) rt;
 			Class<?> componentType = value.getRawType();
-			SerializedValue[] rawArray = value.getArray();
+			if (value.isPrimitiveArray()) {
+				Object primitiveArray = value.getPrimitiveArray();
+				int length = Array.getLength(primitiveArray);
+				return fetch(value, () -> Array.newInstance(componentType, length), base -> System.arraycopy(primitiveArray, 0, base, 0, length));
+			}
+			SerializedValue[] rawArray = Stream.of(value.getArray())
+				.filter(element -> !isRemainder(element))
+				.toArray(SerializedValue[]::new);
 			Object array = fetch(value, () -> Array.newInstance(componentType, rawArray.length), base -> {
 				for (int i = 0; i < rawArray.length; i++) {
 					Array.set(base, i, rawArray[i].accept(this, context));
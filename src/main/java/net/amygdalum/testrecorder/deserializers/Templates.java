@@ -42,18 +42,19 @@ public final class Templates {
 	private static final String ENUM_MATCHER = "matchingEnum(<value>)";
 	private static final String RECURSIVE_MATCHER = "recursive(<type>)";
 	private static final String LAMBDA_MATCHER = "lambda(<name>)";
-	private static final String CONTAINS_IN_ORDER_MATCHER = "containsInOrder(<type>.class, <values; separator=\", \">)";
+	private static final String CONTAINS_IN_ORDER_MATCHER = "containsInOrder(<type>.class<values : { value | , <value>}>)";
 	private static final String EMPTY_MATCHER = "empty()";
-	private static final String CONTAINS_IN_ANY_ORDER_MATCHER = "contains(<type>.class, <values; separator=\", \">)";
+	private static final String CONTAINS_IN_ANY_ORDER_MATCHER = "contains(<type>.class<values : { value | , <value>}>)";
 	private static final String EQUAL_TO_MATCHER = "equalTo(<value>)";
 	private static final String SAME_INSTANCE_MATCHER = "sameInstance(<value>)";
 	private static final String NULL_MATCHER = "nullValue(<value>)";
 	private static final String NO_ENTRIES_MATCHER = "noEntries(<keytype>.class, <valuetype>.class)";
 	private static final String CONTAINS_ENTRIES_MATCHER = "containsEntries(<keytype>.class, <valuetype>.class)<entries : { entry | .entry(<entry.element1>, <entry.element2>)}>";
-	private static final String ARRAY_CONTAINING_MATCHER = "arrayContaining(<type>.class, <values; separator=\", \">)";
+	private static final String ARRAY_CONTAINING_MATCHER = "arrayContaining(<type>.class<values : { value | , <value>}>)";
 	private static final String ARRAY_EMPTY_MATCHER = "emptyArray()";
 	private static final String PRIMITIVE_ARRAY_CONTAINING_MATCHER = "<type>ArrayContaining(<values; separator=\", \">)";
 	private static final String PRIMITIVE_ARRAY_EMPTY_MATCHER = "<type>EmptyArray()";
+	private static final String TRUNCATED_MATCHER = "<matcher>.truncated()";
 
 
 	private Templates() {
@@ -381,6 +382,13 @@ public final class Templates {
 		return matcher.render();
 	}
 
+	public static String truncatedMatcher(String matcher) {
+		ST truncated = new ST(TRUNCATED_MATCHER);
+		truncated.add("matcher", matcher);
+
+		return truncated.render();
+	}
+
 	public static String equalToMatcher(String value) {
 		ST matcher = new ST(EQUAL_TO_MATCHER);
 		matcher.add("value", value);
@@ -1,12 +1,16 @@
 package net.amygdalum.testrecorder.deserializers.builder;
 
+import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static net.amygdalum.testrecorder.deserializers.Computation.variable;
 import static net.amygdalum.testrecorder.deserializers.Templates.arrayLiteral;
 import static net.amygdalum.testrecorder.deserializers.Templates.assignLocalVariableStatement;
+import static net.amygdalum.testrecorder.util.Literals.asLiterals;
 import static net.amygdalum.testrecorder.util.Types.array;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -31,17 +35,25 @@ public class DefaultArrayAdaptor extends DefaultSetupGenerator<SerializedArray>
 
 		return generator.forVariable(value, value.getResultType(), local -> {
 
-			List<Computation> elementTemplates = Stream.of(value.getArray())
-				.map(element -> element.accept(generator, context))
-				.collect(toList());
+			List<String> elements;
+			List<String> statements;
+			if (value.isPrimitiveArray()) {
+				elements = asList(asLiterals(value.getPrimitiveArray()));
+				statements = new ArrayList<>();
+			} else {
+				List<Computation> elementTemplates = Stream.of(value.getArray())
+					.filter(element -> !isRemainder(element))
+					.map(element -> element.accept(generator, context))
+					.collect(toList());
 
-			List<String> elements = elementTemplates.stream()
-				.map(template -> generator.adapt(template.getValue(), componentType, template.getType()))
-				.collect(toList());
+				elements = elementTemplates.stream()
+					.map(template -> generator.adapt(template.getValue(), componentType, template.getType()))
+					.collect(toList());
 
-			List<String> statements = elementTemplates.stream()
-				.flatMap(template -> template.getStatements().stream())
-				.collect(toList());
+				statements = elementTemplates.stream()
+					.flatMap(template -> template.getStatements().stream())
+					.collect(toList());
+			}
 
 			String arrayLiteral = arrayLiteral(types.getVariableTypeName(array(componentType)), elements);
 
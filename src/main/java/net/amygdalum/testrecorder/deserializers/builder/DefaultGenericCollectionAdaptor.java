@@ -9,6 +9,7 @@ import static net.amygdalum.testrecorder.util.Types.baseType;
 import static net.amygdalum.testrecorder.util.Types.equalTypes;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
 import static net.amygdalum.testrecorder.util.Types.typeArguments;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -61,6 +62,7 @@ public abstract class DefaultGenericCollectionAdaptor<T extends SerializedRefere
         return generator.forVariable(value, matchingType, definition -> {
 
             List<Computation> elementTemplates = elements(value)
+                .filter(element -> !isRemainder(element))
                 .map(element -> withResultType(element, componentResultType).accept(generator, context))
                 .filter(element -> element != null)
                 .collect(toList());
@@ -9,6 +9,7 @@ import static net.amygdalum.testrecorder.util.Types.baseType;
 import static net.amygdalum.testrecorder.util.Types.equalTypes;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
 import static net.amygdalum.testrecorder.util.Types.typeArguments;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -65,6 +66,7 @@ public abstract class DefaultGenericMapAdaptor<T extends SerializedReferenceType
         return generator.forVariable(value, matchingType, definition -> {
 
             List<Pair<Computation, Computation>> elementTemplates = entries(value)
+                .filter(entry -> !isRemainder(entry.getElement1()))
                 .map(entry -> new Pair<>(
                     withResultType(entry.getElement1(), keyResultType).accept(generator, context),
                     withResultType(entry.getElement2(), valueResultType).accept(generator, context)))
@@ -0,0 +1,21 @@
+package net.amygdalum.testrecorder.deserializers.builder;
+
+import static net.amygdalum.testrecorder.deserializers.Computation.expression;
+
+import net.amygdalum.testrecorder.deserializers.Computation;
+import net.amygdalum.testrecorder.types.DeserializerContext;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+
+public class DefaultPlaceholderAdaptor extends DefaultSetupGenerator<SerializedPlaceholder> implements SetupGenerator<SerializedPlaceholder> {
+
+	@Override
+	public Class<SerializedPlaceholder> getAdaptedClass() {
+		return SerializedPlaceholder.class;
+	}
+
+	@Override
+	public Computation tryDeserialize(SerializedPlaceholder value, SetupGenerators generator, DeserializerContext context) {
+		return expression("null", value.getResultType());
+	}
+
+}
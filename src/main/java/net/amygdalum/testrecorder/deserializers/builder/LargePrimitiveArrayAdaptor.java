@@ -5,11 +5,13 @@ import static net.amygdalum.testrecorder.deserializers.Templates.callLocalMethod
 import static net.amygdalum.testrecorder.util.Literals.asLiteral;
 import static net.amygdalum.testrecorder.util.Types.baseType;
 import static net.amygdalum.testrecorder.util.Types.isLiteral;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Type;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import net.amygdalum.testrecorder.deserializers.Computation;
 import net.amygdalum.testrecorder.deserializers.TypeManager;
@@ -64,7 +66,12 @@ public class LargePrimitiveArrayAdaptor implements SetupGenerator<SerializedArra
 	}
 
 	private Object unwrap(SerializedArray value) {
-		SerializedValue[] serializedArray = value.getArray();
+		if (value.isPrimitiveArray()) {
+			return value.getPrimitiveArray();
+		}
+		SerializedValue[] serializedArray = Stream.of(value.getArray())
+			.filter(element -> !isRemainder(element))
+			.toArray(SerializedValue[]::new);
 		Class<?> componentType = baseType(value.getComponentType());
 		Object array = Array.newInstance(componentType, serializedArray.length);
 		for (int i = 0; i < serializedArray.length; i++) {
@@ -5,9 +5,12 @@ import static net.amygdalum.testrecorder.deserializers.Computation.expression;
 import static net.amygdalum.testrecorder.deserializers.Templates.arrayContainingMatcher;
 import static net.amygdalum.testrecorder.deserializers.Templates.arrayEmptyMatcher;
 import static net.amygdalum.testrecorder.deserializers.Templates.primitiveArrayContainingMatcher;
+import static net.amygdalum.testrecorder.deserializers.Templates.truncatedMatcher;
+import static net.amygdalum.testrecorder.util.Literals.asLiterals;
 import static net.amygdalum.testrecorder.util.Types.isPrimitive;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.wildcard;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -39,11 +42,18 @@ public class DefaultArrayAdaptor extends DefaultMatcherGenerator<SerializedArray
             componentType = Object.class;
         }
 
-		if (isPrimitive(componentType)) {
+		if (isPrimitive(componentType) && value.isPrimitiveArray()) {
+			String name = componentType.getTypeName();
+			types.staticImport(PrimitiveArrayMatcher.class, name + "ArrayContaining");
+
+			String primitiveArrayContainingMatcher = primitiveArrayContainingMatcher(name, asLiterals(value.getPrimitiveArray()));
+			return expression(primitiveArrayContainingMatcher, parameterized(Matcher.class, null, wildcard()));
+		} else if (isPrimitive(componentType)) {
 			String name = componentType.getTypeName();
 			types.staticImport(PrimitiveArrayMatcher.class, name + "ArrayContaining");
 
 			List<Computation> elements = Stream.of(value.getArray())
+				.filter(element -> !isRemainder(element))
 				.map(element -> generator.simpleMatcher(element, context))
 				.collect(toList());
 
@@ -56,6 +66,9 @@ public class DefaultArrayAdaptor extends DefaultMatcherGenerator<SerializedArray
 				.toArray(String[]::new);
 
 			String primitiveArrayContainingMatcher = primitiveArrayContainingMatcher(name, elementValues);
+			if (elements.size() < value.getArray().length) {
+				primitiveArrayContainingMatcher = truncatedMatcher(primitiveArrayContainingMatcher);
+			}
 			return expression(primitiveArrayContainingMatcher, parameterized(Matcher.class, null, wildcard()), elementComputations);
 		} else {
 			if (value.getArrayAsList().isEmpty()) {
@@ -68,6 +81,7 @@ public class DefaultArrayAdaptor extends DefaultMatcherGenerator<SerializedArray
 				String name = types.getRawTypeName(componentType);
 
 				List<Computation> elements = Stream.of(value.getArray())
+					.filter(element -> !isRemainder(element))
 					.map(element -> generator.simpleMatcher(element, context))
 					.collect(toList());
 
@@ -80,6 +94,9 @@ public class DefaultArrayAdaptor extends DefaultMatcherGenerator<SerializedArray
 					.toArray(String[]::new);
 
 				String arrayContainingMatcher = arrayContainingMatcher(name, elementValues);
+				if (elements.size() < value.getArray().length) {
+					arrayContainingMatcher = truncatedMatcher(arrayContainingMatcher);
+				}
 				return expression(arrayContainingMatcher, parameterized(Matcher.class, null, wildcard()), elementComputations);
 			}
 		}
@@ -6,9 +6,11 @@ import static net.amygdalum.testrecorder.deserializers.Computation.expression;
 import static net.amygdalum.testrecorder.deserializers.Templates.cast;
 import static net.amygdalum.testrecorder.deserializers.Templates.containsEntriesMatcher;
 import static net.amygdalum.testrecorder.deserializers.Templates.noEntriesMatcher;
+import static net.amygdalum.testrecorder.deserializers.Templates.truncatedMatcher;
 import static net.amygdalum.testrecorder.util.Types.assignableTypes;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.wildcard;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -60,6 +62,7 @@ public class DefaultMapAdaptor extends DefaultMatcherGenerator<SerializedMap> im
 
 			EntryDeserializer deserializer = new EntryDeserializer(generator, context, mapKeyType, mapValueType);
 			List<Pair<Computation, Computation>> elements = value.entrySet().stream()
+				.filter(entry -> !isRemainder(entry.getKey()))
 				.map(deserializer::computeKeyValues)
 				.collect(toList());
 
@@ -72,6 +75,9 @@ public class DefaultMapAdaptor extends DefaultMatcherGenerator<SerializedMap> im
 				.collect(toList());
 
 			String containsEntriesMatcher = containsEntriesMatcher(keyType, valueType, entryValues);
+			if (elements.size() < value.size()) {
+				containsEntriesMatcher = truncatedMatcher(containsEntriesMatcher);
+			}
 			return expression(containsEntriesMatcher, parameterized(Matcher.class, null, wildcard()), entryStatements);
 		}
 	}
@@ -0,0 +1,31 @@
+package net.amygdalum.testrecorder.deserializers.matcher;
+
+import static java.util.Collections.emptyList;
+import static net.amygdalum.testrecorder.deserializers.Computation.expression;
+import static net.amygdalum.testrecorder.util.Types.parameterized;
+import static net.amygdalum.testrecorder.util.Types.wildcard;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+
+import net.amygdalum.testrecorder.deserializers.Computation;
+import net.amygdalum.testrecorder.deserializers.TypeManager;
+import net.amygdalum.testrecorder.types.DeserializerContext;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+
+public class DefaultPlaceholderAdaptor extends DefaultMatcherGenerator<SerializedPlaceholder> implements MatcherGenerator<SerializedPlaceholder> {
+
+	@Override
+	public Class<SerializedPlaceholder> getAdaptedClass() {
+		return SerializedPlaceholder.class;
+	}
+
+	@Override
+	public Computation tryDeserialize(SerializedPlaceholder value, MatcherGenerators generator, DeserializerContext context) {
+		TypeManager types = generator.getTypes();
+		types.staticImport(Matchers.class, "anything");
+
+		return expression("anything()", parameterized(Matcher.class, null, wildcard()), emptyList());
+	}
+
+}
@@ -5,8 +5,10 @@ import static java.util.stream.Collectors.toList;
 import static net.amygdalum.testrecorder.deserializers.Computation.expression;
 import static net.amygdalum.testrecorder.deserializers.Templates.containsInOrderMatcher;
 import static net.amygdalum.testrecorder.deserializers.Templates.emptyMatcher;
+import static net.amygdalum.testrecorder.deserializers.Templates.truncatedMatcher;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.wildcard;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -44,6 +46,7 @@ public class DefaultSequenceAdaptor extends DefaultMatcherGenerator<SerializedLi
 			types.staticImport(ContainsInOrderMatcher.class, "containsInOrder");
 
 			List<Computation> elements = value.stream()
+				.filter(element -> !isRemainder(element))
 				.map(element -> generator.simpleMatcher(element, context))
 				.collect(toList());
 
@@ -57,6 +60,9 @@ public class DefaultSequenceAdaptor extends DefaultMatcherGenerator<SerializedLi
 
 	        String elementType = types.getRawTypeName(componentType);
 			String containsMatcher = containsInOrderMatcher(elementType, elementValues);
+			if (elements.size() < value.size()) {
+				containsMatcher = truncatedMatcher(containsMatcher);
+			}
 
 			return expression(containsMatcher, parameterized(Matcher.class, null, wildcard()), elementComputations);
 		}
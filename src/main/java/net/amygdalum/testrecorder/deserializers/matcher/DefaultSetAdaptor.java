@@ -5,8 +5,10 @@ import static java.util.stream.Collectors.toList;
 import static net.amygdalum.testrecorder.deserializers.Computation.expression;
 import static net.amygdalum.testrecorder.deserializers.Templates.containsInAnyOrderMatcher;
 import static net.amygdalum.testrecorder.deserializers.Templates.emptyMatcher;
+import static net.amygdalum.testrecorder.deserializers.Templates.truncatedMatcher;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.wildcard;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -45,6 +47,7 @@ public class DefaultSetAdaptor extends DefaultMatcherGenerator<SerializedSet> im
 			types.staticImport(ContainsMatcher.class, "contains");
 
 			List<Computation> elements = value.stream()
+				.filter(element -> !isRemainder(element))
 				.map(element -> generator.simpleMatcher(element, context))
 				.collect(toList());
 
@@ -58,6 +61,9 @@ public class DefaultSetAdaptor extends DefaultMatcherGenerator<SerializedSet> im
 
             String elementType = types.getRawTypeName(componentType);
 			String containsInAnyOrderMatcher = containsInAnyOrderMatcher(elementType, elementValues);
+			if (elements.size() < value.size()) {
+				containsInAnyOrderMatcher = truncatedMatcher(containsInAnyOrderMatcher);
+			}
 			return expression(containsInAnyOrderMatcher, parameterized(Matcher.class, null, wildcard()), elementComputations);
 		}
 	}
@@ -71,6 +71,9 @@ public class LargePrimitiveArrayAdaptor implements MatcherGenerator<SerializedAr
 	}
 
 	private Object unwrap(SerializedArray value) {
+		if (value.isPrimitiveArray()) {
+			return value.getPrimitiveArray();
+		}
 		SerializedValue[] serializedArray = value.getArray();
 		Class<?> componentType = baseType(value.getComponentType());
 		Object array = Array.newInstance(componentType, serializedArray.length);
@@ -30,6 +30,7 @@ import net.amygdalum.testrecorder.types.SerializedValue;
 import net.amygdalum.testrecorder.types.SerializedValueType;
 import net.amygdalum.testrecorder.values.SerializedLiteral;
 import net.amygdalum.testrecorder.values.SerializedNull;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
 
 public class MatcherGenerators implements Deserializer<Computation> {
 
@@ -88,7 +89,7 @@ public class MatcherGenerators implements Deserializer<Computation> {
     public Computation visitField(SerializedFieldType field, DeserializerContext context) {
     	SerializedValue fieldValue = field.getValue();
         DeserializerContext ctx = context.newWithHints(field.getAnnotations());
-        if (ctx.getHint(SkipChecks.class).isPresent()) {
+        if (ctx.getHint(SkipChecks.class).isPresent() || fieldValue instanceof SerializedPlaceholder) {
             return null;
         } else if (isSimpleValue(fieldValue)) {
             types.registerImport(baseType(field.getType()));
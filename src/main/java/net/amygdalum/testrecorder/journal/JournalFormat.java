@@ -0,0 +1,64 @@
+package net.amygdalum.testrecorder.journal;
+
+/**
+ * constants of the binary snapshot journal format.
+ * 
+ * A journal consists of segments. Each segment starts with a header ({@link #MAGIC} and {@link #VERSION}), followed by records.
+ * Each record consists of the length of its payload, the CRC32 checksum of its payload and the payload (one encoded snapshot).
+ */
+final class JournalFormat {
+
+	static final int MAGIC = 0x54524a4c;
+	static final short VERSION = 2;
+	static final int HEADER_SIZE = 6;
+	static final int RECORD_HEADER_SIZE = 8;
+
+	static final String SEGMENT_PREFIX = "snapshots-";
+	static final String SEGMENT_SUFFIX = ".trj";
+
+	static final byte NO_VALUE = 0;
+	static final byte BACKREFERENCE = 1;
+	static final byte LITERAL = 2;
+	static final byte NULL = 3;
+	static final byte ENUM = 4;
+	static final byte OBJECT = 5;
+	static final byte ARRAY = 6;
+	static final byte LIST = 7;
+	static final byte SET = 8;
+	static final byte MAP = 9;
+	static final byte IMMUTABLE = 10;
+	static final byte PLACEHOLDER = 11;
+	static final byte LAMBDA = 12;
+	static final byte REMAINDER = 13;
+
+	static final byte NO_TYPE = 0;
+	static final byte CLASS = 1;
+	static final byte PARAMETERIZED = 2;
+	static final byte GENERIC_ARRAY = 3;
+	static final byte WILDCARD = 4;
+	static final byte TYPE_VARIABLE = 5;
+
+	static final byte NO_IMMUTABLE = 0;
+	static final byte BIG_INTEGER = 1;
+	static final byte BIG_DECIMAL = 2;
+	static final byte CLASS_VALUE = 3;
+
+	private JournalFormat() {
+	}
+
+	static String segmentName(int number) {
+		return String.format("%s%05d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+	}
+
+	static int segmentNumber(String name) {
+		if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package net.amygdalum.testrecorder.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import net.amygdalum.testrecorder.ClassDescriptor;
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.Logger;
+import net.amygdalum.testrecorder.TestGenerator;
+import net.amygdalum.testrecorder.TestrecorderThreadFactory;
+
+/**
+ * generates tests from a snapshot journal (see {@link SnapshotJournal}) outside of the recorded process.
+ *
+ * Snapshots are read in journal order and generated in parallel, each class under test is generated by one worker at a time
+ * (see {@link TestGenerator#generate(ContextSnapshot)}). The tests of a class are generated in journal order and classes are
+ * registered in the order of their first snapshot, so the generated files do not depend on the number of threads.
+ *
+ * Usage: {@code java net.amygdalum.testrecorder.journal.OfflineTestGenerator <journal directory> <test directory> [<threads>]}
+ */
+public class OfflineTestGenerator {
+
+	private static final int PENDING_PER_THREAD = 256;
+
+	private TestGenerator generator;
+	private int threads;
+
+	public OfflineTestGenerator(TestGenerator generator) {
+		this.generator = generator;
+		this.threads = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * specifies the number of threads generating tests
+	 * @param threads the number of threads
+	 * @return this
+	 */
+	public OfflineTestGenerator withThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	public TestGenerator getGenerator() {
+		return generator;
+	}
+
+	/**
+	 * generates tests for all snapshots of the journal, returning after all tests were generated.
+	 *
+	 * @param reader the reader of the journal
+	 * @throws IOException if the journal could not be read
+	 */
+	public void generate(SnapshotJournalReader reader) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new TestrecorderThreadFactory("$generate"));
+		Semaphore pending = new Semaphore(threads * PENDING_PER_THREAD);
+		Map<ClassDescriptor, CompletableFuture<Void>> workers = new LinkedHashMap<>();
+		try {
+			reader.read(snapshot -> {
+				ClassDescriptor clazz = TestGenerator.testedClass(snapshot);
+				CompletableFuture<Void> worker = workers.computeIfAbsent(clazz, key -> {
+					generator.getContext(key);
+					return CompletableFuture.completedFuture(null);
+				});
+				pending.acquireUninterruptibly();
+				workers.put(clazz, worker.thenRunAsync(() -> {
+					try {
+						generator.generate(snapshot);
+					} catch (RuntimeException e) {
+						Logger.error("failed generating test for " + snapshot.getMethodName() + ": " + e.getClass().getSimpleName() + " " + e.getMessage(), e);
+					} finally {
+						pending.release();
+					}
+				}, executor));
+			});
+			CompletableFuture.allOf(workers.values().toArray(new CompletableFuture<?>[0])).join();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * generates tests for all snapshots of the journal and writes them to the given directory (like
+	 * {@link TestGenerator#writeResults(Path)}).
+	 *
+	 * @param reader the reader of the journal
+	 * @param dir the directory to write the tests to
+	 * @throws IOException if the journal could not be read
+	 */
+	public void generateTo(SnapshotJournalReader reader, Path dir) throws IOException {
+		generate(reader);
+		generator.writeResults(dir);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("usage: " + OfflineTestGenerator.class.getName() + " <journal directory> <test directory> [<threads>]");
+			System.exit(1);
+		}
+		Path journal = Paths.get(args[0]);
+		Path dir = Paths.get(args[1]);
+		TestGenerator generator = new TestGenerator();
+		try {
+			OfflineTestGenerator offline = new OfflineTestGenerator(generator);
+			if (args.length > 2) {
+				offline.withThreads(Integer.parseInt(args[2]));
+			}
+			ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			offline.generateTo(new SnapshotJournalReader(journal, loader), dir);
+		} finally {
+			generator.close();
+		}
+	}
+
+}
@@ -0,0 +1,377 @@
+package net.amygdalum.testrecorder.journal;
+
+import static net.amygdalum.testrecorder.journal.JournalFormat.ARRAY;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BACKREFERENCE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BIG_DECIMAL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BIG_INTEGER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.CLASS;
+import static net.amygdalum.testrecorder.journal.JournalFormat.CLASS_VALUE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.ENUM;
+import static net.amygdalum.testrecorder.journal.JournalFormat.GENERIC_ARRAY;
+import static net.amygdalum.testrecorder.journal.JournalFormat.IMMUTABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LAMBDA;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LIST;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LITERAL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.MAP;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_IMMUTABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_TYPE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_VALUE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NULL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.OBJECT;
+import static net.amygdalum.testrecorder.journal.JournalFormat.PARAMETERIZED;
+import static net.amygdalum.testrecorder.journal.JournalFormat.PLACEHOLDER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.REMAINDER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.SET;
+import static net.amygdalum.testrecorder.journal.JournalFormat.TYPE_VARIABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.WILDCARD;
+import static net.amygdalum.testrecorder.util.BinaryLiterals.readLiteral;
+import static net.amygdalum.testrecorder.util.BinaryLiterals.readPrimitiveArray;
+import static net.amygdalum.testrecorder.util.Types.baseType;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.MethodSignature;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.Types;
+import net.amygdalum.testrecorder.values.AbstractSerializedReferenceType;
+import net.amygdalum.testrecorder.values.LambdaSignature;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedEnum;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedImmutable;
+import net.amygdalum.testrecorder.values.SerializedInput;
+import net.amygdalum.testrecorder.values.SerializedLambdaObject;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedLiteral;
+import net.amygdalum.testrecorder.values.SerializedMap;
+import net.amygdalum.testrecorder.values.SerializedNull;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedOutput;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+import net.amygdalum.testrecorder.values.SerializedSet;
+
+/**
+ * decodes one snapshot from the binary journal format (as written by {@link SnapshotEncoder}).
+ *
+ * Types are resolved by name with the given class loader. The annotations of the recorded method are not journaled, they
+ * are resolved from the recorded method (or left empty if the method cannot be found).
+ *
+ * A decoder is not thread safe and should be used for one snapshot only.
+ */
+public class SnapshotDecoder {
+
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+	static {
+		for (Class<?> clazz : new Class<?>[] { void.class, boolean.class, char.class, byte.class, short.class, int.class, long.class, float.class, double.class }) {
+			PRIMITIVES.put(clazz.getName(), clazz);
+		}
+	}
+
+	private DataInput in;
+	private ClassLoader loader;
+	private List<String> strings;
+	private List<SerializedValue> values;
+
+	public SnapshotDecoder(DataInput in, ClassLoader loader) {
+		this.in = in;
+		this.loader = loader;
+		this.strings = new ArrayList<>();
+		this.values = new ArrayList<>();
+	}
+
+	public ContextSnapshot read() throws IOException {
+		long time = in.readLong();
+		String key = readString();
+		Class<?> declaringClass = readClass();
+		Type resultType = readType();
+		String methodName = readString();
+		Type[] argumentTypes = readTypes();
+
+		ContextSnapshot snapshot = new ContextSnapshot(time, key, signature(declaringClass, resultType, methodName, argumentTypes));
+
+		snapshot.setSetupThis(readValue());
+		snapshot.setSetupArgs(readValues());
+		snapshot.setSetupGlobals(readFields());
+
+		snapshot.setExpectThis(readValue());
+		snapshot.setExpectResult(readValue());
+		snapshot.setExpectException(readValue());
+		snapshot.setExpectArgs(readValues());
+		snapshot.setExpectGlobals(readFields());
+
+		int inputSize = in.readInt();
+		List<SerializedInput> input = new ArrayList<>(inputSize);
+		for (int i = 0; i < inputSize; i++) {
+			int id = in.readInt();
+			SerializedInput interaction = new SerializedInput(id, readCall(), readClass(), readString(), readType(), readTypes());
+			interaction.updateResult(readValue());
+			interaction.updateArguments(readValues());
+			input.add(interaction);
+		}
+		snapshot.setInput(input);
+		int outputSize = in.readInt();
+		List<SerializedOutput> output = new ArrayList<>(outputSize);
+		for (int i = 0; i < outputSize; i++) {
+			int id = in.readInt();
+			SerializedOutput interaction = new SerializedOutput(id, readCall(), readClass(), readString(), readType(), readTypes());
+			interaction.updateResult(readValue());
+			interaction.updateArguments(readValues());
+			output.add(interaction);
+		}
+		snapshot.setOutput(output);
+		return snapshot;
+	}
+
+	private MethodSignature signature(Class<?> declaringClass, Type resultType, String methodName, Type[] argumentTypes) {
+		Annotation[] resultAnnotation = new Annotation[0];
+		Annotation[][] argumentAnnotations = new Annotation[argumentTypes.length][0];
+		try {
+			Class<?>[] parameterTypes = new Class<?>[argumentTypes.length];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				parameterTypes[i] = baseType(argumentTypes[i]);
+			}
+			Method method = Types.getDeclaredMethod(declaringClass, methodName, parameterTypes);
+			resultAnnotation = method.getAnnotations();
+			argumentAnnotations = method.getParameterAnnotations();
+		} catch (NoSuchMethodException e) {
+		}
+		return new MethodSignature(declaringClass, resultAnnotation, resultType, methodName, argumentAnnotations, argumentTypes);
+	}
+
+	private StackTraceElement[] readCall() throws IOException {
+		StackTraceElement[] call = new StackTraceElement[in.readInt()];
+		for (int i = 0; i < call.length; i++) {
+			call[i] = new StackTraceElement(readString(), readString(), readString(), in.readInt());
+		}
+		return call;
+	}
+
+	private SerializedField[] readFields() throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		SerializedField[] fields = new SerializedField[length];
+		for (int i = 0; i < length; i++) {
+			fields[i] = readField();
+		}
+		return fields;
+	}
+
+	private SerializedField readField() throws IOException {
+		return new SerializedField(readClass(), readString(), readType(), readValue());
+	}
+
+	private SerializedValue[] readValues() throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		SerializedValue[] values = new SerializedValue[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readValue();
+		}
+		return values;
+	}
+
+	private List<SerializedValue> readValueList() throws IOException {
+		int size = in.readInt();
+		List<SerializedValue> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(readValue());
+		}
+		return values;
+	}
+
+	private SerializedValue readValue() throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case NO_VALUE:
+			return null;
+		case LITERAL:
+			Type literalType = readType();
+			return SerializedLiteral.literal(literalType, readLiteral(in));
+		case NULL:
+			return SerializedNull.nullInstance(readType());
+		case BACKREFERENCE:
+			int index = in.readInt();
+			if (index < 0 || index >= values.size()) {
+				throw new IOException("invalid back reference " + index);
+			}
+			return values.get(index);
+		case OBJECT:
+			SerializedObject object = readReference(SerializedObject::new);
+			int fields = in.readInt();
+			for (int i = 0; i < fields; i++) {
+				object.addField(readField());
+			}
+			return object;
+		case ARRAY:
+			SerializedArray array = readReference(SerializedArray::new);
+			if (in.readBoolean()) {
+				Class<?> componentType = readClass();
+				array.setPrimitiveArray(readPrimitiveArray(in, componentType));
+			} else {
+				array.with(readValueList());
+			}
+			return array;
+		case LIST:
+			SerializedList list = readReference(SerializedList::new);
+			list.addAll(readValueList());
+			return list;
+		case SET:
+			SerializedSet set = readReference(SerializedSet::new);
+			set.addAll(readValueList());
+			return set;
+		case MAP:
+			SerializedMap map = readReference(SerializedMap::new);
+			int entries = in.readInt();
+			for (int i = 0; i < entries; i++) {
+				SerializedValue key = readValue();
+				map.put(key, readValue());
+			}
+			return map;
+		case ENUM:
+			SerializedEnum enumValue = readReference(SerializedEnum::new);
+			enumValue.setName(readString());
+			return enumValue;
+		case IMMUTABLE:
+			SerializedImmutable<Object> immutable = readReference(SerializedImmutable<Object>::new);
+			immutable.setValue(readImmutable());
+			return immutable;
+		case PLACEHOLDER:
+			return readReference(SerializedPlaceholder::new);
+		case REMAINDER:
+			return readReference(SerializedPlaceholder::remainder);
+		case LAMBDA:
+			SerializedLambdaObject lambda = readReference(SerializedLambdaObject::new);
+			LambdaSignature signature = new LambdaSignature()
+				.withCapturingClass(readString())
+				.withInstantiatedMethodType(readString())
+				.withFunctionalInterface(readString(), readString(), readString())
+				.withImplMethod(readString(), in.readInt(), readString(), readString());
+			lambda.setSignature(signature);
+			lambda.setCapturedArguments(readValueList());
+			return lambda;
+		default:
+			throw new IOException("unknown value tag " + tag);
+		}
+	}
+
+	private <T extends AbstractSerializedReferenceType> T readReference(Function<Type, T> factory) throws IOException {
+		int id = in.readInt();
+		T value = factory.apply(readType());
+		value.setId(id);
+		value.setResultType(readType());
+		values.add(value);
+		return value;
+	}
+
+	private Object readImmutable() throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case NO_IMMUTABLE:
+			return null;
+		case BIG_INTEGER:
+			return new BigInteger(readString());
+		case BIG_DECIMAL:
+			return new BigDecimal(readString());
+		case CLASS_VALUE:
+			return classFor(readString());
+		default:
+			throw new IOException("unknown immutable tag " + tag);
+		}
+	}
+
+	private Type[] readTypes() throws IOException {
+		Type[] types = new Type[in.readInt()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = readType();
+		}
+		return types;
+	}
+
+	private Class<?> readClass() throws IOException {
+		Type type = readType();
+		if (type != null && !(type instanceof Class<?>)) {
+			throw new IOException("expected class but found " + type.getTypeName());
+		}
+		return (Class<?>) type;
+	}
+
+	private Type readType() throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case NO_TYPE:
+			return null;
+		case CLASS:
+			return classFor(readString());
+		case PARAMETERIZED:
+			Type raw = readType();
+			Type owner = readType();
+			return Types.parameterized(raw, owner, readTypes());
+		case GENERIC_ARRAY:
+			return Types.array(readType());
+		case WILDCARD:
+			Type[] upperBounds = readTypes();
+			Type[] lowerBounds = readTypes();
+			if (lowerBounds.length > 0) {
+				return Types.wildcardSuper(lowerBounds);
+			}
+			return Types.wildcardExtends(upperBounds);
+		case TYPE_VARIABLE:
+			Class<?> declaration = classFor(readString());
+			String name = readString();
+			for (TypeVariable<?> typeVariable : declaration.getTypeParameters()) {
+				if (typeVariable.getName().equals(name)) {
+					return typeVariable;
+				}
+			}
+			throw new IOException("cannot resolve type variable " + name + " of " + declaration.getName());
+		default:
+			throw new IOException("unknown type tag " + tag);
+		}
+	}
+
+	private Class<?> classFor(String name) throws IOException {
+		Class<?> primitive = PRIMITIVES.get(name);
+		if (primitive != null) {
+			return primitive;
+		}
+		try {
+			return Class.forName(name, false, loader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			throw new IOException("cannot resolve class " + name, e);
+		}
+	}
+
+	private String readString() throws IOException {
+		int index = in.readInt();
+		if (index < 0) {
+			return null;
+		} else if (index == strings.size()) {
+			String string = (String) readLiteral(in);
+			strings.add(string);
+			return string;
+		} else if (index < strings.size()) {
+			return strings.get(index);
+		} else {
+			throw new IOException("invalid string reference " + index);
+		}
+	}
+
+}
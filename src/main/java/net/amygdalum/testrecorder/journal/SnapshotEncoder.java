@@ -0,0 +1,336 @@
+package net.amygdalum.testrecorder.journal;
+
+import static net.amygdalum.testrecorder.journal.JournalFormat.ARRAY;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BACKREFERENCE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BIG_DECIMAL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.BIG_INTEGER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.CLASS;
+import static net.amygdalum.testrecorder.journal.JournalFormat.CLASS_VALUE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.ENUM;
+import static net.amygdalum.testrecorder.journal.JournalFormat.GENERIC_ARRAY;
+import static net.amygdalum.testrecorder.journal.JournalFormat.IMMUTABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LAMBDA;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LIST;
+import static net.amygdalum.testrecorder.journal.JournalFormat.LITERAL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.MAP;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_IMMUTABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_TYPE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NO_VALUE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.NULL;
+import static net.amygdalum.testrecorder.journal.JournalFormat.OBJECT;
+import static net.amygdalum.testrecorder.journal.JournalFormat.PARAMETERIZED;
+import static net.amygdalum.testrecorder.journal.JournalFormat.PLACEHOLDER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.REMAINDER;
+import static net.amygdalum.testrecorder.journal.JournalFormat.SET;
+import static net.amygdalum.testrecorder.journal.JournalFormat.TYPE_VARIABLE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.WILDCARD;
+import static net.amygdalum.testrecorder.util.BinaryLiterals.writeLiteral;
+import static net.amygdalum.testrecorder.util.BinaryLiterals.writePrimitiveArray;
+import static net.amygdalum.testrecorder.util.Types.baseType;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.values.AbstractSerializedInteraction;
+import net.amygdalum.testrecorder.values.LambdaSignature;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedEnum;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedImmutable;
+import net.amygdalum.testrecorder.values.SerializedInput;
+import net.amygdalum.testrecorder.values.SerializedLambdaObject;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedLiteral;
+import net.amygdalum.testrecorder.values.SerializedMap;
+import net.amygdalum.testrecorder.values.SerializedNull;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedOutput;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+import net.amygdalum.testrecorder.values.SerializedSet;
+
+/**
+ * encodes one snapshot to the binary journal format (see {@link SnapshotDecoder} for the inverse).
+ *
+ * Strings (class names, field names, ...) are written once per snapshot and referenced by index afterwards. Reference values
+ * shared in the serialized graph (or reachable from themselves) are written once and referenced by index afterwards. Types
+ * are written by name, type variables of generic methods are written as their erasure.
+ *
+ * An encoder is not thread safe and should be used for one snapshot only.
+ */
+public class SnapshotEncoder {
+
+	private DataOutput out;
+	private Map<String, Integer> strings;
+	private Map<SerializedValue, Integer> values;
+
+	public SnapshotEncoder(DataOutput out) {
+		this.out = out;
+		this.strings = new HashMap<>();
+		this.values = new IdentityHashMap<>();
+	}
+
+	public void write(ContextSnapshot snapshot) throws IOException {
+		out.writeLong(snapshot.getTime());
+		writeString(snapshot.getKey());
+		writeType(snapshot.getDeclaringClass());
+		writeType(snapshot.getResultType());
+		writeString(snapshot.getMethodName());
+		writeTypes(snapshot.getArgumentTypes());
+
+		writeValue(snapshot.getSetupThis());
+		writeValues(snapshot.getSetupArgs());
+		writeFields(snapshot.getSetupGlobals());
+
+		writeValue(snapshot.getExpectThis());
+		writeValue(snapshot.getExpectResult());
+		writeValue(snapshot.getExpectException());
+		writeValues(snapshot.getExpectArgs());
+		writeFields(snapshot.getExpectGlobals());
+
+		List<SerializedInput> input = snapshot.getSetupInput();
+		out.writeInt(input.size());
+		for (SerializedInput interaction : input) {
+			writeInteraction(interaction);
+		}
+		List<SerializedOutput> output = snapshot.getExpectOutput();
+		out.writeInt(output.size());
+		for (SerializedOutput interaction : output) {
+			writeInteraction(interaction);
+		}
+	}
+
+	private void writeInteraction(AbstractSerializedInteraction interaction) throws IOException {
+		out.writeInt(interaction.getId());
+		StackTraceElement[] call = interaction.getCall();
+		out.writeInt(call.length);
+		for (StackTraceElement element : call) {
+			writeString(element.getClassName());
+			writeString(element.getMethodName());
+			writeString(element.getFileName());
+			out.writeInt(element.getLineNumber());
+		}
+		writeType(interaction.getDeclaringClass());
+		writeString(interaction.getName());
+		writeType(interaction.getResultType());
+		writeTypes(interaction.getTypes());
+		writeValue(interaction.getResult());
+		writeValues(interaction.getArguments());
+	}
+
+	private void writeFields(SerializedField[] fields) throws IOException {
+		if (fields == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(fields.length);
+		for (SerializedField field : fields) {
+			writeField(field);
+		}
+	}
+
+	private void writeField(SerializedField field) throws IOException {
+		writeType(field.getDeclaringClass());
+		writeString(field.getName());
+		writeType(field.getType());
+		writeValue(field.getValue());
+	}
+
+	private void writeValues(SerializedValue[] values) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.length);
+		for (SerializedValue value : values) {
+			writeValue(value);
+		}
+	}
+
+	private void writeValues(Collection<SerializedValue> values) throws IOException {
+		out.writeInt(values.size());
+		for (SerializedValue value : values) {
+			writeValue(value);
+		}
+	}
+
+	private void writeValue(SerializedValue value) throws IOException {
+		if (value == null) {
+			out.writeByte(NO_VALUE);
+		} else if (value instanceof SerializedLiteral) {
+			out.writeByte(LITERAL);
+			writeType(value.getResultType());
+			writeLiteral(out, ((SerializedLiteral) value).getValue());
+		} else if (value instanceof SerializedNull) {
+			out.writeByte(NULL);
+			writeType(value.getType());
+		} else if (values.containsKey(value)) {
+			out.writeByte(BACKREFERENCE);
+			out.writeInt(values.get(value));
+		} else {
+			values.put(value, values.size());
+			writeReferenceValue(value);
+		}
+	}
+
+	private void writeReferenceValue(SerializedValue value) throws IOException {
+		if (value instanceof SerializedObject) {
+			SerializedObject object = (SerializedObject) value;
+			writeReferenceHeader(OBJECT, object.getId(), value);
+			List<SerializedField> fields = object.getFields();
+			out.writeInt(fields.size());
+			for (SerializedField field : fields) {
+				writeField(field);
+			}
+		} else if (value instanceof SerializedArray) {
+			SerializedArray array = (SerializedArray) value;
+			writeReferenceHeader(ARRAY, array.getId(), value);
+			out.writeBoolean(array.isPrimitiveArray());
+			if (array.isPrimitiveArray()) {
+				Object primitiveArray = array.getPrimitiveArray();
+				writeType(primitiveArray.getClass().getComponentType());
+				writePrimitiveArray(out, primitiveArray);
+			} else {
+				writeValues(array.getArray());
+			}
+		} else if (value instanceof SerializedList) {
+			SerializedList list = (SerializedList) value;
+			writeReferenceHeader(LIST, list.getId(), value);
+			writeValues(list);
+		} else if (value instanceof SerializedSet) {
+			SerializedSet set = (SerializedSet) value;
+			writeReferenceHeader(SET, set.getId(), value);
+			writeValues(set);
+		} else if (value instanceof SerializedMap) {
+			SerializedMap map = (SerializedMap) value;
+			writeReferenceHeader(MAP, map.getId(), value);
+			out.writeInt(map.size());
+			for (Map.Entry<SerializedValue, SerializedValue> entry : map.entrySet()) {
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		} else if (value instanceof SerializedEnum) {
+			SerializedEnum enumValue = (SerializedEnum) value;
+			writeReferenceHeader(ENUM, enumValue.getId(), value);
+			writeString(enumValue.getName());
+		} else if (value instanceof SerializedImmutable<?>) {
+			SerializedImmutable<?> immutable = (SerializedImmutable<?>) value;
+			writeReferenceHeader(IMMUTABLE, immutable.getId(), value);
+			writeImmutable(immutable.getValue());
+		} else if (value instanceof SerializedPlaceholder) {
+			SerializedPlaceholder placeholder = (SerializedPlaceholder) value;
+			writeReferenceHeader(isRemainder(placeholder) ? REMAINDER : PLACEHOLDER, placeholder.getId(), value);
+		} else if (value instanceof SerializedLambdaObject) {
+			SerializedLambdaObject lambda = (SerializedLambdaObject) value;
+			writeReferenceHeader(LAMBDA, lambda.getId(), value);
+			LambdaSignature signature = lambda.getSignature();
+			writeString(signature.getCapturingClass());
+			writeString(signature.getInstantiatedMethodType());
+			writeString(signature.getFunctionalInterfaceClass());
+			writeString(signature.getFunctionalInterfaceMethodName());
+			writeString(signature.getFunctionalInterfaceMethodSignature());
+			writeString(signature.getImplClass());
+			out.writeInt(signature.getImplMethodKind());
+			writeString(signature.getImplMethodName());
+			writeString(signature.getImplMethodSignature());
+			writeValues(lambda.getCapturedArguments());
+		} else {
+			throw new IOException("cannot encode serialized value of " + value.getClass().getName());
+		}
+	}
+
+	private void writeReferenceHeader(byte tag, int id, SerializedValue value) throws IOException {
+		out.writeByte(tag);
+		out.writeInt(id);
+		writeType(value.getType());
+		writeType(value.getResultType());
+	}
+
+	private void writeImmutable(Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NO_IMMUTABLE);
+		} else if (value instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			writeString(value.toString());
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL);
+			writeString(value.toString());
+		} else if (value instanceof Class<?>) {
+			out.writeByte(CLASS_VALUE);
+			writeString(((Class<?>) value).getName());
+		} else {
+			throw new IOException("cannot encode immutable value of " + value.getClass().getName());
+		}
+	}
+
+	private void writeTypes(Type[] types) throws IOException {
+		out.writeInt(types.length);
+		for (Type type : types) {
+			writeType(type);
+		}
+	}
+
+	private void writeType(Type type) throws IOException {
+		if (type == null) {
+			out.writeByte(NO_TYPE);
+		} else if (type instanceof Class<?>) {
+			out.writeByte(CLASS);
+			writeString(((Class<?>) type).getName());
+		} else if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			out.writeByte(PARAMETERIZED);
+			writeType(parameterizedType.getRawType());
+			writeType(parameterizedType.getOwnerType());
+			writeTypes(parameterizedType.getActualTypeArguments());
+		} else if (type instanceof GenericArrayType) {
+			out.writeByte(GENERIC_ARRAY);
+			writeType(((GenericArrayType) type).getGenericComponentType());
+		} else if (type instanceof WildcardType) {
+			WildcardType wildcardType = (WildcardType) type;
+			out.writeByte(WILDCARD);
+			writeTypes(wildcardType.getUpperBounds());
+			writeTypes(wildcardType.getLowerBounds());
+		} else if (type instanceof TypeVariable<?> && ((TypeVariable<?>) type).getGenericDeclaration() instanceof Class<?>) {
+			TypeVariable<?> typeVariable = (TypeVariable<?>) type;
+			out.writeByte(TYPE_VARIABLE);
+			writeString(((Class<?>) typeVariable.getGenericDeclaration()).getName());
+			writeString(typeVariable.getName());
+		} else if (type instanceof TypeVariable<?>) {
+			Type[] bounds = ((TypeVariable<?>) type).getBounds();
+			writeType(bounds.length == 0 ? Object.class : baseType(bounds[0]));
+		} else {
+			throw new IOException("cannot encode type " + type.getTypeName());
+		}
+	}
+
+	private void writeString(String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		Integer index = strings.get(string);
+		if (index != null) {
+			out.writeInt(index);
+			return;
+		}
+		index = strings.size();
+		strings.put(string, index);
+		out.writeInt(index);
+		writeLiteral(out, string);
+	}
+
+}
@@ -0,0 +1,236 @@
+package net.amygdalum.testrecorder.journal;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.HEADER_SIZE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.MAGIC;
+import static net.amygdalum.testrecorder.journal.JournalFormat.RECORD_HEADER_SIZE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.VERSION;
+import static net.amygdalum.testrecorder.journal.JournalFormat.segmentName;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.Logger;
+import net.amygdalum.testrecorder.SnapshotConsumer;
+import net.amygdalum.testrecorder.TestrecorderThreadFactory;
+
+/**
+ * A configurable SnapshotConsumer client that writes snapshots to an append-only binary journal instead of generating tests.
+ * Tests can be generated from the journal later (and in another process), see {@link SnapshotJournalReader}.
+ *
+ * The journal is a directory of segments, a new segment is started as soon as the current segment would exceed the segment size.
+ * Segments of former runs (or of other journals writing to the same directory) are kept, new segments are numbered after them.
+ * 
+ * Each snapshot is encoded in the calling thread (see {@link SnapshotEncoder}), snapshots that cannot be encoded are skipped.
+ * The encoded records are passed through a bounded queue to a single writer thread, that appends and flushes them in batches.
+ * The calling thread only blocks if the queue is full.
+ */
+public class SnapshotJournal implements SnapshotConsumer {
+
+	public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+	private static final byte[] CLOSE = new byte[0];
+
+	private Path path;
+	private long segmentSize;
+	private int queueSize;
+
+	private volatile BlockingQueue<byte[]> records;
+	private Thread writer;
+
+	private int segment;
+	private DataOutputStream out;
+	private long written;
+
+	public SnapshotJournal() {
+		this.path = Paths.get("snapshots");
+		this.segmentSize = DEFAULT_SEGMENT_SIZE;
+		this.queueSize = DEFAULT_QUEUE_SIZE;
+	}
+
+	/**
+	 * specifies the directory where journal segments are written
+	 * @param path the directory where journal segments are written
+	 * @return this
+	 */
+	public SnapshotJournal withJournalTo(Path path) {
+		this.path = path;
+		return this;
+	}
+
+	/**
+	 * specifies the size (in bytes) a segment may grow to before a new segment is started. A single snapshot larger than
+	 * this size is written to a segment of its own.
+	 * @param segmentSize the maximum size of a segment
+	 * @return this
+	 */
+	public SnapshotJournal withSegmentSize(long segmentSize) {
+		this.segmentSize = segmentSize;
+		return this;
+	}
+
+	/**
+	 * specifies the number of encoded snapshots that may wait for the writer thread. Threads accepting snapshots block
+	 * while the queue is full.
+	 * @param queueSize the maximum number of waiting snapshots
+	 * @return this
+	 */
+	public SnapshotJournal withQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+		return this;
+	}
+
+	@Override
+	public void accept(ContextSnapshot snapshot) {
+		if (!snapshot.isValid()) {
+			return;
+		}
+		byte[] record;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			new SnapshotEncoder(new DataOutputStream(bytes)).write(snapshot);
+			record = bytes.toByteArray();
+		} catch (IOException | RuntimeException e) {
+			Logger.warn("failed encoding snapshot " + snapshot + ", skipping: " + e.getMessage());
+			return;
+		}
+		try {
+			records().put(record);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.warn("interrupted while journaling snapshot " + snapshot + ", skipping");
+		}
+	}
+
+	private BlockingQueue<byte[]> records() {
+		BlockingQueue<byte[]> records = this.records;
+		if (records != null) {
+			return records;
+		}
+		synchronized (this) {
+			if (this.records == null) {
+				BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(queueSize);
+				writer = new TestrecorderThreadFactory("$journal").newThread(() -> write(queue));
+				writer.start();
+				this.records = queue;
+			}
+			return this.records;
+		}
+	}
+
+	private void write(BlockingQueue<byte[]> records) {
+		List<byte[]> batch = new ArrayList<>();
+		while (true) {
+			try {
+				batch.add(records.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			records.drainTo(batch);
+			boolean closed = false;
+			try {
+				for (byte[] record : batch) {
+					if (record == CLOSE) {
+						closed = true;
+					} else {
+						append(record);
+					}
+				}
+				if (out != null) {
+					out.flush();
+				}
+			} catch (IOException e) {
+				Logger.error("failed writing snapshots to journal " + path + ": " + e.getMessage());
+			}
+			batch.clear();
+			if (closed) {
+				return;
+			}
+		}
+	}
+
+	private void append(byte[] record) throws IOException {
+		if (out == null || written > HEADER_SIZE && written + RECORD_HEADER_SIZE + record.length > segmentSize) {
+			rotate();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		out.writeInt(record.length);
+		out.writeInt((int) crc.getValue());
+		out.write(record);
+		written += RECORD_HEADER_SIZE + record.length;
+	}
+
+	private void rotate() throws IOException {
+		closeSegment();
+		if (segment == 0) {
+			Files.createDirectories(path);
+			List<Path> segments = SnapshotJournalReader.segments(path);
+			if (!segments.isEmpty()) {
+				segment = JournalFormat.segmentNumber(segments.get(segments.size() - 1).getFileName().toString());
+			}
+		}
+		out = new DataOutputStream(new BufferedOutputStream(newSegment()));
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		written = HEADER_SIZE;
+	}
+
+	private OutputStream newSegment() throws IOException {
+		while (true) {
+			segment++;
+			try {
+				return Files.newOutputStream(path.resolve(segmentName(segment)), CREATE_NEW, WRITE);
+			} catch (FileAlreadyExistsException e) {
+				// segment was created by another journal, try the next one
+			}
+		}
+	}
+
+	private void closeSegment() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+	}
+
+	/**
+	 * waits until all accepted snapshots are written and closes the current segment. Snapshots accepted later are written to a new segment.
+	 */
+	@Override
+	public synchronized void close() {
+		if (records != null) {
+			try {
+				records.put(CLOSE);
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				Logger.warn("interrupted while closing journal " + path);
+				writer.interrupt();
+			}
+			records = null;
+			writer = null;
+		}
+		try {
+			closeSegment();
+		} catch (IOException e) {
+			Logger.error("failed closing journal " + path + ": " + e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package net.amygdalum.testrecorder.journal;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+import static net.amygdalum.testrecorder.journal.JournalFormat.HEADER_SIZE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.MAGIC;
+import static net.amygdalum.testrecorder.journal.JournalFormat.RECORD_HEADER_SIZE;
+import static net.amygdalum.testrecorder.journal.JournalFormat.VERSION;
+import static net.amygdalum.testrecorder.journal.JournalFormat.segmentNumber;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.Logger;
+
+/**
+ * reads the snapshots of a journal written by {@link SnapshotJournal}, segment by segment in the order they were written.
+ *
+ * Records with a wrong checksum or with types that cannot be resolved are skipped, a truncated record (e.g. of a process that
+ * did not terminate properly) ends its segment.
+ */
+public class SnapshotJournalReader {
+
+	private Path path;
+	private ClassLoader loader;
+
+	public SnapshotJournalReader(Path path, ClassLoader loader) {
+		this.path = path;
+		this.loader = loader;
+	}
+
+	/**
+	 * @param path the journal directory
+	 * @return the segments of the journal in the order they were written
+	 * @throws IOException if the directory could not be listed
+	 */
+	public static List<Path> segments(Path path) throws IOException {
+		if (!Files.isDirectory(path)) {
+			return new ArrayList<>();
+		}
+		try (Stream<Path> files = Files.list(path)) {
+			return files
+				.filter(file -> segmentNumber(file.getFileName().toString()) >= 0)
+				.sorted(comparingInt(file -> segmentNumber(file.getFileName().toString())))
+				.collect(toList());
+		}
+	}
+
+	public List<Path> segments() throws IOException {
+		return segments(path);
+	}
+
+	/**
+	 * reads all snapshots of the journal.
+	 * 
+	 * @param consumer the consumer of the snapshots
+	 * @throws IOException if a segment could not be read
+	 */
+	public void read(Consumer<ContextSnapshot> consumer) throws IOException {
+		for (Path segment : segments()) {
+			read(segment, consumer);
+		}
+	}
+
+	/**
+	 * reads all snapshots of one segment.
+	 * 
+	 * @param segment the segment to read
+	 * @param consumer the consumer of the snapshots
+	 * @throws IOException if the segment could not be read or is not a segment of a supported version
+	 */
+	public void read(Path segment, Consumer<ContextSnapshot> consumer) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(segment + " is not a snapshot journal");
+			}
+			short version = in.readShort();
+			if (version != VERSION) {
+				throw new IOException(segment + " has unsupported version " + version);
+			}
+			long position = HEADER_SIZE;
+			long size = Files.size(segment);
+			while (position + RECORD_HEADER_SIZE <= size) {
+				int length = in.readInt();
+				int checksum = in.readInt();
+				position += RECORD_HEADER_SIZE;
+				if (length < 0 || position + length > size) {
+					Logger.warn("skipping truncated end of journal segment " + segment);
+					return;
+				}
+				byte[] record = new byte[length];
+				in.readFully(record);
+				position += length;
+				CRC32 crc = new CRC32();
+				crc.update(record);
+				if ((int) crc.getValue() != checksum) {
+					Logger.warn("skipping corrupt snapshot in journal segment " + segment);
+					continue;
+				}
+				try {
+					consumer.accept(new SnapshotDecoder(new DataInputStream(new ByteArrayInputStream(record)), loader).read());
+				} catch (IOException | RuntimeException e) {
+					Logger.warn("skipping snapshot in journal segment " + segment + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+}
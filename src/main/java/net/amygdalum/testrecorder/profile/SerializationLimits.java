@@ -0,0 +1,113 @@
+package net.amygdalum.testrecorder.profile;
+
+/**
+ * Limits the size of serialized object graphs. Values exceeding a limit are serialized as placeholders 
+ * (see {@link net.amygdalum.testrecorder.values.SerializedPlaceholder}), the rest of the graph is serialized as usual. Collections,
+ * maps and arrays exceeding their size limit are truncated, i.e. only their first elements are serialized.
+ * 
+ * Limits are immutable, use {@link #unlimited()} and the with-methods to derive customized limits.
+ */
+public final class SerializationLimits {
+
+	private static final SerializationLimits UNLIMITED = new SerializationLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+	private final int maxDepth;
+	private final int maxNodes;
+	private final int maxCollectionElements;
+	private final int maxArrayLength;
+	private final int maxStringLength;
+
+	private SerializationLimits(int maxDepth, int maxNodes, int maxCollectionElements, int maxArrayLength, int maxStringLength) {
+		this.maxDepth = maxDepth;
+		this.maxNodes = maxNodes;
+		this.maxCollectionElements = maxCollectionElements;
+		this.maxArrayLength = maxArrayLength;
+		this.maxStringLength = maxStringLength;
+	}
+
+	public static SerializationLimits unlimited() {
+		return UNLIMITED;
+	}
+
+	/**
+	 * @param maxDepth the maximum depth of serialized objects (the root objects of a serialization have depth 0)
+	 * @return limits with the given maximum depth
+	 */
+	public SerializationLimits withMaxDepth(int maxDepth) {
+		return new SerializationLimits(maxDepth, maxNodes, maxCollectionElements, maxArrayLength, maxStringLength);
+	}
+
+	/**
+	 * @param maxNodes the maximum number of objects serialized for one serialization (e.g. the setup of a snapshot)
+	 * @return limits with the given maximum number of objects
+	 */
+	public SerializationLimits withMaxNodes(int maxNodes) {
+		return new SerializationLimits(maxDepth, maxNodes, maxCollectionElements, maxArrayLength, maxStringLength);
+	}
+
+	/**
+	 * @param maxCollectionElements the maximum number of serialized elements of collections and maps (larger ones are truncated)
+	 * @return limits with the given maximum collection size
+	 */
+	public SerializationLimits withMaxCollectionElements(int maxCollectionElements) {
+		return new SerializationLimits(maxDepth, maxNodes, maxCollectionElements, maxArrayLength, maxStringLength);
+	}
+
+	/**
+	 * @param maxArrayLength the maximum number of serialized elements of arrays (larger ones are truncated)
+	 * @return limits with the given maximum array length
+	 */
+	public SerializationLimits withMaxArrayLength(int maxArrayLength) {
+		return new SerializationLimits(maxDepth, maxNodes, maxCollectionElements, maxArrayLength, maxStringLength);
+	}
+
+	/**
+	 * @param maxStringLength the maximum length of serialized strings
+	 * @return limits with the given maximum string length
+	 */
+	public SerializationLimits withMaxStringLength(int maxStringLength) {
+		return new SerializationLimits(maxDepth, maxNodes, maxCollectionElements, maxArrayLength, maxStringLength);
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	public int getMaxCollectionElements() {
+		return maxCollectionElements;
+	}
+
+	public int getMaxArrayLength() {
+		return maxArrayLength;
+	}
+
+	public int getMaxStringLength() {
+		return maxStringLength;
+	}
+
+	@Override
+	public int hashCode() {
+		return (((maxDepth * 31 + maxNodes) * 31 + maxCollectionElements) * 31 + maxArrayLength) * 31 + maxStringLength;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		SerializationLimits that = (SerializationLimits) obj;
+		return this.maxDepth == that.maxDepth
+			&& this.maxNodes == that.maxNodes
+			&& this.maxCollectionElements == that.maxCollectionElements
+			&& this.maxArrayLength == that.maxArrayLength
+			&& this.maxStringLength == that.maxStringLength;
+	}
+
+}
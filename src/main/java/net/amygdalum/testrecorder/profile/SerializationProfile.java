@@ -41,6 +41,63 @@ public interface SerializationProfile {
 	 */
 	List<Classes> getClassExclusions();
 
+	/**
+	 * Configuring {@link #getSerializationLimits()} bounds the size of serialized object graphs (depth, number of objects,
+	 * size of collections, arrays and strings). Values exceeding these limits are serialized as placeholders.
+	 * 
+	 * {@link net.amygdalum.testrecorder.profile.SerializationLimits#unlimited()} provides limits that do not truncate anything.
+	 *  
+	 * @return the limits for serialized object graphs
+	 */
+	SerializationLimits getSerializationLimits();
+
+	/**
+	 * Configuring {@link #getCompiledSerializerThreshold()} enables generated serializers for frequently serialized classes. After a class
+	 * has been serialized this number of times by the (reflective) generic serializer, a dedicated serializer is generated for it.
+	 * 
+	 * A value of 0 (the default) disables generated serializers.
+	 *  
+	 * @return the number of serializations of a class after which a dedicated serializer is generated, 0 to disable
+	 */
+	int getCompiledSerializerThreshold();
+
+	/**
+	 * Configuring {@link #isIncrementalExpectSerialization()} enables incremental serialization of expectations. Objects serialized for
+	 * the setup of a snapshot are fingerprinted (a cheap hash of their fields or elements). Serializing the expectation reuses the setup
+	 * serialization of each object graph whose objects all kept their fingerprint, only changed objects are serialized again. 
+	 * Unchanged expectations can then be detected by identity.
+	 * 
+	 * This is disabled by default.
+	 *  
+	 * @return true if expectations should reuse unchanged setup serializations, false otherwise
+	 */
+	boolean isIncrementalExpectSerialization();
+
+	/**
+	 * Configuring {@link #getCollectionSpillThreshold()} bounds the memory of serialized large collections and maps. The serialized
+	 * elements of a collection (or entries of a map) with more elements than the threshold are stored in chunks, chunks consisting
+	 * only of literals are spilled to temporary files (deleted as soon as the collection is released) and loaded lazily when iterating the serialized collection.
+	 * Other chunks (e.g. of serialized objects) stay in memory, a spilled collection keeping more values in memory than the threshold is truncated.
+	 *
+	 * A threshold of 0 (the default) disables spilling.
+	 *
+	 * @return the number of elements a collection must exceed to be spilled or 0 if collections should be kept in memory
+	 */
+	int getCollectionSpillThreshold();
+
+	/**
+	 * Configuring {@link #getSharedSerializationCapacity()} enables sharing serialized values across snapshots. Serialized objects
+	 * are fingerprinted and kept in a cache shared by all snapshots. An object serialized again (e.g. a singleton or the value of a
+	 * global field) reuses the cached value if no object reachable from it changed, such that many snapshots refer to the same
+	 * serialized value.
+	 *
+	 * The cache holds the serialized objects (not only their values), least recently used objects are evicted once the cache
+	 * exceeds its capacity. A capacity of 0 (the default) disables sharing.
+	 *
+	 * @return the number of serialized objects to share across snapshots or 0 if serialized values should not be shared
+	 */
+	int getSharedSerializationCapacity();
+
 	/**
 	 * Annotating a field with {@link Global} specifies a field to be serialized as global variable.
 	 * 
@@ -55,18 +55,34 @@ public class FakeIO {
 		this.interactions = new ArrayList<>();
 	}
 
-	public static Object callFake(String name, StackTraceElement[] stackTrace, Object instance, String methodName, String methodDesc, Object... varargs) {
-		if (isRecording(stackTrace)) {
-			return NO_RESULT;
-		}
+	public static Object callFake(String name, Object instance, String methodName, String methodDesc, Object... varargs) {
 		FakeIO fake = faked.get(name);
 		if (fake == null) {
 			return NO_RESULT;
 		}
+		return callFake(fake, callTrace(new Throwable().getStackTrace()), instance, methodName, methodDesc, varargs);
+	}
+
+	static Object callFake(FakeIO fake, StackTraceElement[] stackTrace, Object instance, String methodName, String methodDesc, Object... varargs) {
+		if (isRecording(stackTrace)) {
+			return NO_RESULT;
+		}
 		Invocation invocation = Invocation.capture(stackTrace, instance, fake.clazz, methodName, methodDesc);
 		return fake.call(invocation, varargs);
 	}
 
+	private static StackTraceElement[] callTrace(StackTraceElement[] stackTrace) {
+		for (int i = 0; i < stackTrace.length; i++) {
+			String className = stackTrace[i].getClassName();
+			if (!className.equals(FakeIO.class.getName())
+				&& !className.equals(BridgedFakeIO.class.getName())
+				&& !className.startsWith("java.lang.invoke.")) {
+				return Arrays.copyOfRange(stackTrace, i, stackTrace.length);
+			}
+		}
+		return stackTrace;
+	}
+
 	private static boolean isRecording(StackTraceElement[] stackTrace) {
 		for (StackTraceElement stackTraceElement : stackTrace) {
 			if (stackTraceElement.getClassName().startsWith("net.amygdalum.testrecorder.SnapshotManager")) {
@@ -90,7 +106,7 @@ public class FakeIO {
 		try {
 			inst.appendToBootstrapClassLoaderSearch(jarfile());
 			BridgedFakeIO.callFake = MethodHandles.lookup().findStatic(FakeIO.class, "callFake",
-				MethodType.methodType(Object.class, String.class, StackTraceElement[].class, Object.class, String.class, String.class, Object[].class));
+				MethodType.methodType(Object.class, String.class, Object.class, String.class, String.class, Object[].class));
 			BridgedFakeIO.NO_RESULT = NO_RESULT;
 		} catch (ReflectiveOperationException | IOException e) {
 			throw new RuntimeException("failed installing fake bridge", e);
@@ -0,0 +1,12 @@
+package net.amygdalum.testrecorder.sampling;
+
+public class SampleAll implements SamplingPolicy {
+
+	public static final SampleAll INSTANCE = new SampleAll();
+
+	@Override
+	public boolean sample(String signature) {
+		return true;
+	}
+
+}
@@ -0,0 +1,60 @@
+package net.amygdalum.testrecorder.sampling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * samples at most size invocations per time window. A recorded invocation cannot be withdrawn later, so instead of replacing
+ * elements of a reservoir the number of invocations in the current window is estimated by the number of invocations in the
+ * previous window. Each invocation is then sampled with probability size/estimate, which spreads the samples over the window.
+ */
+public class SampleByReservoir implements SamplingPolicy {
+
+	private int size;
+	private long windowInMillis;
+	private Map<String, Window> windows;
+
+	public SampleByReservoir(int size, long windowInMillis) {
+		this.size = size;
+		this.windowInMillis = windowInMillis;
+		this.windows = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public boolean sample(String signature) {
+		return windows.computeIfAbsent(signature, key -> new Window()).sample(System.currentTimeMillis());
+	}
+
+	private class Window {
+
+		private long start;
+		private long count;
+		private long estimate;
+		private int sampled;
+
+		Window() {
+			this.start = System.currentTimeMillis();
+		}
+
+		synchronized boolean sample(long now) {
+			if (now - start >= windowInMillis) {
+				estimate = now - start >= 2 * windowInMillis ? 0 : count;
+				start = now;
+				count = 0;
+				sampled = 0;
+			}
+			count++;
+			if (sampled >= size) {
+				return false;
+			}
+			if (estimate > size && ThreadLocalRandom.current().nextLong(estimate) >= size) {
+				return false;
+			}
+			sampled++;
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SampleByTokenBucket implements SamplingPolicy {
+
+	private double tokensPerNano;
+	private int capacity;
+	private Map<String, Bucket> buckets;
+
+	public SampleByTokenBucket(double tokensPerSecond, int capacity) {
+		this.tokensPerNano = tokensPerSecond / SECONDS.toNanos(1);
+		this.capacity = capacity;
+		this.buckets = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public boolean sample(String signature) {
+		return buckets.computeIfAbsent(signature, key -> new Bucket(capacity)).take(System.nanoTime());
+	}
+
+	private class Bucket {
+
+		private double tokens;
+		private long lastRefill;
+
+		Bucket(double tokens) {
+			this.tokens = tokens;
+			this.lastRefill = System.nanoTime();
+		}
+
+		synchronized boolean take(long now) {
+			tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+			lastRefill = now;
+			if (tokens < 1) {
+				return false;
+			}
+			tokens--;
+			return true;
+		}
+
+	}
+
+}
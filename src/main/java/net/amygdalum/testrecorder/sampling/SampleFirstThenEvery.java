@@ -0,0 +1,25 @@
+package net.amygdalum.testrecorder.sampling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SampleFirstThenEvery implements SamplingPolicy {
+
+	private int first;
+	private int every;
+	private Map<String, AtomicLong> counters;
+
+	public SampleFirstThenEvery(int first, int every) {
+		this.first = first;
+		this.every = Math.max(1, every);
+		this.counters = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public boolean sample(String signature) {
+		long count = counters.computeIfAbsent(signature, key -> new AtomicLong()).incrementAndGet();
+		return count <= first || (count - first) % every == 0;
+	}
+
+}
@@ -0,0 +1,18 @@
+package net.amygdalum.testrecorder.sampling;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SampleWithProbability implements SamplingPolicy {
+
+	private double probability;
+
+	public SampleWithProbability(double probability) {
+		this.probability = probability;
+	}
+
+	@Override
+	public boolean sample(String signature) {
+		return ThreadLocalRandom.current().nextDouble() < probability;
+	}
+
+}
@@ -0,0 +1,70 @@
+package net.amygdalum.testrecorder.sampling;
+
+/**
+ * decides which invocations of a recorded method are recorded. Invocations that are not sampled are neither
+ * snapshotted nor serialized. Implementations are called concurrently from all recorded threads and must be thread safe.
+ */
+public interface SamplingPolicy {
+
+	/**
+	 * decides whether the current invocation of the given recorded method should be recorded.
+	 *
+	 * @param signature the signature key of the recorded method
+	 * @return true if the invocation should be recorded, false otherwise
+	 */
+	boolean sample(String signature);
+
+	/**
+	 * records every invocation.
+	 *
+	 * @return a policy sampling every invocation
+	 */
+	static SamplingPolicy all() {
+		return SampleAll.INSTANCE;
+	}
+
+	/**
+	 * records each invocation with a fixed probability.
+	 *
+	 * @param probability the probability (between 0.0 and 1.0) to record an invocation
+	 * @return a policy sampling invocations randomly
+	 */
+	static SamplingPolicy withProbability(double probability) {
+		return new SampleWithProbability(probability);
+	}
+
+	/**
+	 * records invocations as long as the token bucket of the recorded method contains tokens. Each bucket is refilled
+	 * continuously up to the given capacity.
+	 *
+	 * @param tokensPerSecond the number of tokens added to each bucket per second
+	 * @param capacity the maximum number of tokens in each bucket (i.e. the size of bursts)
+	 * @return a policy rate limiting the invocations of each recorded method
+	 */
+	static SamplingPolicy byTokenBucket(double tokensPerSecond, int capacity) {
+		return new SampleByTokenBucket(tokensPerSecond, capacity);
+	}
+
+	/**
+	 * records the first invocations of each recorded method, afterwards only every k-th invocation.
+	 *
+	 * @param first the number of invocations that are always recorded
+	 * @param every the distance of the recorded invocations after the first invocations
+	 * @return a policy sampling invocations by count
+	 */
+	static SamplingPolicy firstThenEvery(int first, int every) {
+		return new SampleFirstThenEvery(first, every);
+	}
+
+	/**
+	 * records at most size invocations of each recorded method per time window, spread randomly over the window.
+	 *
+	 * @param size the maximum number of recorded invocations per window
+	 * @param windowInMillis the length of a window in milliseconds
+	 * @return a policy sampling a bounded number of invocations per time window
+	 */
+	static SamplingPolicy byReservoir(int size, long windowInMillis) {
+		return new SampleByReservoir(size, windowInMillis);
+	}
+
+}
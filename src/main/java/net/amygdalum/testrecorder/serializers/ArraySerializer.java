@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.serializers;
 
 import static java.util.Collections.emptyList;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Type;
@@ -29,7 +30,16 @@ public class ArraySerializer implements Serializer<SerializedArray> {
 
 	@Override
 	public void populate(SerializedArray serializedObject, Object object) {
-		for (int i = 0; i < Array.getLength(object); i++) {
+		int length = Array.getLength(object);
+		if (object.getClass().getComponentType().isPrimitive() && !facade.truncates(object, length - 1)) {
+			serializedObject.setPrimitiveArray(object);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			if (facade.truncates(object, i)) {
+				serializedObject.add(remainder(serializedObject.getComponentType()));
+				break;
+			}
 			serializedObject.add(facade.serialize(serializedObject.getComponentType(), Array.get(object, i)));
 		}
 	}
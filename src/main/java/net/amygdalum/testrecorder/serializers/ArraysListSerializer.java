@@ -2,6 +2,7 @@ package net.amygdalum.testrecorder.serializers;
 
 import static java.util.stream.Collectors.toList;
 import static net.amygdalum.testrecorder.util.TypeFilters.in;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.Arrays;
@@ -30,7 +31,13 @@ public class ArraysListSerializer extends HiddenInnerClassSerializer<SerializedL
 
 	@Override
 	public void populate(SerializedList serializedObject, Object object) {
+		serializedObject.spillTo(facade.spillStoreFor(((List<?>) object).size()));
+		int index = 0;
 		for (Object element : (List<?>) object) {
+			if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+				serializedObject.add(remainder(serializedObject.getComponentType()));
+				break;
+			}
 			serializedObject.add(facade.serialize(element.getClass(), element));
 		}
 	}
@@ -5,6 +5,7 @@ import static net.amygdalum.testrecorder.util.TypeFilters.startingWith;
 import static net.amygdalum.testrecorder.util.Types.inferType;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -36,9 +37,15 @@ public class CollectionsListSerializer extends HiddenInnerClassSerializer<Serial
 
     @Override
     public void populate(SerializedList serializedObject, Object object) {
+        serializedObject.spillTo(facade.spillStoreFor(((List<?>) object).size()));
         Type componentType = computeComponentType(serializedObject, object);
 
+        int index = 0;
         for (Object element : (List<?>) object) {
+            if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+                serializedObject.add(remainder(componentType));
+                break;
+            }
             Type elementType = element != null ? element.getClass() : componentType;
 
             serializedObject.add(facade.serialize(elementType, element));
@@ -5,6 +5,7 @@ import static net.amygdalum.testrecorder.util.TypeFilters.startingWith;
 import static net.amygdalum.testrecorder.util.Types.inferType;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -37,9 +38,15 @@ public class CollectionsMapSerializer extends HiddenInnerClassSerializer<Seriali
 
     @Override
     public void populate(SerializedMap serializedObject, Object object) {
+        serializedObject.spillTo(facade.spillStoreFor(((Map<?, ?>) object).size()));
         Type[] componentTypes = computeComponentType(serializedObject, object);
 
+        int index = 0;
         for (Map.Entry<?, ?> element : ((Map<?, ?>) object).entrySet()) {
+            if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+                serializedObject.put(remainder(componentTypes[0]), remainder(componentTypes[1]));
+                break;
+            }
             Object key = element.getKey();
             Object value = element.getValue();
             Type keyType = key != null ? key.getClass() : componentTypes[0];
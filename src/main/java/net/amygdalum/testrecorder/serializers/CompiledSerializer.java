@@ -0,0 +1,76 @@
+package net.amygdalum.testrecorder.serializers;
+
+import static java.util.Collections.emptyList;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import net.amygdalum.testrecorder.types.SerializationException;
+import net.amygdalum.testrecorder.types.SerializedReferenceType;
+import net.amygdalum.testrecorder.types.Serializer;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+/**
+ * base class of the serializers generated by {@link SerializerCompiler}. A subclass serializes the fields of exactly one class,
+ * reading the field values without reflection (in the order given at construction time).
+ */
+public abstract class CompiledSerializer implements Serializer<SerializedReferenceType> {
+
+	private SerializerFacade facade;
+	private Class<?>[] declaringClasses;
+	private String[] names;
+	private Type[] types;
+
+	protected CompiledSerializer(SerializerFacade facade, Field[] fields) {
+		this.facade = facade;
+		this.declaringClasses = new Class<?>[fields.length];
+		this.names = new String[fields.length];
+		this.types = new Type[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			declaringClasses[i] = fields[i].getDeclaringClass();
+			names[i] = fields[i].getName();
+			types[i] = fields[i].getGenericType();
+		}
+	}
+
+	@Override
+	public List<Class<?>> getMatchingClasses() {
+		return emptyList();
+	}
+
+	@Override
+	public SerializedReferenceType generate(Type resultType, Type type) {
+		return new SerializedObject(type).withResult(resultType);
+	}
+
+	@Override
+	public void populate(SerializedReferenceType serializedValue, Object object) {
+		if (!(serializedValue instanceof SerializedObject)) {
+			return;
+		}
+		try {
+			populateFields((SerializedObject) serializedValue, object);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new SerializationException(e);
+		}
+	}
+
+	/**
+	 * adds the serialized fields of object to serializedObject, calling {@link #addField(SerializedObject, int, Object)} for each field
+	 *
+	 * @param serializedObject the serialized object to populate
+	 * @param object the object to serialize
+	 * @throws Throwable if reading a field fails
+	 */
+	protected abstract void populateFields(SerializedObject serializedObject, Object object) throws Throwable;
+
+	protected void addField(SerializedObject serializedObject, int index, Object value) {
+		Type type = types[index];
+		serializedObject.addField(new SerializedField(declaringClasses[index], names[index], type, facade.serialize(type, value)));
+	}
+
+}
@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.serializers;
 
 import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.HashMap;
@@ -32,9 +33,15 @@ public class DefaultMapSerializer implements Serializer<SerializedMap> {
 
 	@Override
 	public void populate(SerializedMap serializedObject, Object object) {
+		serializedObject.spillTo(facade.spillStoreFor(((Map<?,?>) object).size()));
 		Type keyType = serializedObject.getMapKeyType();
 		Type valueType = serializedObject.getMapValueType();
+		int index = 0;
 		for (Map.Entry<?,?> entry : ((Map<?,?>) object).entrySet()) {
+			if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+				serializedObject.put(remainder(keyType), remainder(valueType));
+				break;
+			}
 			Object key = entry.getKey(); 
 			Object value = entry.getValue();
 			serializedObject.put(facade.serialize(keyType, key), facade.serialize(valueType, value));
@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.serializers;
 
 import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -35,8 +36,14 @@ public class DefaultQueueSerializer implements Serializer<SerializedList> {
 
 	@Override
 	public void populate(SerializedList serializedObject, Object object) {
+		serializedObject.spillTo(facade.spillStoreFor(((Queue<?>) object).size()));
 		Type resultType = serializedObject.getComponentType();
+		int index = 0;
 		for (Object element : (Queue<?>) object) {
+			if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+				serializedObject.add(remainder(resultType));
+				break;
+			}
 			serializedObject.add(facade.serialize(resultType, element));
 		}
 	}
@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.serializers;
 
 import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 
 import java.lang.reflect.Type;
 import java.util.HashSet;
@@ -32,8 +33,14 @@ public class DefaultSetSerializer implements Serializer<SerializedSet>{
 
 	@Override
 	public void populate(SerializedSet serializedObject, Object object) {
+		serializedObject.spillTo(facade.spillStoreFor(((Set<?>) object).size()));
 		Type resultType = serializedObject.getComponentType();
+		int index = 0;
 		for (Object element : (Set<?>) object) {
+			if (facade.truncates(object, index++) || serializedObject.isSpillExhausted()) {
+				serializedObject.add(remainder(resultType));
+				break;
+			}
 			serializedObject.add(facade.serialize(resultType, element));
 		}
 	}
@@ -40,14 +40,8 @@ public class GenericSerializer implements Serializer<SerializedReferenceType> {
 			return;
 		}
 		SerializedObject serializedObject = (SerializedObject) serializedValue;
-		Class<?> objectClass = object.getClass();
-		while (objectClass != Object.class && !facade.excludes(objectClass)) {
-			for (Field f : objectClass.getDeclaredFields()) {
-				if (!facade.excludes(f)) {
-					serializedObject.addField(facade.serialize(f, object));
-				}
-			}
-			objectClass = objectClass.getSuperclass();
+		for (Field f : facade.fieldsOf(object.getClass())) {
+			serializedObject.addField(facade.serialize(f, object));
 		}
 	}
 
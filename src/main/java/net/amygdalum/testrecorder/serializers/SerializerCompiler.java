@@ -0,0 +1,215 @@
+package net.amygdalum.testrecorder.serializers;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import net.amygdalum.testrecorder.types.SerializationException;
+import net.amygdalum.testrecorder.types.SerializedReferenceType;
+import net.amygdalum.testrecorder.types.Serializer;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+/**
+ * generates {@link CompiledSerializer}s for single classes. The generated serializer reads each field with a method handle stored in
+ * a static final field, such that the JIT may inline the field access (in contrast to {@link Field#get(Object)}).
+ */
+public class SerializerCompiler {
+
+	private static final String GENERATED_PACKAGE = "net.amygdalum.testrecorder.serializers.compiled.";
+	private static final String GETTER = "GETTER";
+
+	private static final String SERIALIZER = Type.getInternalName(CompiledSerializer.class);
+	private static final String COMPILER = Type.getInternalName(SerializerCompiler.class);
+	private static final String METHOD_HANDLE = Type.getInternalName(MethodHandle.class);
+	private static final String METHOD_HANDLE_DESC = Type.getDescriptor(MethodHandle.class);
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+	private static final Map<String, MethodHandle[]> GETTERS = new ConcurrentHashMap<>();
+
+	/**
+	 * hands the field getters to the static initializer of a generated serializer. Not to be called from other code.
+	 *
+	 * @param name the name of the generated serializer
+	 * @return the getters of the fields to serialize
+	 */
+	public static MethodHandle[] getters(String name) {
+		return GETTERS.remove(name);
+	}
+
+	/**
+	 * generates a serializer for instances of clazz.
+	 *
+	 * @param clazz the class to serialize
+	 * @param fields the (accessible) fields to serialize, e.g. as planned by the facade
+	 * @return a factory for serializers of clazz
+	 * @throws SerializationException if the serializer could not be generated
+	 */
+	public SerializerFactory<SerializedReferenceType> compile(Class<?> clazz, List<Field> fields) {
+		String name = GENERATED_PACKAGE + clazz.getName().replaceAll("[^\\w]", "_") + "Serializer$" + COUNTER.incrementAndGet();
+		Field[] fieldArray = fields.toArray(new Field[0]);
+		try {
+			GETTERS.put(name, getters(fieldArray));
+
+			byte[] bytes = generate(name.replace('.', '/'), fieldArray.length);
+
+			Class<?> serializerClass = new Loader(SerializerCompiler.class.getClassLoader()).define(name, bytes);
+			Class.forName(name, true, serializerClass.getClassLoader());
+			Constructor<?> constructor = serializerClass.getConstructor(SerializerFacade.class, Field[].class);
+			return new Factory(constructor, fieldArray);
+		} catch (RuntimeException | LinkageError | ReflectiveOperationException e) {
+			throw new SerializationException(e);
+		} finally {
+			GETTERS.remove(name);
+		}
+	}
+
+	private MethodHandle[] getters(Field[] fields) throws IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle[] getters = new MethodHandle[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			MethodHandle getter = lookup.unreflectGetter(fields[i]);
+			if (Modifier.isStatic(fields[i].getModifiers())) {
+				getter = MethodHandles.dropArguments(getter, 0, Object.class);
+			}
+			getters[i] = getter.asType(methodType(Object.class, Object.class));
+		}
+		return getters;
+	}
+
+	private byte[] generate(String name, int fieldCount) {
+		ClassNode classNode = new ClassNode();
+		classNode.version = V1_8;
+		classNode.access = ACC_PUBLIC | ACC_FINAL | ACC_SUPER;
+		classNode.name = name;
+		classNode.superName = SERIALIZER;
+
+		for (int i = 0; i < fieldCount; i++) {
+			classNode.fields.add(new FieldNode(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, GETTER + i, METHOD_HANDLE_DESC, null, null));
+		}
+		classNode.methods.add(staticInitializer(name, fieldCount));
+		classNode.methods.add(constructor());
+		classNode.methods.add(populateFields(name, fieldCount));
+
+		ClassWriter out = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		classNode.accept(out);
+		return out.toByteArray();
+	}
+
+	private MethodNode staticInitializer(String name, int fieldCount) {
+		MethodNode method = new MethodNode(ACC_STATIC, "<clinit>", "()V", null, null);
+		InsnList insns = method.instructions;
+		insns.add(new LdcInsnNode(name.replace('/', '.')));
+		insns.add(new MethodInsnNode(INVOKESTATIC, COMPILER, "getters", Type.getMethodDescriptor(Type.getType(MethodHandle[].class), Type.getType(String.class)), false));
+		insns.add(new VarInsnNode(ASTORE, 0));
+		for (int i = 0; i < fieldCount; i++) {
+			insns.add(new VarInsnNode(ALOAD, 0));
+			insns.add(new LdcInsnNode(i));
+			insns.add(new InsnNode(AALOAD));
+			insns.add(new FieldInsnNode(PUTSTATIC, name, GETTER + i, METHOD_HANDLE_DESC));
+		}
+		insns.add(new InsnNode(RETURN));
+		return method;
+	}
+
+	private MethodNode constructor() {
+		String desc = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(SerializerFacade.class), Type.getType(Field[].class));
+		MethodNode method = new MethodNode(ACC_PUBLIC, "<init>", desc, null, null);
+		InsnList insns = method.instructions;
+		insns.add(new VarInsnNode(ALOAD, 0));
+		insns.add(new VarInsnNode(ALOAD, 1));
+		insns.add(new VarInsnNode(ALOAD, 2));
+		insns.add(new MethodInsnNode(INVOKESPECIAL, SERIALIZER, "<init>", desc, false));
+		insns.add(new InsnNode(RETURN));
+		return method;
+	}
+
+	private MethodNode populateFields(String name, int fieldCount) {
+		String desc = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(SerializedObject.class), Type.getType(Object.class));
+		String addFieldDesc = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(SerializedObject.class), Type.INT_TYPE, Type.getType(Object.class));
+		String invokeDesc = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class));
+		MethodNode method = new MethodNode(ACC_PROTECTED, "populateFields", desc, null, new String[] { Type.getInternalName(Throwable.class) });
+		InsnList insns = method.instructions;
+		for (int i = 0; i < fieldCount; i++) {
+			insns.add(new VarInsnNode(ALOAD, 0));
+			insns.add(new VarInsnNode(ALOAD, 1));
+			insns.add(new LdcInsnNode(i));
+			insns.add(new FieldInsnNode(GETSTATIC, name, GETTER + i, METHOD_HANDLE_DESC));
+			insns.add(new VarInsnNode(ALOAD, 2));
+			insns.add(new MethodInsnNode(INVOKEVIRTUAL, METHOD_HANDLE, "invokeExact", invokeDesc, false));
+			insns.add(new MethodInsnNode(INVOKEVIRTUAL, SERIALIZER, "addField", addFieldDesc, false));
+		}
+		insns.add(new InsnNode(RETURN));
+		return method;
+	}
+
+	private static class Factory implements SerializerFactory<SerializedReferenceType> {
+
+		private Constructor<?> constructor;
+		private Field[] fields;
+
+		Factory(Constructor<?> constructor, Field[] fields) {
+			this.constructor = constructor;
+			this.fields = fields;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Serializer<SerializedReferenceType> newSerializer(SerializerFacade facade) {
+			try {
+				return (Serializer<SerializedReferenceType>) constructor.newInstance(facade, fields);
+			} catch (ReflectiveOperationException e) {
+				throw new SerializationException(e);
+			}
+		}
+
+	}
+
+	private static class Loader extends ClassLoader {
+
+		Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+}
@@ -2,9 +2,14 @@ package net.amygdalum.testrecorder.serializers;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
 
+import net.amygdalum.testrecorder.types.SerializationCancelledException;
 import net.amygdalum.testrecorder.types.SerializedValue;
 import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+import net.amygdalum.testrecorder.values.SpillStore;
 
 public interface SerializerFacade {
     
@@ -16,6 +21,50 @@ public interface SerializerFacade {
 
 	SerializedField serialize(Field f, Object obj);
 
+	/**
+	 * registers copies of objects, such that serializing a copy yields the identity of its original. Registrations are kept until
+	 * the next {@link #reset()}.
+	 * 
+	 * @param originals a map from copies to their originals
+	 */
+	void registerOriginals(Map<Object, Object> originals);
+
+	/**
+	 * @param size the number of elements (or entries) of a collection to serialize
+	 * @return the store to spill the serialized elements to or null if the elements should be kept in memory
+	 */
+	SpillStore spillStoreFor(int size);
+
+	/**
+	 * checks whether a collection, map or array is truncated before the given element. Serializers of such containers stop at the
+	 * first truncated element and mark the remaining elements with a {@link SerializedPlaceholder#remainder(Type) placeholder}.
+	 * 
+	 * @param container the collection, map or array to serialize
+	 * @param index the index of the next element (or entry) to serialize
+	 * @return true if the element at index (and all following elements) exceed the serialization limits, false otherwise
+	 */
+	boolean truncates(Object container, int index);
+
+	/**
+	 * sets the deadline of serialization. Serializations running beyond the deadline are aborted with a
+	 * {@link SerializationCancelledException}.
+	 * 
+	 * @param deadline the deadline (in milliseconds since epoch) or 0 for no deadline
+	 */
+	void setDeadline(long deadline);
+
+	/**
+	 * cancels serialization. The running serialization (possibly in another thread) and all further serializations of this facade are
+	 * aborted with a {@link SerializationCancelledException}.
+	 */
+	void cancel();
+
+	/**
+	 * @param clazz the class of an object to serialize
+	 * @return the fields of clazz (including inherited fields) that are not excluded from serialization
+	 */
+	List<Field> fieldsOf(Class<?> clazz);
+
 	boolean excludes(Field field);
 
 	boolean excludes(Class<?> clazz);
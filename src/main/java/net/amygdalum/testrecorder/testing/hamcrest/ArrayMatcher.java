@@ -21,6 +21,7 @@ public class ArrayMatcher<T> extends TypeSafeMatcher<T[]> {
 
 	private Class<T> type;
 	private List<Matcher<T>> elements;
+	private boolean truncated;
 
 	public ArrayMatcher(Class<T> type) {
 		this.type = type;
@@ -36,6 +37,16 @@ public class ArrayMatcher<T> extends TypeSafeMatcher<T[]> {
 		return this;
 	}
 
+	/**
+	 * accepts any elements following the given elements, e.g. the elements of a truncated serialization.
+	 * 
+	 * @return this matcher
+	 */
+	public ArrayMatcher<T> truncated() {
+		truncated = true;
+		return this;
+	}
+
 	private Matcher<T> match(T element) {
 		if (element == null) {
 			return nullValue(type);
@@ -47,6 +58,9 @@ public class ArrayMatcher<T> extends TypeSafeMatcher<T[]> {
 	@Override
 	public void describeTo(Description description) {
 		description.appendText("containing ").appendValueList("[", ", ", "]", elements);
+		if (truncated) {
+			description.appendText(" followed by any elements");
+		}
 	}
 
 	@Override
@@ -68,7 +82,7 @@ public class ArrayMatcher<T> extends TypeSafeMatcher<T[]> {
 			int count = count(elementIterator);
 			matches.mismatch("missing " + count + " elements");
 		}
-		if (itemIterator.hasNext()) {
+		if (itemIterator.hasNext() && !truncated) {
 			List<T> items = collect(itemIterator);
 			matches.mismatch("found " + items.size() + " elements surplus " + toDescriptionSet(items));
 		}
@@ -132,7 +146,7 @@ public class ArrayMatcher<T> extends TypeSafeMatcher<T[]> {
 			}
 		}
 		return !elementIterator.hasNext()
-		    && !itemIterator.hasNext();
+		    && (!itemIterator.hasNext() || truncated);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -20,6 +20,7 @@ public class ContainsInOrderMatcher<T> extends TypeSafeMatcher<Collection<? exte
 
     private Class<T> type;
     private List<Matcher<T>> elements;
+    private boolean truncated;
 
     public ContainsInOrderMatcher(Class<T> type) {
         this.type = type;
@@ -35,6 +36,16 @@ public class ContainsInOrderMatcher<T> extends TypeSafeMatcher<Collection<? exte
         return this;
     }
 
+    /**
+     * accepts any elements following the given elements, e.g. the elements of a truncated serialization.
+     * 
+     * @return this matcher
+     */
+    public ContainsInOrderMatcher<T> truncated() {
+        truncated = true;
+        return this;
+    }
+
     private Matcher<T> match(T element) {
         if (element == null) {
             return nullValue(type);
@@ -46,6 +57,9 @@ public class ContainsInOrderMatcher<T> extends TypeSafeMatcher<Collection<? exte
     @Override
     public void describeTo(Description description) {
         description.appendText("containing in sequence ").appendValueList("[", ", ", "]", elements);
+        if (truncated) {
+            description.appendText(" followed by any elements");
+        }
     }
 
     @Override
@@ -67,7 +81,7 @@ public class ContainsInOrderMatcher<T> extends TypeSafeMatcher<Collection<? exte
             int count = count(elementIterator);
             matches.mismatch("missing " + count + " elements");
         }
-        if (itemIterator.hasNext()) {
+        if (itemIterator.hasNext() && !truncated) {
             List<T> items = collect(itemIterator);
             matches.mismatch("found " + items.size() + " elements surplus " + toDescriptionSet(items));
         }
@@ -131,7 +145,7 @@ public class ContainsInOrderMatcher<T> extends TypeSafeMatcher<Collection<? exte
             }
         }
         return !elementIterator.hasNext()
-            && !itemIterator.hasNext();
+            && (!itemIterator.hasNext() || truncated);
     }
 
     @SuppressWarnings("unchecked")
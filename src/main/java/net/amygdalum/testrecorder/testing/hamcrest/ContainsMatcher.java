@@ -21,6 +21,7 @@ public class ContainsMatcher<T> extends TypeSafeMatcher<Collection<? extends T>>
 
     private Class<T> type;
     private List<Matcher<T>> elements;
+    private boolean truncated;
 
     public ContainsMatcher(Class<T> type) {
         this.type = type;
@@ -36,6 +37,16 @@ public class ContainsMatcher<T> extends TypeSafeMatcher<Collection<? extends T>>
         return this;
     }
 
+    /**
+     * accepts any elements besides the given elements, e.g. the elements of a truncated serialization.
+     * 
+     * @return this matcher
+     */
+    public ContainsMatcher<T> truncated() {
+        truncated = true;
+        return this;
+    }
+
     private Matcher<T> match(T element) {
         if (element == null) {
             return nullValue(type);
@@ -47,6 +58,9 @@ public class ContainsMatcher<T> extends TypeSafeMatcher<Collection<? extends T>>
     @Override
     public void describeTo(Description description) {
         description.appendText("containing ").appendValueList("[", ", ", "]", elements);
+        if (truncated) {
+            description.appendText(" and any other elements");
+        }
     }
 
     @Override
@@ -65,7 +79,7 @@ public class ContainsMatcher<T> extends TypeSafeMatcher<Collection<? extends T>>
             }
         }
 
-        if (!notExpected.isEmpty()) {
+        if (!notExpected.isEmpty() && !truncated) {
             matches.mismatch("found " + notExpected.size() + " elements surplus " + toDescriptionSet(notExpected));
         }
         if (!unmatched.isEmpty()) {
@@ -105,7 +119,7 @@ public class ContainsMatcher<T> extends TypeSafeMatcher<Collection<? extends T>>
 
         for (T element : item) {
             boolean success = tryMatch(unmatched, element);
-            if (!success) {
+            if (!success && !truncated) {
                 return false;
             }
         }
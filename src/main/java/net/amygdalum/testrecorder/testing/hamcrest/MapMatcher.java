@@ -23,6 +23,7 @@ public class MapMatcher<K, V> extends TypeSafeMatcher<Map<K, V>> {
     private Class<K> key;
     private Class<V> value;
     private Map<Matcher<K>, Matcher<V>> entries;
+    private boolean truncated;
 
     public MapMatcher(Class<K> key, Class<V> value) {
         this.key = key;
@@ -48,6 +49,16 @@ public class MapMatcher<K, V> extends TypeSafeMatcher<Map<K, V>> {
         return this;
     }
 
+    /**
+     * accepts any entries besides the given entries, e.g. the entries of a truncated serialization.
+     * 
+     * @return this matcher
+     */
+    public MapMatcher<K, V> truncated() {
+        truncated = true;
+        return this;
+    }
+
     @SuppressWarnings("unchecked")
     private Matcher<K> matchKey(K element) {
         if (element == null) {
@@ -73,6 +84,9 @@ public class MapMatcher<K, V> extends TypeSafeMatcher<Map<K, V>> {
     @Override
     public void describeTo(Description description) {
         description.appendText("containing ").appendValueList("{", ", ", "}", entries.entrySet());
+        if (truncated) {
+            description.appendText(" and any other entries");
+        }
     }
 
     @Override
@@ -83,7 +97,7 @@ public class MapMatcher<K, V> extends TypeSafeMatcher<Map<K, V>> {
         for (Entry<K, V> entry : item.entrySet()) {
 
             boolean success = tryMatch(unmatched, entry);
-            if (!success) {
+            if (!success && !truncated) {
                 notfound.add(new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue()));
             }
         }
@@ -142,7 +156,7 @@ public class MapMatcher<K, V> extends TypeSafeMatcher<Map<K, V>> {
         for (Entry<K, V> entry : item.entrySet()) {
 
             boolean success = tryMatch(unmatched, entry);
-            if (!success) {
+            if (!success && !truncated) {
                 return false;
             }
         }
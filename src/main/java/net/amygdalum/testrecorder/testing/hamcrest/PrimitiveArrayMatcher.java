@@ -1,57 +1,71 @@
 package net.amygdalum.testrecorder.testing.hamcrest;
 
+import java.lang.reflect.Array;
 import java.util.Arrays;
 
 import org.hamcrest.Description;
-import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
 
 public class PrimitiveArrayMatcher<T> extends TypeSafeMatcher<T> {
 
     private T array;
+    private boolean truncated;
 
     private PrimitiveArrayMatcher(T array) {
         this.array = array;
     }
 
-    public static Matcher<boolean[]> booleanArrayContaining(boolean... items) {
+    public static PrimitiveArrayMatcher<boolean[]> booleanArrayContaining(boolean... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<char[]> charArrayContaining(char... items) {
+    public static PrimitiveArrayMatcher<char[]> charArrayContaining(char... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<byte[]> byteArrayContaining(byte... items) {
+    public static PrimitiveArrayMatcher<byte[]> byteArrayContaining(byte... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<short[]> shortArrayContaining(short... items) {
+    public static PrimitiveArrayMatcher<short[]> shortArrayContaining(short... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<int[]> intArrayContaining(int... items) {
+    public static PrimitiveArrayMatcher<int[]> intArrayContaining(int... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<float[]> floatArrayContaining(float... items) {
+    public static PrimitiveArrayMatcher<float[]> floatArrayContaining(float... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<long[]> longArrayContaining(long... items) {
+    public static PrimitiveArrayMatcher<long[]> longArrayContaining(long... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
-    public static Matcher<double[]> doubleArrayContaining(double... items) {
+    public static PrimitiveArrayMatcher<double[]> doubleArrayContaining(double... items) {
         return new PrimitiveArrayMatcher<>(items);
     }
 
+    /**
+     * accepts any values following the given values, e.g. the values of a truncated serialization.
+     * 
+     * @return this matcher
+     */
+    public PrimitiveArrayMatcher<T> truncated() {
+        truncated = true;
+        return this;
+    }
+
     @Override
     public void describeTo(Description description) {
         description.appendText("an array containing values of type ")
             .appendValue(array.getClass().getComponentType())
             .appendText(": ")
             .appendValue(array);
+        if (truncated) {
+            description.appendText(" followed by any values");
+        }
     }
 
     @Override
@@ -78,6 +92,9 @@ public class PrimitiveArrayMatcher<T> extends TypeSafeMatcher<T> {
         if (item.getClass() != array.getClass()) {
             return false;
         }
+        if (truncated) {
+            item = prefixOf(item);
+        }
         Class<?> type = array.getClass().getComponentType();
         if (type == boolean.class) {
             return Arrays.equals((boolean[]) array, (boolean[]) item);
@@ -100,6 +117,17 @@ public class PrimitiveArrayMatcher<T> extends TypeSafeMatcher<T> {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private T prefixOf(T item) {
+        int length = Array.getLength(array);
+        if (Array.getLength(item) <= length) {
+            return item;
+        }
+        Object prefix = Array.newInstance(item.getClass().getComponentType(), length);
+        System.arraycopy(item, 0, prefix, 0, length);
+        return (T) prefix;
+    }
+
     private static class SimpleClass {
         private Class<?> clazz;
 
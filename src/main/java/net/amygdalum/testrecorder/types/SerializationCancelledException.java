@@ -0,0 +1,12 @@
+package net.amygdalum.testrecorder.types;
+
+/**
+ * signals that a serialization was aborted because it was cancelled or exceeded its deadline.
+ */
+public class SerializationCancelledException extends SerializationException {
+
+	public SerializationCancelledException(String message) {
+		super(message);
+	}
+
+}
@@ -2,6 +2,10 @@ package net.amygdalum.testrecorder.types;
 
 public class SerializationException extends RuntimeException {
 
+	public SerializationException(String message) {
+		super(message);
+	}
+
 	public SerializationException(Throwable e) {
 		super(e);
 	}
@@ -0,0 +1,200 @@
+package net.amygdalum.testrecorder.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * writes and reads literals (strings and boxed primitives) in a compact binary format, each literal is prefixed by a tag byte
+ * denoting its type. Strings are written as their length followed by their chars (so strings containing unpaired surrogates are
+ * read back exactly).
+ *
+ * Primitive arrays are written untagged (the component type is expected to be known by the reader) as their length followed by
+ * their elements.
+ */
+public final class BinaryLiterals {
+
+	private static final byte STRING = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte CHARACTER = 2;
+	private static final byte BYTE = 3;
+	private static final byte SHORT = 4;
+	private static final byte INTEGER = 5;
+	private static final byte LONG = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+
+	private BinaryLiterals() {
+	}
+
+	public static void writeLiteral(DataOutput out, Object value) throws IOException {
+		if (value instanceof String) {
+			String string = (String) value;
+			out.writeByte(STRING);
+			out.writeInt(string.length());
+			out.writeChars(string);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Character) {
+			out.writeByte(CHARACTER);
+			out.writeChar((Character) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else {
+			throw new IOException("cannot write literal of " + value.getClass().getName());
+		}
+	}
+
+	public static Object readLiteral(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case STRING:
+			char[] chars = new char[in.readInt()];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = in.readChar();
+			}
+			return new String(chars);
+		case BOOLEAN:
+			return in.readBoolean();
+		case CHARACTER:
+			return in.readChar();
+		case BYTE:
+			return in.readByte();
+		case SHORT:
+			return in.readShort();
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case FLOAT:
+			return in.readFloat();
+		case DOUBLE:
+			return in.readDouble();
+		default:
+			throw new IOException("unknown literal tag " + tag);
+		}
+	}
+
+	public static void writePrimitiveArray(DataOutput out, Object array) throws IOException {
+		if (array instanceof byte[]) {
+			byte[] bytes = (byte[]) array;
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else if (array instanceof boolean[]) {
+			boolean[] booleans = (boolean[]) array;
+			out.writeInt(booleans.length);
+			for (boolean element : booleans) {
+				out.writeBoolean(element);
+			}
+		} else if (array instanceof char[]) {
+			char[] chars = (char[]) array;
+			out.writeInt(chars.length);
+			for (char element : chars) {
+				out.writeChar(element);
+			}
+		} else if (array instanceof short[]) {
+			short[] shorts = (short[]) array;
+			out.writeInt(shorts.length);
+			for (short element : shorts) {
+				out.writeShort(element);
+			}
+		} else if (array instanceof int[]) {
+			int[] ints = (int[]) array;
+			out.writeInt(ints.length);
+			for (int element : ints) {
+				out.writeInt(element);
+			}
+		} else if (array instanceof long[]) {
+			long[] longs = (long[]) array;
+			out.writeInt(longs.length);
+			for (long element : longs) {
+				out.writeLong(element);
+			}
+		} else if (array instanceof float[]) {
+			float[] floats = (float[]) array;
+			out.writeInt(floats.length);
+			for (float element : floats) {
+				out.writeFloat(element);
+			}
+		} else if (array instanceof double[]) {
+			double[] doubles = (double[]) array;
+			out.writeInt(doubles.length);
+			for (double element : doubles) {
+				out.writeDouble(element);
+			}
+		} else {
+			throw new IOException("cannot write primitive array of " + array.getClass().getName());
+		}
+	}
+
+	public static Object readPrimitiveArray(DataInput in, Class<?> componentType) throws IOException {
+		int length = in.readInt();
+		if (componentType == byte.class) {
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return bytes;
+		} else if (componentType == boolean.class) {
+			boolean[] booleans = new boolean[length];
+			for (int i = 0; i < length; i++) {
+				booleans[i] = in.readBoolean();
+			}
+			return booleans;
+		} else if (componentType == char.class) {
+			char[] chars = new char[length];
+			for (int i = 0; i < length; i++) {
+				chars[i] = in.readChar();
+			}
+			return chars;
+		} else if (componentType == short.class) {
+			short[] shorts = new short[length];
+			for (int i = 0; i < length; i++) {
+				shorts[i] = in.readShort();
+			}
+			return shorts;
+		} else if (componentType == int.class) {
+			int[] ints = new int[length];
+			for (int i = 0; i < length; i++) {
+				ints[i] = in.readInt();
+			}
+			return ints;
+		} else if (componentType == long.class) {
+			long[] longs = new long[length];
+			for (int i = 0; i < length; i++) {
+				longs[i] = in.readLong();
+			}
+			return longs;
+		} else if (componentType == float.class) {
+			float[] floats = new float[length];
+			for (int i = 0; i < length; i++) {
+				floats[i] = in.readFloat();
+			}
+			return floats;
+		} else if (componentType == double.class) {
+			double[] doubles = new double[length];
+			for (int i = 0; i < length; i++) {
+				doubles[i] = in.readDouble();
+			}
+			return doubles;
+		} else {
+			throw new IOException("cannot read primitive array of " + componentType.getName());
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package net.amygdalum.testrecorder.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * a bounded, thread safe cache. Entries are added to the current generation. If the current generation is full, it becomes the
+ * previous generation (dropping the former previous generation) and a new generation is started. Entries found in the previous
+ * generation are promoted to the current generation, so entries in frequent use survive, while entries not used within two
+ * generations are evicted. The cache holds (about) capacity entries at most.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class GenerationalCache<K, V> {
+
+	private int generationSize;
+	private volatile Map<K, V> current;
+	private volatile Map<K, V> previous;
+
+	public GenerationalCache(int capacity) {
+		this.generationSize = Math.max(1, capacity / 2);
+		this.current = new ConcurrentHashMap<>();
+		this.previous = new ConcurrentHashMap<>();
+	}
+
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> compute) {
+		Map<K, V> generation = current;
+		V value = generation.get(key);
+		if (value != null) {
+			return value;
+		}
+		value = previous.get(key);
+		if (value == null) {
+			value = compute.apply(key);
+		}
+		V existing = generation.putIfAbsent(key, value);
+		if (existing != null) {
+			return existing;
+		}
+		if (generation.size() >= generationSize) {
+			rotate(generation);
+		}
+		return value;
+	}
+
+	/**
+	 * @return the cached value of key (promoting it to the current generation) or null if key is not cached
+	 */
+	public V get(K key) {
+		V value = current.get(key);
+		if (value == null) {
+			value = previous.get(key);
+			if (value != null) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		Map<K, V> generation = current;
+		generation.put(key, value);
+		if (generation.size() >= generationSize) {
+			rotate(generation);
+		}
+	}
+
+	public void remove(K key) {
+		current.remove(key);
+		previous.remove(key);
+	}
+
+	public boolean isEmpty() {
+		return current.isEmpty() && previous.isEmpty();
+	}
+
+	public int size() {
+		return current.size() + previous.size();
+	}
+
+	private synchronized void rotate(Map<K, V> full) {
+		if (current == full) {
+			previous = full;
+			current = new ConcurrentHashMap<>();
+		}
+	}
+
+}
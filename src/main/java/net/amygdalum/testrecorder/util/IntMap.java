@@ -0,0 +1,103 @@
+package net.amygdalum.testrecorder.util;
+
+/**
+ * a compact map from int keys to non-null values, using open addressing with linear probing (no boxing, no entry objects).
+ *
+ * @param <V> the type of the values
+ */
+public class IntMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+
+	public IntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntMap(int capacity) {
+		int tableSize = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1);
+		this.keys = new int[tableSize];
+		this.values = new Object[tableSize];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int mask = keys.length - 1;
+		for (int i = index(key, mask); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("null values are not supported");
+		}
+		int mask = keys.length - 1;
+		int i = index(key, mask);
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if (size * 4 >= keys.length * 3) {
+			resize(keys.length * 2);
+		}
+		return null;
+	}
+
+	public void clear() {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	private void resize(int tableSize) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[tableSize];
+		values = new Object[tableSize];
+		int mask = tableSize - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			if (oldValues[j] != null) {
+				int i = index(oldKeys[j], mask);
+				while (values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private static int index(int key, int mask) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
@@ -1,5 +1,7 @@
 package net.amygdalum.testrecorder.util;
 
+import java.lang.reflect.Array;
+
 public final class Literals {
 
 	private Literals() {
@@ -113,6 +115,18 @@ public final class Literals {
 		}
 	}
 
+	/**
+	 * @param primitiveArray an array with primitive component type
+	 * @return the literals of all elements of the given array
+	 */
+	public static String[] asLiterals(Object primitiveArray) {
+		String[] literals = new String[Array.getLength(primitiveArray)];
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = asLiteral(Array.get(primitiveArray, i));
+		}
+		return literals;
+	}
+
 	public static String classOf(String name) {
 		return name + ".class";
 	}
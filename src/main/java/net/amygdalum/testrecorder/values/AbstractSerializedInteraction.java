@@ -38,6 +38,10 @@ public abstract class AbstractSerializedInteraction implements SerializedInterac
 		return id;
 	}
 
+	public StackTraceElement[] getCall() {
+		return call;
+	}
+
 	@Override
 	public String getCallerClass() {
 		return call.length > 1 ? call[1].getClassName() : null;
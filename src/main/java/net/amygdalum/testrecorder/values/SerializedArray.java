@@ -4,6 +4,7 @@ import static java.util.Arrays.asList;
 import static net.amygdalum.testrecorder.util.Types.baseType;
 import static net.amygdalum.testrecorder.util.Types.component;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -16,10 +17,14 @@ import net.amygdalum.testrecorder.types.SerializedValue;
 
 /**
  * Serializing to SerializedArray is restricted to arrays of any variant. It is recommended not to use another serialized array implementation. 
+ * 
+ * Arrays of primitives may be stored compactly as a copy of the primitive array (instead of a list of literals), see {@link #setPrimitiveArray(Object)}.
+ * The element accessors convert such an array to literals on demand.
  */
 public class SerializedArray extends AbstractSerializedReferenceType implements SerializedReferenceType {
 
 	private List<SerializedValue> array;
+	private Object primitiveArray;
 
 	public SerializedArray(Type type) {
 		super(type);
@@ -32,7 +37,12 @@ public class SerializedArray extends AbstractSerializedReferenceType implements
 	}
 	
 	public SerializedArray with(Collection<SerializedValue> values) {
-		array.addAll(values);
+		expand().addAll(values);
+		return this;
+	}
+
+	public SerializedArray withPrimitiveArray(Object primitiveArray) {
+		setPrimitiveArray(primitiveArray);
 		return this;
 	}
 
@@ -48,17 +58,44 @@ public class SerializedArray extends AbstractSerializedReferenceType implements
 		return baseType(getComponentType());
 	}
 
+	/**
+	 * replaces the elements of this array by a copy of the given primitive array
+	 * 
+	 * @param primitiveArray an array with primitive component type
+	 */
+	public void setPrimitiveArray(Object primitiveArray) {
+		int length = Array.getLength(primitiveArray);
+		Object copy = Array.newInstance(primitiveArray.getClass().getComponentType(), length);
+		System.arraycopy(primitiveArray, 0, copy, 0, length);
+		this.primitiveArray = copy;
+		this.array = null;
+	}
+
+	public boolean isPrimitiveArray() {
+		return primitiveArray != null;
+	}
+
+	/**
+	 * @return the compactly stored primitive array (not to be modified) or null if the elements are stored as serialized values
+	 */
+	public Object getPrimitiveArray() {
+		return primitiveArray;
+	}
+
 	public SerializedValue[] getArray() {
-		return array.toArray(new SerializedValue[0]);
+		return getArrayAsList().toArray(new SerializedValue[0]);
 	}
 
 	public List<SerializedValue> getArrayAsList() {
+		if (primitiveArray != null) {
+			return literals();
+		}
 		return array;
 	}
 	
 	@Override
 	public List<SerializedValue> referencedValues() {
-		return new ArrayList<>(array);
+		return new ArrayList<>(getArrayAsList());
 	}
 
 	@Override
@@ -67,7 +104,25 @@ public class SerializedArray extends AbstractSerializedReferenceType implements
 	}
 	
 	public void add(SerializedValue value) {
-		array.add(value);
+		expand().add(value);
+	}
+
+	private List<SerializedValue> expand() {
+		if (primitiveArray != null) {
+			array = literals();
+			primitiveArray = null;
+		}
+		return array;
+	}
+
+	private List<SerializedValue> literals() {
+		Class<?> componentType = primitiveArray.getClass().getComponentType();
+		int length = Array.getLength(primitiveArray);
+		List<SerializedValue> literals = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			literals.add(SerializedLiteral.literal(componentType, Array.get(primitiveArray, i)));
+		}
+		return literals;
 	}
 
 	@Override
@@ -46,6 +46,29 @@ public class SerializedList extends AbstractSerializedReferenceType implements S
 		return with(asList(values));
 	}
 
+	/**
+	 * switches this list to store its elements in chunks, spilling chunks of literals to the given store (see {@link SpilledValues}).
+	 * A spilled list only supports appending elements.
+	 * 
+	 * @param store the store to spill to, null keeps the elements in memory
+	 * @return this list
+	 */
+	public SerializedList spillTo(SpillStore store) {
+		if (store != null && !(list instanceof SpilledValues)) {
+			List<SerializedValue> spilled = new SpilledValues(store);
+			spilled.addAll(list);
+			list = spilled;
+		}
+		return this;
+	}
+
+	/**
+	 * @return true if this list is spilled and keeps the maximum number of values in memory (see {@link SpilledValues#isExhausted()})
+	 */
+	public boolean isSpillExhausted() {
+		return list instanceof SpilledValues && ((SpilledValues) list).isExhausted();
+	}
+
 	public Type getComponentType() {
 		return typeArgument(getType(), 0)
 			.orElse(typeArgument(getResultType(), 0)
@@ -151,6 +174,9 @@ public class SerializedList extends AbstractSerializedReferenceType implements S
 
 	@Override
 	public List<SerializedValue> referencedValues() {
+		if (list instanceof SpilledValues) {
+			return ((SpilledValues) list).inMemory();
+		}
 		return new ArrayList<>(list);
 	}
 
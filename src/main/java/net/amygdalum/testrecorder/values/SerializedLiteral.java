@@ -4,23 +4,28 @@ import static java.util.Collections.emptyList;
 import static net.amygdalum.testrecorder.util.Types.baseType;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import net.amygdalum.testrecorder.types.Deserializer;
 import net.amygdalum.testrecorder.types.DeserializerContext;
 import net.amygdalum.testrecorder.types.SerializedValue;
 import net.amygdalum.testrecorder.types.SerializedValueType;
+import net.amygdalum.testrecorder.util.GenerationalCache;
 
 /**
  * Serializing to SerializedLiteral is only valid for primitive types and non-null Strings. For this use the factory method 
  * {@link #literal(Type, Object)}
+ * 
+ * Recently used literals (and strings not longer than {@link #MAX_INTERNED_LENGTH}) are interned in bounded caches. Literals 
+ * should nevertheless be compared with equals, since literals evicted from these caches are created anew.
  */
 public class SerializedLiteral extends AbstractSerializedValue implements SerializedValueType {
 
-    private static final Map<Object, SerializedLiteral> KNOWN_PRIMITIVE_LITERALS = new HashMap<>();
-    private static final Map<Object, SerializedLiteral> KNOWN_LITERALS = new HashMap<>();
+    public static final int MAX_INTERNED_LENGTH = 64;
+    private static final int CAPACITY = 4096;
+
+    private static final GenerationalCache<Object, SerializedLiteral> KNOWN_PRIMITIVE_LITERALS = new GenerationalCache<>(CAPACITY);
+    private static final GenerationalCache<Object, SerializedLiteral> KNOWN_LITERALS = new GenerationalCache<>(CAPACITY);
 
     private Type resultType;
     private Object value;
@@ -38,6 +43,8 @@ public class SerializedLiteral extends AbstractSerializedValue implements Serial
     public static SerializedLiteral literal(Type type, Object value) {
         if (baseType(type).isPrimitive()) {
             return KNOWN_PRIMITIVE_LITERALS.computeIfAbsent(value, val -> new SerializedLiteral(type, val));
+        } else if (value instanceof String && ((String) value).length() > MAX_INTERNED_LENGTH) {
+            return new SerializedLiteral(type, value);
         } else {
             return KNOWN_LITERALS.computeIfAbsent(value, val -> new SerializedLiteral(type, val));
         }
@@ -68,4 +75,27 @@ public class SerializedLiteral extends AbstractSerializedValue implements Serial
 		return ValuePrinter.print(this);
     }
 
+    @Override
+    public int hashCode() {
+        return getType().hashCode() * 31
+            + value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        SerializedLiteral that = (SerializedLiteral) obj;
+        return this.getType().equals(that.getType())
+            && this.resultType.equals(that.resultType)
+            && this.value.equals(that.value);
+    }
+
 }
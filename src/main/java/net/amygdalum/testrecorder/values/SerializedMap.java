@@ -3,8 +3,11 @@ package net.amygdalum.testrecorder.values;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
 
 import java.lang.reflect.Type;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +45,30 @@ public class SerializedMap extends AbstractSerializedReferenceType implements Se
 		return this;
 	}
 
+	/**
+	 * switches this map to store its entries in chunks, spilling chunks of literal keys and values to the given store (see
+	 * {@link SpilledValues}). A spilled map only supports putting entries and does not check keys for duplicates (serialized maps
+	 * contain distinct keys).
+	 * 
+	 * @param store the store to spill to, null keeps the entries in memory
+	 * @return this map
+	 */
+	public SerializedMap spillTo(SpillStore store) {
+		if (store != null && !(map instanceof SpilledMap)) {
+			SpilledMap spilled = new SpilledMap(new SpilledValues(store));
+			spilled.putAll(map);
+			map = spilled;
+		}
+		return this;
+	}
+
+	/**
+	 * @return true if this map is spilled and keeps the maximum number of keys and values in memory (see {@link SpilledValues#isExhausted()})
+	 */
+	public boolean isSpillExhausted() {
+		return map instanceof SpilledMap && ((SpilledMap) map).entries.isExhausted();
+	}
+
 	public Type getMapKeyType() {
 		 return typeArgument(getType(), 0)
 			.orElse(typeArgument(getResultType(), 0)
@@ -109,6 +136,9 @@ public class SerializedMap extends AbstractSerializedReferenceType implements Se
 
 	@Override
 	public List<SerializedValue> referencedValues() {
+		if (map instanceof SpilledMap) {
+			return ((SpilledMap) map).referencedValues();
+		}
 		List<SerializedValue> referenced = new ArrayList<>(map.keySet());
 		referenced.addAll(map.values());
 		return referenced;
@@ -119,4 +149,57 @@ public class SerializedMap extends AbstractSerializedReferenceType implements Se
 		return ValuePrinter.print(this);
 	}
 
+	private static class SpilledMap extends AbstractMap<SerializedValue, SerializedValue> {
+
+		private SpilledValues entries;
+
+		SpilledMap(SpilledValues entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		public SerializedValue put(SerializedValue key, SerializedValue value) {
+			entries.add(key);
+			entries.add(value);
+			return null;
+		}
+
+		@Override
+		public Set<Map.Entry<SerializedValue, SerializedValue>> entrySet() {
+			return new AbstractSet<Map.Entry<SerializedValue, SerializedValue>>() {
+
+				@Override
+				public Iterator<Map.Entry<SerializedValue, SerializedValue>> iterator() {
+					Iterator<SerializedValue> values = entries.iterator();
+					return new Iterator<Map.Entry<SerializedValue, SerializedValue>>() {
+
+						@Override
+						public boolean hasNext() {
+							return values.hasNext();
+						}
+
+						@Override
+						public Map.Entry<SerializedValue, SerializedValue> next() {
+							SerializedValue key = values.next();
+							SerializedValue value = values.next();
+							return new SimpleImmutableEntry<>(key, value);
+						}
+
+					};
+				}
+
+				@Override
+				public int size() {
+					return entries.size() / 2;
+				}
+
+			};
+		}
+
+		List<SerializedValue> referencedValues() {
+			return entries.inMemory();
+		}
+
+	}
+
 }
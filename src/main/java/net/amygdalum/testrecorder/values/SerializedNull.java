@@ -3,9 +3,9 @@ package net.amygdalum.testrecorder.values;
 import static java.util.Collections.emptyList;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.amygdalum.testrecorder.types.Deserializer;
 import net.amygdalum.testrecorder.types.DeserializerContext;
@@ -18,7 +18,8 @@ import net.amygdalum.testrecorder.types.SerializedValue;
  */
 public class SerializedNull extends AbstractSerializedReferenceType implements SerializedImmutableType {
 
-	private static final Map<Type, SerializedNull> KNOWN_LITERALS = new HashMap<>();
+	private static final SerializedNull UNTYPED = new SerializedNull(null);
+	private static final Map<Type, SerializedNull> KNOWN_LITERALS = new ConcurrentHashMap<>();
 
 	private SerializedNull(Type type) {
 		super(type);
@@ -35,6 +36,9 @@ public class SerializedNull extends AbstractSerializedReferenceType implements S
 	}
 
 	public static SerializedNull nullInstance(Type type) {
+		if (type == null) {
+			return UNTYPED;
+		}
 		return KNOWN_LITERALS.computeIfAbsent(type, typ -> new SerializedNull(typ));
 	}
 
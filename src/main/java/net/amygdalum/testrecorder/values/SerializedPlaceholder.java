@@ -0,0 +1,64 @@
+package net.amygdalum.testrecorder.values;
+
+import static java.util.Collections.emptyList;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import net.amygdalum.testrecorder.types.Deserializer;
+import net.amygdalum.testrecorder.types.DeserializerContext;
+import net.amygdalum.testrecorder.types.SerializedImmutableType;
+import net.amygdalum.testrecorder.types.SerializedValue;
+
+/**
+ * Serializing to SerializedPlaceholder marks a value that was not serialized because it exceeded the serialization limits 
+ * (see {@link net.amygdalum.testrecorder.profile.SerializationLimits}). Setup code initializes such values with null, matchers
+ * do not check them.
+ * 
+ * A collection, map or array exceeding the limits is truncated, the remaining elements are marked by a placeholder as last
+ * element (or key and value of the last entry), see {@link #remainder(Type)}. Setup code skips this placeholder, matchers accept
+ * any remaining elements.
+ */
+public class SerializedPlaceholder extends AbstractSerializedReferenceType implements SerializedImmutableType {
+
+	private boolean remainder;
+
+	public SerializedPlaceholder(Type type) {
+		super(type);
+	}
+
+	/**
+	 * @param type the component type (or key/value type) of the truncated collection, map or array
+	 * @return a placeholder marking the remaining (not serialized) elements of a truncated collection, map or array
+	 */
+	public static SerializedPlaceholder remainder(Type type) {
+		SerializedPlaceholder placeholder = new SerializedPlaceholder(type);
+		placeholder.remainder = true;
+		return placeholder;
+	}
+
+	/**
+	 * @param value the serialized value to check
+	 * @return true if value marks the remaining elements of a truncated collection, map or array, false otherwise
+	 */
+	public static boolean isRemainder(SerializedValue value) {
+		return value instanceof SerializedPlaceholder
+			&& ((SerializedPlaceholder) value).remainder;
+	}
+
+	@Override
+	public List<SerializedValue> referencedValues() {
+		return emptyList();
+	}
+
+	@Override
+	public <T> T accept(Deserializer<T> visitor, DeserializerContext context) {
+		return visitor.visitReferenceType(this, context);
+	}
+
+	@Override
+	public String toString() {
+		return ValuePrinter.print(this);
+	}
+
+}
@@ -4,6 +4,7 @@ import static java.util.Arrays.asList;
 import static net.amygdalum.testrecorder.util.Types.typeArgument;
 
 import java.lang.reflect.Type;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -47,6 +48,29 @@ public class SerializedSet extends AbstractSerializedReferenceType implements Se
 		return with(asList(values));
 	}
 
+	/**
+	 * switches this set to store its elements in chunks, spilling chunks of literals to the given store (see {@link SpilledValues}).
+	 * A spilled set only supports adding elements and does not check them for duplicates (serialized sets contain distinct elements).
+	 * 
+	 * @param store the store to spill to, null keeps the elements in memory
+	 * @return this set
+	 */
+	public SerializedSet spillTo(SpillStore store) {
+		if (store != null && !(set instanceof SpilledSet)) {
+			SpilledSet spilled = new SpilledSet(new SpilledValues(store));
+			spilled.addAll(set);
+			set = spilled;
+		}
+		return this;
+	}
+
+	/**
+	 * @return true if this set is spilled and keeps the maximum number of values in memory (see {@link SpilledValues#isExhausted()})
+	 */
+	public boolean isSpillExhausted() {
+		return set instanceof SpilledSet && ((SpilledSet) set).values.isExhausted();
+	}
+
 	public Type getComponentType() {
 		return typeArgument(getType(), 0)
 			.orElse(typeArgument(getResultType(), 0)
@@ -112,6 +136,9 @@ public class SerializedSet extends AbstractSerializedReferenceType implements Se
 
 	@Override
 	public List<SerializedValue> referencedValues() {
+		if (set instanceof SpilledSet) {
+			return ((SpilledSet) set).values.inMemory();
+		}
 		return new ArrayList<>(set);
 	}
 
@@ -119,4 +146,30 @@ public class SerializedSet extends AbstractSerializedReferenceType implements Se
 	public String toString() {
 		return ValuePrinter.print(this);
 	}
+
+	private static class SpilledSet extends AbstractSet<SerializedValue> {
+
+		private SpilledValues values;
+
+		SpilledSet(SpilledValues values) {
+			this.values = values;
+		}
+
+		@Override
+		public boolean add(SerializedValue e) {
+			return values.add(e);
+		}
+
+		@Override
+		public Iterator<SerializedValue> iterator() {
+			return values.iterator();
+		}
+
+		@Override
+		public int size() {
+			return values.size();
+		}
+
+	}
+
 }
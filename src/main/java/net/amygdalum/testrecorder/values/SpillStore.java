@@ -0,0 +1,303 @@
+package net.amygdalum.testrecorder.values;
+
+import static net.amygdalum.testrecorder.util.BinaryLiterals.readLiteral;
+import static net.amygdalum.testrecorder.util.BinaryLiterals.writeLiteral;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.amygdalum.testrecorder.TestrecorderThreadFactory;
+import net.amygdalum.testrecorder.types.SerializedValue;
+
+/**
+ * a store of chunks of serialized values (see {@link SpilledValues}) in temporary files (segments). Only literals with a class as
+ * result type can be stored, their result types are kept in memory (a store holds each type once), the literal values are written
+ * to the current segment.
+ *
+ * Chunks are appended to the current segment, a new segment is started if the current segment exceeds the segment size. Each written
+ * chunk is referenced by its {@link Location}, which keeps its segment alive. A segment that is no longer current and no longer
+ * referenced by any location (i.e. all values spilled to it were released) is deleted as soon as it is released (by a reclaiming
+ * thread of {@link #temporary() temporary} stores, otherwise on the next write). Closing the store deletes all segments.
+ *
+ * Values that are not spillable (e.g. serialized objects, which may share references with other values of the snapshot) are kept
+ * in memory. To nevertheless bound the memory of a spilled collection, a store limits the number of values a spilled collection
+ * may keep in memory (see {@link SpilledValues#isExhausted()}), collections exceeding this limit are truncated.
+ *
+ * A store may be shared by many serialized values (and threads), reading and writing is synchronized.
+ */
+public class SpillStore implements Closeable {
+
+	public static final long SEGMENT_SIZE = 16 * 1024 * 1024;
+
+	private long segmentSize;
+	private int maxInMemory;
+	private Thread reclaimer;
+	private Segment current;
+	private ReferenceQueue<Segment> released;
+	private Set<SegmentReference> segments;
+	private List<Class<?>> types;
+	private Map<Class<?>, Integer> typeIndexes;
+
+	public SpillStore(long segmentSize) {
+		this(segmentSize, Integer.MAX_VALUE);
+	}
+
+	public SpillStore(long segmentSize, int maxInMemory) {
+		this.segmentSize = segmentSize;
+		this.maxInMemory = maxInMemory;
+		this.released = new ReferenceQueue<>();
+		this.segments = new HashSet<>();
+		this.types = new ArrayList<>();
+		this.typeIndexes = new IdentityHashMap<>();
+	}
+
+	/**
+	 * @return a store on temporary files that are deleted when no longer used (or when the store is closed)
+	 * @throws IOException if the first segment could not be created
+	 */
+	public static SpillStore temporary() throws IOException {
+		return temporary(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxInMemory the maximum number of values a spilled collection may keep in memory
+	 * @return a store on temporary files that are deleted when no longer used (or when the store is closed)
+	 * @throws IOException if the first segment could not be created
+	 */
+	public static SpillStore temporary(int maxInMemory) throws IOException {
+		return temporary(SEGMENT_SIZE, maxInMemory);
+	}
+
+	static SpillStore temporary(long segmentSize, int maxInMemory) throws IOException {
+		SpillStore store = new SpillStore(segmentSize, maxInMemory);
+		store.current = store.newSegment();
+		store.reclaimer = new TestrecorderThreadFactory("$spill").newThread(store::reclaim);
+		store.reclaimer.start();
+		return store;
+	}
+
+	/**
+	 * @return the maximum number of values (that are not spillable) a spilled collection may keep in memory
+	 */
+	public int getMaxInMemory() {
+		return maxInMemory;
+	}
+
+	/**
+	 * @param value the serialized value to check
+	 * @return true if value can be written to a spill store, false otherwise
+	 */
+	public static boolean isSpillable(SerializedValue value) {
+		return value instanceof SerializedLiteral
+			&& value.getResultType() instanceof Class<?>;
+	}
+
+	/**
+	 * @return the number of bytes in the segments of this store
+	 */
+	public synchronized long size() {
+		long size = 0;
+		for (SegmentReference segment : segments) {
+			size += segment.file.end;
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of segments of this store (that are not yet deleted)
+	 */
+	public synchronized int segments() {
+		return segments.size();
+	}
+
+	/**
+	 * appends a chunk of values to this store.
+	 *
+	 * @param values the values to write, each must be {@link #isSpillable(SerializedValue) spillable}
+	 * @return the location of the chunk in this store
+	 * @throws IOException if the chunk could not be written
+	 */
+	public synchronized Location write(List<SerializedValue> values) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(values.size());
+		for (SerializedValue value : values) {
+			out.writeInt(typeIndex((Class<?>) value.getResultType()));
+			writeLiteral(out, ((SerializedLiteral) value).getValue());
+		}
+		byte[] chunk = bytes.toByteArray();
+
+		deleteReleased();
+		if (current == null || current.file.end >= segmentSize) {
+			current = newSegment();
+		}
+		SegmentFile file = current.file;
+		long offset = file.end;
+		file.data.seek(offset);
+		file.data.writeInt(chunk.length);
+		file.data.write(chunk);
+		file.end = file.data.getFilePointer();
+		return new Location(current, offset);
+	}
+
+	/**
+	 * reads a chunk of values from this store.
+	 *
+	 * @param location the location of the chunk (as returned by {@link #write(List)})
+	 * @return the values of the chunk
+	 * @throws IOException if the chunk could not be read
+	 */
+	public List<SerializedValue> read(Location location) throws IOException {
+		byte[] chunk;
+		synchronized (this) {
+			RandomAccessFile data = location.segment.file.data;
+			data.seek(location.offset);
+			chunk = new byte[data.readInt()];
+			data.readFully(chunk);
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunk));
+		int size = in.readInt();
+		List<SerializedValue> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Type type = type(in.readInt());
+			values.add(SerializedLiteral.literal(type, readLiteral(in)));
+		}
+		return values;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (reclaimer != null) {
+			reclaimer.interrupt();
+			reclaimer = null;
+		}
+		for (SegmentReference segment : segments) {
+			segment.file.delete();
+		}
+		segments.clear();
+		current = null;
+	}
+
+	private Segment newSegment() throws IOException {
+		File file = File.createTempFile("testrecorder", ".spill");
+		Segment segment = new Segment(new SegmentFile(file));
+		segments.add(new SegmentReference(segment, released));
+		return segment;
+	}
+
+	private void reclaim() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				Reference<? extends Segment> reference = released.remove();
+				synchronized (this) {
+					delete((SegmentReference) reference);
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private void deleteReleased() {
+		Reference<? extends Segment> reference = released.poll();
+		while (reference != null) {
+			delete((SegmentReference) reference);
+			reference = released.poll();
+		}
+	}
+
+	private void delete(SegmentReference segment) {
+		if (segments.remove(segment)) {
+			segment.file.delete();
+		}
+	}
+
+	private int typeIndex(Class<?> type) {
+		Integer index = typeIndexes.get(type);
+		if (index == null) {
+			index = types.size();
+			types.add(type);
+			typeIndexes.put(type, index);
+		}
+		return index;
+	}
+
+	private synchronized Class<?> type(int index) {
+		return types.get(index);
+	}
+
+	/**
+	 * the location of a chunk written to a spill store. The segment of the chunk is kept as long as its location is referenced.
+	 */
+	public static class Location {
+
+		private Segment segment;
+		private long offset;
+
+		Location(Segment segment, long offset) {
+			this.segment = segment;
+			this.offset = offset;
+		}
+
+	}
+
+	private static class Segment {
+
+		private SegmentFile file;
+
+		Segment(SegmentFile file) {
+			this.file = file;
+		}
+
+	}
+
+	private static class SegmentFile {
+
+		private File file;
+		private RandomAccessFile data;
+		private long end;
+
+		SegmentFile(File file) throws IOException {
+			this.file = file;
+			this.data = new RandomAccessFile(file, "rw");
+		}
+
+		void delete() {
+			try {
+				data.close();
+			} catch (IOException e) {
+				// the file is deleted anyway
+			}
+			file.delete();
+		}
+
+	}
+
+	private static class SegmentReference extends PhantomReference<Segment> {
+
+		private SegmentFile file;
+
+		SegmentReference(Segment segment, ReferenceQueue<Segment> queue) {
+			super(segment, queue);
+			this.file = segment.file;
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+package net.amygdalum.testrecorder.values;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.amygdalum.testrecorder.Logger;
+import net.amygdalum.testrecorder.types.SerializationException;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.values.SpillStore.Location;
+
+/**
+ * an append-only list of serialized values, backing the elements of large serialized collections. Values are collected in chunks
+ * of fixed size. Each full chunk consisting only of {@link SpillStore#isSpillable(SerializedValue) spillable} values is written to
+ * a {@link SpillStore} and dropped from memory, other chunks are kept in memory. The spilled chunks are reclaimed by the store as
+ * soon as the list is no longer referenced. Serializers stop appending values as soon as the list {@link #isExhausted() is exhausted},
+ * i.e. keeps as many unspilled values in memory as the store allows.
+ *
+ * Spilled chunks are loaded on access, iterating the list loads one chunk at a time (the last loaded chunk is cached). Values
+ * can only be appended, not changed or removed.
+ */
+public class SpilledValues extends AbstractList<SerializedValue> {
+
+	public static final int CHUNK_SIZE = 1024;
+
+	private SpillStore store;
+	private int chunkSize;
+	private List<Chunk> chunks;
+	private List<SerializedValue> tail;
+	private int size;
+	private volatile Chunk loaded;
+
+	public SpilledValues(SpillStore store) {
+		this(store, CHUNK_SIZE);
+	}
+
+	public SpilledValues(SpillStore store, int chunkSize) {
+		this.store = store;
+		this.chunkSize = chunkSize;
+		this.chunks = new ArrayList<>();
+		this.tail = new ArrayList<>(chunkSize);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean add(SerializedValue value) {
+		tail.add(value);
+		size++;
+		if (tail.size() == chunkSize) {
+			chunks.add(spill(tail));
+			tail = new ArrayList<>(chunkSize);
+		}
+		return true;
+	}
+
+	@Override
+	public SerializedValue get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int chunk = index / chunkSize;
+		int offset = index % chunkSize;
+		if (chunk == chunks.size()) {
+			return tail.get(offset);
+		}
+		return load(chunk).get(offset);
+	}
+
+	/**
+	 * @return the number of values written to the store (and not kept in memory)
+	 */
+	public int spilledSize() {
+		int spilled = 0;
+		for (Chunk chunk : chunks) {
+			if (chunk.isSpilled()) {
+				spilled += chunkSize;
+			}
+		}
+		return spilled;
+	}
+
+	/**
+	 * @return true if the full chunks this list keeps in memory (because they are not spillable) contain at least as many values as
+	 * the store allows for a spilled collection, false otherwise. The last (incomplete) chunk is not counted, it is always in memory.
+	 */
+	public boolean isExhausted() {
+		int inMemory = 0;
+		for (Chunk chunk : chunks) {
+			if (!chunk.isSpilled()) {
+				inMemory += chunkSize;
+			}
+		}
+		return inMemory >= store.getMaxInMemory();
+	}
+
+	/**
+	 * @return the values kept in memory (spilled values are literals and never reference other values)
+	 */
+	public List<SerializedValue> inMemory() {
+		List<SerializedValue> values = new ArrayList<>();
+		for (Chunk chunk : chunks) {
+			if (!chunk.isSpilled()) {
+				values.addAll(chunk.values);
+			}
+		}
+		values.addAll(tail);
+		return values;
+	}
+
+	private Chunk spill(List<SerializedValue> values) {
+		if (values.stream().allMatch(SpillStore::isSpillable)) {
+			try {
+				return new Chunk(chunks.size(), store.write(values), null);
+			} catch (IOException e) {
+				Logger.warn("failed spilling serialized values, keeping them in memory: " + e.getMessage());
+			}
+		}
+		return new Chunk(chunks.size(), null, values);
+	}
+
+	private List<SerializedValue> load(int index) {
+		Chunk chunk = chunks.get(index);
+		if (!chunk.isSpilled()) {
+			return chunk.values;
+		}
+		Chunk current = loaded;
+		if (current != null && current.index == index) {
+			return current.values;
+		}
+		try {
+			current = new Chunk(index, chunk.location, store.read(chunk.location));
+			loaded = current;
+			return current.values;
+		} catch (IOException e) {
+			throw new SerializationException(e);
+		}
+	}
+
+	private static class Chunk {
+
+		private int index;
+		private Location location;
+		private List<SerializedValue> values;
+
+		Chunk(int index, Location location, List<SerializedValue> values) {
+			this.index = index;
+			this.location = location;
+			this.values = values;
+		}
+
+		boolean isSpilled() {
+			return location != null;
+		}
+
+	}
+
+}
@@ -3,9 +3,11 @@ package net.amygdalum.testrecorder.values;
 import static java.util.Collections.emptySet;
 import static java.util.stream.Collectors.joining;
 
+import java.lang.reflect.Array;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import net.amygdalum.testrecorder.types.Deserializer;
@@ -70,11 +72,19 @@ public class ValuePrinter implements Deserializer<String>, DeserializerContext {
 				.collect(joining(", ", "{", "}"));
 		} else if (rt instanceof SerializedArray) {
 			SerializedArray value = (SerializedArray) rt;
+			if (value.isPrimitiveArray()) {
+				Object array = value.getPrimitiveArray();
+				return IntStream.range(0, Array.getLength(array))
+					.mapToObj(i -> Array.get(array, i).toString())
+					.collect(joining(", ", "<", ">"));
+			}
 			return Stream.of(value.getArray())
 				.map(element -> element.accept(this, context))
 				.collect(joining(", ", "<", ">"));
 		} else if (rt instanceof SerializedNull) {
 			return "null";
+		} else if (rt instanceof SerializedPlaceholder) {
+			return "...";
 		} else {
 			return "";
 		}
@@ -0,0 +1,42 @@
+package net.amygdalum.testrecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class CallSitesTest {
+
+	@Test
+	public void testRegister() throws Exception {
+		int id = CallSites.register("net.amygdalum.Caller", "register", "Caller.java", 42);
+
+		assertThat(id).isGreaterThan(CallSites.UNKNOWN);
+		assertThat(CallSites.get(id)).isEqualTo(new StackTraceElement("net.amygdalum.Caller", "register", "Caller.java", 42));
+	}
+
+	@Test
+	public void testRegisterTwice() throws Exception {
+		int id = CallSites.register("net.amygdalum.Caller", "registerTwice", "Caller.java", 42);
+
+		assertThat(CallSites.register("net.amygdalum.Caller", "registerTwice", "Caller.java", 42)).isEqualTo(id);
+		assertThat(CallSites.register("net.amygdalum.Caller", "registerTwice", "Caller.java", 43)).isNotEqualTo(id);
+	}
+
+	@Test
+	public void testRegisterMany() throws Exception {
+		int first = CallSites.register("net.amygdalum.Caller", "registerMany", "Caller.java", 0);
+		for (int i = 1; i < 100; i++) {
+			CallSites.register("net.amygdalum.Caller", "registerMany", "Caller.java", i);
+		}
+
+		assertThat(CallSites.get(first).getLineNumber()).isEqualTo(0);
+	}
+
+	@Test
+	public void testGetUnknown() throws Exception {
+		assertThat(CallSites.get(CallSites.UNKNOWN)).isNull();
+		assertThat(CallSites.get(-1)).isNull();
+		assertThat(CallSites.get(Integer.MAX_VALUE)).isNull();
+	}
+
+}
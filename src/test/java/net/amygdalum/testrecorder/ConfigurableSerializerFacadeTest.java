@@ -1,24 +1,49 @@
 package net.amygdalum.testrecorder;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static net.amygdalum.testrecorder.profile.SerializationLimits.unlimited;
 import static net.amygdalum.testrecorder.util.Types.getDeclaredField;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import net.amygdalum.testrecorder.serializers.CompiledSerializer;
+import net.amygdalum.testrecorder.serializers.DefaultListSerializer;
+import net.amygdalum.testrecorder.serializers.GenericSerializer;
+import net.amygdalum.testrecorder.serializers.SerializerFactory;
+import net.amygdalum.testrecorder.types.SerializationCancelledException;
+import net.amygdalum.testrecorder.types.SerializedReferenceType;
 import net.amygdalum.testrecorder.types.SerializedValue;
 import net.amygdalum.testrecorder.types.Serializer;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+import net.amygdalum.testrecorder.util.testobjects.Complex;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+import net.amygdalum.testrecorder.values.SerializedArray;
 import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedList;
 import net.amygdalum.testrecorder.values.SerializedLiteral;
+import net.amygdalum.testrecorder.values.SerializedMap;
 import net.amygdalum.testrecorder.values.SerializedNull;
 import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+import net.amygdalum.testrecorder.values.SpilledValues;
 import net.amygdalum.xrayinterface.XRayInterface;
 
 public class ConfigurableSerializerFacadeTest {
@@ -84,6 +109,355 @@ public class ConfigurableSerializerFacadeTest {
         assertThat(serialized.getValue()).isEqualTo(literal(int.class, 42));
     }
 
+    @Test
+    public void testSerializeFieldObjectWithPlannedField() throws Exception {
+        Field field = facade.fieldsOf(TestClass.class).get(0);
+
+        SerializedField serialized = facade.serialize(field, new TestClass());
+
+        assertThat(serialized.getName()).isEqualTo("testField");
+        assertThat(serialized.getValue()).isEqualTo(literal(int.class, 42));
+    }
+
+    @Test
+    public void testSerializeSharesPlans() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new DefaultTestRecorderAgentConfig());
+        ConfigurableSerializerFacade facade1 = new ConfigurableSerializerFacade(unlimited(), plans);
+        ConfigurableSerializerFacade facade2 = new ConfigurableSerializerFacade(unlimited(), plans);
+
+        assertThat(facade1.fieldsOf(TestClass.class)).isSameAs(facade2.fieldsOf(TestClass.class));
+    }
+
+    @Test
+    public void testSerializeCachesSerializers() throws Exception {
+        assertThat(openFacade.getSerializers()).isEmpty();
+
+        facade.serialize(List.class, new ArrayList<>(asList("a")));
+        Serializer<?> serializer = openFacade.getSerializers().get(ArrayList.class);
+        facade.serialize(List.class, new ArrayList<>(asList("b")));
+
+        assertThat(serializer).isInstanceOf(DefaultListSerializer.class);
+        assertThat(openFacade.getSerializers().get(ArrayList.class)).isSameAs(serializer);
+    }
+
+    @Test
+    public void testSerializeWithCompiledSerializer() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withCompiledSerializerThreshold(2)
+            .build());
+        ConfigurableSerializerFacade compilingFacade = new ConfigurableSerializerFacade(unlimited(), plans);
+        OpenFacade openCompilingFacade = XRayInterface.xray(compilingFacade).to(OpenFacade.class);
+
+        SerializedObject first = (SerializedObject) compilingFacade.serialize(TestClass.class, new TestClass());
+        assertThat(openCompilingFacade.getSerializers()).doesNotContainKey(TestClass.class);
+        SerializedObject second = (SerializedObject) compilingFacade.serialize(TestClass.class, new TestClass());
+        assertThat(openCompilingFacade.getSerializers().get(TestClass.class)).isInstanceOf(CompiledSerializer.class);
+        SerializedObject third = (SerializedObject) compilingFacade.serialize(TestClass.class, new TestClass());
+
+        assertThat(second.getFields()).isEqualTo(first.getFields());
+        assertThat(third.getFields()).isEqualTo(first.getFields());
+    }
+
+    @Test
+    public void testSerializeCachesGenericSerializerOnceCompileWasAttempted() throws Exception {
+        SerializationPlans plans = Mockito.spy(new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withCompiledSerializerThreshold(2)
+            .build()));
+        ConfigurableSerializerFacade compilingFacade = new ConfigurableSerializerFacade(unlimited(), plans);
+        OpenFacade openCompilingFacade = XRayInterface.xray(compilingFacade).to(OpenFacade.class);
+
+        compilingFacade.serialize(TestClass.class, new TestClass());
+        assertThat(openCompilingFacade.getSerializers()).doesNotContainKey(TestClass.class);
+
+        doReturn(false).when(plans).compilesSerializer(TestClass.class);
+        doReturn((SerializerFactory<SerializedReferenceType>) GenericSerializer::new).when(plans).serializerFactory(TestClass.class, compilingFacade);
+        compilingFacade.serialize(TestClass.class, new TestClass());
+        Serializer<?> serializer = openCompilingFacade.getSerializers().get(TestClass.class);
+        compilingFacade.serialize(TestClass.class, new TestClass());
+
+        assertThat(serializer).isInstanceOf(GenericSerializer.class);
+        assertThat(openCompilingFacade.getSerializers().get(TestClass.class)).isSameAs(serializer);
+    }
+
+    @Test
+    public void testSerializeWithMaxDepth() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxDepth(0));
+
+        SerializedObject result = (SerializedObject) limitedFacade.serialize(Complex.class, new Complex());
+
+        assertThat(result.getFields()).hasSize(1);
+        assertThat(result.getFields().get(0).getValue()).isInstanceOf(SerializedPlaceholder.class);
+    }
+
+    @Test
+    public void testSerializeWithinMaxDepth() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxDepth(1));
+
+        SerializedObject result = (SerializedObject) limitedFacade.serialize(Complex.class, new Complex());
+
+        assertThat(result.getFields()).hasSize(1);
+        assertThat(result.getFields().get(0).getValue()).isInstanceOf(SerializedObject.class);
+    }
+
+    @Test
+    public void testSerializeWithMaxNodes() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxNodes(1));
+
+        SerializedObject result = (SerializedObject) limitedFacade.serialize(Complex.class, new Complex());
+
+        assertThat(result.getFields().get(0).getValue()).isInstanceOf(SerializedPlaceholder.class);
+        assertThat(limitedFacade.serialize(Complex.class, new Complex())).isInstanceOf(SerializedPlaceholder.class);
+
+        limitedFacade.reset();
+
+        assertThat(limitedFacade.serialize(Complex.class, new Complex())).isInstanceOf(SerializedObject.class);
+    }
+
+    @Test
+    public void testSerializeWithMaxCollectionElements() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxCollectionElements(2));
+
+        assertThat((SerializedList) limitedFacade.serialize(List.class, asList("a", "b"))).containsExactly(literal("a"), literal("b"));
+        assertThat(limitedFacade.serialize(Map.class, singletonMap("a", "b"))).isNotInstanceOf(SerializedPlaceholder.class);
+    }
+
+    @Test
+    public void testSerializeTruncatesCollections() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxCollectionElements(2));
+
+        SerializedList list = (SerializedList) limitedFacade.serialize(List.class, new ArrayList<>(asList("a", "b", "c")));
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        map.put("c", "3");
+        SerializedMap serializedMap = (SerializedMap) limitedFacade.serialize(Map.class, map);
+
+        assertThat(list).hasSize(3);
+        assertThat(list.subList(0, 2)).containsExactly(literal("a"), literal("b"));
+        assertThat(isRemainder(list.get(2))).isTrue();
+        assertThat(serializedMap).hasSize(3);
+        assertThat(serializedMap.keySet().stream().filter(SerializedPlaceholder::isRemainder).count()).isEqualTo(1);
+        assertThat(serializedMap.get(literal("a"))).isEqualTo(literal("1"));
+        assertThat(serializedMap.get(literal("b"))).isEqualTo(literal("2"));
+    }
+
+    @Test
+    public void testSerializeReplacesCollectionsSerializedByFields() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxCollectionElements(2));
+
+        assertThat(limitedFacade.serialize(List.class, new CopyOnWriteArrayList<>(asList("a", "b", "c")))).isInstanceOf(SerializedPlaceholder.class);
+    }
+
+    @Test
+    public void testSerializeWithMaxArrayLength() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxArrayLength(2));
+
+        SerializedArray array = (SerializedArray) limitedFacade.serialize(int[].class, new int[] { 1, 2 });
+        SerializedArray truncatedArray = (SerializedArray) limitedFacade.serialize(int[].class, new int[] { 1, 2, 3 });
+        SerializedArray truncatedObjectArray = (SerializedArray) limitedFacade.serialize(String[].class, new String[] { "a", "b", "c" });
+
+        assertThat(array.getPrimitiveArray()).isEqualTo(new int[] { 1, 2 });
+        assertThat(truncatedArray.isPrimitiveArray()).isFalse();
+        assertThat(truncatedArray.getArray()).hasSize(3);
+        assertThat(truncatedArray.getArrayAsList().subList(0, 2)).containsExactly(literal(int.class, 1), literal(int.class, 2));
+        assertThat(isRemainder(truncatedArray.getArray()[2])).isTrue();
+        assertThat(truncatedObjectArray.getArrayAsList().subList(0, 2)).containsExactly(literal("a"), literal("b"));
+        assertThat(isRemainder(truncatedObjectArray.getArray()[2])).isTrue();
+    }
+
+    @Test
+    public void testSerializeWithMaxStringLength() throws Exception {
+        ConfigurableSerializerFacade limitedFacade = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig(), unlimited().withMaxStringLength(3));
+
+        assertThat(limitedFacade.serialize(String.class, "str")).isEqualTo(SerializedLiteral.literal("str"));
+        assertThat(limitedFacade.serialize(String.class, "string")).isInstanceOf(SerializedPlaceholder.class);
+    }
+
+    @Test
+    public void testSerializeWithRegisteredOriginals() throws Exception {
+        Simple original = new Simple("original");
+        Simple copy = new Simple("original");
+
+        facade.registerOriginals(singletonMap(copy, original));
+
+        assertThat(((SerializedObject) facade.serialize(Simple.class, copy)).getId()).isEqualTo(System.identityHashCode(original));
+        assertThat(((SerializedObject) facade.serialize(Simple.class, original)).getId()).isEqualTo(System.identityHashCode(original));
+
+        facade.reset();
+
+        assertThat(((SerializedObject) facade.serialize(Simple.class, copy)).getId()).isEqualTo(System.identityHashCode(copy));
+    }
+
+    @Test
+    public void testSerializeIncrementally() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withIncrementalExpectSerialization(true)
+            .build());
+        ConfigurableSerializerFacade incrementalFacade = new ConfigurableSerializerFacade(unlimited(), plans);
+        Bean unchangedBean = new Bean();
+        unchangedBean.setAttribute("unchanged");
+        Bean changedBean = new Bean();
+        changedBean.setAttribute("changed");
+        List<Bean> unchanged = new ArrayList<>(asList(unchangedBean));
+        List<Bean> changed = new ArrayList<>(asList(changedBean));
+
+        SerializedValue setupUnchanged = incrementalFacade.serialize(List.class, unchanged);
+        SerializedValue setupChanged = incrementalFacade.serialize(List.class, changed);
+        incrementalFacade.reset();
+        changedBean.setAttribute("modified");
+        SerializedValue expectUnchanged = incrementalFacade.serialize(List.class, unchanged);
+        SerializedValue expectChanged = incrementalFacade.serialize(List.class, changed);
+
+        assertThat(expectUnchanged).isSameAs(setupUnchanged);
+        assertThat(expectChanged).isNotSameAs(setupChanged);
+        assertThat(expectChanged.toString()).contains("modified");
+    }
+
+    @Test
+    public void testSerializeNotIncrementally() throws Exception {
+        Complex unchanged = new Complex("unchanged");
+
+        SerializedValue setupUnchanged = facade.serialize(Complex.class, unchanged);
+        facade.reset();
+        SerializedValue expectUnchanged = facade.serialize(Complex.class, unchanged);
+
+        assertThat(expectUnchanged).isNotSameAs(setupUnchanged);
+    }
+
+    @Test
+    public void testSerializeSpillingLargeCollections() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withCollectionSpillThreshold(10)
+            .build());
+        ConfigurableSerializerFacade spillingFacade = new ConfigurableSerializerFacade(unlimited(), plans);
+        List<Integer> small = new ArrayList<>();
+        List<Integer> large = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            large.add(i);
+        }
+        small.add(42);
+
+        SerializedList smallValue = (SerializedList) spillingFacade.serialize(List.class, small);
+        SerializedList largeValue = (SerializedList) spillingFacade.serialize(List.class, large);
+
+        assertThat(smallValue.referencedValues()).containsExactly(literal(42));
+        assertThat(largeValue).hasSize(2000);
+        assertThat(largeValue.get(1000)).isEqualTo(literal(1000));
+        assertThat(largeValue.referencedValues()).hasSize(2000 - SpilledValues.CHUNK_SIZE);
+        assertThat(plans.spillStoreFor(2000).size()).isGreaterThan(0);
+        assertThat(plans.spillStoreFor(10)).isNull();
+    }
+
+    @Test
+    public void testSerializeTruncatesSpilledCollectionsOfObjects() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withCollectionSpillThreshold(10)
+            .build());
+        ConfigurableSerializerFacade spillingFacade = new ConfigurableSerializerFacade(unlimited(), plans);
+        List<Simple> large = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            large.add(new Simple("simple" + i));
+        }
+
+        SerializedList largeValue = (SerializedList) spillingFacade.serialize(List.class, large);
+
+        assertThat(largeValue).hasSize(SpilledValues.CHUNK_SIZE + 1);
+        assertThat(largeValue.get(SpilledValues.CHUNK_SIZE)).isInstanceOf(SerializedPlaceholder.class);
+        plans.close();
+    }
+
+    @Test
+    public void testSerializeCancelled() throws Exception {
+        facade.cancel();
+
+        assertThatThrownBy(() -> facade.serialize(String.class, "literal")).isInstanceOf(SerializationCancelledException.class);
+        assertThatThrownBy(() -> facade.serialize(Simple.class, new Simple("simple"))).isInstanceOf(SerializationCancelledException.class);
+        facade.reset();
+        assertThatThrownBy(() -> facade.serialize(Simple.class, new Simple("simple"))).isInstanceOf(SerializationCancelledException.class);
+    }
+
+    @Test
+    public void testSerializeBeyondDeadline() throws Exception {
+        List<Simple> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(new Simple("simple" + i));
+        }
+
+        facade.setDeadline(System.currentTimeMillis() - 1);
+
+        assertThatThrownBy(() -> facade.serialize(List.class, list)).isInstanceOf(SerializationCancelledException.class);
+        assertThatThrownBy(() -> facade.serialize(Simple.class, new Simple("simple"))).isInstanceOf(SerializationCancelledException.class);
+    }
+
+    @Test
+    public void testSerializeLiteralsBeyondDeadline() throws Exception {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+
+        facade.setDeadline(System.currentTimeMillis() - 1);
+
+        assertThatThrownBy(() -> facade.serialize(List.class, list)).isInstanceOf(SerializationCancelledException.class);
+    }
+
+    @Test
+    public void testSerializeWithinDeadline() throws Exception {
+        List<Simple> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(new Simple("simple" + i));
+        }
+
+        facade.setDeadline(System.currentTimeMillis() + 60_000);
+
+        assertThat(facade.serialize(List.class, list)).isInstanceOf(SerializedList.class);
+    }
+
+    @Test
+    public void testSerializeSharedAcrossFacades() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withSharedSerializationCapacity(100)
+            .build());
+        Bean singleton = new Bean();
+        singleton.setAttribute("unchanged");
+        List<Bean> lookup = new ArrayList<>(asList(singleton));
+
+        SerializedValue first = new ConfigurableSerializerFacade(unlimited(), plans).serialize(List.class, lookup);
+        SerializedValue second = new ConfigurableSerializerFacade(unlimited(), plans).serialize(List.class, lookup);
+        singleton.setAttribute("changed");
+        SerializedValue third = new ConfigurableSerializerFacade(unlimited(), plans).serialize(List.class, lookup);
+
+        assertThat(second).isSameAs(first);
+        assertThat(third).isNotSameAs(first);
+        assertThat(third.toString()).contains("changed");
+    }
+
+    @Test
+    public void testSerializeSharedOnlyWithinEqualLimits() throws Exception {
+        SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+            .withSharedSerializationCapacity(100)
+            .build());
+        List<String> lookup = new ArrayList<>(asList("a", "b", "c"));
+
+        SerializedValue truncated = new ConfigurableSerializerFacade(unlimited().withMaxCollectionElements(1), plans).serialize(List.class, lookup);
+        SerializedValue complete = new ConfigurableSerializerFacade(unlimited(), plans).serialize(List.class, lookup);
+        SerializedValue truncatedAgain = new ConfigurableSerializerFacade(unlimited().withMaxCollectionElements(1), plans).serialize(List.class, lookup);
+
+        assertThat(complete).isNotSameAs(truncated);
+        assertThat(((SerializedList) complete).size()).isEqualTo(3);
+        assertThat(truncatedAgain).isSameAs(truncated);
+    }
+
+    @Test
+    public void testSerializeNotShared() throws Exception {
+        Bean singleton = new Bean();
+
+        SerializedValue first = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig()).serialize(Bean.class, singleton);
+        SerializedValue second = new ConfigurableSerializerFacade(new DefaultTestRecorderAgentConfig()).serialize(Bean.class, singleton);
+
+        assertThat(second).isNotSameAs(first);
+    }
+
     interface OpenFacade {
         Map<Class<?>, Serializer<?>> getSerializers();
     }
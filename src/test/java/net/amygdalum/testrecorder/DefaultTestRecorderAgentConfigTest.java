@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import net.amygdalum.testrecorder.profile.ExcludeExplicitExcluded;
 import net.amygdalum.testrecorder.profile.ExcludeGenerated;
 import net.amygdalum.testrecorder.profile.ExcludeStatic;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 public class DefaultTestRecorderAgentConfigTest {
 
@@ -51,4 +53,64 @@ public class DefaultTestRecorderAgentConfigTest {
         assertThat(config.getTimeoutInMillis()).isEqualTo(100_000l);
     }
 
+    @Test
+    public void testGetCaptureMode() throws Exception {
+        assertThat(config.getCaptureMode()).isEqualTo(CaptureMode.SYNCHRONOUS);
+    }
+
+    @Test
+    public void testGetSnapshotThreads() throws Exception {
+        assertThat(config.getSnapshotThreads()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetSnapshotQueueCapacity() throws Exception {
+        assertThat(config.getSnapshotQueueCapacity()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testGetSnapshotRejectionPolicy() throws Exception {
+        assertThat(config.getSnapshotRejectionPolicy()).isEqualTo(RejectionPolicy.WAIT);
+    }
+
+    @Test
+    public void testGetSamplingPolicy() throws Exception {
+        assertThat(config.getSamplingPolicy()).isSameAs(SamplingPolicy.all());
+    }
+
+    @Test
+    public void testGetSnapshotMemoryBudget() throws Exception {
+        assertThat(config.getSnapshotMemoryBudget()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testGetSnapshotBudgetPolicy() throws Exception {
+        assertThat(config.getSnapshotBudgetPolicy()).isEqualTo(BudgetPolicy.DROP_NEWEST);
+    }
+
+    @Test
+    public void testGetSerializationLimits() throws Exception {
+        assertThat(config.getSerializationLimits()).isSameAs(SerializationLimits.unlimited());
+    }
+
+    @Test
+    public void testGetCompiledSerializerThreshold() throws Exception {
+        assertThat(config.getCompiledSerializerThreshold()).isEqualTo(0);
+    }
+
+    @Test
+    public void testIsIncrementalExpectSerialization() throws Exception {
+        assertThat(config.isIncrementalExpectSerialization()).isFalse();
+    }
+
+    @Test
+    public void testGetCollectionSpillThreshold() throws Exception {
+        assertThat(config.getCollectionSpillThreshold()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGetSharedSerializationCapacity() throws Exception {
+        assertThat(config.getSharedSerializationCapacity()).isEqualTo(0);
+    }
+
 }
@@ -9,6 +9,9 @@ import org.junit.jupiter.api.Test;
 import net.amygdalum.testrecorder.profile.Classes;
 import net.amygdalum.testrecorder.profile.Fields;
 import net.amygdalum.testrecorder.profile.Methods;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.sampling.SampleFirstThenEvery;
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 
 public class FixedTestRecorderAgentConfigTest {
 
@@ -25,6 +28,18 @@ public class FixedTestRecorderAgentConfigTest {
 			.withOutputs(asList(Methods.byName("outputMethod")))
 			.withSnapshotConsumer(consumer)
 			.withTimeoutInMillis(42)
+			.withCaptureMode(CaptureMode.ASYNCHRONOUS)
+			.withSnapshotThreads(4)
+			.withSnapshotQueueCapacity(100)
+			.withSnapshotRejectionPolicy(RejectionPolicy.DISCARD)
+			.withSamplingPolicy(SamplingPolicy.firstThenEvery(1, 10))
+			.withSnapshotMemoryBudget(1024)
+			.withSnapshotBudgetPolicy(BudgetPolicy.BLOCK)
+			.withSerializationLimits(SerializationLimits.unlimited().withMaxDepth(3))
+			.withCompiledSerializerThreshold(100)
+			.withIncrementalExpectSerialization(true)
+			.withCollectionSpillThreshold(10000)
+			.withSharedSerializationCapacity(1000)
 			.build());
 
 		assertThat(config.getClasses()).is(containingExactly(
@@ -47,6 +62,18 @@ public class FixedTestRecorderAgentConfigTest {
 				.andNotMatching("anyClass", "inputMethod", "any")));
 		assertThat(config.getSnapshotConsumer()).isSameAs(consumer);
 		assertThat(config.getTimeoutInMillis()).isEqualTo(42);
+		assertThat(config.getCaptureMode()).isEqualTo(CaptureMode.ASYNCHRONOUS);
+		assertThat(config.getSnapshotThreads()).isEqualTo(4);
+		assertThat(config.getSnapshotQueueCapacity()).isEqualTo(100);
+		assertThat(config.getSnapshotRejectionPolicy()).isEqualTo(RejectionPolicy.DISCARD);
+		assertThat(config.getSamplingPolicy()).isInstanceOf(SampleFirstThenEvery.class);
+		assertThat(config.getSnapshotMemoryBudget()).isEqualTo(1024);
+		assertThat(config.getSnapshotBudgetPolicy()).isEqualTo(BudgetPolicy.BLOCK);
+		assertThat(config.getSerializationLimits().getMaxDepth()).isEqualTo(3);
+		assertThat(config.getCompiledSerializerThreshold()).isEqualTo(100);
+		assertThat(config.isIncrementalExpectSerialization()).isTrue();
+		assertThat(config.getCollectionSpillThreshold()).isEqualTo(10000);
+		assertThat(config.getSharedSerializationCapacity()).isEqualTo(1000);
 	}
 
 }
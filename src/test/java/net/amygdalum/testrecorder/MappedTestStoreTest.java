@@ -0,0 +1,90 @@
+package net.amygdalum.testrecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+
+import java.util.Iterator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class MappedTestStoreTest {
+
+	private MappedTestStore store;
+
+	@AfterEach
+	public void after() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void testAddAndIterate() throws Exception {
+		store = new MappedTestStore();
+
+		store.add("test1");
+		store.add("testä2");
+
+		assertThat(store.size()).isEqualTo(2);
+		assertThat(store).containsExactly("test1", "testä2");
+		assertThat(store.segments()).isEqualTo(1);
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		store = new MappedTestStore();
+
+		assertThat(store.size()).isEqualTo(0);
+		assertThat(store).isEmpty();
+	}
+
+	@Test
+	public void testSegments() throws Exception {
+		store = new MappedTestStore(16);
+
+		store.add("test1");
+		store.add("test2");
+		store.add("a test larger than a segment");
+
+		assertThat(store.segments()).isEqualTo(3);
+		assertThat(store.bytes()).isEqualTo(9 + 9 + 32);
+		assertThat(store).containsExactly("test1", "test2", "a test larger than a segment");
+	}
+
+	@Test
+	public void testIteratorIgnoresLaterTests() throws Exception {
+		store = new MappedTestStore();
+		store.add("test1");
+
+		Iterator<String> iterator = store.iterator();
+		store.add("test2");
+
+		assertThat(iterator).containsExactly("test1");
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		store = new MappedTestStore();
+		store.add("test1");
+
+		store.close();
+
+		assertThat(store.size()).isEqualTo(0);
+		assertThat(store.segments()).isEqualTo(0);
+		assertThat(store).isEmpty();
+	}
+
+	@Test
+	public void testCloseInvalidatesIterators() throws Exception {
+		store = new MappedTestStore();
+		store.add("test1");
+		Iterator<String> iterator = store.iterator();
+
+		store.close();
+
+		assertThatThrownBy(() -> iterator.next()).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> store.add("test2")).isInstanceOf(IOException.class);
+	}
+
+}
@@ -0,0 +1,55 @@
+package net.amygdalum.testrecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.util.testobjects.Overridden;
+import net.amygdalum.testrecorder.util.testobjects.Overriding;
+
+public class MethodSignatureTest {
+
+	@Test
+	public void testValidIn() throws Exception {
+		MethodSignature signature = MethodSignature.fromDescriptor("net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
+
+		assertThat(signature.validIn(Overridden.class)).isTrue();
+		assertThat(signature.validIn(Overriding.class)).isFalse();
+	}
+
+	@Test
+	public void testValidInCached() throws Exception {
+		MethodSignature signature = MethodSignature.fromDescriptor("net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
+
+		assertThat(signature.validIn(Overriding.class)).isFalse();
+		assertThat(signature.validIn(Overriding.class)).isFalse();
+		assertThat(signature.validIn(Overridden.class)).isTrue();
+		assertThat(signature.validIn(Overridden.class)).isTrue();
+	}
+
+	@Test
+	public void testValidInConcurrently() throws Exception {
+		MethodSignature signature = MethodSignature.fromDescriptor("net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<Boolean>> tasks = IntStream.range(0, 100)
+				.mapToObj(i -> (Callable<Boolean>) () -> signature.validIn(i % 2 == 0 ? Overridden.class : Overriding.class) == (i % 2 == 0))
+				.collect(Collectors.toList());
+
+			for (Future<Boolean> result : executor.invokeAll(tasks)) {
+				assertThat(result.get()).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
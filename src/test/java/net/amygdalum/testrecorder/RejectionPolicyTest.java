@@ -0,0 +1,103 @@
+package net.amygdalum.testrecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class RejectionPolicyTest {
+
+    @Test
+    public void testWaitQueuesTask() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger done = new AtomicInteger();
+        ThreadPoolExecutor executor = executor(RejectionPolicy.WAIT);
+        try {
+            executor.execute(() -> await(blocked));
+            executor.execute(() -> done.incrementAndGet());
+
+            Thread release = new Thread(() -> blocked.countDown());
+            release.start();
+            executor.execute(() -> done.incrementAndGet());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        assertThat(done.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testWaitDoesNotBlockChainedStages() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1),
+            new TestrecorderThreadFactory("$test"), RejectionPolicy.WAIT.handler());
+        AtomicInteger done = new AtomicInteger();
+        try {
+            List<CompletableFuture<Void>> chains = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                for (int j = 0; j < 10; j++) {
+                    chain = chain.thenRunAsync(() -> done.incrementAndGet(), executor);
+                }
+                chains.add(chain);
+            }
+
+            CompletableFuture.allOf(chains.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        assertThat(done.get()).isEqualTo(40);
+    }
+
+    @Test
+    public void testWaitOnShutdownExecutor() throws Exception {
+        ThreadPoolExecutor executor = executor(RejectionPolicy.WAIT);
+        executor.shutdown();
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    public void testDiscardRejectsTask() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        ThreadPoolExecutor executor = executor(RejectionPolicy.DISCARD);
+        try {
+            executor.execute(() -> await(blocked));
+            executor.execute(() -> {
+            });
+
+            assertThatThrownBy(() -> executor.execute(() -> {
+            })).isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            blocked.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ThreadPoolExecutor executor(RejectionPolicy policy) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1), policy.handler());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.IdentityHashMap;
@@ -440,6 +441,65 @@ public class ScheduledTestGeneratorTest {
 		assertThat(files()).contains("2Test.java", "2SecondTest.java");
 	}
 
+	@Test
+	public void testDumpContinuesWithNewGeneration() throws Exception {
+		testGenerator
+			.withDumpMaximum(5)
+			.withDumpTo(folder.getRoot().toPath())
+			.withClassName("${counter}Test")
+			.withDumpOnCounterInterval(2);
+
+		testGenerator.accept(newSnapshot());
+		testGenerator.accept(newSnapshot());
+		testGenerator.accept(newSnapshot());
+		testGenerator.await();
+
+		assertThat(files()).containsExactly("2Test.java");
+		String dumped = new String(Files.readAllBytes(folder.getRoot().toPath().resolve("net/amygdalum/testrecorder/2Test.java")), StandardCharsets.UTF_8);
+		assertThat(dumped).contains("testIntMethod0", "testIntMethod1");
+		assertThat(testGenerator.testsFor(ScheduledTestGeneratorTest.class)).hasSize(1);
+	}
+
+	@Test
+	public void testDumpsOfSameTestFileAreWrittenInOrder() throws Exception {
+		testGenerator
+			.withDumpMaximum(20)
+			.withDumpTo(folder.getRoot().toPath())
+			.withClassName("SameTest")
+			.withDumpOnCounterInterval(1);
+
+		for (int i = 0; i < 20; i++) {
+			testGenerator.accept(newSnapshot());
+		}
+		testGenerator.await();
+
+		assertThat(files()).containsExactly("SameTest.java");
+		String dumped = new String(Files.readAllBytes(folder.getRoot().toPath().resolve("net/amygdalum/testrecorder/SameTest.java")), StandardCharsets.UTF_8);
+		assertThat(dumped).contains(String.valueOf(base + 14));
+	}
+
+	@Test
+	public void testWithSpillThreshold() throws Exception {
+		testGenerator
+			.withDumpMaximum(5)
+			.withDumpTo(folder.getRoot().toPath())
+			.withClassName("SpilledTest")
+			.withSpillThreshold(1);
+
+		for (int i = 0; i < 5; i++) {
+			testGenerator.accept(newSnapshot());
+		}
+		testGenerator.await();
+
+		assertThat(testGenerator.getContext(ClassDescriptor.of(ScheduledTestGeneratorTest.class)).getSpilled()).isEqualTo(5);
+		assertThat(testGenerator.testsFor(ScheduledTestGeneratorTest.class)).hasSize(5);
+
+		testGenerator.dumpResults();
+
+		String test = new String(Files.readAllBytes(folder.getRoot().toPath().resolve("net/amygdalum/testrecorder/SpilledTest.java")), StandardCharsets.UTF_8);
+		assertThat(test).contains("testIntMethod0", "testIntMethod4");
+	}
+
 	private List<String> files() {
 		try {
 			Path path = folder.getRoot().toPath();
@@ -0,0 +1,315 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+public class SerializationBaselineTest {
+
+	private static final Function<Object, Object> IDENTITY = Function.identity();
+
+	private SerializationBaseline baseline;
+	private Map<Object, SerializedValue> serialized;
+
+	@BeforeEach
+	public void before() throws Exception {
+		baseline = new SerializationBaseline(new SerializationPlans(new DefaultTestRecorderAgentConfig()));
+		serialized = new IdentityHashMap<>();
+	}
+
+	@Test
+	public void testReuseUnchanged() throws Exception {
+		Node node = new Node("node", new Node("next", null));
+		SerializedObject value = record(node);
+		SerializedObject nextValue = record(node.next);
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isSameAs(value);
+		assertThat(serialized)
+			.containsEntry(node, value)
+			.containsEntry(node.next, nextValue);
+	}
+
+	@Test
+	public void testReuseWithOtherType() throws Exception {
+		Node node = new Node("node", null);
+		record(node);
+
+		assertThat(baseline.reuse(Object.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseUnrecorded() throws Exception {
+		assertThat(baseline.reuse(Node.class, new Node("node", null), IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedLiteral() throws Exception {
+		Node node = new Node("node", null);
+		record(node);
+
+		node.name = "changed";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedLiteralWithSameHash() throws Exception {
+		Node node = new Node("Aa", null);
+		record(node);
+
+		node.name = "BB";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedElementsWithSameHash() throws Exception {
+		List<Long> list = new ArrayList<>(asList(0l));
+		SerializedList value = new SerializedList(ArrayList.class).withResult(List.class).with(literal(0l));
+		baseline.record(list, value, IDENTITY);
+
+		list.set(0, 0x1_0000_0001l);
+
+		assertThat(baseline.reuse(List.class, list, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedPrimitiveArrayWithSameHash() throws Exception {
+		int[] array = new int[] { 0, 31 };
+		SerializedArray value = new SerializedArray(int[].class).withPrimitiveArray(new int[] { 0, 31 });
+		value.setResultType(int[].class);
+		baseline.record(array, value, IDENTITY);
+
+		assertThat(baseline.reuse(int[].class, array, IDENTITY, serialized)).isSameAs(value);
+
+		array[0] = 1;
+		array[1] = 0;
+		serialized.clear();
+
+		assertThat(baseline.reuse(int[].class, array, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedReference() throws Exception {
+		Node node = new Node("node", new Node("next", null));
+		record(node);
+		record(node.next);
+
+		node.next = new Node("next", null);
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedChild() throws Exception {
+		Node node = new Node("node", new Node("next", null));
+		record(node);
+		record(node.next);
+
+		node.next.name = "changed";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+		assertThat(serialized).isEmpty();
+		assertThat(baseline.reuse(Node.class, node.next, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseChangedIsRememberedInSession() throws Exception {
+		Node node = new Node("node", new Node("next", null));
+		SerializedObject value = record(node);
+		record(node.next);
+
+		node.next.name = "changed";
+		baseline.reuse(Node.class, node, IDENTITY, serialized);
+		node.next.name = "next";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+		assertThat(baseline.reuse(Node.class, node.next, IDENTITY, serialized)).isNull();
+		baseline.resetSession();
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isSameAs(value);
+	}
+
+	@Test
+	public void testReuseCycle() throws Exception {
+		Node node = new Node("node", null);
+		node.next = node;
+		SerializedObject value = record(node);
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isSameAs(value);
+	}
+
+	@Test
+	public void testReuseChildSerializedOtherwise() throws Exception {
+		Node node = new Node("node", new Node("next", null));
+		record(node);
+		record(node.next);
+
+		serialized.put(node.next, new SerializedObject(Node.class));
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseCollection() throws Exception {
+		List<String> list = new ArrayList<>(asList("a", "b"));
+		SerializedList value = new SerializedList(ArrayList.class).withResult(List.class).with(literal("a"), literal("b"));
+		baseline.record(list, value, IDENTITY);
+
+		assertThat(baseline.reuse(List.class, list, IDENTITY, serialized)).isSameAs(value);
+
+		list.add("c");
+		serialized.clear();
+
+		assertThat(baseline.reuse(List.class, list, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testReuseWithOriginals() throws Exception {
+		Node original = new Node("node", null);
+		Node copy = new Node("node", null);
+		SerializedObject value = new SerializedObject(Node.class);
+		value.setResultType(Node.class);
+		baseline.record(original, value, IDENTITY);
+
+		assertThat(baseline.reuse(Node.class, copy, IDENTITY, serialized)).isNull();
+		assertThat(baseline.reuse(Node.class, copy, Collections.<Object, Object> singletonMap(copy, original)::get, serialized)).isSameAs(value);
+	}
+
+	@Test
+	public void testResetSession() throws Exception {
+		Node node = new Node("node", null);
+		record(node);
+		node.name = "changed";
+		baseline.reuse(Node.class, node, IDENTITY, serialized);
+
+		node.name = "node";
+		baseline.resetSession();
+
+		assertThat(baseline.isEmpty()).isFalse();
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNotNull();
+	}
+
+	@Test
+	public void testCapacity() throws Exception {
+		baseline = new SerializationBaseline(new SerializationPlans(new DefaultTestRecorderAgentConfig()), 2);
+		Node frequent = new Node("frequent", null);
+		Node rare = new Node("rare", null);
+		SerializedObject frequentValue = record(frequent);
+		record(rare);
+
+		for (int i = 0; i < 10; i++) {
+			record(new Node("other" + i, null));
+			assertThat(baseline.reuse(Node.class, frequent, IDENTITY, serialized)).isSameAs(frequentValue);
+		}
+
+		assertThat(baseline.reuse(Node.class, rare, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		baseline = SerializationBaseline.concurrent(new SerializationPlans(new DefaultTestRecorderAgentConfig()), 1000);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			nodes.add(new Node("node" + i, i > 0 ? nodes.get(i - 1) : null));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<SerializedObject>> recorded = new ArrayList<>();
+			for (Node node : nodes) {
+				recorded.add(executor.submit(() -> record(node)));
+			}
+			List<Future<Boolean>> reused = new ArrayList<>();
+			for (int i = 0; i < nodes.size(); i++) {
+				Node node = nodes.get(i);
+				SerializedObject value = recorded.get(i).get();
+				reused.add(executor.submit(() -> baseline.reuse(Node.class, node, IDENTITY, new IdentityHashMap<>()) == value));
+			}
+			for (Future<Boolean> reuse : reused) {
+				assertThat(reuse.get()).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testConcurrentReuseChanged() throws Exception {
+		baseline = SerializationBaseline.concurrent(new SerializationPlans(new DefaultTestRecorderAgentConfig()), 10);
+		Node node = new Node("Aa", null);
+		record(node);
+
+		node.name = "BB";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized)).isNull();
+	}
+
+	@Test
+	public void testConcurrentRemembersChangedInGivenSession() throws Exception {
+		baseline = SerializationBaseline.concurrent(new SerializationPlans(new DefaultTestRecorderAgentConfig()), 10);
+		Node node = new Node("node", null);
+		SerializedObject value = record(node);
+		Map<Object, Boolean> changed = new IdentityHashMap<>();
+
+		node.name = "changed";
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized, changed)).isNull();
+		node.name = "node";
+
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized, changed)).isNull();
+		assertThat(baseline.reuse(Node.class, node, IDENTITY, serialized, new IdentityHashMap<>())).isSameAs(value);
+	}
+
+	@Test
+	public void testConcurrentDoesNotKeepRecordedObjects() throws Exception {
+		baseline = SerializationBaseline.concurrent(new SerializationPlans(new DefaultTestRecorderAgentConfig()), 10);
+		Node node = new Node("node", new Node("next", null));
+		record(node);
+		record(node.next);
+		WeakReference<Node> reference = new WeakReference<>(node);
+
+		node = null;
+		for (int i = 0; i < 100 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(reference.get()).isNull();
+	}
+
+	private SerializedObject record(Node node) {
+		SerializedObject value = new SerializedObject(Node.class);
+		value.setResultType(Node.class);
+		baseline.record(node, value, IDENTITY);
+		return value;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Node {
+		private String name;
+		private Node next;
+
+		Node(String name, Node next) {
+			this.name = name;
+			this.next = next;
+		}
+	}
+
+}
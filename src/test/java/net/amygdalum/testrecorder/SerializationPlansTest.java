@@ -0,0 +1,175 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.profile.Classes;
+import net.amygdalum.testrecorder.profile.SerializationProfile.Excluded;
+import net.amygdalum.testrecorder.serializers.ArraySerializer;
+import net.amygdalum.testrecorder.serializers.CompiledSerializer;
+import net.amygdalum.testrecorder.serializers.DefaultListSerializer;
+import net.amygdalum.testrecorder.serializers.EnumSerializer;
+import net.amygdalum.testrecorder.serializers.GenericSerializer;
+import net.amygdalum.testrecorder.serializers.LambdaSerializer;
+import net.amygdalum.testrecorder.serializers.SerializerFacade;
+import net.amygdalum.testrecorder.serializers.SerializerFactory;
+
+public class SerializationPlansTest {
+
+	private SerializationPlans plans;
+
+	@BeforeEach
+	public void before() throws Exception {
+		plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+			.withClassExclusions(asList(Classes.byName(ExcludedByName.class.getName())))
+			.build());
+	}
+
+	@Test
+	public void testExcludesClass() throws Exception {
+		assertThat(plans.excludes(Sub.class)).isFalse();
+		assertThat(plans.excludes(ExcludedByAnnotation.class)).isTrue();
+		assertThat(plans.excludes(ExcludedByName.class)).isTrue();
+	}
+
+	@Test
+	public void testExcludesField() throws Exception {
+		assertThat(plans.excludes(Super.class.getDeclaredField("superField"))).isFalse();
+		assertThat(plans.excludes(Super.class.getDeclaredField("staticField"))).isTrue();
+		assertThat(plans.excludes(Sub.class.getDeclaredField("excludedField"))).isTrue();
+		assertThat(plans.excludes(Sub.class.getDeclaredField("excludedTypeField"))).isTrue();
+	}
+
+	@Test
+	public void testFieldsOf() throws Exception {
+		List<Field> fields = plans.fieldsOf(Sub.class);
+
+		assertThat(fields).extracting(Field::getName).containsExactly("subField", "superField");
+		assertThat(fields).allMatch(Field::isAccessible);
+	}
+
+	@Test
+	public void testFieldsOfIsCached() throws Exception {
+		assertThat(plans.fieldsOf(Sub.class)).isSameAs(plans.fieldsOf(Sub.class));
+	}
+
+	@Test
+	public void testFieldsOfExcludedClass() throws Exception {
+		assertThat(plans.fieldsOf(ExcludedByAnnotation.class)).isEmpty();
+	}
+
+	@Test
+	public void testFieldsOfExcludedSuperClass() throws Exception {
+		assertThat(plans.fieldsOf(SubOfExcluded.class)).extracting(Field::getName).containsExactly("field");
+	}
+
+	@Test
+	public void testSerializerFactory() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+
+		assertThat(plans.serializerFactory(ArrayList.class, facade).newSerializer(facade)).isInstanceOf(DefaultListSerializer.class);
+		assertThat(plans.serializerFactory(int[].class, facade).newSerializer(facade)).isInstanceOf(ArraySerializer.class);
+		assertThat(plans.serializerFactory(TimeUnit.class, facade).newSerializer(facade)).isInstanceOf(EnumSerializer.class);
+		assertThat(plans.serializerFactory(SerializedLambda.class, facade).newSerializer(facade)).isInstanceOf(LambdaSerializer.class);
+		assertThat(plans.serializerFactory(Sub.class, facade).newSerializer(facade)).isInstanceOf(GenericSerializer.class);
+	}
+
+	@Test
+	public void testSerializerFactoryIsCached() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+
+		assertThat(plans.serializerFactory(ArrayList.class, facade)).isSameAs(plans.serializerFactory(ArrayList.class, mock(SerializerFacade.class)));
+		assertThat(plans.serializerFactory(Sub.class, facade)).isSameAs(plans.serializerFactory(Sub.class, facade));
+	}
+
+	@Test
+	public void testSerializerFactoryWithoutCompiledSerializers() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+
+		assertThat(plans.compilesSerializers()).isFalse();
+		for (int i = 0; i < 10; i++) {
+			assertThat(plans.serializerFactory(Sub.class, facade).newSerializer(facade)).isInstanceOf(GenericSerializer.class);
+		}
+	}
+
+	@Test
+	public void testSerializerFactoryWithCompiledSerializers() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+		SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+			.withCompiledSerializerThreshold(2)
+			.build());
+
+		assertThat(plans.compilesSerializers()).isTrue();
+		assertThat(plans.serializerFactory(Sub.class, facade).newSerializer(facade)).isInstanceOf(GenericSerializer.class);
+		SerializerFactory<?> compiled = plans.serializerFactory(Sub.class, facade);
+
+		assertThat(compiled.newSerializer(facade)).isInstanceOf(CompiledSerializer.class);
+		assertThat(plans.serializerFactory(Sub.class, facade)).isSameAs(compiled);
+		assertThat(plans.serializerFactory(ArrayList.class, facade).newSerializer(facade)).isInstanceOf(DefaultListSerializer.class);
+	}
+
+	@Test
+	public void testCompilesSerializer() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+		SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+			.withCompiledSerializerThreshold(2)
+			.build());
+
+		assertThat(plans.compilesSerializer(Sub.class)).isTrue();
+		plans.serializerFactory(Sub.class, facade);
+		assertThat(plans.compilesSerializer(Sub.class)).isTrue();
+		plans.serializerFactory(Sub.class, facade);
+		assertThat(plans.compilesSerializer(Sub.class)).isFalse();
+		assertThat(plans.compilesSerializer(ExcludedByAnnotation.class)).isFalse();
+		assertThat(this.plans.compilesSerializer(Sub.class)).isFalse();
+	}
+
+	@Test
+	public void testSerializerFactoryWithCompiledSerializersOnExcludedClass() throws Exception {
+		SerializerFacade facade = mock(SerializerFacade.class);
+		SerializationPlans plans = new SerializationPlans(new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+			.withCompiledSerializerThreshold(1)
+			.build());
+
+		assertThat(plans.serializerFactory(ExcludedByAnnotation.class, facade).newSerializer(facade)).isInstanceOf(GenericSerializer.class);
+	}
+
+	@SuppressWarnings("unused")
+	private static class Super {
+		private static String staticField;
+		private String superField;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Sub extends Super {
+		private String subField;
+		@Excluded
+		private String excludedField;
+		private ExcludedByName excludedTypeField;
+	}
+
+	@Excluded
+	@SuppressWarnings("unused")
+	private static class ExcludedByAnnotation {
+		private String field;
+	}
+
+	@SuppressWarnings("unused")
+	private static class SubOfExcluded extends ExcludedByAnnotation {
+		private String field;
+	}
+
+	private static class ExcludedByName {
+	}
+
+}
@@ -0,0 +1,236 @@
+package net.amygdalum.testrecorder;
+
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.SnapshotBudget.Reservation;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+
+public class SnapshotBudgetTest {
+
+	@Test
+	public void testUnbounded() throws Exception {
+		assertThat(new SnapshotBudget(Long.MAX_VALUE, BudgetPolicy.DROP_NEWEST, 0).isBounded()).isFalse();
+		assertThat(new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0).isBounded()).isTrue();
+	}
+
+	@Test
+	public void testReserveAndRelease() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0);
+
+		Reservation reservation = budget.reserve(snapshot(), 600);
+		assertThat(budget.getUsed()).isEqualTo(600);
+
+		reservation.release();
+		assertThat(budget.getUsed()).isEqualTo(0);
+
+		reservation.release();
+		assertThat(budget.getUsed()).isEqualTo(0);
+	}
+
+	@Test
+	public void testDropNewest() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0);
+		ContextSnapshot oldest = snapshot();
+
+		assertThat(budget.reserve(oldest, 600)).isNotNull();
+		assertThat(budget.reserve(snapshot(), 600)).isNull();
+
+		assertThat(oldest.isValid()).isTrue();
+		assertThat(budget.getUsed()).isEqualTo(600);
+		assertThat(budget.getDropped()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDropOversized() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_OLDEST, 0);
+
+		assertThat(budget.reserve(snapshot(), 1001)).isNull();
+
+		assertThat(budget.getDropped()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_OLDEST, 0);
+		ContextSnapshot oldest = snapshot();
+		ContextSnapshot older = snapshot();
+		ContextSnapshot newest = snapshot();
+
+		budget.reserve(oldest, 400);
+		budget.reserve(older, 400);
+		Reservation reservation = budget.reserve(newest, 400);
+
+		assertThat(reservation).isNotNull();
+		assertThat(oldest.isValid()).isFalse();
+		assertThat(older.isValid()).isTrue();
+		assertThat(newest.isValid()).isTrue();
+		assertThat(budget.getUsed()).isEqualTo(800);
+		assertThat(budget.getEvicted()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDropOldestDiscardsValues() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_OLDEST, 0);
+		ContextSnapshot oldest = snapshot();
+		oldest.setSetupThis(literal("value"));
+
+		budget.reserve(oldest, 600);
+		budget.reserve(snapshot(), 600);
+
+		assertThat(oldest.isValid()).isFalse();
+		assertThat(oldest.getSetupThis()).isNull();
+		assertThat(budget.reservationOf(oldest)).isNull();
+	}
+
+	@Test
+	public void testResize() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0);
+		ContextSnapshot snapshot = snapshot();
+		Reservation reservation = budget.reserve(snapshot, 100);
+
+		assertThat(budget.reservationOf(snapshot)).isSameAs(reservation);
+		assertThat(reservation.resize(700)).isTrue();
+		assertThat(budget.getUsed()).isEqualTo(700);
+
+		reservation.release();
+		assertThat(budget.getUsed()).isEqualTo(0);
+		assertThat(budget.reservationOf(snapshot)).isNull();
+	}
+
+	@Test
+	public void testResizeExceedingBudgetReleases() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0);
+		budget.reserve(snapshot(), 500);
+		Reservation reservation = budget.reserve(snapshot(), 100);
+
+		assertThat(reservation.resize(600)).isFalse();
+
+		assertThat(budget.getUsed()).isEqualTo(500);
+		assertThat(budget.getDropped()).isEqualTo(1);
+	}
+
+	@Test
+	public void testResizeEvictsOthers() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_OLDEST, 0);
+		ContextSnapshot oldest = snapshot();
+		budget.reserve(oldest, 500);
+		ContextSnapshot newest = snapshot();
+		Reservation reservation = budget.reserve(newest, 100);
+
+		assertThat(reservation.resize(600)).isTrue();
+
+		assertThat(oldest.isValid()).isFalse();
+		assertThat(newest.isValid()).isTrue();
+		assertThat(budget.getUsed()).isEqualTo(600);
+		assertThat(budget.getEvicted()).isEqualTo(1);
+	}
+
+	@Test
+	public void testResizeEvicted() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_OLDEST, 0);
+		Reservation evicted = budget.reserve(snapshot(), 600);
+		budget.reserve(snapshot(), 600);
+
+		assertThat(evicted.resize(100)).isFalse();
+
+		assertThat(budget.getUsed()).isEqualTo(600);
+	}
+
+	@Test
+	public void testDegrade() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DEGRADE, 0);
+
+		assertThat(budget.degrade()).isFalse();
+
+		Reservation reservation = budget.reserve(snapshot(), 1000);
+		assertThat(budget.degrade()).isTrue();
+
+		reservation.release();
+		assertThat(budget.degrade()).isFalse();
+		assertThat(budget.getDegraded()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDegradeAboveHighWaterMark() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DEGRADE, 0);
+
+		Reservation first = budget.reserve(snapshot(), 500);
+		assertThat(budget.degrade()).isFalse();
+
+		Reservation second = budget.reserve(snapshot(), 300);
+		assertThat(budget.degrade()).isTrue();
+
+		second.release();
+		assertThat(budget.degrade()).isFalse();
+
+		first.release();
+		assertThat(budget.getDegraded()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDegradeAfterRefusedReservation() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DEGRADE, 0);
+		Reservation first = budget.reserve(snapshot(), 500);
+		Reservation second = budget.reserve(snapshot(), 200);
+		assertThat(budget.degrade()).isFalse();
+
+		assertThat(budget.reserve(snapshot(), 400)).isNull();
+		assertThat(budget.degrade()).isTrue();
+
+		second.release();
+		assertThat(budget.degrade()).isFalse();
+		first.release();
+		assertThat(budget.getDropped()).isEqualTo(1);
+		assertThat(budget.getDegraded()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDegradeOnlyIfConfigured() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.DROP_NEWEST, 0);
+
+		budget.reserve(snapshot(), 1000);
+
+		assertThat(budget.degrade()).isFalse();
+	}
+
+	@Test
+	public void testBlock() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.BLOCK, 10_000);
+		Reservation first = budget.reserve(snapshot(), 600);
+
+		CompletableFuture<Reservation> second = CompletableFuture.supplyAsync(() -> budget.reserve(snapshot(), 600));
+		while (budget.getBlocked() == 0) {
+			Thread.sleep(1);
+		}
+		assertThat(second.isDone()).isFalse();
+
+		first.release();
+
+		assertThat(second.get(10, TimeUnit.SECONDS)).isNotNull();
+		assertThat(budget.getUsed()).isEqualTo(600);
+	}
+
+	@Test
+	public void testBlockTimeout() throws Exception {
+		SnapshotBudget budget = new SnapshotBudget(1000, BudgetPolicy.BLOCK, 10);
+		budget.reserve(snapshot(), 600);
+
+		assertThat(budget.reserve(snapshot(), 600)).isNull();
+
+		assertThat(budget.getBlocked()).isEqualTo(1);
+		assertThat(budget.getDropped()).isEqualTo(1);
+	}
+
+	private ContextSnapshot snapshot() {
+		return new ContextSnapshot(0, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[0][0], new Type[] { Object.class }));
+	}
+
+}
@@ -0,0 +1,293 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.SnapshotCopier.Capture;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.profile.SerializationProfile.Excluded;
+
+public class SnapshotCopierTest {
+
+	private SerializationPlans plans;
+	private SnapshotCopier copier;
+
+	@BeforeEach
+	public void before() throws Exception {
+		plans = new SerializationPlans(new DefaultTestRecorderAgentConfig());
+		copier = new SnapshotCopier(plans, SerializationLimits.unlimited());
+	}
+
+	@Test
+	public void testCopyNone() throws Exception {
+		Node node = new Node("node");
+
+		assertThat(Capture.NONE.isCopying()).isFalse();
+		assertThat(Capture.NONE.copy(node)).isSameAs(node);
+		assertThat(Capture.NONE.copyGlobals(asList(Node.class.getDeclaredField("global")))).isNull();
+	}
+
+	@Test
+	public void testCopyImmutables() throws Exception {
+		Capture capture = copier.capture();
+
+		assertThat(capture.isCopying()).isTrue();
+		assertThat(capture.copy(null)).isNull();
+		assertThat(capture.copy("string")).isSameAs("string");
+		assertThat(capture.copy(TimeUnit.SECONDS)).isSameAs(TimeUnit.SECONDS);
+		assertThat(capture.copy(String.class)).isSameAs(String.class);
+		Runnable lambda = () -> {
+		};
+		assertThat(capture.copy(lambda)).isSameAs(lambda);
+		assertThat(capture.copy(new BigDecimal("1.5"))).isEqualTo(new BigDecimal("1.5"));
+		assertThat(capture.originals()).isEmpty();
+		assertThat(capture.isFrozen()).isTrue();
+	}
+
+	@Test
+	public void testCopyJdkStructures() throws Exception {
+		List<String> list = new ArrayList<>(asList("a"));
+		List<String> unmodifiable = Collections.unmodifiableList(list);
+		StringBuilder builder = new StringBuilder("builder");
+		AtomicInteger atomic = new AtomicInteger(42);
+		Date date = new Date(1000);
+		Map<String, Node> concurrent = new ConcurrentHashMap<>();
+		concurrent.put("key", new Node("value"));
+		EnumMap<TimeUnit, String> enumMap = new EnumMap<>(TimeUnit.class);
+		enumMap.put(TimeUnit.SECONDS, "seconds");
+		EnumSet<TimeUnit> enumSet = EnumSet.of(TimeUnit.SECONDS);
+		Capture capture = copier.capture();
+
+		Object[] copy = capture.copy(new Object[] { unmodifiable, builder, atomic, date, concurrent, enumMap, enumSet });
+		list.add("b");
+		builder.append("changed");
+		atomic.set(0);
+		date.setTime(0);
+		concurrent.get("key").name = "changed";
+		enumMap.clear();
+		enumSet.clear();
+
+		assertThat(capture.isFrozen()).isTrue();
+		assertThat(copy[0]).isInstanceOf(unmodifiable.getClass()).isEqualTo(asList("a"));
+		assertThat(copy[1].toString()).isEqualTo("builder");
+		assertThat(((AtomicInteger) copy[2]).get()).isEqualTo(42);
+		assertThat(((Date) copy[3]).getTime()).isEqualTo(1000);
+		assertThat(copy[4]).isInstanceOf(ConcurrentHashMap.class);
+		assertThat(((Node) ((Map<?, ?>) copy[4]).get("key")).name).isEqualTo("value");
+		assertThat(copy[5]).isEqualTo(singletonMap(TimeUnit.SECONDS, "seconds"));
+		assertThat(copy[6]).isEqualTo(EnumSet.of(TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testCopyUnknownJdkObject() throws Exception {
+		Random random = new Random();
+		Capture capture = copier.capture();
+
+		assertThat(capture.copy(random)).isSameAs(random);
+		assertThat(capture.isFrozen()).isFalse();
+	}
+
+	@Test
+	public void testCopyFailureRemovesPartialCopies() throws Exception {
+		AtomicBoolean failing = new AtomicBoolean();
+		TreeSet<String> set = new TreeSet<>((left, right) -> {
+			if (failing.get()) {
+				throw new IllegalStateException();
+			}
+			return left.compareTo(right);
+		});
+		set.addAll(asList("a", "b"));
+		Node node = new Node("node");
+		node.next = new Node("next");
+		node.value = set;
+		Capture capture = copier.capture();
+
+		failing.set(true);
+
+		assertThat(capture.copy(node)).isSameAs(node);
+		assertThat(capture.originals()).isEmpty();
+		assertThat(capture.isFrozen()).isFalse();
+	}
+
+	@Test
+	public void testCopyObject() throws Exception {
+		Node node = new Node("node");
+		node.count = 42;
+		node.next = new Node("next");
+
+		Node copy = (Node) copier.capture().copy(node);
+		node.name = "changed";
+		node.count = 0;
+		node.next.name = "changed";
+
+		assertThat(copy).isNotSameAs(node);
+		assertThat(copy.name).isEqualTo("node");
+		assertThat(copy.count).isEqualTo(42);
+		assertThat(copy.next).isNotSameAs(node.next);
+		assertThat(copy.next.name).isEqualTo("next");
+	}
+
+	@Test
+	public void testCopyObjectWithExcludedField() throws Exception {
+		Node node = new Node("node");
+		node.excluded = new Node("excluded");
+
+		Node copy = (Node) copier.capture().copy(node);
+
+		assertThat(copy.excluded).isSameAs(node.excluded);
+	}
+
+	@Test
+	public void testCopyExcludedObject() throws Exception {
+		ExcludedNode node = new ExcludedNode();
+
+		assertThat(copier.capture().copy(node)).isSameAs(node);
+	}
+
+	@Test
+	public void testCopyCyclicObject() throws Exception {
+		Node node = new Node("node");
+		node.next = node;
+
+		Node copy = (Node) copier.capture().copy(node);
+
+		assertThat(copy).isNotSameAs(node);
+		assertThat(copy.next).isSameAs(copy);
+	}
+
+	@Test
+	public void testCopySharedObjects() throws Exception {
+		Node shared = new Node("shared");
+		Node node = new Node("node");
+		node.next = shared;
+		Capture capture = copier.capture();
+
+		Object[] copy = capture.copy(new Object[] { node, shared });
+
+		assertThat(((Node) copy[0]).next).isSameAs(copy[1]);
+		assertThat(capture.originals())
+			.containsEntry(copy[0], node)
+			.containsEntry(copy[1], shared);
+	}
+
+	@Test
+	public void testCopyArrays() throws Exception {
+		int[] primitives = new int[] { 1, 2, 3 };
+		Node[] nodes = new Node[] { new Node("node") };
+		Capture capture = copier.capture();
+
+		int[] primitivesCopy = (int[]) capture.copy(primitives);
+		Node[] nodesCopy = (Node[]) capture.copy((Object) nodes);
+		primitives[0] = 0;
+		nodes[0].name = "changed";
+
+		assertThat(primitivesCopy).containsExactly(1, 2, 3);
+		assertThat(nodesCopy[0]).isNotSameAs(nodes[0]);
+		assertThat(nodesCopy[0].name).isEqualTo("node");
+	}
+
+	@Test
+	public void testCopyCollections() throws Exception {
+		List<Node> list = new ArrayList<>(asList(new Node("node")));
+		TreeSet<String> set = new TreeSet<>(Comparator.reverseOrder());
+		set.addAll(asList("a", "b"));
+		Capture capture = copier.capture();
+
+		@SuppressWarnings("unchecked")
+		List<Node> listCopy = (List<Node>) capture.copy(list);
+		@SuppressWarnings("unchecked")
+		TreeSet<String> setCopy = (TreeSet<String>) capture.copy(set);
+		list.add(new Node("added"));
+		set.add("c");
+
+		assertThat(listCopy).isInstanceOf(ArrayList.class).hasSize(1);
+		assertThat(listCopy.get(0)).isNotSameAs(list.get(0));
+		assertThat(setCopy).containsExactly("b", "a");
+	}
+
+	@Test
+	public void testCopyMaps() throws Exception {
+		Map<String, Node> map = new HashMap<>();
+		map.put("key", new Node("value"));
+
+		@SuppressWarnings("unchecked")
+		Map<String, Node> copy = (Map<String, Node>) copier.capture().copy(map);
+		map.clear();
+
+		assertThat(copy).isInstanceOf(HashMap.class).containsOnlyKeys("key");
+		assertThat(copy.get("key").name).isEqualTo("value");
+	}
+
+	@Test
+	public void testCopyBeyondLimits() throws Exception {
+		copier = new SnapshotCopier(plans, SerializationLimits.unlimited()
+			.withMaxDepth(0)
+			.withMaxCollectionElements(1));
+		Node node = new Node("node");
+		node.next = new Node("next");
+		List<String> list = new ArrayList<>(asList("a", "b"));
+		Capture nodeCapture = copier.capture();
+		Capture listCapture = copier.capture();
+
+		Node copy = (Node) nodeCapture.copy(node);
+
+		assertThat(copy).isNotSameAs(node);
+		assertThat(copy.next).isSameAs(node.next);
+		assertThat(nodeCapture.isFrozen()).isTrue();
+		assertThat(listCapture.copy(list)).isSameAs(list);
+		assertThat(listCapture.isFrozen()).isFalse();
+	}
+
+	@Test
+	public void testCopyGlobals() throws Exception {
+		Node.global = new Node("global");
+
+		Object[] globals = copier.capture().copyGlobals(asList(Node.class.getDeclaredField("global")));
+
+		assertThat(globals).hasSize(1);
+		assertThat(globals[0]).isNotSameAs(Node.global);
+		assertThat(((Node) globals[0]).name).isEqualTo("global");
+	}
+
+	@SuppressWarnings("unused")
+	private static class Node {
+		private static Node global;
+
+		private String name;
+		private int count;
+		private Node next;
+		private Object value;
+		@Excluded
+		private Node excluded;
+
+		Node(String name) {
+			this.name = name;
+		}
+	}
+
+	@Excluded
+	private static class ExcludedNode {
+	}
+
+}
@@ -0,0 +1,114 @@
+package net.amygdalum.testrecorder;
+
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SpillStore;
+import net.amygdalum.testrecorder.values.SpilledValues;
+
+public class SnapshotFingerprintTest {
+
+	@Test
+	public void testIgnoresTimeAndIds() throws Exception {
+		ContextSnapshot snapshot1 = snapshot(1000, bean("value"), literal("arg"));
+		ContextSnapshot snapshot2 = snapshot(2000, bean("value"), literal("arg"));
+
+		assertThat(SnapshotFingerprint.of(snapshot1)).isEqualTo(SnapshotFingerprint.of(snapshot2));
+	}
+
+	@Test
+	public void testDistinguishesValues() throws Exception {
+		ContextSnapshot snapshot1 = snapshot(0, bean("value"), literal("arg"));
+		ContextSnapshot snapshot2 = snapshot(0, bean("other"), literal("arg"));
+		ContextSnapshot snapshot3 = snapshot(0, bean("value"), literal("Aa"));
+		ContextSnapshot snapshot4 = snapshot(0, bean("value"), literal("BB"));
+
+		assertThat(SnapshotFingerprint.of(snapshot1)).isNotEqualTo(SnapshotFingerprint.of(snapshot2));
+		assertThat(SnapshotFingerprint.of(snapshot1)).isNotEqualTo(SnapshotFingerprint.of(snapshot3));
+		assertThat(SnapshotFingerprint.of(snapshot3)).isNotEqualTo(SnapshotFingerprint.of(snapshot4));
+	}
+
+	@Test
+	public void testDistinguishesPrimitiveArrays() throws Exception {
+		ContextSnapshot snapshot1 = snapshot(0, bean("value"), new SerializedArray(int[].class).withPrimitiveArray(new int[] { 1, 2 }));
+		ContextSnapshot snapshot2 = snapshot(1000, bean("value"), new SerializedArray(int[].class).withPrimitiveArray(new int[] { 1, 2 }));
+		ContextSnapshot snapshot3 = snapshot(0, bean("value"), new SerializedArray(int[].class).withPrimitiveArray(new int[] { 1, 3 }));
+
+		assertThat(SnapshotFingerprint.of(snapshot1)).isEqualTo(SnapshotFingerprint.of(snapshot2));
+		assertThat(SnapshotFingerprint.of(snapshot1)).isNotEqualTo(SnapshotFingerprint.of(snapshot3));
+	}
+
+	@Test
+	public void testDistinguishesAliasing() throws Exception {
+		SerializedObject shared = bean("value");
+		SerializedList aliased = new SerializedList(Object.class);
+		aliased.add(shared);
+		aliased.add(shared);
+		SerializedList distinct = new SerializedList(Object.class);
+		distinct.add(bean("value"));
+		distinct.add(bean("value"));
+
+		ContextSnapshot snapshot1 = snapshot(0, bean("value"), aliased);
+		ContextSnapshot snapshot2 = snapshot(0, bean("value"), distinct);
+
+		assertThat(SnapshotFingerprint.of(snapshot1)).isNotEqualTo(SnapshotFingerprint.of(snapshot2));
+	}
+
+	@Test
+	public void testDistinguishesSpilledElements() throws Exception {
+		try (SpillStore store = SpillStore.temporary()) {
+			SerializedList spilled1 = new SerializedList(Object.class).spillTo(store);
+			SerializedList spilled2 = new SerializedList(Object.class).spillTo(store);
+			for (int i = 0; i < SpilledValues.CHUNK_SIZE; i++) {
+				spilled1.add(literal(i));
+				spilled2.add(literal(i == 0 ? -1 : i));
+			}
+
+			ContextSnapshot snapshot1 = snapshot(0, bean("value"), spilled1);
+			ContextSnapshot snapshot2 = snapshot(0, bean("value"), spilled2);
+
+			assertThat(SnapshotFingerprint.of(snapshot1)).isNotEqualTo(SnapshotFingerprint.of(snapshot2));
+		}
+	}
+
+	@Test
+	public void testCycles() throws Exception {
+		SerializedList cyclic1 = new SerializedList(Object.class);
+		cyclic1.add(cyclic1);
+		SerializedList cyclic2 = new SerializedList(Object.class);
+		cyclic2.add(cyclic2);
+
+		ContextSnapshot snapshot1 = snapshot(0, bean("value"), cyclic1);
+		ContextSnapshot snapshot2 = snapshot(0, bean("value"), cyclic2);
+
+		assertThat(SnapshotFingerprint.of(snapshot1)).isEqualTo(SnapshotFingerprint.of(snapshot2));
+	}
+
+	private ContextSnapshot snapshot(long time, SerializedObject self, SerializedValue arg) {
+		ContextSnapshot snapshot = new ContextSnapshot(time, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[0][0], new Type[] { Object.class }));
+		snapshot.setSetupThis(self);
+		snapshot.setSetupArgs(arg);
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(self);
+		snapshot.setExpectArgs(arg);
+		snapshot.setExpectGlobals(new SerializedField[0]);
+		return snapshot;
+	}
+
+	private SerializedObject bean(String attribute) {
+		return new SerializedObject(Bean.class)
+			.withFields(new SerializedField(Bean.class, "attribute", String.class, literal(attribute)));
+	}
+
+}
@@ -3,13 +3,19 @@ package net.amygdalum.testrecorder;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import java.util.NoSuchElementException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import net.amygdalum.testrecorder.sampling.SamplingPolicy;
 import net.amygdalum.testrecorder.util.testobjects.Bean;
 import net.amygdalum.testrecorder.util.testobjects.Overridden;
 import net.amygdalum.testrecorder.util.testobjects.Overriding;
@@ -86,6 +92,74 @@ public class SnapshotManagerTest {
 		assertThat(snapshot.getExpectOutput()).isEmpty();
 	}
 
+	@Test
+	public void testExpectVariablesWithinBudget() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSnapshotMemoryBudget(1_000_000)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "mystr" });
+
+		verify(consumer).accept(any(ContextSnapshot.class), any(Runnable.class));
+		assertThat(snapshotManager.getBudget().getDropped()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBudgetReservedFromCaptureUntilConsumed() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSnapshotMemoryBudget(1_000_000)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		long captured = snapshotManager.getBudget().getUsed();
+		assertThat(captured).isGreaterThan(0);
+
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "mystr" });
+
+		ArgumentCaptor<Runnable> done = ArgumentCaptor.forClass(Runnable.class);
+		verify(consumer).accept(any(ContextSnapshot.class), done.capture());
+		assertThat(snapshotManager.getBudget().getUsed()).isGreaterThan(captured);
+
+		done.getValue().run();
+		assertThat(snapshotManager.getBudget().getUsed()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBudgetReleasedForUnmatchedProcesses() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSnapshotMemoryBudget(1_000_000)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		snapshotManager.registerRecordedMethod("getAttribute()Ljava/lang/String;", "net/amygdalum/testrecorder/util/testobjects/Bean", "getAttribute", "()Ljava/lang/String;");
+		Bean self = new Bean();
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		long outer = snapshotManager.getBudget().getUsed();
+		snapshotManager.setupVariables(self, "getAttribute()Ljava/lang/String;");
+		assertThat(snapshotManager.getBudget().getUsed()).isGreaterThan(outer);
+
+		snapshotManager.pop("setAttribute(Ljava/lang/String;)V");
+
+		assertThat(snapshotManager.getBudget().getUsed()).isEqualTo(outer);
+	}
+
+	@Test
+	public void testExpectVariablesExceedingBudget() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSnapshotMemoryBudget(10)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "mystr" });
+
+		verify(consumer, never()).accept(any(ContextSnapshot.class), any(Runnable.class));
+		verify(consumer, never()).accept(any(ContextSnapshot.class));
+		assertThat(snapshotManager.getBudget().getDropped()).isEqualTo(1);
+	}
+
 	@Test
 	public void testExpectVariablesWithResultMatching() throws Exception {
 		snapshotManager.registerRecordedMethod("method(I)I", "net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
@@ -194,6 +268,30 @@ public class SnapshotManagerTest {
 			.isInstanceOf(NoSuchElementException.class);
 	}
 
+	@Test
+	public void testIsRecording() throws Exception {
+		snapshotManager.registerRecordedMethod("signature", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		assertThat(snapshotManager.isRecording()).isFalse();
+
+		snapshotManager.push("signature");
+		assertThat(snapshotManager.isRecording()).isTrue();
+
+		snapshotManager.pop("signature");
+		assertThat(snapshotManager.isRecording()).isFalse();
+	}
+
+	@Test
+	public void testIsRecordingSkipped() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSamplingPolicy(signature -> false)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+
+		snapshotManager.setupVariables(new Bean(), "setAttribute(Ljava/lang/String;)V", "mystr");
+
+		assertThat(snapshotManager.isRecording()).isFalse();
+	}
+
 	@Test
 	public void testPushPopInvalidating() throws Exception {
 		snapshotManager.registerRecordedMethod("signature1", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
@@ -213,4 +311,140 @@ public class SnapshotManagerTest {
 		assertThat(process3.getSnapshot().isValid()).isFalse();
 	}
 
+	@Test
+	public void testExpectVariablesAsynchronous() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withCaptureMode(CaptureMode.ASYNCHRONOUS)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		ContextSnapshot snapshot = snapshotManager.current().getSnapshot();
+
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "mystr" });
+
+		ArgumentCaptor<ContextSnapshot> consumed = ArgumentCaptor.forClass(ContextSnapshot.class);
+		verify(consumer, timeout(1000)).accept(consumed.capture());
+		assertThat(consumed.getValue()).isSameAs(snapshot);
+		assertThat(snapshot.isValid()).isTrue();
+		assertThat(snapshot.getSetupThis()).isInstanceOf(SerializedObject.class);
+		assertThat(snapshot.getExpectThis()).isInstanceOf(SerializedObject.class);
+		assertThat(snapshot.getExpectArgs())
+			.hasSize(1)
+			.contains(literal("mystr"));
+	}
+
+	@Test
+	public void testExpectVariablesCopyOnCapture() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withCaptureMode(CaptureMode.COPY_ON_CAPTURE)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		self.setAttribute("setup");
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "mystr");
+		ContextSnapshot snapshot = snapshotManager.current().getSnapshot();
+		self.setAttribute("mystr");
+
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "mystr" });
+		self.setAttribute("modified");
+
+		ArgumentCaptor<ContextSnapshot> consumed = ArgumentCaptor.forClass(ContextSnapshot.class);
+		verify(consumer, timeout(1000)).accept(consumed.capture());
+		assertThat(consumed.getValue()).isSameAs(snapshot);
+		assertThat(snapshot.isValid()).isTrue();
+		assertThat(snapshot.getSetupThis())
+			.isEqualToIgnoringGivenFields(new SerializedObject(Bean.class)
+				.withFields(new SerializedField(Bean.class, "attribute", String.class, literal("setup"))), "id");
+		assertThat(snapshot.getExpectThis())
+			.isEqualToIgnoringGivenFields(new SerializedObject(Bean.class)
+				.withFields(new SerializedField(Bean.class, "attribute", String.class, literal("mystr"))), "id");
+		assertThat(((SerializedObject) snapshot.getSetupThis()).getId()).isEqualTo(System.identityHashCode(self));
+		assertThat(((SerializedObject) snapshot.getExpectThis()).getId()).isEqualTo(System.identityHashCode(self));
+	}
+
+	@Test
+	public void testExpectVariablesIncremental() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withIncrementalExpectSerialization(true)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		Bean arg = new Bean();
+		self.setAttribute("unchanged");
+		arg.setAttribute("unchanged");
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", arg);
+		ContextSnapshot snapshot = snapshotManager.current().getSnapshot();
+
+		arg.setAttribute("changed");
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { arg });
+
+		assertThat(snapshot.getExpectThis()).isSameAs(snapshot.getSetupThis());
+		assertThat(snapshot.getExpectArgs()[0]).isNotSameAs(snapshot.getSetupArgs()[0]);
+		assertThat(snapshot.getExpectArgs()[0])
+			.isEqualToIgnoringGivenFields(new SerializedObject(Bean.class)
+				.withResult(String.class)
+				.withFields(new SerializedField(Bean.class, "attribute", String.class, literal("changed"))), "id");
+	}
+
+	@Test
+	public void testSetupVariablesShared() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSharedSerializationCapacity(100)
+			.build());
+		snapshotManager.registerRecordedMethod("setAttribute(Ljava/lang/String;)V", "net/amygdalum/testrecorder/util/testobjects/Bean", "setAttribute", "(Ljava/lang/String;)V");
+		Bean self = new Bean();
+		self.setAttribute("singleton");
+
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "first");
+		ContextSnapshot first = snapshotManager.current().getSnapshot();
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "first" });
+		snapshotManager.setupVariables(self, "setAttribute(Ljava/lang/String;)V", "second");
+		ContextSnapshot second = snapshotManager.current().getSnapshot();
+		snapshotManager.expectVariables(self, "setAttribute(Ljava/lang/String;)V", new Object[] { "second" });
+
+		assertThat(second.getSetupThis()).isSameAs(first.getSetupThis());
+		assertThat(second.getSetupArgs()[0]).isEqualTo(literal("second"));
+	}
+
+	@Test
+	public void testExpectVariablesAsynchronousMismatching() throws Throwable {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withCaptureMode(CaptureMode.ASYNCHRONOUS)
+			.build());
+		snapshotManager.registerRecordedMethod("method(I)I", "net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
+		Overriding self = new Overriding();
+
+		snapshotManager.setupVariables(self, "method(I)I", 1);
+		snapshotManager.expectVariables(self, "method(I)I", 2, new Object[] { 1 });
+		snapshotManager.close();
+
+		verify(consumer, Mockito.never()).accept(any(ContextSnapshot.class));
+	}
+
+	@Test
+	public void testSetupVariablesUnsampled() throws Exception {
+		snapshotManager = new SnapshotManager(ConfigurableTestRecorderAgentConfig.builder(new TestTestRecorderAgentConfig(consumer))
+			.withSamplingPolicy(SamplingPolicy.firstThenEvery(1, 2))
+			.build());
+		snapshotManager.registerRecordedMethod("method(I)I", "net/amygdalum/testrecorder/util/testobjects/Overridden", "method", "(I)I");
+		Overridden self = new Overridden();
+
+		snapshotManager.setupVariables(self, "method(I)I", 1);
+		snapshotManager.expectVariables(self, "method(I)I", 2, new Object[] { 1 });
+		snapshotManager.setupVariables(self, "method(I)I", 3);
+
+		assertThat(snapshotManager.current().getSnapshot()).isSameAs(ContextSnapshot.INVALID);
+
+		snapshotManager.expectVariables(self, "method(I)I", 4, new Object[] { 3 });
+		snapshotManager.setupVariables(self, "method(I)I", 5);
+		snapshotManager.expectVariables(self, "method(I)I", 6, new Object[] { 5 });
+
+		ArgumentCaptor<ContextSnapshot> snapshots = ArgumentCaptor.forClass(ContextSnapshot.class);
+		verify(consumer, Mockito.times(2)).accept(snapshots.capture());
+		assertThat(snapshots.getAllValues())
+			.extracting(snapshot -> snapshot.getExpectResult())
+			.containsExactly(literal(int.class, 2), literal(int.class, 6));
+	}
+
 }
@@ -0,0 +1,153 @@
+package net.amygdalum.testrecorder;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.serializers.SerializerFacade;
+import net.amygdalum.testrecorder.types.SerializationCancelledException;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+
+public class SnapshotProcessTest {
+
+	private ExecutorService executor;
+	private SerializerFacade facade;
+	private CountDownLatch cancelled;
+
+	@BeforeEach
+	public void before() throws Exception {
+		executor = Executors.newSingleThreadExecutor();
+		facade = mock(SerializerFacade.class);
+		cancelled = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			cancelled.countDown();
+			return null;
+		}).when(facade).cancel();
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testTimeoutCancelsSerialization() throws Exception {
+		when(facade.serialize(eq(Bean.class), any())).thenAnswer(invocation -> {
+			cancelled.await(10, TimeUnit.SECONDS);
+			throw new SerializationCancelledException("serialization cancelled");
+		});
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		SnapshotProcess process = new SnapshotProcess(executor, config(CaptureMode.SYNCHRONOUS, 100), facade, snapshot, emptyList());
+
+		process.setupVariables("key", new Bean(), "arg");
+
+		assertThat(snapshot.isValid()).isFalse();
+		verify(facade).cancel();
+		assertThat(executor.submit(() -> "free").get(1, TimeUnit.SECONDS)).isEqualTo("free");
+	}
+
+	@Test
+	public void testInputAfterTimeoutIsIgnored() throws Exception {
+		when(facade.serialize(eq(Bean.class), any())).thenAnswer(invocation -> {
+			cancelled.await(10, TimeUnit.SECONDS);
+			throw new SerializationCancelledException("serialization cancelled");
+		});
+		when(facade.serialize(eq(byte[].class), any())).thenThrow(new SerializationCancelledException("serialization cancelled"));
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		SnapshotProcess process = new SnapshotProcess(executor, config(CaptureMode.SYNCHRONOUS, 100), facade, snapshot, emptyList());
+		process.setupVariables("key", new Bean(), "arg");
+
+		int id = process.inputVariables(CallSites.UNKNOWN, new Bean(), "read", byte[].class, new Type[0]);
+		process.inputResult(id, new byte[] { 1, 2 });
+		process.ioCompleted();
+
+		assertThat(snapshot.isValid()).isFalse();
+		verify(facade, never()).serialize(eq(byte[].class), any());
+	}
+
+	@Test
+	public void testSerializationExceptionOfInputInvalidatesSnapshot() throws Exception {
+		when(facade.serialize(eq(byte[].class), any())).thenThrow(new SerializationCancelledException("serialization cancelled"));
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		SnapshotProcess process = new SnapshotProcess(executor, config(CaptureMode.SYNCHRONOUS, 100), facade, snapshot, emptyList());
+
+		int id = process.inputVariables(CallSites.UNKNOWN, new Bean(), "read", byte[].class, new Type[0]);
+		process.inputResult(id, new byte[] { 1, 2 });
+		process.ioCompleted();
+
+		assertThat(snapshot.isValid()).isFalse();
+	}
+
+	@Test
+	public void testSkipsSerializationOfInvalidSnapshot() throws Exception {
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		snapshot.invalidate();
+		SnapshotProcess process = new SnapshotProcess(executor, config(CaptureMode.SYNCHRONOUS, 100), facade, snapshot, emptyList());
+
+		process.setupVariables("key", new Bean(), "arg");
+
+		verify(facade, never()).serialize(any(Type.class), any());
+	}
+
+	@Test
+	public void testAsynchronousSerializationHasDeadline() throws Exception {
+		when(facade.serialize(eq(Bean.class), any())).thenThrow(new SerializationCancelledException("serialization deadline exceeded"));
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		SnapshotProcess process = new SnapshotProcess(executor, config(CaptureMode.ASYNCHRONOUS, 10_000), facade, snapshot, emptyList());
+		@SuppressWarnings("unchecked")
+		Consumer<ContextSnapshot> consumer = mock(Consumer.class);
+
+		process.setupVariables("key", new Bean(), "arg");
+		process.whenCompleted(consumer);
+
+		verify(consumer, timeout(1000)).accept(snapshot);
+		verify(facade).setDeadline(snapshot.getTime() + 10_000);
+		assertThat(snapshot.isValid()).isFalse();
+	}
+
+	@Test
+	public void testCopyOnCaptureSerializesUnfrozenCaptureBeforeReturning() throws Exception {
+		ContextSnapshot snapshot = snapshot(System.currentTimeMillis());
+		TestRecorderAgentConfig config = config(CaptureMode.COPY_ON_CAPTURE, 10_000);
+		SnapshotCopier copier = new SnapshotCopier(new SerializationPlans(config), SerializationLimits.unlimited());
+		SnapshotProcess process = new SnapshotProcess(executor, config, facade, copier, snapshot, emptyList());
+		Random random = new Random();
+
+		process.setupVariables("key", random, "arg");
+
+		verify(facade).serialize(Random.class, random);
+	}
+
+	private TestRecorderAgentConfig config(CaptureMode captureMode, long timeoutInMillis) {
+		return new ConfigurableTestRecorderAgentConfig.Builder(new DefaultTestRecorderAgentConfig())
+			.withCaptureMode(captureMode)
+			.withTimeoutInMillis(timeoutInMillis)
+			.build();
+	}
+
+	private ContextSnapshot snapshot(long time) {
+		return new ContextSnapshot(time, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[0][0], new Type[] { String.class }));
+	}
+
+}
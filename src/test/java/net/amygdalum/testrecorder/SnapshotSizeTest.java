@@ -0,0 +1,80 @@
+package net.amygdalum.testrecorder;
+
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+public class SnapshotSizeTest {
+
+	@Test
+	public void testGrowsWithValues() throws Exception {
+		SerializedList small = new SerializedList(Object.class);
+		small.add(bean("value"));
+		SerializedList large = new SerializedList(Object.class);
+		large.add(bean("value"));
+		large.add(bean("value"));
+
+		assertThat(SnapshotSize.of(snapshot(bean("value"), large))).isGreaterThan(SnapshotSize.of(snapshot(bean("value"), small)));
+	}
+
+	@Test
+	public void testGrowsWithStrings() throws Exception {
+		assertThat(SnapshotSize.of(snapshot(bean("a longer value"), literal("arg"))))
+			.isGreaterThan(SnapshotSize.of(snapshot(bean("value"), literal("arg"))));
+	}
+
+	@Test
+	public void testGrowsWithPrimitiveArrays() throws Exception {
+		assertThat(SnapshotSize.of(snapshot(bean("value"), new SerializedArray(byte[].class).withPrimitiveArray(new byte[1000]))))
+			.isGreaterThan(SnapshotSize.of(snapshot(bean("value"), new SerializedArray(byte[].class).withPrimitiveArray(new byte[10]))));
+	}
+
+	@Test
+	public void testCountsSharedValuesOnce() throws Exception {
+		SerializedObject shared = bean("value");
+		SerializedList aliased = new SerializedList(Object.class);
+		aliased.add(shared);
+		aliased.add(shared);
+		SerializedList distinct = new SerializedList(Object.class);
+		distinct.add(bean("value"));
+		distinct.add(bean("value"));
+
+		assertThat(SnapshotSize.of(snapshot(bean("value"), aliased))).isLessThan(SnapshotSize.of(snapshot(bean("value"), distinct)));
+	}
+
+	@Test
+	public void testCycles() throws Exception {
+		SerializedList cyclic = new SerializedList(Object.class);
+		cyclic.add(cyclic);
+
+		assertThat(SnapshotSize.of(snapshot(bean("value"), cyclic))).isPositive();
+	}
+
+	private ContextSnapshot snapshot(SerializedObject self, SerializedValue arg) {
+		ContextSnapshot snapshot = new ContextSnapshot(0, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[0][0], new Type[] { Object.class }));
+		snapshot.setSetupThis(self);
+		snapshot.setSetupArgs(arg);
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(self);
+		snapshot.setExpectArgs(arg);
+		snapshot.setExpectGlobals(new SerializedField[0]);
+		return snapshot;
+	}
+
+	private SerializedObject bean(String attribute) {
+		return new SerializedObject(Bean.class)
+			.withFields(new SerializedField(Bean.class, "attribute", String.class, literal(attribute)));
+	}
+
+}
@@ -0,0 +1,97 @@
+package net.amygdalum.testrecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TestGeneratorContextTest {
+
+	@Test
+	public void testAdd() throws Exception {
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class));
+
+		context.add("test1");
+		context.add("test2");
+
+		assertThat(context.size()).isEqualTo(2);
+		assertThat(context.getSpilled()).isEqualTo(0);
+		assertThat(context.getTests()).containsExactly("test1", "test2");
+		assertThat(context.iterateTests()).containsExactly("test1", "test2");
+	}
+
+	@Test
+	public void testAddSpilling() throws Exception {
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class), 15);
+
+		context.add("test1");
+		context.add("test2");
+		context.add("test3");
+
+		assertThat(context.size()).isEqualTo(3);
+		assertThat(context.getSpilled()).isEqualTo(2);
+		assertThat(context.getTests()).containsExactly("test1", "test2", "test3");
+		assertThat(context.iterateTests()).containsExactly("test1", "test2", "test3");
+
+		context.close();
+		assertThat(context.getSpilled()).isEqualTo(0);
+	}
+
+	@Test
+	public void testAddSpillingSharedBudget() throws Exception {
+		TestBudget budget = new TestBudget(15);
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class), budget);
+		TestGeneratorContext other = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContext.class), budget);
+
+		context.add("test1");
+		other.add("test2");
+
+		assertThat(context.getSpilled()).isEqualTo(1);
+		assertThat(other.getSpilled()).isEqualTo(0);
+		assertThat(budget.getUsed()).isEqualTo(10);
+		assertThat(context.iterateTests()).containsExactly("test1");
+
+		other.close();
+		assertThat(budget.getUsed()).isEqualTo(0);
+		context.close();
+	}
+
+	@Test
+	public void testAddFingerprint() throws Exception {
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class));
+
+		assertThat(context.indexOf(1l)).isEqualTo(0);
+		assertThat(context.add(1l, "test0")).isTrue();
+		assertThat(context.indexOf(2l)).isEqualTo(1);
+		assertThat(context.add(2l, "test1")).isTrue();
+		assertThat(context.indexOf(1l)).isEqualTo(0);
+		assertThat(context.add(1l, "test0")).isFalse();
+
+		assertThat(context.getTests()).containsExactly("test0", "test1");
+		assertThat(context.getDuplicates()).isEqualTo(1);
+	}
+
+	@Test
+	public void testAddFingerprintCollision() throws Exception {
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class));
+
+		assertThat(context.add(1l, "test0")).isTrue();
+		assertThat(context.indexOf(1l)).isEqualTo(0);
+		assertThat(context.add(1l, "other test0")).isTrue();
+
+		assertThat(context.getTests()).containsExactly("test0", "other test0");
+		assertThat(context.getDuplicates()).isEqualTo(0);
+	}
+
+	@Test
+	public void testAddFingerprintBounded() throws Exception {
+		TestGeneratorContext context = new TestGeneratorContext(ClassDescriptor.of(TestGeneratorContextTest.class));
+
+		for (int i = 0; i <= TestGeneratorContext.MAX_FINGERPRINTS; i++) {
+			context.add(i, "test" + i);
+		}
+
+		assertThat(context.indexOf(0l)).isEqualTo(TestGeneratorContext.MAX_FINGERPRINTS + 1);
+		assertThat(context.indexOf(1l)).isEqualTo(1);
+	}
+
+}
@@ -1,11 +1,17 @@
 package net.amygdalum.testrecorder;
 
+import static java.util.stream.Collectors.toList;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Rule;
 import org.junit.jupiter.api.AfterAll;
@@ -73,6 +79,52 @@ public class TestGeneratorTest {
 			});
 	}
 
+	@Test
+	public void testAcceptSharedExpectation() throws Exception {
+		ContextSnapshot snapshot = contextSnapshot(MyClass.class, int.class, "intMethod", int.class);
+		SerializedObject self = objectOf(MyClass.class, new SerializedField(MyClass.class, "field", int.class, literal(int.class, 12)));
+		snapshot.setSetupThis(self);
+		snapshot.setSetupArgs(literal(int.class, 16));
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(self);
+		snapshot.setExpectArgs(literal(int.class, 16));
+		snapshot.setExpectResult(literal(int.class, 22));
+		snapshot.setExpectGlobals(new SerializedField[0]);
+
+		testGenerator.accept(snapshot);
+
+		testGenerator.await();
+		assertThat(testGenerator.testsFor(TestGeneratorTest.class))
+			.hasSize(1)
+			.anySatisfy(test -> {
+				assertThat(test).containsSequence("int field = 12;",
+					"intMethod(16);",
+					"equalTo(22)",
+					"expected no change, but was:",
+					"int field = 12;");
+			});
+	}
+
+	@Test
+	public void testAcceptDuplicates() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			ContextSnapshot snapshot = new ContextSnapshot(i, "key", new MethodSignature(MyClass.class, new Annotation[0], int.class, "intMethod", new Annotation[0][0], new Type[] { int.class }));
+			snapshot.setSetupThis(objectOf(MyClass.class, new SerializedField(MyClass.class, "field", int.class, literal(int.class, 12))));
+			snapshot.setSetupArgs(literal(int.class, i == 2 ? 17 : 16));
+			snapshot.setSetupGlobals(new SerializedField[0]);
+			snapshot.setExpectThis(objectOf(MyClass.class, new SerializedField(MyClass.class, "field", int.class, literal(int.class, 8))));
+			snapshot.setExpectArgs(literal(int.class, 16));
+			snapshot.setExpectResult(literal(int.class, 22));
+			snapshot.setExpectGlobals(new SerializedField[0]);
+
+			testGenerator.accept(snapshot);
+		}
+
+		testGenerator.await();
+		assertThat(testGenerator.testsFor(TestGeneratorTest.class)).hasSize(2);
+		assertThat(testGenerator.getContext(ClassDescriptor.of(TestGeneratorTest.class)).getDuplicates()).isEqualTo(1);
+	}
+
 	@Test
 	public void testSuppressesWarnings() throws Exception {
 		ContextSnapshot snapshot = contextSnapshot(MyClass.class, int.class, "intMethod", int.class);
@@ -293,6 +345,88 @@ public class TestGeneratorTest {
 		assertThat(Files.exists(folder.getRoot().toPath().resolve("net/amygdalum/testrecorder/TestGeneratorTestRecordedTest.java"))).isTrue();
 	}
 
+	@Test
+	public void testWriteResultsEqualsRenderedTest() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			testGenerator.accept(snapshot(i));
+		}
+
+		testGenerator.await();
+		testGenerator.writeResults(folder.getRoot().toPath());
+
+		String written = new String(Files.readAllBytes(folder.getRoot().toPath().resolve("net/amygdalum/testrecorder/TestGeneratorTestRecordedTest.java")), StandardCharsets.UTF_8);
+		assertThat(written).isEqualTo(testGenerator.renderTest(TestGeneratorTest.class).getTestCode());
+	}
+
+	@Test
+	public void testWriteResultsSplitsLargeTestFiles() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			testGenerator.accept(snapshot(i));
+		}
+		testGenerator.setMaxTestFileSize(1);
+
+		testGenerator.await();
+		testGenerator.writeResults(folder.getRoot().toPath());
+
+		Path pkg = folder.getRoot().toPath().resolve("net/amygdalum/testrecorder");
+		assertThat(new String(Files.readAllBytes(pkg.resolve("TestGeneratorTestRecordedTest.java")), StandardCharsets.UTF_8))
+			.contains("public class TestGeneratorTestRecordedTest {", "testIntMethod0")
+			.doesNotContain("testIntMethod1");
+		assertThat(new String(Files.readAllBytes(pkg.resolve("TestGeneratorTestRecordedTest2.java")), StandardCharsets.UTF_8))
+			.contains("public class TestGeneratorTestRecordedTest2 {", "testIntMethod1")
+			.doesNotContain("testIntMethod2");
+		assertThat(new String(Files.readAllBytes(pkg.resolve("TestGeneratorTestRecordedTest3.java")), StandardCharsets.UTF_8))
+			.contains("public class TestGeneratorTestRecordedTest3 {", "testIntMethod2");
+		assertThat(Files.exists(pkg.resolve("TestGeneratorTestRecordedTest4.java"))).isFalse();
+	}
+
+	@Test
+	public void testDetachResults() throws Exception {
+		testGenerator.accept(snapshot(0));
+		testGenerator.accept(snapshot(1));
+
+		Map<ClassDescriptor, TestGeneratorContext> results = testGenerator.detachResults().join();
+		testGenerator.accept(snapshot(2));
+
+		testGenerator.await();
+		assertThat(results.get(ClassDescriptor.of(TestGeneratorTest.class)).getTests()).hasSize(2);
+		assertThat(testGenerator.testsFor(TestGeneratorTest.class))
+			.hasSize(1)
+			.allSatisfy(test -> assertThat(test).contains("testIntMethod0", "intMethod(18)"));
+	}
+
+	@Test
+	public void testWriteResultsInParallel() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 3; i++) {
+				testGenerator.accept(snapshot(i));
+			}
+			Map<ClassDescriptor, TestGeneratorContext> results = testGenerator.detachResults().join();
+
+			testGenerator.writeResults(folder.getRoot().toPath(), results, clazz -> "ParallelTest", executor).join();
+
+			Path pkg = folder.getRoot().toPath().resolve("net/amygdalum/testrecorder");
+			assertThat(Files.list(pkg).map(file -> file.getFileName().toString()).collect(toList())).containsExactly("ParallelTest.java");
+			assertThat(new String(Files.readAllBytes(pkg.resolve("ParallelTest.java")), StandardCharsets.UTF_8))
+				.contains("public class ParallelTest {", "testIntMethod0", "testIntMethod2");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private ContextSnapshot snapshot(int i) {
+		ContextSnapshot snapshot = contextSnapshot(MyClass.class, int.class, "intMethod", int.class);
+		snapshot.setSetupThis(objectOf(MyClass.class, new SerializedField(MyClass.class, "field", int.class, literal(int.class, 12))));
+		snapshot.setSetupArgs(literal(int.class, 16 + i));
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(objectOf(MyClass.class, new SerializedField(MyClass.class, "field", int.class, literal(int.class, 8))));
+		snapshot.setExpectArgs(literal(int.class, 16 + i));
+		snapshot.setExpectResult(literal(int.class, 22 + i));
+		snapshot.setExpectGlobals(new SerializedField[0]);
+		return snapshot;
+	}
+
 	private ContextSnapshot contextSnapshot(Class<?> declaringClass, Type resultType, String methodName, Type... argumentTypes) {
 		return new ContextSnapshot(0, "key", new MethodSignature(declaringClass, new Annotation[0], resultType, methodName, new Annotation[0][0], argumentTypes));
 	}
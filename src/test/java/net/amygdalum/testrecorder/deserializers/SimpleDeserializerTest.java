@@ -78,6 +78,16 @@ public class SimpleDeserializerTest {
 		assertThat(visitReferenceType).isEqualTo(new int[] { 22 });
 	}
 
+	@Test
+	public void testVisitPrimitiveArray() throws Exception {
+		SerializedArray object = new SerializedArray(int[].class).withPrimitiveArray(new int[] { 22, 23 });
+
+		Object visitReferenceType = deserializer.visitReferenceType(object, NULL);
+
+		assertThat(visitReferenceType).isEqualTo(new int[] { 22, 23 });
+		assertThat(visitReferenceType).isNotSameAs(object.getPrimitiveArray());
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Test
 	public void testVisitList() throws Exception {
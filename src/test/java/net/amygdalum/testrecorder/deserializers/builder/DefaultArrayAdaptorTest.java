@@ -2,6 +2,7 @@ package net.amygdalum.testrecorder.deserializers.builder;
 
 import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -45,4 +46,29 @@ public class DefaultArrayAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("intArray1");
 	}
 
+	@Test
+	public void testTryDeserializePrimitiveArray() throws Exception {
+		SerializedArray value = new SerializedArray(char[].class).withPrimitiveArray(new char[] { 'a', '\n' });
+		SetupGenerators generator = new SetupGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements().toString()).contains("char[] charArray1 = new char[]{'a', '\\n'}");
+		assertThat(result.getValue()).isEqualTo("charArray1");
+	}
+
+	@Test
+	public void testTryDeserializeTruncated() throws Exception {
+		SerializedArray value = new SerializedArray(int[].class);
+		value.add(literal(int.class, 0));
+		value.add(literal(int.class, 8));
+		value.add(remainder(int.class));
+		SetupGenerators generator = new SetupGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements().toString()).contains("int[] intArray1 = new int[]{0, 8}");
+		assertThat(result.getValue()).isEqualTo("intArray1");
+	}
+
 }
@@ -4,6 +4,7 @@ import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContex
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.testobjects.Hidden.classOfHiddenList;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.lang.reflect.Type;
@@ -169,4 +170,22 @@ public class DefaultListAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("forwarded");
 	}
 
+	@Test
+	public void testTryDeserializeTruncated() throws Exception {
+		SerializedList value = new SerializedList(parameterized(ArrayList.class, null, Integer.class)).withResult(parameterized(List.class, null, Integer.class));
+		value.add(literal(0));
+		value.add(literal(8));
+		value.add(remainder(Integer.class));
+		SetupGenerators generator = new SetupGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements().toString()).containsSequence(
+			"ArrayList<Integer> temp1 = new ArrayList<Integer>()",
+			"temp1.add(0)",
+			"temp1.add(8)",
+			"List<Integer> list1 = temp1;");
+		assertThat(result.getStatements().toString()).doesNotContain("null");
+	}
+
 }
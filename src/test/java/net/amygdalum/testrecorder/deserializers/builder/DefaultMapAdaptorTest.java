@@ -4,6 +4,7 @@ import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContex
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.util.testobjects.Hidden.classOfHiddenMap;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.lang.reflect.Type;
@@ -158,4 +159,20 @@ public class DefaultMapAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("forwarded");
 	}
 
+	@Test
+	public void testTryDeserializeTruncated() throws Exception {
+		SerializedMap value = new SerializedMap(parameterized(LinkedHashMap.class, null, Integer.class, Integer.class)).withResult(parameterized(Map.class, null, Integer.class, Integer.class));
+		value.put(literal(8), literal(15));
+		value.put(remainder(Integer.class), remainder(Integer.class));
+		SetupGenerators generator = new SetupGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements().toString()).containsSequence(
+			"LinkedHashMap<Integer, Integer> temp1 = new LinkedHashMap<Integer, Integer>()",
+			"temp1.put(8, 15)",
+			"Map<Integer, Integer> map1 = temp1;");
+		assertThat(result.getStatements().toString()).doesNotContain("null");
+	}
+
 }
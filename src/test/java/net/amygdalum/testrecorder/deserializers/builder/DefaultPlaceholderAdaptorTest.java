@@ -0,0 +1,45 @@
+package net.amygdalum.testrecorder.deserializers.builder;
+
+import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.deserializers.Computation;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+
+public class DefaultPlaceholderAdaptorTest {
+
+	private DefaultPlaceholderAdaptor adaptor;
+
+	@BeforeEach
+	public void before() throws Exception {
+		adaptor = new DefaultPlaceholderAdaptor();
+	}
+
+	@Test
+	public void testParentNull() throws Exception {
+		assertThat(adaptor.parent()).isNull();
+	}
+
+	@Test
+	public void testMatchesAny() throws Exception {
+		assertThat(adaptor.matches(Object.class)).isTrue();
+		assertThat(adaptor.matches(new Object() {}.getClass())).isTrue();
+	}
+
+	@Test
+	public void testTryDeserialize() throws Exception {
+		SerializedPlaceholder value = new SerializedPlaceholder(Simple.class);
+		SetupGenerators generator = new SetupGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements()).isEmpty();
+		assertThat(result.getValue()).isEqualTo("null");
+		assertThat(result.getType()).isEqualTo(Simple.class);
+	}
+
+}
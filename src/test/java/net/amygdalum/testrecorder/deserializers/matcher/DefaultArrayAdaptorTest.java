@@ -2,6 +2,7 @@ package net.amygdalum.testrecorder.deserializers.matcher;
 
 import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigInteger;
@@ -48,6 +49,17 @@ public class DefaultArrayAdaptorTest {
         assertThat(result.getValue()).isEqualTo("intArrayContaining(0, 8, 15)");
     }
 
+    @Test
+    public void testTryDeserializeCompactPrimitiveArray() throws Exception {
+        SerializedArray value = new SerializedArray(long[].class).withPrimitiveArray(new long[] { 0, 8, 15 });
+        MatcherGenerators generator = new MatcherGenerators(getClass());
+
+        Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+        assertThat(result.getStatements()).isEmpty();
+        assertThat(result.getValue()).isEqualTo("longArrayContaining(0l, 8l, 15l)");
+    }
+
     @Test
     public void testTryDeserializeObjectArray() throws Exception {
         SerializedArray value = new SerializedArray(BigInteger[].class);
@@ -74,4 +86,31 @@ public class DefaultArrayAdaptorTest {
         assertThat(result.getValue()).isEqualTo("emptyArray()");
     }
 
+    @Test
+    public void testTryDeserializeTruncatedPrimitiveArray() throws Exception {
+        SerializedArray value = new SerializedArray(int[].class);
+        value.add(literal(int.class, 0));
+        value.add(literal(int.class, 8));
+        value.add(remainder(int.class));
+        MatcherGenerators generator = new MatcherGenerators(getClass());
+
+        Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+        assertThat(result.getStatements()).isEmpty();
+        assertThat(result.getValue()).isEqualTo("intArrayContaining(0, 8).truncated()");
+    }
+
+    @Test
+    public void testTryDeserializeTruncatedObjectArray() throws Exception {
+        SerializedArray value = new SerializedArray(BigInteger[].class);
+        value.add(remainder(BigInteger.class));
+        MatcherGenerators generator = new MatcherGenerators(getClass());
+        generator.getTypes().registerTypes(BigInteger.class);
+
+        Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+        assertThat(result.getStatements()).isEmpty();
+        assertThat(result.getValue()).isEqualTo("arrayContaining(BigInteger.class).truncated()");
+    }
+
 }
@@ -3,6 +3,7 @@ package net.amygdalum.testrecorder.deserializers.matcher;
 import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigInteger;
@@ -58,5 +59,16 @@ public class DefaultMapAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("noEntries(Object.class, Object.class)");
 	}
 
+	@Test
+	public void testTryDeserializeTruncatedMap() throws Exception {
+		SerializedMap value = new SerializedMap(parameterized(LinkedHashMap.class, null, Integer.class, Integer.class)).withResult(parameterized(Map.class, null, Integer.class, Integer.class));
+		value.put(literal(8), literal(15));
+		value.put(remainder(Integer.class), remainder(Integer.class));
+		MatcherGenerators generator = new MatcherGenerators(getClass());
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+		
+		assertThat(result.getStatements()).isEmpty();
+		assertThat(result.getValue()).isEqualTo("containsEntries(Integer.class, Integer.class).entry(8, 15).truncated()");
+	}
 
 }
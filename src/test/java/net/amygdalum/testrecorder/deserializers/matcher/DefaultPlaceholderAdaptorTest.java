@@ -0,0 +1,58 @@
+package net.amygdalum.testrecorder.deserializers.matcher;
+
+import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.deserializers.Computation;
+import net.amygdalum.testrecorder.util.testobjects.Complex;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+
+public class DefaultPlaceholderAdaptorTest {
+
+	private DefaultPlaceholderAdaptor adaptor;
+
+	@BeforeEach
+	public void before() throws Exception {
+		adaptor = new DefaultPlaceholderAdaptor();
+	}
+
+	@Test
+	public void testParentNull() throws Exception {
+		assertThat(adaptor.parent()).isNull();
+	}
+
+	@Test
+	public void testMatchesAny() throws Exception {
+		assertThat(adaptor.matches(Object.class)).isTrue();
+		assertThat(adaptor.matches(new Object() {}.getClass())).isTrue();
+	}
+
+	@Test
+	public void testTryDeserialize() throws Exception {
+		SerializedPlaceholder value = new SerializedPlaceholder(Simple.class);
+		MatcherGenerators generator = new MatcherGenerators(getClass());
+
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+
+		assertThat(result.getStatements()).isEmpty();
+		assertThat(result.getValue()).isEqualTo("anything()");
+	}
+
+	@Test
+	public void testPlaceholderFieldsAreNotChecked() throws Exception {
+		SerializedObject value = new SerializedObject(Complex.class)
+			.withFields(new SerializedField(Complex.class, "simple", Simple.class, new SerializedPlaceholder(Simple.class)));
+		MatcherGenerators generator = new MatcherGenerators(getClass());
+
+		Computation result = value.accept(generator, NULL);
+
+		assertThat(result.getValue()).doesNotContain("simple");
+	}
+
+}
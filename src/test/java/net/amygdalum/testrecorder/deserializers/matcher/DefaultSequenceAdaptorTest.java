@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.deserializers.matcher;
 
 import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigInteger;
@@ -58,4 +59,18 @@ public class DefaultSequenceAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("empty()");
 	}
 
+	@Test
+	public void testTryDeserializeTruncatedList() throws Exception {
+		SerializedList value = new SerializedList(BigInteger[].class);
+		value.add(new SerializedImmutable<>(BigInteger.class).withValue(BigInteger.valueOf(0)));
+		value.add(new SerializedImmutable<>(BigInteger.class).withValue(BigInteger.valueOf(8)));
+		value.add(remainder(BigInteger.class));
+		MatcherGenerators generator = new MatcherGenerators(getClass());
+		
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+		
+		assertThat(result.getStatements()).isEmpty();
+		assertThat(result.getValue()).isEqualTo("containsInOrder(Object.class, equalTo(new BigInteger(\"0\")), equalTo(new BigInteger(\"8\"))).truncated()");
+	}
+
 }
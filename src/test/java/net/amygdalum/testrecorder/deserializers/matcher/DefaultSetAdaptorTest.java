@@ -1,6 +1,7 @@
 package net.amygdalum.testrecorder.deserializers.matcher;
 
 import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContext.NULL;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigInteger;
@@ -58,4 +59,17 @@ public class DefaultSetAdaptorTest {
 		assertThat(result.getValue()).isEqualTo("empty()");
 	}
 
+	@Test
+	public void testTryDeserializeTruncatedSet() throws Exception {
+		SerializedSet value = new SerializedSet(BigInteger[].class);
+		value.add(new SerializedImmutable<>(BigInteger.class).withValue(BigInteger.valueOf(0)));
+		value.add(remainder(BigInteger.class));
+		MatcherGenerators generator = new MatcherGenerators(getClass());
+		
+		Computation result = adaptor.tryDeserialize(value, generator, NULL);
+		
+		assertThat(result.getStatements()).isEmpty();
+		assertThat(result.getValue()).isEqualTo("contains(Object.class, equalTo(new BigInteger(\"0\"))).truncated()");
+	}
+
 }
@@ -0,0 +1,28 @@
+package net.amygdalum.testrecorder.ioscenarios;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class UnrecordedNativeInput {
+
+	public UnrecordedNativeInput() {
+	}
+
+	public int skipAndRead(byte[] bytes, int skip) throws IOException {
+		File file = File.createTempFile("UnrecordedNativeInput", "tmp");
+		try {
+			try (FileOutputStream out = new FileOutputStream(file)) {
+				out.write(bytes);
+			}
+			try (FileInputStream in = new FileInputStream(file)) {
+				in.skip(skip);
+				return in.read();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+}
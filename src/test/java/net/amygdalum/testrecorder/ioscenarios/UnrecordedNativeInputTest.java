@@ -0,0 +1,62 @@
+package net.amygdalum.testrecorder.ioscenarios;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import net.amygdalum.testrecorder.DefaultTestRecorderAgentConfig;
+import net.amygdalum.testrecorder.SnapshotManager;
+import net.amygdalum.testrecorder.bridge.BridgedSnapshotManager;
+import net.amygdalum.testrecorder.profile.Methods;
+import net.amygdalum.testrecorder.util.Instrumented;
+import net.amygdalum.testrecorder.util.TestRecorderAgentExtension;
+
+@ExtendWith(TestRecorderAgentExtension.class)
+@Instrumented(classes = { "net.amygdalum.testrecorder.ioscenarios.UnrecordedNativeInput", "java.io.FileInputStream" }, config = UnrecordedNativeInputTest.NativeSkipConfig.class)
+public class UnrecordedNativeInputTest {
+
+	@Test
+	public void testUnrecordedThreadCallsNativeInputOnceWithoutManager() throws Exception {
+		SnapshotManager manager = SnapshotManager.MANAGER;
+		SnapshotManager spiedManager = spy(manager);
+		SnapshotManager.MANAGER = spiedManager;
+		BridgedSnapshotManager.MANAGER = spiedManager;
+		try {
+			UnrecordedNativeInput input = new UnrecordedNativeInput();
+
+			int result = input.skipAndRead(new byte[] { 41, 42, 43 }, 1);
+
+			assertThat(result).isEqualTo(42);
+			verify(spiedManager, times(1)).isRecording();
+			verify(spiedManager, never()).inputVariables(anyInt(), any(), anyString(), any(Type.class), any(Type[].class));
+			verify(spiedManager, never()).inputArguments(anyInt(), any(Object[].class));
+			verify(spiedManager, never()).inputResult(anyInt(), any());
+			verify(spiedManager, never()).ioCompleted();
+		} finally {
+			SnapshotManager.MANAGER = manager;
+			BridgedSnapshotManager.MANAGER = manager;
+		}
+	}
+
+	public static class NativeSkipConfig extends DefaultTestRecorderAgentConfig {
+
+		@Override
+		public List<Methods> getInputs() {
+			return asList(Methods.byDescription("java/io/FileInputStream", "skip0", "(J)J"));
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package net.amygdalum.testrecorder.journal;
+
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.MethodSignature;
+import net.amygdalum.testrecorder.TestGenerator;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedObject;
+
+@EnableRuleMigrationSupport
+public class OfflineTestGeneratorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path journal;
+
+	@BeforeEach
+	public void before() throws Exception {
+		journal = folder.getRoot().toPath().resolve("journal");
+		SnapshotJournal snapshots = new SnapshotJournal().withJournalTo(journal).withSegmentSize(1024);
+		for (int i = 0; i < 20; i++) {
+			snapshots.accept(beanSnapshot(i, "bean" + i));
+			snapshots.accept(simpleSnapshot(i, "simple" + i));
+		}
+		snapshots.close();
+	}
+
+	@Test
+	public void testGenerate() throws Exception {
+		TestGenerator sequential = new TestGenerator();
+		new SnapshotJournalReader(journal, getClass().getClassLoader()).read(sequential::accept);
+		sequential.await();
+
+		OfflineTestGenerator offline = new OfflineTestGenerator(new TestGenerator()).withThreads(4);
+		offline.generate(new SnapshotJournalReader(journal, getClass().getClassLoader()));
+
+		assertThat(offline.getGenerator().testsFor(Bean.class))
+			.hasSize(20)
+			.containsExactlyElementsOf(sequential.testsFor(Bean.class));
+		assertThat(offline.getGenerator().testsFor(Simple.class))
+			.hasSize(20)
+			.containsExactlyElementsOf(sequential.testsFor(Simple.class));
+	}
+
+	@Test
+	public void testGenerateTo() throws Exception {
+		Path tests = folder.getRoot().toPath().resolve("tests");
+
+		new OfflineTestGenerator(new TestGenerator()).withThreads(2)
+			.generateTo(new SnapshotJournalReader(journal, getClass().getClassLoader()), tests);
+
+		Path pkg = tests.resolve("net/amygdalum/testrecorder/util/testobjects");
+		assertThat(new String(Files.readAllBytes(pkg.resolve("BeanRecordedTest.java")), StandardCharsets.UTF_8))
+			.contains("testSetAttribute0", "testSetAttribute19", "\"bean19\"");
+		assertThat(new String(Files.readAllBytes(pkg.resolve("SimpleRecordedTest.java")), StandardCharsets.UTF_8))
+			.contains("testGetStr0", "testGetStr19", "\"simple19\"");
+	}
+
+	private ContextSnapshot beanSnapshot(long time, String value) {
+		ContextSnapshot snapshot = new ContextSnapshot(time, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[][] { new Annotation[0] }, new Type[] { String.class }));
+		snapshot.setSetupThis(new SerializedObject(Bean.class).withFields(new SerializedField(Bean.class, "attribute", String.class, literal("none"))));
+		snapshot.setSetupArgs(literal(value));
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(new SerializedObject(Bean.class).withFields(new SerializedField(Bean.class, "attribute", String.class, literal(value))));
+		snapshot.setExpectArgs(literal(value));
+		snapshot.setExpectGlobals(new SerializedField[0]);
+		return snapshot;
+	}
+
+	private ContextSnapshot simpleSnapshot(long time, String value) {
+		ContextSnapshot snapshot = new ContextSnapshot(time, "key", new MethodSignature(Simple.class, new Annotation[0], String.class, "getStr", new Annotation[0][0], new Type[0]));
+		SerializedObject self = new SerializedObject(Simple.class).withFields(new SerializedField(Simple.class, "str", String.class, literal(value)));
+		snapshot.setSetupThis(self);
+		snapshot.setSetupArgs();
+		snapshot.setSetupGlobals(new SerializedField[0]);
+		snapshot.setExpectThis(self);
+		snapshot.setExpectArgs();
+		snapshot.setExpectResult(literal(value));
+		snapshot.setExpectGlobals(new SerializedField[0]);
+		return snapshot;
+	}
+
+}
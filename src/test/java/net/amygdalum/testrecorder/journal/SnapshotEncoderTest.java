@@ -0,0 +1,264 @@
+package net.amygdalum.testrecorder.journal;
+
+import static net.amygdalum.testrecorder.util.Types.parameterized;
+import static net.amygdalum.testrecorder.util.Types.wildcardExtends;
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedNull.nullInstance;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.remainder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.MethodSignature;
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+import net.amygdalum.testrecorder.util.testobjects.Generic;
+import net.amygdalum.testrecorder.util.testobjects.MyAnnotation;
+import net.amygdalum.testrecorder.util.testobjects.PublicEnum;
+import net.amygdalum.testrecorder.values.SerializedArray;
+import net.amygdalum.testrecorder.values.SerializedEnum;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedImmutable;
+import net.amygdalum.testrecorder.values.SerializedInput;
+import net.amygdalum.testrecorder.values.SerializedList;
+import net.amygdalum.testrecorder.values.SerializedMap;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedOutput;
+import net.amygdalum.testrecorder.values.SerializedPlaceholder;
+
+public class SnapshotEncoderTest {
+
+	@Test
+	public void testSignature() throws Exception {
+		ContextSnapshot snapshot = new ContextSnapshot(42l, "key", new MethodSignature(Recorded.class, new Annotation[0], String.class, "method", new Annotation[][] { new Annotation[0] }, new Type[] { String.class }));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		assertThat(decoded.getTime()).isEqualTo(42l);
+		assertThat(decoded.getKey()).isEqualTo("key");
+		assertThat(decoded.getDeclaringClass()).isEqualTo(Recorded.class);
+		assertThat(decoded.getResultType()).isEqualTo(String.class);
+		assertThat(decoded.getMethodName()).isEqualTo("method");
+		assertThat(decoded.getArgumentTypes()).containsExactly(String.class);
+		assertThat(decoded.getMethodAnnotation(MyAnnotation.class)).isPresent();
+		assertThat(decoded.getArgumentAnnotations()[0]).hasSize(1);
+	}
+
+	@Test
+	public void testSignatureOfUnknownMethod() throws Exception {
+		ContextSnapshot snapshot = new ContextSnapshot(42l, "key", new MethodSignature(Recorded.class, new Annotation[0], void.class, "unknown", new Annotation[][] { new Annotation[0] }, new Type[] { int.class }));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		assertThat(decoded.getResultType()).isEqualTo(void.class);
+		assertThat(decoded.getArgumentTypes()).containsExactly(int.class);
+		assertThat(decoded.getResultAnnotation()).isEmpty();
+		assertThat(decoded.getArgumentAnnotations()[0]).isEmpty();
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		SerializedObject bean = new SerializedObject(Bean.class).withFields(new SerializedField(Bean.class, "attribute", String.class, literal("value")));
+		SerializedArray ints = new SerializedArray(int[].class).withPrimitiveArray(new int[] { 1, 2 });
+		SerializedMap map = new SerializedMap(parameterized(Map.class, null, String.class, Bean.class));
+		map.put(literal("bean"), bean);
+		snapshot.setSetupThis(bean);
+		snapshot.setSetupArgs(ints, map, nullInstance(String.class), literal(int.class, 3), new SerializedEnum(PublicEnum.class).withName("VALUE1"),
+			new SerializedImmutable<>(BigDecimal.class).withValue(new BigDecimal("1.5")));
+		snapshot.setSetupGlobals(new SerializedField(Recorded.class, "global", long.class, literal(long.class, 4l)));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		SerializedValue[] args = decoded.getSetupArgs();
+		assertThat(((SerializedObject) decoded.getSetupThis()).getFields()).containsExactlyElementsOf(bean.getFields());
+		assertThat(((SerializedArray) args[0]).getPrimitiveArray()).isEqualTo(new int[] { 1, 2 });
+		assertThat(args[1].getType()).isEqualTo(map.getType());
+		assertThat(((SerializedMap) args[1]).get(literal("bean"))).isSameAs(decoded.getSetupThis());
+		assertThat(args[2]).isSameAs(nullInstance(String.class));
+		assertThat(args[3]).isEqualTo(literal(int.class, 3));
+		assertThat(((SerializedEnum) args[4]).getName()).isEqualTo("VALUE1");
+		assertThat(((SerializedImmutable<?>) args[5]).getValue()).isEqualTo(new BigDecimal("1.5"));
+		assertThat(decoded.getSetupGlobals()).containsExactly(new SerializedField(Recorded.class, "global", long.class, literal(long.class, 4l)));
+		assertThat(decoded.getExpectThis()).isNull();
+		assertThat(decoded.getExpectArgs()).isNull();
+	}
+
+	@Test
+	public void testPrimitiveArrays() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		byte[] bytes = new byte[4096];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		snapshot.setSetupArgs(
+			new SerializedArray(byte[].class).withPrimitiveArray(bytes),
+			new SerializedArray(boolean[].class).withPrimitiveArray(new boolean[] { true, false }),
+			new SerializedArray(char[].class).withPrimitiveArray(new char[] { 'a', '\ud800' }),
+			new SerializedArray(short[].class).withPrimitiveArray(new short[] { 1, -1 }),
+			new SerializedArray(long[].class).withPrimitiveArray(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }),
+			new SerializedArray(float[].class).withPrimitiveArray(new float[] { 1.5f, Float.NaN }),
+			new SerializedArray(double[].class).withPrimitiveArray(new double[] { -0.0, Double.MAX_VALUE }));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		SerializedValue[] args = decoded.getSetupArgs();
+		assertThat(((SerializedArray) args[0]).getPrimitiveArray()).isEqualTo(bytes);
+		assertThat(((SerializedArray) args[1]).getPrimitiveArray()).isEqualTo(new boolean[] { true, false });
+		assertThat(((SerializedArray) args[2]).getPrimitiveArray()).isEqualTo(new char[] { 'a', '\ud800' });
+		assertThat(((SerializedArray) args[3]).getPrimitiveArray()).isEqualTo(new short[] { 1, -1 });
+		assertThat(((SerializedArray) args[4]).getPrimitiveArray()).isEqualTo(new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+		assertThat(((SerializedArray) args[5]).getPrimitiveArray()).isEqualTo(new float[] { 1.5f, Float.NaN });
+		assertThat(((SerializedArray) args[6]).getPrimitiveArray()).isEqualTo(new double[] { -0.0, Double.MAX_VALUE });
+		assertThat(encode(snapshot).length).isLessThan(bytes.length + 1024);
+	}
+
+	@Test
+	public void testStringsWithUnpairedSurrogates() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		snapshot.setSetupArgs(literal("a\ud800b"), literal("\udc00"), literal("\ud83d\ude00 \u00e4"));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		assertThat(decoded.getSetupArgs()).containsExactly(literal("a\ud800b"), literal("\udc00"), literal("\ud83d\ude00 \u00e4"));
+	}
+
+	@Test
+	public void testPlaceholders() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		SerializedList list = new SerializedList(List.class);
+		list.add(new SerializedPlaceholder(String.class));
+		list.add(remainder(String.class));
+		snapshot.setSetupArgs(list);
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		SerializedList decodedList = (SerializedList) decoded.getSetupArgs()[0];
+		assertThat(decodedList).hasSize(2);
+		assertThat(decodedList.get(0)).isInstanceOf(SerializedPlaceholder.class);
+		assertThat(isRemainder(decodedList.get(0))).isFalse();
+		assertThat(isRemainder(decodedList.get(1))).isTrue();
+	}
+
+	@Test
+	public void testCyclicValues() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		SerializedList list = new SerializedList(List.class);
+		SerializedObject object = new SerializedObject(Bean.class);
+		object.setId(7);
+		object.addField(new SerializedField(Bean.class, "attribute", List.class, list));
+		list.add(object);
+		list.add(list);
+		snapshot.setExpectThis(object);
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		SerializedObject decodedObject = (SerializedObject) decoded.getExpectThis();
+		SerializedList decodedList = (SerializedList) decodedObject.getField("attribute").get().getValue();
+		assertThat(decodedObject.getId()).isEqualTo(7);
+		assertThat(decodedList).containsExactly(decodedObject, decodedList);
+	}
+
+	@Test
+	public void testGenericTypes() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		Type v = Generic.class.getField("v").getGenericType();
+		Type vx = Generic.class.getField("vx").getGenericType();
+		Type vs = Generic.class.getField("vs").getGenericType();
+		snapshot.setSetupArgs(new SerializedObject(Generic.class).withFields(
+			new SerializedField(Generic.class, "v", v, nullInstance(v)),
+			new SerializedField(Generic.class, "vx", vx, nullInstance(vx)),
+			new SerializedField(Generic.class, "vs", vs, nullInstance(vs))),
+			nullInstance(parameterized(List.class, null, wildcardExtends(Bean.class))));
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		List<SerializedField> fields = ((SerializedObject) decoded.getSetupArgs()[0]).getFields();
+		assertThat(fields.get(0).getType()).isEqualTo(v);
+		assertThat(fields.get(1).getType().getTypeName()).isEqualTo(vx.getTypeName());
+		assertThat(fields.get(2).getType().getTypeName()).isEqualTo(vs.getTypeName());
+		assertThat(decoded.getSetupArgs()[1].getType().getTypeName()).isEqualTo("java.util.List<? extends net.amygdalum.testrecorder.util.testobjects.Bean>");
+	}
+
+	@Test
+	public void testInteractions() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		StackTraceElement[] call = new StackTraceElement[] { new StackTraceElement("Callee", "read", "Callee.java", 12), new StackTraceElement("Caller", "call", null, -1) };
+		List<SerializedInput> input = new ArrayList<>();
+		input.add(new SerializedInput(1, call, Bean.class, "getAttribute", String.class, new Type[0]).updateResult(literal("input")).updateArguments());
+		snapshot.setInput(input);
+		List<SerializedOutput> output = new ArrayList<>();
+		output.add(new SerializedOutput(2, call, Bean.class, "setAttribute", void.class, new Type[] { String.class }).updateResult(null).updateArguments(literal("output")));
+		snapshot.setOutput(output);
+
+		ContextSnapshot decoded = roundtrip(snapshot);
+
+		assertThat(decoded.getSetupInput()).containsExactlyElementsOf(input);
+		assertThat(decoded.getExpectOutput()).containsExactlyElementsOf(output);
+		assertThat(decoded.getSetupInput().get(0).getId()).isEqualTo(1);
+		assertThat(decoded.getSetupInput().get(0).getCallerLine()).isEqualTo(-1);
+	}
+
+	@Test
+	public void testUnresolvableClass() throws Exception {
+		ContextSnapshot snapshot = snapshot();
+		snapshot.setSetupThis(new SerializedObject(Bean.class));
+		byte[] bytes = encode(snapshot);
+
+		ClassLoader loader = new ClassLoader(null) {
+			@Override
+			protected Class<?> findClass(String name) throws ClassNotFoundException {
+				if (name.equals(Bean.class.getName())) {
+					throw new ClassNotFoundException(name);
+				}
+				return SnapshotEncoderTest.class.getClassLoader().loadClass(name);
+			}
+		};
+
+		assertThatThrownBy(() -> new SnapshotDecoder(new DataInputStream(new ByteArrayInputStream(bytes)), loader).read())
+			.isInstanceOf(IOException.class)
+			.hasMessageContaining(Bean.class.getName());
+	}
+
+	private ContextSnapshot snapshot() {
+		return new ContextSnapshot(0l, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[][] { new Annotation[0] }, new Type[] { String.class }));
+	}
+
+	private ContextSnapshot roundtrip(ContextSnapshot snapshot) throws IOException {
+		byte[] bytes = encode(snapshot);
+		return new SnapshotDecoder(new DataInputStream(new ByteArrayInputStream(bytes)), SnapshotEncoderTest.class.getClassLoader()).read();
+	}
+
+	private byte[] encode(ContextSnapshot snapshot) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new SnapshotEncoder(new DataOutputStream(bytes)).write(snapshot);
+		return bytes.toByteArray();
+	}
+
+	public static class Recorded {
+
+		public static long global;
+
+		@MyAnnotation
+		public String method(@MyAnnotation String arg) {
+			return arg;
+		}
+
+	}
+
+}
@@ -0,0 +1,165 @@
+package net.amygdalum.testrecorder.journal;
+
+import static java.util.stream.Collectors.toList;
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.RandomAccessFile;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.testrecorder.ContextSnapshot;
+import net.amygdalum.testrecorder.MethodSignature;
+import net.amygdalum.testrecorder.util.testobjects.Bean;
+
+@EnableRuleMigrationSupport
+public class SnapshotJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path path;
+
+	@BeforeEach
+	public void before() throws Exception {
+		path = folder.getRoot().toPath().resolve("journal");
+	}
+
+	@Test
+	public void testAcceptAndRead() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+
+		journal.accept(snapshot(1, "a"));
+		journal.accept(snapshot(2, "b"));
+		journal.close();
+
+		assertThat(SnapshotJournalReader.segments(path)).hasSize(1);
+		assertThat(read()).containsExactly("1:a", "2:b");
+	}
+
+	@Test
+	public void testAcceptSkipsInvalidSnapshots() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+		ContextSnapshot invalid = snapshot(1, "a");
+		invalid.invalidate();
+
+		journal.accept(invalid);
+		journal.accept(snapshot(2, "b"));
+		journal.close();
+
+		assertThat(read()).containsExactly("2:b");
+	}
+
+	@Test
+	public void testRotatesSegments() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path).withSegmentSize(64);
+
+		for (int i = 0; i < 5; i++) {
+			journal.accept(snapshot(i, "value"));
+		}
+		journal.close();
+
+		List<Path> segments = SnapshotJournalReader.segments(path);
+		assertThat(segments).hasSize(5);
+		assertThat(segments.stream().map(segment -> segment.getFileName().toString()).collect(toList()))
+			.containsExactly("snapshots-00001.trj", "snapshots-00002.trj", "snapshots-00003.trj", "snapshots-00004.trj", "snapshots-00005.trj");
+		assertThat(read()).containsExactly("0:value", "1:value", "2:value", "3:value", "4:value");
+	}
+
+	@Test
+	public void testAppendsSegmentsOfFormerJournals() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+		journal.accept(snapshot(1, "a"));
+		journal.close();
+
+		SnapshotJournal next = new SnapshotJournal().withJournalTo(path);
+		next.accept(snapshot(2, "b"));
+		next.close();
+
+		assertThat(SnapshotJournalReader.segments(path)).hasSize(2);
+		assertThat(read()).containsExactly("1:a", "2:b");
+	}
+
+	@Test
+	public void testDoesNotOverwriteSegmentsOfConcurrentJournals() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+		journal.accept(snapshot(1, "a"));
+		journal.close();
+
+		SnapshotJournal concurrent = new SnapshotJournal().withJournalTo(path);
+		concurrent.accept(snapshot(2, "b"));
+		concurrent.close();
+
+		journal.accept(snapshot(3, "c"));
+		journal.close();
+
+		assertThat(SnapshotJournalReader.segments(path)).hasSize(3);
+		assertThat(read()).containsExactly("1:a", "2:b", "3:c");
+	}
+
+	@Test
+	public void testWritesQueuedSnapshotsOnClose() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path).withQueueSize(1);
+		for (int i = 0; i < 100; i++) {
+			journal.accept(snapshot(i, "value"));
+		}
+		journal.close();
+
+		assertThat(read()).hasSize(100);
+	}
+
+	@Test
+	public void testReadSkipsCorruptSnapshots() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+		journal.accept(snapshot(1, "a"));
+		journal.accept(snapshot(2, "b"));
+		journal.close();
+		Path segment = SnapshotJournalReader.segments(path).get(0);
+
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.seek(JournalFormat.HEADER_SIZE + JournalFormat.RECORD_HEADER_SIZE + 1);
+			file.write(0xff);
+		}
+
+		assertThat(read()).containsExactly("2:b");
+	}
+
+	@Test
+	public void testReadSkipsTruncatedEnd() throws Exception {
+		SnapshotJournal journal = new SnapshotJournal().withJournalTo(path);
+		journal.accept(snapshot(1, "a"));
+		journal.accept(snapshot(2, "b"));
+		journal.close();
+		Path segment = SnapshotJournalReader.segments(path).get(0);
+
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.setLength(Files.size(segment) - 3);
+		}
+
+		assertThat(read()).containsExactly("1:a");
+	}
+
+	private List<String> read() throws Exception {
+		List<String> snapshots = new ArrayList<>();
+		new SnapshotJournalReader(path, SnapshotJournalTest.class.getClassLoader())
+			.read(snapshot -> snapshots.add(snapshot.getTime() + ":" + snapshot.getSetupArgs()[0]));
+		return snapshots;
+	}
+
+	private ContextSnapshot snapshot(long time, String arg) {
+		ContextSnapshot snapshot = new ContextSnapshot(time, "key", new MethodSignature(Bean.class, new Annotation[0], void.class, "setAttribute", new Annotation[][] { new Annotation[0] }, new Type[] { String.class }));
+		snapshot.setSetupArgs(literal(arg));
+		return snapshot;
+	}
+
+}
@@ -353,17 +353,16 @@ public class FakeIOTest {
 	@Test
 	public void testCallFakeNonRecording() throws Exception {
 		StackTraceElement[] stackTraceContainingRecordingClass = new StackTraceElement[] { new StackTraceElement("net.amygdalum.testrecorder.SnapshotManager", "method", "file", 0) };
-		
-		Object result = FakeIO.callFake("name", stackTraceContainingRecordingClass, new Object(), "methodName", "methodDesc");
-		
+		FakeIO fake = FakeIO.fake(Bean.class);
+
+		Object result = FakeIO.callFake(fake, stackTraceContainingRecordingClass, new Object(), "methodName", "methodDesc");
+
 		assertThat(result).isSameAs(FakeIO.NO_RESULT);
 	}
 
 	@Test
 	public void testCallFakeNotFaked() throws Exception {
-		StackTraceElement[] stackTrace = new StackTraceElement[] { };
-		
-		Object result = FakeIO.callFake("name", stackTrace, new Object(), "methodName", "methodDesc");
+		Object result = FakeIO.callFake("name", new Object(), "methodName", "methodDesc");
 		
 		assertThat(result).isSameAs(FakeIO.NO_RESULT);
 	}
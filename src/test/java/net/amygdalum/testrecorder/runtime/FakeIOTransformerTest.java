@@ -23,16 +23,12 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"primitiveResultNoArgs\"",
 			"LDC \"()Z\"",
 			"LDC 0",
 			"ANEWARRAY java/lang/Object",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -52,16 +48,12 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"objectResultNoArgs\"",
 			"LDC \"()Lnet/amygdalum/testrecorder/ResultObject;\"",
 			"LDC 0",
 			"ANEWARRAY java/lang/Object",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -80,10 +72,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultPrimitiveArg\"",
 			"LDC \"(I)V\"",
@@ -94,7 +82,7 @@ public class FakeIOTransformerTest {
 			"ILOAD 1",
 			"INVOKESTATIC java/lang/Integer.valueOf (I)Ljava/lang/Integer;",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -113,10 +101,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultArrayArg\"",
 			"LDC \"([C)V\"",
@@ -126,7 +110,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -145,10 +129,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultObjectArrayArg\"",
 			"LDC \"([Ljava/lang/String;)V\"",
@@ -158,7 +138,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -177,10 +157,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultObjectArg\"",
 			"LDC \"(Lnet/amygdalum/testrecorder/ArgumentObject;)V\"",
@@ -190,7 +166,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -209,10 +185,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"objectResultMixedArgs\"",
 			"LDC \"(DLnet/amygdalum/testrecorder/ArgumentObject;)Lnet/amygdalum/testrecorder/ResultObject;\"",
@@ -227,7 +199,7 @@ public class FakeIOTransformerTest {
 			"LDC 1",
 			"ALOAD 3",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -244,10 +216,6 @@ public class FakeIOTransformerTest {
 
 		assertThat(ByteCode.toString(insnlist)).containsExactly(
 			"LDC \"net.amygdalum.testrecorder.Example\"",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ACONST_NULL",
 			"LDC \"staticPrimitiveResultMixedArgs\"",
 			"LDC \"(Lnet/amygdalum/testrecorder/ArgumentObject;C)J\"",
@@ -262,7 +230,7 @@ public class FakeIOTransformerTest {
 			"ILOAD 1",
 			"INVOKESTATIC java/lang/Character.valueOf (C)Ljava/lang/Character;",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/runtime/FakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/runtime/FakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -282,16 +250,12 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"primitiveResultNoArgs\"",
 			"LDC \"()Z\"",
 			"LDC 0",
 			"ANEWARRAY java/lang/Object",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -311,16 +275,12 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"objectResultNoArgs\"",
 			"LDC \"()Lnet/amygdalum/testrecorder/ResultObject;\"",
 			"LDC 0",
 			"ANEWARRAY java/lang/Object",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -339,10 +299,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultPrimitiveArg\"",
 			"LDC \"(I)V\"",
@@ -353,7 +309,7 @@ public class FakeIOTransformerTest {
 			"ILOAD 1",
 			"INVOKESTATIC java/lang/Integer.valueOf (I)Ljava/lang/Integer;",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -372,10 +328,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultArrayArg\"",
 			"LDC \"([C)V\"",
@@ -385,7 +337,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -404,10 +356,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultObjectArrayArg\"",
 			"LDC \"([Ljava/lang/String;)V\"",
@@ -417,7 +365,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -436,10 +384,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"noResultObjectArg\"",
 			"LDC \"(Lnet/amygdalum/testrecorder/ArgumentObject;)V\"",
@@ -449,7 +393,7 @@ public class FakeIOTransformerTest {
 			"LDC 0",
 			"ALOAD 1",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -468,10 +412,6 @@ public class FakeIOTransformerTest {
 			"ALOAD 0",
 			"INVOKEVIRTUAL java/lang/Object.getClass ()Ljava/lang/Class;",
 			"INVOKEVIRTUAL java/lang/Class.getName ()Ljava/lang/String;",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ALOAD 0",
 			"LDC \"objectResultMixedArgs\"",
 			"LDC \"(DLnet/amygdalum/testrecorder/ArgumentObject;)Lnet/amygdalum/testrecorder/ResultObject;\"",
@@ -486,7 +426,7 @@ public class FakeIOTransformerTest {
 			"LDC 1",
 			"ALOAD 3",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
@@ -504,10 +444,6 @@ public class FakeIOTransformerTest {
 		
 		assertThat(ByteCode.toString(insnlist)).containsExactly(
 			"LDC \"net.amygdalum.testrecorder.Example\"",
-			"NEW java/lang/Throwable",
-			"DUP",
-			"INVOKESPECIAL java/lang/Throwable.<init> ()V",
-			"INVOKEVIRTUAL java/lang/Throwable.getStackTrace ()[Ljava/lang/StackTraceElement;",
 			"ACONST_NULL",
 			"LDC \"staticPrimitiveResultMixedArgs\"",
 			"LDC \"(Lnet/amygdalum/testrecorder/ArgumentObject;C)J\"",
@@ -522,7 +458,7 @@ public class FakeIOTransformerTest {
 			"ILOAD 1",
 			"INVOKESTATIC java/lang/Character.valueOf (C)Ljava/lang/Character;",
 			"AASTORE",
-			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;[Ljava/lang/StackTraceElement;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
+			"INVOKESTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.callFake (Ljava/lang/String;Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;",
 			"DUP",
 			"GETSTATIC net/amygdalum/testrecorder/bridge/BridgedFakeIO.NO_RESULT : Ljava/lang/Object;",
 			"IF_ACMPEQ L0",
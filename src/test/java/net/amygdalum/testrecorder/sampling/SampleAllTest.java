@@ -0,0 +1,18 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleAllTest {
+
+	@Test
+	public void testSample() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.all();
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("other()V")).isTrue();
+	}
+
+}
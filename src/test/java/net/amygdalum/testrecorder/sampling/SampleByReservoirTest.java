@@ -0,0 +1,43 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleByReservoirTest {
+
+	@Test
+	public void testSampleFirstWindow() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.byReservoir(2, 60_000);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("other()V")).isTrue();
+	}
+
+	@Test
+	public void testSampleBoundedPerWindow() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.byReservoir(5, 20);
+
+		IntStream.range(0, 1000).forEach(i -> policy.sample("method()V"));
+		Thread.sleep(25);
+
+		assertThat(IntStream.range(0, 1000).filter(i -> policy.sample("method()V")).count()).isLessThanOrEqualTo(5);
+	}
+
+	@Test
+	public void testSampleNextWindow() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.byReservoir(2, 20);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		Thread.sleep(25);
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+	}
+
+}
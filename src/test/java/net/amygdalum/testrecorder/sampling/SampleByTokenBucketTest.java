@@ -0,0 +1,28 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleByTokenBucketTest {
+
+	@Test
+	public void testSampleBurst() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.byTokenBucket(0.001, 2);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("other()V")).isTrue();
+	}
+
+	@Test
+	public void testSampleRefill() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.byTokenBucket(100, 1);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		Thread.sleep(50);
+		assertThat(policy.sample("method()V")).isTrue();
+	}
+
+}
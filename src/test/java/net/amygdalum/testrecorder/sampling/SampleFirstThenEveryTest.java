@@ -0,0 +1,33 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleFirstThenEveryTest {
+
+	@Test
+	public void testSample() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.firstThenEvery(2, 3);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("method()V")).isTrue();
+	}
+
+	@Test
+	public void testSamplePerSignature() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.firstThenEvery(1, 10);
+
+		assertThat(policy.sample("method()V")).isTrue();
+		assertThat(policy.sample("method()V")).isFalse();
+		assertThat(policy.sample("other()V")).isTrue();
+		assertThat(policy.sample("other()V")).isFalse();
+	}
+
+}
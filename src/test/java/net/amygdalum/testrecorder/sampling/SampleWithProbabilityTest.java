@@ -0,0 +1,32 @@
+package net.amygdalum.testrecorder.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleWithProbabilityTest {
+
+	@Test
+	public void testSampleNever() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.withProbability(0.0);
+
+		assertThat(IntStream.range(0, 100).filter(i -> policy.sample("method()V")).count()).isEqualTo(0);
+	}
+
+	@Test
+	public void testSampleAlways() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.withProbability(1.0);
+
+		assertThat(IntStream.range(0, 100).filter(i -> policy.sample("method()V")).count()).isEqualTo(100);
+	}
+
+	@Test
+	public void testSampleSometimes() throws Exception {
+		SamplingPolicy policy = SamplingPolicy.withProbability(0.5);
+
+		assertThat(IntStream.range(0, 10000).filter(i -> policy.sample("method()V")).count()).isBetween(4000L, 6000L);
+	}
+
+}
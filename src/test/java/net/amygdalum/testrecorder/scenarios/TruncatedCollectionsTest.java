@@ -0,0 +1,63 @@
+package net.amygdalum.testrecorder.scenarios;
+
+import static net.amygdalum.testrecorder.testing.assertj.TestsRun.testsRun;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import net.amygdalum.testrecorder.DefaultTestRecorderAgentConfig;
+import net.amygdalum.testrecorder.TestGenerator;
+import net.amygdalum.testrecorder.profile.SerializationLimits;
+import net.amygdalum.testrecorder.util.Instrumented;
+import net.amygdalum.testrecorder.util.TestRecorderAgentExtension;
+
+@ExtendWith(TestRecorderAgentExtension.class)
+@Instrumented(classes = { "net.amygdalum.testrecorder.scenarios.CollectionDataTypes" }, config = TruncatedCollectionsTest.LimitedConfig.class)
+public class TruncatedCollectionsTest {
+
+	@Test
+	public void testTruncatedListCompilesAndRuns() throws Exception {
+		List<Integer> list = new ArrayList<>();
+
+		CollectionDataTypes dataTypes = new CollectionDataTypes();
+		for (int i = 1; i <= 6; i++) {
+			dataTypes.lists(list, i);
+		}
+
+		TestGenerator testGenerator = TestGenerator.fromRecorded();
+		assertThat(testGenerator.testsFor(CollectionDataTypes.class)).hasSize(6);
+		assertThat(testGenerator.renderTest(CollectionDataTypes.class).getTestCode()).contains(".truncated()");
+		assertThat(testGenerator.renderTest(CollectionDataTypes.class)).satisfies(testsRun());
+	}
+
+	@Test
+	public void testTruncatedMapCompilesAndRuns() throws Exception {
+		Map<Integer, Integer> map = new LinkedHashMap<>();
+
+		CollectionDataTypes dataTypes = new CollectionDataTypes();
+		for (int i = 1; i <= 6; i++) {
+			dataTypes.maps(map, i);
+		}
+
+		TestGenerator testGenerator = TestGenerator.fromRecorded();
+		assertThat(testGenerator.testsFor(CollectionDataTypes.class)).hasSize(6);
+		assertThat(testGenerator.renderTest(CollectionDataTypes.class).getTestCode()).contains(".truncated()");
+		assertThat(testGenerator.renderTest(CollectionDataTypes.class)).satisfies(testsRun());
+	}
+
+	public static class LimitedConfig extends DefaultTestRecorderAgentConfig {
+
+		@Override
+		public SerializationLimits getSerializationLimits() {
+			return SerializationLimits.unlimited().withMaxCollectionElements(3);
+		}
+
+	}
+
+}
@@ -1,8 +1,11 @@
 package net.amygdalum.testrecorder.serializers;
 
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -50,4 +53,48 @@ public class ArraySerializerTest {
 		assertThat(value.getArray()).containsExactly(foo, bar);
 	}
 
+	@Test
+	public void testPopulatePrimitiveArray() throws Exception {
+		SerializedArray value = serializer.generate(byte[].class, byte[].class);
+		byte[] bytes = new byte[] { 1, 2, 3 };
+
+		serializer.populate(value, bytes);
+		bytes[0] = 0;
+
+		assertThat(value.isPrimitiveArray()).isTrue();
+		assertThat((byte[]) value.getPrimitiveArray()).containsExactly(1, 2, 3);
+		verify(facade).truncates(bytes, 2);
+		verifyNoMoreInteractions(facade);
+	}
+
+	@Test
+	public void testPopulateTruncated() throws Exception {
+		SerializedValue foo = literal("Foo");
+		when(facade.serialize(String.class, "Foo")).thenReturn(foo);
+		String[] strings = new String[] { "Foo", "Bar", "Baz" };
+		when(facade.truncates(strings, 1)).thenReturn(true);
+		SerializedArray value = serializer.generate(String[].class, String[].class);
+
+		serializer.populate(value, strings);
+
+		assertThat(value.getArray()).hasSize(2);
+		assertThat(value.getArray()[0]).isSameAs(foo);
+		assertThat(isRemainder(value.getArray()[1])).isTrue();
+	}
+
+	@Test
+	public void testPopulateTruncatedPrimitiveArray() throws Exception {
+		int[] ints = new int[] { 1, 2, 3 };
+		when(facade.truncates(ints, 2)).thenReturn(true);
+		when(facade.serialize(int.class, 1)).thenReturn(literal(int.class, 1));
+		when(facade.serialize(int.class, 2)).thenReturn(literal(int.class, 2));
+		SerializedArray value = serializer.generate(int[].class, int[].class);
+
+		serializer.populate(value, ints);
+
+		assertThat(value.isPrimitiveArray()).isFalse();
+		assertThat(value.getArrayAsList().subList(0, 2)).containsExactly(literal(int.class, 1), literal(int.class, 2));
+		assertThat(isRemainder(value.getArray()[2])).isTrue();
+	}
+
 }
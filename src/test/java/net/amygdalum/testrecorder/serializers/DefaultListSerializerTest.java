@@ -3,6 +3,7 @@ package net.amygdalum.testrecorder.serializers;
 import static java.util.Arrays.asList;
 import static net.amygdalum.testrecorder.util.Types.parameterized;
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static net.amygdalum.testrecorder.values.SerializedPlaceholder.isRemainder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -10,6 +11,7 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Vector;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -61,4 +63,20 @@ public class DefaultListSerializerTest {
 		assertThat(value).containsExactly(foo, bar);
 	}
 
+	@Test
+	public void testPopulateTruncated() throws Exception {
+		SerializedValue foo = literal("Foo");
+		when(facade.serialize(String.class, "Foo")).thenReturn(foo);
+		List<String> list = asList("Foo", "Bar", "Baz");
+		when(facade.truncates(list, 1)).thenReturn(true);
+		Type linkedListOfString = parameterized(LinkedList.class, null, String.class);
+		SerializedList value = serializer.generate(linkedListOfString, LinkedList.class);
+
+		serializer.populate(value, list);
+
+		assertThat(value).hasSize(2);
+		assertThat(value.get(0)).isSameAs(foo);
+		assertThat(isRemainder(value.get(1))).isTrue();
+	}
+
 }
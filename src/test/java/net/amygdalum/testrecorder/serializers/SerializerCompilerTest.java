@@ -0,0 +1,140 @@
+package net.amygdalum.testrecorder.serializers;
+
+import static net.amygdalum.testrecorder.util.Types.getDeclaredField;
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedReferenceType;
+import net.amygdalum.testrecorder.types.Serializer;
+import net.amygdalum.testrecorder.values.SerializedField;
+import net.amygdalum.testrecorder.values.SerializedObject;
+import net.amygdalum.testrecorder.values.SerializedSet;
+
+public class SerializerCompilerTest {
+
+	private SerializerFacade facade;
+	private SerializerCompiler compiler;
+
+	@BeforeEach
+	public void before() throws Exception {
+		facade = mock(SerializerFacade.class);
+		compiler = new SerializerCompiler();
+	}
+
+	@Test
+	public void testCompile() throws Exception {
+		Serializer<SerializedReferenceType> serializer = compiler.compile(CompiledObject.class, fields(CompiledObject.class, "stringField", "intField"))
+			.newSerializer(facade);
+
+		assertThat(serializer).isInstanceOf(CompiledSerializer.class);
+		assertThat(serializer.getMatchingClasses()).isEmpty();
+	}
+
+	@Test
+	public void testGenerate() throws Exception {
+		Serializer<SerializedReferenceType> serializer = compiler.compile(CompiledObject.class, fields(CompiledObject.class, "stringField", "intField"))
+			.newSerializer(facade);
+
+		SerializedObject value = (SerializedObject) serializer.generate(Object.class, CompiledObject.class);
+
+		assertThat(value.getResultType()).isEqualTo(Object.class);
+		assertThat(value.getType()).isEqualTo(CompiledObject.class);
+	}
+
+	@Test
+	public void testPopulate() throws Exception {
+		when(facade.serialize(eq(String.class), any())).thenAnswer(invocation -> literal((String) invocation.getArguments()[1]));
+		when(facade.serialize(eq(int.class), any())).thenAnswer(invocation -> literal(int.class, invocation.getArguments()[1]));
+		Serializer<SerializedReferenceType> serializer = compiler.compile(SubObject.class, fields(SubObject.class, "subField", "stringField", "intField"))
+			.newSerializer(facade);
+		SerializedObject value = (SerializedObject) serializer.generate(SubObject.class, SubObject.class);
+
+		serializer.populate(value, new SubObject("Foo", 1, "Bar"));
+
+		assertThat(value.getFields()).containsExactly(
+			new SerializedField(SubObject.class, "subField", String.class, literal("Bar")),
+			new SerializedField(CompiledObject.class, "stringField", String.class, literal("Foo")),
+			new SerializedField(CompiledObject.class, "intField", int.class, literal(int.class, 1)));
+	}
+
+	@Test
+	public void testPopulateStaticField() throws Exception {
+		when(facade.serialize(eq(String.class), any())).thenAnswer(invocation -> literal((String) invocation.getArguments()[1]));
+		Serializer<SerializedReferenceType> serializer = compiler.compile(CompiledObject.class, fields(CompiledObject.class, "staticField"))
+			.newSerializer(facade);
+		SerializedObject value = (SerializedObject) serializer.generate(CompiledObject.class, CompiledObject.class);
+
+		serializer.populate(value, new CompiledObject("Foo", 1));
+
+		assertThat(value.getFields()).containsExactly(new SerializedField(CompiledObject.class, "staticField", String.class, literal("static")));
+	}
+
+	@Test
+	public void testPopulateWithoutFields() throws Exception {
+		Serializer<SerializedReferenceType> serializer = compiler.compile(Object.class, Collections.<Field> emptyList())
+			.newSerializer(facade);
+		SerializedObject value = (SerializedObject) serializer.generate(Object.class, Object.class);
+
+		serializer.populate(value, new Object());
+
+		assertThat(value.getFields()).isEmpty();
+	}
+
+	@Test
+	public void testPopulateOtherReferenceTypes() throws Exception {
+		Serializer<SerializedReferenceType> serializer = compiler.compile(CompiledObject.class, fields(CompiledObject.class, "stringField"))
+			.newSerializer(facade);
+		SerializedSet set = new SerializedSet(CompiledObject.class);
+
+		serializer.populate(set, new CompiledObject("Foo", 1));
+
+		assertThat(set).isEmpty();
+	}
+
+	private static List<Field> fields(Class<?> clazz, String... names) throws NoSuchFieldException {
+		List<Field> fields = new ArrayList<>();
+		for (String name : names) {
+			Field field = getDeclaredField(clazz, name);
+			field.setAccessible(true);
+			fields.add(field);
+		}
+		return fields;
+	}
+
+	@SuppressWarnings("unused")
+	private static class CompiledObject {
+		private static String staticField = "static";
+		private String stringField;
+		private int intField;
+
+		public CompiledObject(String stringField, int intField) {
+			this.stringField = stringField;
+			this.intField = intField;
+		}
+
+	}
+
+	@SuppressWarnings("unused")
+	private static class SubObject extends CompiledObject {
+		private String subField;
+
+		public SubObject(String stringField, int intField, String subField) {
+			super(stringField, intField);
+			this.subField = subField;
+		}
+
+	}
+
+}
@@ -121,4 +121,12 @@ public class ArrayMatcherTest {
 			+ "mismatching elements <[., found 1 elements surplus [was \"A\"]]>");
 	}
 
+	@Test
+	public void testMatchesSafelyTruncated() throws Exception {
+		assertThat(arrayContaining(String.class, "A", "b").truncated().matchesSafely(new String[] { "A", "b" })).isTrue();
+		assertThat(arrayContaining(String.class, "A", "b").truncated().matchesSafely(new String[] { "A", "b", "C" })).isTrue();
+		assertThat(arrayContaining(String.class, "A", "b").truncated().matchesSafely(new String[] { "A" })).isFalse();
+		assertThat(arrayContaining(String.class).truncated().matchesSafely(new String[] { "A" })).isTrue();
+	}
+
 }
@@ -127,4 +127,21 @@ public class ContainsInOrderMatcherTest {
 			+ "]>");
 	}
 
+	@Test
+	public void testMatchesSafelyTruncated() throws Exception {
+		assertThat(containsInOrder(String.class, "A", "b").truncated().matchesSafely(asList("A", "b"))).isTrue();
+		assertThat(containsInOrder(String.class, "A", "b").truncated().matchesSafely(asList("A", "b", "C"))).isTrue();
+		assertThat(containsInOrder(String.class, "A", "b").truncated().matchesSafely(asList("A"))).isFalse();
+		assertThat(containsInOrder(String.class, "A", "b").truncated().matchesSafely(asList("b", "A", "C"))).isFalse();
+	}
+
+	@Test
+	public void testDescribeToTruncated() throws Exception {
+		StringDescription description = new StringDescription();
+
+		containsInOrder(String.class, "A").truncated().describeTo(description);
+
+		assertThat(description.toString()).isEqualTo("containing in sequence [<\"A\">] followed by any elements");
+	}
+
 }
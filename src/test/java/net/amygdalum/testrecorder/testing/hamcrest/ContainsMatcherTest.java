@@ -117,4 +117,11 @@ public class ContainsMatcherTest {
             + "]>");
     }
 
+    @Test
+    public void testMatchesSafelyTruncated() throws Exception {
+        assertThat(contains(String.class, "A", "b").truncated().matchesSafely(asList("b", "A"))).isTrue();
+        assertThat(contains(String.class, "A", "b").truncated().matchesSafely(asList("C", "b", "A"))).isTrue();
+        assertThat(contains(String.class, "A", "b").truncated().matchesSafely(asList("C", "A"))).isFalse();
+    }
+
 }
@@ -254,4 +254,15 @@ public class MapMatcherTest {
         assertThat(description.toString()).isEqualTo("unmatched entries {<was null=was <4>>, <was \"c\"=was null>}");
     }
 
+    @Test
+    public void testMatchesTruncated() throws Exception {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("A", 3);
+        map.put("b", 4);
+
+        assertThat(containsEntries(String.class, Integer.class).entry("A", 3).truncated().matches(map)).isTrue();
+        assertThat(containsEntries(String.class, Integer.class).entry("A", 4).truncated().matches(map)).isFalse();
+        assertThat(containsEntries(String.class, Integer.class).entry("A", 3).matches(map)).isFalse();
+    }
+
 }
@@ -132,5 +132,13 @@ public class PrimitiveArrayMatcherTest {
         return (short) i;
     }
 
+    @Test
+    public void testMatchesSafelyTruncated() throws Exception {
+        assertThat(intArrayContaining(1, 2).truncated().matches(new int[] { 1, 2 })).isTrue();
+        assertThat(intArrayContaining(1, 2).truncated().matches(new int[] { 1, 2, 3 })).isTrue();
+        assertThat(intArrayContaining(1, 2).truncated().matches(new int[] { 1 })).isFalse();
+        assertThat(intArrayContaining(1, 2).truncated().matches(new int[] { 2, 1, 3 })).isFalse();
+        assertThat(intArrayContaining(1, 2).truncated().matches(new long[] { 1, 2, 3 })).isFalse();
+    }
 
 }
@@ -0,0 +1,113 @@
+package net.amygdalum.testrecorder.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class GenerationalCacheTest {
+
+	@Test
+	public void testComputeIfAbsent() throws Exception {
+		GenerationalCache<String, String> cache = new GenerationalCache<>(10);
+
+		String value = cache.computeIfAbsent("key", key -> new String("value"));
+
+		assertThat(value).isEqualTo("value");
+		assertThat(cache.computeIfAbsent("key", key -> new String("other"))).isSameAs(value);
+	}
+
+	@Test
+	public void testGetPutRemove() throws Exception {
+		GenerationalCache<String, String> cache = new GenerationalCache<>(10);
+
+		assertThat(cache.get("key")).isNull();
+		assertThat(cache.isEmpty()).isTrue();
+
+		cache.put("key", "value");
+
+		assertThat(cache.get("key")).isEqualTo("value");
+		assertThat(cache.isEmpty()).isFalse();
+
+		cache.remove("key");
+
+		assertThat(cache.get("key")).isNull();
+		assertThat(cache.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testGetPromotes() throws Exception {
+		GenerationalCache<Integer, String> cache = new GenerationalCache<>(4);
+		cache.put(0, "value");
+
+		for (int i = 1; i < 100; i++) {
+			cache.put(i, "value" + i);
+			assertThat(cache.get(0)).isEqualTo("value");
+		}
+		assertThat(cache.size()).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	public void testBounded() throws Exception {
+		GenerationalCache<Integer, String> cache = new GenerationalCache<>(10);
+
+		for (int i = 0; i < 1000; i++) {
+			cache.computeIfAbsent(i, key -> "value" + key);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	public void testEvictsUnused() throws Exception {
+		GenerationalCache<Integer, String> cache = new GenerationalCache<>(4);
+		String value = cache.computeIfAbsent(0, key -> new String("value"));
+
+		for (int i = 1; i < 10; i++) {
+			cache.computeIfAbsent(i, key -> "value" + key);
+		}
+
+		assertThat(cache.computeIfAbsent(0, key -> new String("value"))).isNotSameAs(value);
+	}
+
+	@Test
+	public void testKeepsFrequentlyUsed() throws Exception {
+		GenerationalCache<Integer, String> cache = new GenerationalCache<>(4);
+		String value = cache.computeIfAbsent(0, key -> new String("value"));
+
+		for (int i = 1; i < 100; i++) {
+			cache.computeIfAbsent(i, key -> "value" + key);
+			assertThat(cache.computeIfAbsent(0, key -> new String("value"))).isSameAs(value);
+		}
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		GenerationalCache<Integer, String> cache = new GenerationalCache<>(100);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10000; i++) {
+						int key = i % 500;
+						assertThat(cache.computeIfAbsent(key, k -> "value" + k)).isEqualTo("value" + key);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(100 + 4);
+	}
+
+}
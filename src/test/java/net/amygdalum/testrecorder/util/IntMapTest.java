@@ -0,0 +1,79 @@
+package net.amygdalum.testrecorder.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class IntMapTest {
+
+	@Test
+	public void testEmpty() throws Exception {
+		IntMap<String> map = new IntMap<>();
+
+		assertThat(map.isEmpty()).isTrue();
+		assertThat(map.size()).isEqualTo(0);
+		assertThat(map.get(0)).isNull();
+		assertThat(map.containsKey(42)).isFalse();
+	}
+
+	@Test
+	public void testPutGet() throws Exception {
+		IntMap<String> map = new IntMap<>();
+
+		assertThat(map.put(0, "zero")).isNull();
+		assertThat(map.put(-1, "minus one")).isNull();
+		assertThat(map.put(42, "fortytwo")).isNull();
+
+		assertThat(map.size()).isEqualTo(3);
+		assertThat(map.get(0)).isEqualTo("zero");
+		assertThat(map.get(-1)).isEqualTo("minus one");
+		assertThat(map.get(42)).isEqualTo("fortytwo");
+		assertThat(map.get(43)).isNull();
+	}
+
+	@Test
+	public void testPutReplaces() throws Exception {
+		IntMap<String> map = new IntMap<>();
+		map.put(42, "old");
+
+		assertThat(map.put(42, "new")).isEqualTo("old");
+		assertThat(map.size()).isEqualTo(1);
+		assertThat(map.get(42)).isEqualTo("new");
+	}
+
+	@Test
+	public void testPutNull() throws Exception {
+		IntMap<String> map = new IntMap<>();
+
+		assertThatThrownBy(() -> map.put(42, null)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testGrow() throws Exception {
+		IntMap<Integer> map = new IntMap<>(2);
+		for (int i = 0; i < 10000; i++) {
+			map.put(i * 31, i);
+		}
+
+		assertThat(map.size()).isEqualTo(10000);
+		for (int i = 0; i < 10000; i++) {
+			assertThat(map.get(i * 31)).isEqualTo(i);
+		}
+		assertThat(map.get(1)).isNull();
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		IntMap<String> map = new IntMap<>();
+		map.put(1, "one");
+		map.put(2, "two");
+
+		map.clear();
+
+		assertThat(map.isEmpty()).isTrue();
+		assertThat(map.get(1)).isNull();
+		assertThat(map.get(2)).isNull();
+	}
+
+}
@@ -100,6 +100,30 @@ public class SerializedArrayTest {
 		assertThat(array.referencedValues()).hasSize(2);
 	}
 
+	@Test
+	public void testPrimitiveArray() throws Exception {
+		int[] ints = new int[] { 1, 2 };
+		SerializedArray array = new SerializedArray(int[].class).withPrimitiveArray(ints);
+		ints[0] = 0;
+
+		assertThat(array.isPrimitiveArray()).isTrue();
+		assertThat((int[]) array.getPrimitiveArray()).containsExactly(1, 2);
+		assertThat(array.getArray()).containsExactly(literal(int.class, 1), literal(int.class, 2));
+		assertThat(array.getArrayAsList()).containsExactly(literal(int.class, 1), literal(int.class, 2));
+		assertThat(array.referencedValues()).hasSize(2);
+		assertThat(array.toString()).isEqualTo("<1, 2>");
+	}
+
+	@Test
+	public void testAddToPrimitiveArray() throws Exception {
+		SerializedArray array = new SerializedArray(int[].class).withPrimitiveArray(new int[] { 1 });
+		array.add(literal(int.class, 2));
+
+		assertThat(array.isPrimitiveArray()).isFalse();
+		assertThat(array.getPrimitiveArray()).isNull();
+		assertThat(array.getArray()).containsExactly(literal(int.class, 1), literal(int.class, 2));
+	}
+
 	@Test
 	public void testGetArrayAsList() throws Exception {
 		SerializedArray array = new SerializedArray(String[].class);
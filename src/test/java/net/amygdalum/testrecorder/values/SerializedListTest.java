@@ -362,6 +362,36 @@ public class SerializedListTest {
 		assertThat(list.subList(2, 4)).isEqualTo(asList(literal("other"), literal("last")));
 	}
 
+	@Test
+	public void testSpillTo() throws Exception {
+		try (SpillStore store = SpillStore.temporary()) {
+			SerializedList list = new SerializedList(ArrayList.class).withResult(List.class);
+			list.add(literal("first"));
+
+			list.spillTo(store);
+			for (int i = 1; i < 2000; i++) {
+				list.add(literal(i));
+			}
+
+			assertThat(list).hasSize(2000);
+			assertThat(list.get(0)).isEqualTo(literal("first"));
+			assertThat(list.get(1999)).isEqualTo(literal(1999));
+			assertThat(list.stream().skip(1)).containsSequence(literal(1), literal(2), literal(3));
+			assertThat(list.referencedValues()).hasSize(2000 - SpilledValues.CHUNK_SIZE);
+		}
+	}
+
+	@Test
+	public void testSpillToNull() throws Exception {
+		SerializedList list = new SerializedList(ArrayList.class).withResult(List.class);
+
+		list.spillTo(null);
+		list.add(literal("string"));
+		list.set(0, literal("other"));
+
+		assertThat(list).containsExactly(literal("other"));
+	}
+
 	@Test
 	public void testToString0() throws Exception {
 		SerializedList list = new SerializedList(ArrayList.class).withResult(List.class);
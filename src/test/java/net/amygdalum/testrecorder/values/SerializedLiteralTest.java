@@ -4,6 +4,8 @@ import static net.amygdalum.testrecorder.deserializers.DefaultDeserializerContex
 import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Collections;
+
 import org.junit.jupiter.api.Test;
 
 import net.amygdalum.testrecorder.deserializers.TestValueVisitor;
@@ -18,6 +20,28 @@ public class SerializedLiteralTest {
 		assertThat(testvalue).isSameAs(value);
 	}
 
+	@Test
+	public void testLiteralLongStringsAreNotInterned() throws Exception {
+		String longString = String.join("", Collections.nCopies(SerializedLiteral.MAX_INTERNED_LENGTH + 1, "x"));
+		SerializedLiteral value = literal(longString);
+		SerializedLiteral testvalue = literal(longString);
+
+		assertThat(testvalue).isNotSameAs(value);
+		assertThat(testvalue).isEqualTo(value);
+	}
+
+	@Test
+	public void testEquals() throws Exception {
+		assertThat(literal("string")).isEqualTo(literal("string"));
+		assertThat(literal(int.class, 1)).isEqualTo(literal(int.class, 1));
+		assertThat(literal(int.class, 1).hashCode()).isEqualTo(literal(int.class, 1).hashCode());
+		assertThat(literal("string")).isNotEqualTo(literal("other"));
+		assertThat(literal(int.class, 1)).isNotEqualTo(literal(int.class, 2));
+		assertThat(literal(int.class, 1)).isNotEqualTo(literal(long.class, 1l));
+		assertThat(literal(int.class, 1)).isNotEqualTo(null);
+		assertThat(literal(int.class, 1)).isNotEqualTo(SerializedNull.nullInstance(int.class));
+	}
+
 	@Test
 	public void testGetResultType() throws Exception {
 		SerializedLiteral value = literal("string");
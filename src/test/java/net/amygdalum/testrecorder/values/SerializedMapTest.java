@@ -211,6 +211,25 @@ public class SerializedMapTest {
 		assertThat(map.get(literal("key"))).isEqualTo(literal("value"));
 	}
 
+	@Test
+	public void testSpillTo() throws Exception {
+		try (SpillStore store = SpillStore.temporary()) {
+			SerializedMap map = new SerializedMap(HashMap.class).withResult(Map.class);
+			map.put(literal("first"), literal(0));
+
+			map.spillTo(store);
+			for (int i = 1; i < 1000; i++) {
+				map.put(literal("key" + i), literal(i));
+			}
+
+			assertThat(map).hasSize(1000);
+			assertThat(map.get(literal("first"))).isEqualTo(literal(0));
+			assertThat(map.get(literal("key999"))).isEqualTo(literal(999));
+			assertThat(map.keySet().iterator().next()).isEqualTo(literal("first"));
+			assertThat(map.referencedValues()).hasSize(2000 - SpilledValues.CHUNK_SIZE);
+		}
+	}
+
 	@Test
 	public void testToString0() throws Exception {
 		SerializedMap map = new SerializedMap(HashMap.class).withResult(Map.class);
@@ -239,6 +239,23 @@ public class SerializedSetTest {
 		assertThat(set).isEmpty();
 	}
 
+	@Test
+	public void testSpillTo() throws Exception {
+		try (SpillStore store = SpillStore.temporary()) {
+			SerializedSet set = new SerializedSet(HashSet.class).withResult(Set.class);
+
+			set.spillTo(store);
+			for (int i = 0; i < 2000; i++) {
+				set.add(literal(i));
+			}
+
+			assertThat(set).hasSize(2000);
+			assertThat(set.iterator().next()).isEqualTo(literal(0));
+			assertThat(set.contains(literal(1500))).isTrue();
+			assertThat(set.referencedValues()).hasSize(2000 - SpilledValues.CHUNK_SIZE);
+		}
+	}
+
 	@Test
 	public void testToString0() throws Exception {
 		SerializedSet set = new SerializedSet(HashSet.class).withResult(Set.class);
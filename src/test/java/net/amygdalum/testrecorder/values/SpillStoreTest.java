@@ -0,0 +1,146 @@
+package net.amygdalum.testrecorder.values;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+import net.amygdalum.testrecorder.values.SpillStore.Location;
+
+public class SpillStoreTest {
+
+	private SpillStore store;
+
+	@BeforeEach
+	public void before() throws Exception {
+		store = SpillStore.temporary();
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void testIsSpillable() throws Exception {
+		assertThat(SpillStore.isSpillable(literal("string"))).isTrue();
+		assertThat(SpillStore.isSpillable(literal(int.class, 42))).isTrue();
+		assertThat(SpillStore.isSpillable(SerializedNull.nullInstance(String.class))).isFalse();
+		assertThat(SpillStore.isSpillable(new SerializedObject(Simple.class))).isFalse();
+	}
+
+	@Test
+	public void testWriteRead() throws Exception {
+		List<SerializedValue> values = asList(
+			literal("string"),
+			literal("ä€"),
+			literal(true),
+			literal('c'),
+			literal((byte) 1),
+			literal((short) 2),
+			literal(int.class, 3),
+			literal(4L),
+			literal(5.5f),
+			literal(6.5d));
+
+		Location location = store.write(values);
+
+		assertThat(store.read(location)).containsExactlyElementsOf(values);
+		assertThat(store.read(location).get(6).getResultType()).isEqualTo(int.class);
+	}
+
+	@Test
+	public void testWriteReadChunks() throws Exception {
+		List<Location> locations = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			locations.add(store.write(asList(literal(i), literal("chunk" + i))));
+		}
+
+		assertThat(store.size()).isGreaterThan(0);
+		assertThat(store.read(locations.get(7))).containsExactly(literal(7), literal("chunk7"));
+		assertThat(store.read(locations.get(2))).containsExactly(literal(2), literal("chunk2"));
+	}
+
+	@Test
+	public void testWriteLongString() throws Exception {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			buffer.append((char) ('a' + i % 26));
+		}
+		String string = buffer.toString();
+
+		Location location = store.write(asList(literal(string)));
+
+		assertThat(((SerializedLiteral) store.read(location).get(0)).getValue()).isEqualTo(string);
+	}
+
+	@Test
+	public void testRotatesSegments() throws Exception {
+		try (SpillStore store = new SpillStore(1)) {
+			List<Location> locations = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				locations.add(store.write(asList(literal("chunk" + i), literal("of segment" + i))));
+			}
+
+			assertThat(store.segments()).isEqualTo(10);
+			assertThat(store.read(locations.get(3))).containsExactly(literal("chunk3"), literal("of segment3"));
+		}
+	}
+
+	@Test
+	public void testDeletesReleasedSegments() throws Exception {
+		try (SpillStore store = new SpillStore(1)) {
+			Location kept = store.write(asList(literal("kept"), literal("kept chunk")));
+			for (int i = 0; i < 10; i++) {
+				store.write(asList(literal("chunk" + i), literal("of segment" + i)));
+			}
+
+			for (int i = 0; i < 100 && store.segments() > 3; i++) {
+				System.gc();
+				Thread.sleep(10);
+				store.write(asList(literal("next"), literal("of next segment")));
+			}
+
+			assertThat(store.segments()).isLessThanOrEqualTo(3);
+			assertThat(store.read(kept)).containsExactly(literal("kept"), literal("kept chunk"));
+		}
+	}
+
+	@Test
+	public void testReclaimsReleasedSegmentsWithoutWriting() throws Exception {
+		try (SpillStore store = SpillStore.temporary(1, Integer.MAX_VALUE)) {
+			for (int i = 0; i < 10; i++) {
+				store.write(asList(literal("chunk" + i), literal("of segment" + i)));
+			}
+
+			for (int i = 0; i < 100 && store.segments() > 1; i++) {
+				System.gc();
+				Thread.sleep(10);
+			}
+
+			assertThat(store.segments()).isLessThanOrEqualTo(1);
+		}
+	}
+
+	@Test
+	public void testCloseDeletesSegments() throws Exception {
+		SpillStore store = new SpillStore(1);
+		for (int i = 0; i < 3; i++) {
+			store.write(asList(literal("chunk" + i), literal("of segment" + i)));
+		}
+
+		store.close();
+
+		assertThat(store.segments()).isEqualTo(0);
+		assertThat(store.size()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,116 @@
+package net.amygdalum.testrecorder.values;
+
+import static net.amygdalum.testrecorder.values.SerializedLiteral.literal;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.amygdalum.testrecorder.types.SerializedValue;
+import net.amygdalum.testrecorder.util.testobjects.Simple;
+
+public class SpilledValuesTest {
+
+	private SpillStore store;
+
+	@BeforeEach
+	public void before() throws Exception {
+		store = SpillStore.temporary();
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void testAddSpillsFullChunks() throws Exception {
+		SpilledValues values = new SpilledValues(store, 4);
+
+		for (int i = 0; i < 10; i++) {
+			values.add(literal(i));
+		}
+
+		assertThat(values).hasSize(10);
+		assertThat(values.spilledSize()).isEqualTo(8);
+		assertThat(values.inMemory()).containsExactly(literal(8), literal(9));
+		assertThat(store.size()).isGreaterThan(0);
+	}
+
+	@Test
+	public void testGet() throws Exception {
+		SpilledValues values = new SpilledValues(store, 4);
+		for (int i = 0; i < 10; i++) {
+			values.add(literal(i));
+		}
+
+		assertThat(values.get(0)).isEqualTo(literal(0));
+		assertThat(values.get(5)).isEqualTo(literal(5));
+		assertThat(values.get(9)).isEqualTo(literal(9));
+		assertThat(values.get(1)).isEqualTo(literal(1));
+		assertThatThrownBy(() -> values.get(10)).isInstanceOf(IndexOutOfBoundsException.class);
+	}
+
+	@Test
+	public void testIterator() throws Exception {
+		SpilledValues values = new SpilledValues(store, 4);
+		List<SerializedValue> expected = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			values.add(literal("value" + i));
+			expected.add(literal("value" + i));
+		}
+
+		assertThat(values).containsExactlyElementsOf(expected);
+	}
+
+	@Test
+	public void testKeepsChunksWithReferencesInMemory() throws Exception {
+		SpilledValues values = new SpilledValues(store, 2);
+		SerializedObject object = new SerializedObject(Simple.class);
+
+		values.add(literal(1));
+		values.add(object);
+		values.add(literal(2));
+		values.add(literal(3));
+
+		assertThat(values.spilledSize()).isEqualTo(2);
+		assertThat(values.inMemory()).containsExactly(literal(1), object);
+		assertThat(values.get(1)).isSameAs(object);
+		assertThat(values).containsExactly(literal(1), object, literal(2), literal(3));
+	}
+
+	@Test
+	public void testIsExhaustedByChunksKeptInMemory() throws Exception {
+		try (SpillStore limited = new SpillStore(SpillStore.SEGMENT_SIZE, 4)) {
+			SpilledValues values = new SpilledValues(limited, 2);
+			SerializedObject object = new SerializedObject(Simple.class);
+
+			values.add(literal(1));
+			values.add(literal(2));
+			values.add(object);
+			values.add(literal(3));
+			assertThat(values.isExhausted()).isFalse();
+
+			values.add(object);
+			assertThat(values.isExhausted()).isFalse();
+
+			values.add(literal(4));
+			assertThat(values.isExhausted()).isTrue();
+		}
+	}
+
+	@Test
+	public void testIsAppendOnly() throws Exception {
+		SpilledValues values = new SpilledValues(store, 2);
+		values.add(literal(1));
+
+		assertThatThrownBy(() -> values.set(0, literal(2))).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> values.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+}